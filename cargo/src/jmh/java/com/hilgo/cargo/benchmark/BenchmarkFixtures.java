@@ -0,0 +1,64 @@
+package com.hilgo.cargo.benchmark;
+
+import java.time.LocalDateTime;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hilgo.cargo.entity.Cargo;
+import com.hilgo.cargo.entity.Distributor;
+import com.hilgo.cargo.entity.Location;
+import com.hilgo.cargo.entity.Measure;
+import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.entity.enums.Roles;
+import com.hilgo.cargo.entity.enums.Size;
+import com.hilgo.cargo.service.JwtService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Benchmark'ların ortak verileri. Servisler Spring context'i olmadan, testlerdeki gibi
+ * elle kurulur; böylece ölçülen süre yalnızca sıcak yolun kendisidir.
+ */
+final class BenchmarkFixtures {
+
+	// application.properties'teki ile aynı uzunlukta (256 bit) sabit bir anahtar
+	static final String SECRET = "kfN1Dw/4e58EeF+9eJYb8TxP9TDPDeeHKhktwvGuUrA=";
+
+	private BenchmarkFixtures() {
+	}
+
+	static JwtService jwtService() {
+		JwtService jwtService = new JwtService(new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(jwtService, "SECRET_KEY", SECRET);
+		ReflectionTestUtils.setField(jwtService, "cacheMaximumSize", 10_000L);
+		ReflectionTestUtils.invokeMethod(jwtService, "init");
+		return jwtService;
+	}
+
+	static Distributor distributor() {
+		Distributor distributor = new Distributor();
+		distributor.setId(42L);
+		distributor.setUsername("bench-distributor");
+		distributor.setPhoneNumber("+905550000000");
+		distributor.setRoles(Roles.DISTRIBUTOR);
+		distributor.setTokenVersion(3);
+		return distributor;
+	}
+
+	static Cargo cargo(long id, Distributor distributor) {
+		LocalDateTime now = LocalDateTime.of(2025, 5, 1, 12, 0);
+		Cargo cargo = new Cargo();
+		cargo.setId(id);
+		cargo.setDescription("Koli #" + id + ", kırılacak eşya");
+		cargo.setCargoSituation(CargoSituation.CREATED);
+		cargo.setPhoneNumber("+905551112233");
+		cargo.setVerificationCode("123456");
+		cargo.setSelfLocation(new Location(id, 41.0082 + id * 1e-4, 28.9784, now));
+		cargo.setTargetLocation(new Location(id + 1, 39.9334, 32.8597 - id * 1e-4, now));
+		cargo.setMeasure(new Measure(id, 12.5, 40.0, Size.M));
+		cargo.setDistributor(distributor);
+		cargo.setCreatedAt(now.minusMinutes(id));
+		cargo.setUpdatedAt(now);
+		return cargo;
+	}
+}
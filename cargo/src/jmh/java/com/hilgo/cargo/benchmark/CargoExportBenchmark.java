@@ -0,0 +1,107 @@
+package com.hilgo.cargo.benchmark;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hilgo.cargo.service.CargoExportService;
+
+/**
+ * Bir dağıtıcının arşivdeki geçmişinin CSV olarak akıtılması (ms/export). Fork küçük bir heap ile
+ * açılır: satırlar ya da çıktı bellekte birikirse ölçüm OutOfMemoryError ile düşer. Bellek içi H2
+ * sıralı sonucu heap'te tuttuğundan dosya tabanlı H2 kullanılır. Satır başına ayırma için -prof gc.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(jvmArgsAppend = "-Xmx96m")
+public class CargoExportBenchmark {
+
+	private static final long DISTRIBUTOR_ID = 1L;
+
+	@Param({ "1000000" })
+	public int rows;
+
+	private JdbcTemplate jdbcTemplate;
+	private CargoExportService exportService;
+
+	@Setup
+	public void setUp() {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:file:./target/jmh-h2/cargo-export;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+				+ "MAX_MEMORY_ROWS=10000");
+		dataSource.setUser("sa");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("drop all objects");
+		jdbcTemplate.execute("create table cargo_archive (id bigint primary key, distributor_id bigint, "
+				+ "description varchar(255), cargo_situation varchar(32), created_at timestamp, taking_time timestamp, "
+				+ "delivered_time timestamp, shipment_date timestamp, driver_id bigint, phone_number varchar(32), "
+				+ "self_latitude double, self_longitude double, target_latitude double, target_longitude double, "
+				+ "weight double, height double, size varchar(8))");
+		jdbcTemplate.execute("create index cargo_archive_distributor on cargo_archive (distributor_id, created_at, id)");
+		jdbcTemplate.execute("create table location (id bigint primary key, latitude double, longitude double)");
+		jdbcTemplate.execute("create table measure (id bigint primary key, weight double, height double, size varchar(8))");
+		jdbcTemplate.execute("create table cargo (id bigint primary key, description varchar(255), "
+				+ "cargo_situation varchar(32), created_at timestamp, taking_time timestamp, delivered_time timestamp, "
+				+ "driver_user_id bigint, distributor_user_id bigint, phone_number varchar(32), self_location_id bigint, "
+				+ "target_location_id bigint, measure_id bigint)");
+		jdbcTemplate.execute("create table shipment_sent (id bigint primary key, cargo_id bigint, date timestamp)");
+		// system_range'in sütunu X'tir
+		jdbcTemplate.update("insert into cargo_archive (id, distributor_id, description, cargo_situation, created_at, "
+				+ "shipment_date, self_latitude, self_longitude, weight, size) select \"X\", ?, 'archived cargo', "
+				+ "'DELIVERED', dateadd(minute, \"X\", timestamp '2020-01-01 00:00:00'), "
+				+ "dateadd(minute, \"X\" + 300, timestamp '2020-01-01 00:00:00'), 41.0, 29.0, 4.5, 'M' "
+				+ "from system_range(1, ?)", DISTRIBUTOR_ID, rows);
+
+		exportService = new CargoExportService(dataSource, new DataSourceTransactionManager(dataSource));
+		ReflectionTestUtils.setField(exportService, "fetchSize", 1000);
+		ReflectionTestUtils.setField(exportService, "maxConcurrent", 1);
+		ReflectionTestUtils.invokeMethod(exportService, "init");
+	}
+
+	@TearDown
+	public void tearDown() {
+		jdbcTemplate.execute("drop all objects delete files");
+	}
+
+	@Benchmark
+	public long exportCsv() {
+		CountingSink sink = new CountingSink();
+		Long exported = ReflectionTestUtils.invokeMethod(exportService, "write", DISTRIBUTOR_ID,
+				CargoExportService.Format.CSV, sink);
+		if (exported == null || exported != rows) {
+			throw new IllegalStateException("exported " + exported + " of " + rows);
+		}
+		return sink.bytes;
+	}
+
+	// Yazılanı tutmaz, sadece sayar
+	private static final class CountingSink extends OutputStream {
+
+		private long bytes;
+
+		@Override
+		public void write(int b) {
+			bytes++;
+		}
+
+		@Override
+		public void write(byte[] buffer, int offset, int length) {
+			bytes += length;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package com.hilgo.cargo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.hilgo.cargo.entity.Cargo;
+import com.hilgo.cargo.entity.Distributor;
+import com.hilgo.cargo.response.CargoesResponse;
+import com.hilgo.cargo.response.ResponseLocation;
+import com.hilgo.cargo.response.ResponseMeasure;
+
+/**
+ * Bir sayfa Cargo'nun CargoesResponse'a çevrilmesi. fromEntity yüklenmiş entity grafından
+ * (konum, ölçü, dağıtıcı) kurar; fromProjection CARGOES_RESPONSE_SELECT'in satır başına
+ * çağırdığı düz constructor'dır.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CargoMappingBenchmark {
+
+	@Param({ "10", "100" })
+	public int pageSize;
+
+	private List<Cargo> page;
+
+	@Setup
+	public void setUp() {
+		Distributor distributor = BenchmarkFixtures.distributor();
+		page = new ArrayList<>(pageSize);
+		for (long id = 1; id <= pageSize; id++) {
+			page.add(BenchmarkFixtures.cargo(id, distributor));
+		}
+	}
+
+	@Benchmark
+	public List<CargoesResponse> fromEntity() {
+		List<CargoesResponse> responses = new ArrayList<>(page.size());
+		for (Cargo cargo : page) {
+			responses.add(new CargoesResponse(cargo.getId(), cargo.getDescription(),
+					new ResponseLocation(cargo.getSelfLocation().getLatitude(), cargo.getSelfLocation().getLongitude()),
+					new ResponseLocation(cargo.getTargetLocation().getLatitude(),
+							cargo.getTargetLocation().getLongitude()),
+					new ResponseMeasure(cargo.getMeasure().getWeight(), cargo.getMeasure().getHeight(),
+							cargo.getMeasure().getSize()),
+					cargo.getCargoSituation(), cargo.getPhoneNumber(), cargo.getDistributor().getPhoneNumber(),
+					cargo.getCreatedAt(), cargo.getUpdatedAt(), cargo.getVerificationCode()));
+		}
+		return responses;
+	}
+
+	@Benchmark
+	public List<CargoesResponse> fromProjection() {
+		List<CargoesResponse> responses = new ArrayList<>(page.size());
+		for (Cargo cargo : page) {
+			responses.add(new CargoesResponse(cargo.getId(), cargo.getDescription(),
+					cargo.getSelfLocation().getLatitude(), cargo.getSelfLocation().getLongitude(),
+					cargo.getTargetLocation().getLatitude(), cargo.getTargetLocation().getLongitude(),
+					cargo.getMeasure().getWeight(), cargo.getMeasure().getHeight(), cargo.getMeasure().getSize(),
+					cargo.getCargoSituation(), cargo.getPhoneNumber(), cargo.getDistributor().getPhoneNumber(),
+					cargo.getCreatedAt(), cargo.getUpdatedAt(), cargo.getVerificationCode()));
+		}
+		return responses;
+	}
+}
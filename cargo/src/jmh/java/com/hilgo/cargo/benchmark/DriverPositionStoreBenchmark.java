@@ -0,0 +1,45 @@
+package com.hilgo.cargo.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hilgo.cargo.service.DriverPositionStore;
+
+/**
+ * 20k sürücüye dağılan konum ping'lerinin 8 eşzamanlı yazıcıyla DriverPositionStore'a alınma
+ * hızı (/driver/location). Saniyede yüz binlerce ping'in üzerinde kalmalı.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class DriverPositionStoreBenchmark {
+
+	private static final int DRIVERS = 20_000;
+
+	private DriverPositionStore store;
+
+	@Setup
+	public void setUp() {
+		store = new DriverPositionStore();
+		ReflectionTestUtils.setField(store, "stripeCount", 64);
+		ReflectionTestUtils.invokeMethod(store, "init");
+	}
+
+	@Benchmark
+	public boolean update() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		return store.update(1 + random.nextInt(DRIVERS), 36 + random.nextDouble() * 6, 26 + random.nextDouble() * 19,
+				System.currentTimeMillis());
+	}
+}
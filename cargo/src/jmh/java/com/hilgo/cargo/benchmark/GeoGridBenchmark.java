@@ -0,0 +1,47 @@
+package com.hilgo.cargo.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.hilgo.cargo.service.GeoGrid;
+
+/**
+ * Türkiye sınır kutusuna yayılmış açık kargolar üzerinde 10 km içindeki en yakın 50 kargo
+ * sorgusu (/driver/nearbyCargoes). Sorgu başına süre kargo sayısından çok yoğunlukla artmalı;
+ * medyan milisaniyenin altında kalmalı.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GeoGridBenchmark {
+
+	@Param({ "100000", "300000" })
+	public int cargoes;
+
+	private GeoGrid grid;
+	private final Random random = new Random(42);
+
+	@Setup
+	public void setUp() {
+		Random points = new Random(cargoes);
+		grid = new GeoGrid(0.05);
+		for (int i = 0; i < cargoes; i++) {
+			grid.put(i, 36 + points.nextDouble() * 6, 26 + points.nextDouble() * 19);
+		}
+	}
+
+	@Benchmark
+	public List<GeoGrid.Hit> nearby() {
+		return grid.nearby(36 + random.nextDouble() * 6, 26 + random.nextDouble() * 19, 10, 50);
+	}
+}
@@ -0,0 +1,86 @@
+package com.hilgo.cargo.benchmark;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hilgo.cargo.config.JwtAuthenticationFilter;
+import com.hilgo.cargo.entity.Distributor;
+import com.hilgo.cargo.repository.UserRepository;
+import com.hilgo.cargo.service.AuthenticatedUser;
+import com.hilgo.cargo.service.JwtService;
+import com.hilgo.cargo.service.PrincipalCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+
+/**
+ * Authorization başlıklı bir isteğin JwtAuthenticationFilter'dan tam geçişi: token cache'i,
+ * principal cache'i, SecurityContext'e yazma ve zincire devretme. Zincir hiçbir şey yapmaz,
+ * kullanıcı deposu mock'tur (principal cache ısındıktan sonra çağrılmaz).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtAuthenticationFilterBenchmark {
+
+	private JwtAuthenticationFilter filter;
+	private MockHttpServletRequest authenticated;
+	private MockHttpServletRequest anonymous;
+	private MockHttpServletResponse response;
+	private FilterChain chain;
+
+	@Setup
+	public void setUp() throws Exception {
+		JwtService jwtService = BenchmarkFixtures.jwtService();
+		Distributor user = BenchmarkFixtures.distributor();
+
+		UserRepository userRepository = mock(UserRepository.class);
+		when(userRepository.findPrincipalByUsername(anyString())).thenReturn(Optional.of(new AuthenticatedUser(
+				user.getUsername(), user.getId(), user.getRoles(), true, true, user.getTokenVersion())));
+		PrincipalCache principalCache = new PrincipalCache(userRepository, new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(principalCache, "ttl", Duration.ofMinutes(10));
+		ReflectionTestUtils.setField(principalCache, "maximumSize", 10_000L);
+		ReflectionTestUtils.invokeMethod(principalCache, "init");
+
+		filter = new JwtAuthenticationFilter(jwtService, principalCache);
+		authenticated = new MockHttpServletRequest("GET", "/distributor/getMyCargoes");
+		authenticated.addHeader("Authorization", "Bearer " + jwtService.generateToken(user));
+		anonymous = new MockHttpServletRequest("GET", "/auth/login");
+		response = new MockHttpServletResponse();
+		chain = (request, response) -> {
+		};
+	}
+
+	@Benchmark
+	public void bearerToken(Blackhole blackhole) throws ServletException, IOException {
+		// Filtre yalnızca boş context'e yazar; her istek yeni bir thread'deymiş gibi temizlenir
+		SecurityContextHolder.clearContext();
+		filter.doFilter(authenticated, response, chain);
+		blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+	}
+
+	@Benchmark
+	public void noToken() throws ServletException, IOException {
+		filter.doFilter(anonymous, response, chain);
+	}
+}
@@ -0,0 +1,66 @@
+package com.hilgo.cargo.benchmark;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.hilgo.cargo.entity.Distributor;
+import com.hilgo.cargo.service.JwtService;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+
+/**
+ * JwtService'in sıcak yolları. extractUsername ve isTokenValid doğrulanmış token cache'inden
+ * döner; parseUncached cache olmadan aynı token'ın her seferinde imza doğrulamalı parse maliyetidir.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtBenchmark {
+
+	private JwtService jwtService;
+	private Distributor user;
+	private String token;
+	private JwtParser parser;
+
+	@Setup
+	public void setUp() {
+		jwtService = BenchmarkFixtures.jwtService();
+		user = BenchmarkFixtures.distributor();
+		token = jwtService.generateToken(user);
+		jwtService.verify(token);
+		parser = Jwts.parserBuilder()
+				.setSigningKey(new SecretKeySpec(Base64.getDecoder().decode(BenchmarkFixtures.SECRET), "HmacSHA256"))
+				.build();
+	}
+
+	@Benchmark
+	public String generateToken() {
+		return jwtService.generateToken(user);
+	}
+
+	@Benchmark
+	public String extractUsername() {
+		return jwtService.extractUsername(token);
+	}
+
+	@Benchmark
+	public boolean isTokenValid() {
+		return jwtService.isTokenValid(token, user);
+	}
+
+	@Benchmark
+	public String parseUncached() {
+		return parser.parseClaimsJws(token).getBody().getSubject();
+	}
+}
@@ -0,0 +1,70 @@
+package com.hilgo.cargo.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hilgo.cargo.entity.Cargo;
+import com.hilgo.cargo.entity.Distributor;
+import com.hilgo.cargo.response.CargoesResponse;
+
+/**
+ * Kontrolcülerin getMyCargoes / getAllCargoes için kurduğu {data, meta} map'inin JSON'a
+ * yazılması. ObjectMapper, Spring Boot'un kullandığı builder ile (JavaTimeModule, ISO tarih) kurulur.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PageResponseSerializationBenchmark {
+
+	@Param({ "10", "100" })
+	public int pageSize;
+
+	private ObjectMapper objectMapper;
+	private Map<String, Object> response;
+
+	@Setup
+	public void setUp() {
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		Distributor distributor = BenchmarkFixtures.distributor();
+		List<CargoesResponse> data = new ArrayList<>(pageSize);
+		for (long id = 1; id <= pageSize; id++) {
+			Cargo cargo = BenchmarkFixtures.cargo(id, distributor);
+			data.add(new CargoesResponse(cargo.getId(), cargo.getDescription(), cargo.getSelfLocation().getLatitude(),
+					cargo.getSelfLocation().getLongitude(), cargo.getTargetLocation().getLatitude(),
+					cargo.getTargetLocation().getLongitude(), cargo.getMeasure().getWeight(),
+					cargo.getMeasure().getHeight(), cargo.getMeasure().getSize(), cargo.getCargoSituation(),
+					cargo.getPhoneNumber(), distributor.getPhoneNumber(), cargo.getCreatedAt(), cargo.getUpdatedAt(),
+					cargo.getVerificationCode()));
+		}
+		// DistributorController.getMyCargoes ile aynı şekil
+		Map<String, Object> meta = new HashMap<String, Object>();
+		meta.put("currentPage", 0);
+		meta.put("totalItems", 1_000L);
+		meta.put("pageSize", pageSize);
+		meta.put("isFirst", true);
+		meta.put("isLast", false);
+		response = new HashMap<String, Object>();
+		response.put("data", data);
+		response.put("meta", meta);
+	}
+
+	@Benchmark
+	public byte[] writeBytes() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(response);
+	}
+}
@@ -0,0 +1,45 @@
+package com.hilgo.cargo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Kayıt (encode) ve giriş (matches) maliyetinin BCrypt gücüne göre değişimi. Uygulama
+ * varsayılan gücü (10) kullanır; her +1 süreyi yaklaşık iki katına çıkarır.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PasswordEncoderBenchmark {
+
+	@Param({ "4", "8", "10", "12" })
+	public int strength;
+
+	private BCryptPasswordEncoder encoder;
+	private String hash;
+
+	@Setup
+	public void setUp() {
+		encoder = new BCryptPasswordEncoder(strength);
+		hash = encoder.encode("s3cret-Passw0rd");
+	}
+
+	@Benchmark
+	public String encode() {
+		return encoder.encode("s3cret-Passw0rd");
+	}
+
+	@Benchmark
+	public boolean matches() {
+		return encoder.matches("s3cret-Passw0rd", hash);
+	}
+}
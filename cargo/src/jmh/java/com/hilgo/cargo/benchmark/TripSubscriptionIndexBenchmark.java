@@ -0,0 +1,92 @@
+package com.hilgo.cargo.benchmark;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hilgo.cargo.entity.Driver;
+import com.hilgo.cargo.entity.TripSubscription;
+import com.hilgo.cargo.entity.enums.CarType;
+import com.hilgo.cargo.entity.enums.Size;
+import com.hilgo.cargo.service.TripSubscriptionIndex;
+
+/**
+ * Yeni kargo başına eşleştirme maliyeti. Rotalar ülke geneline yayılmış, kargolar alış noktasından
+ * en fazla ~300 km uzağa gidiyor; maliyet abonelik sayısıyla değil eşleşme sayısıyla artmalı.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TripSubscriptionIndexBenchmark {
+
+	private static final int CARGOES = 2_000;
+
+	@Param({ "10000", "100000" })
+	private int subscriptions;
+
+	private TripSubscriptionIndex index;
+	private double[][] pickups;
+	private double[][] drops;
+	private LocalDateTime createdAt;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		index = new TripSubscriptionIndex(null);
+		ReflectionTestUtils.setField(index, "cellDegrees", 0.5);
+		ReflectionTestUtils.setField(index, "cargoTtl", Duration.ofHours(72));
+		ReflectionTestUtils.invokeMethod(index, "init");
+		Random routes = new Random(subscriptions);
+		for (long id = 1; id <= subscriptions; id++) {
+			index.register(subscription(id, anywhere(routes), anywhere(routes), 5 + routes.nextInt(60)));
+		}
+
+		Random random = new Random(9);
+		pickups = new double[CARGOES][];
+		drops = new double[CARGOES][];
+		for (int i = 0; i < CARGOES; i++) {
+			pickups[i] = anywhere(random);
+			drops[i] = new double[] { pickups[i][0] + (random.nextDouble() - 0.5) * 5,
+					pickups[i][1] + (random.nextDouble() - 0.5) * 5 };
+		}
+		createdAt = LocalDateTime.now();
+	}
+
+	@Benchmark
+	public int match() {
+		int i = next++ % CARGOES;
+		return index.match(pickups[i][0], pickups[i][1], drops[i][0], drops[i][1], Size.M, createdAt).size();
+	}
+
+	private static TripSubscription subscription(long id, double[] from, double[] to, double detourKm) {
+		Driver driver = new Driver();
+		driver.setId(id);
+		TripSubscription subscription = new TripSubscription();
+		subscription.setId(id);
+		subscription.setDriver(driver);
+		subscription.setOriginLatitude(from[0]);
+		subscription.setOriginLongitude(from[1]);
+		subscription.setDestinationLatitude(to[0]);
+		subscription.setDestinationLongitude(to[1]);
+		subscription.setDetourKm(detourKm);
+		subscription.setAvailableUntil(LocalDateTime.now().plusDays(3));
+		subscription.setCarType(CarType.TRUCK);
+		subscription.setActive(true);
+		return subscription;
+	}
+
+	private static double[] anywhere(Random random) {
+		return new double[] { 36 + random.nextDouble() * 6, 26 + random.nextDouble() * 19 };
+	}
+}
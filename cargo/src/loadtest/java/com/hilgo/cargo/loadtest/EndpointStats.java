@@ -0,0 +1,93 @@
+package com.hilgo.cargo.loadtest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Tek bir endpoint'in gecikme histogramı (mikrosaniye, 3 anlamlı basamak) ve sonuç sayaçları.
+ * Kayıt thread'ler arası kilitsizdir; rapor aralığında biriken kısım interval() ile alınır.
+ */
+final class EndpointStats {
+
+	// 1 us .. 5 dk; üstü en yüksek değere kırpılır
+	private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+	private final String name;
+	private final Recorder recorder = new Recorder(HIGHEST_MICROS, 3);
+	private final Histogram total = new Histogram(HIGHEST_MICROS, 3);
+	private Histogram recycled;
+
+	private final LongAdder ok = new LongAdder();
+	// 409: yarışı kaybeden takeCargo gibi beklenen çakışmalar, hata sayılmaz
+	private final LongAdder conflicts = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+
+	EndpointStats(String name) {
+		this.name = name;
+	}
+
+	String name() {
+		return name;
+	}
+
+	void record(long startNanos, long endNanos, int status) {
+		recorder.recordValue(Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(endNanos - startNanos), 1), HIGHEST_MICROS));
+		if (status < 400) {
+			ok.increment();
+		} else if (status == 409) {
+			conflicts.increment();
+		} else {
+			errors.increment();
+		}
+	}
+
+	// Bağlantı hatası ya da zaman aşımı: cevap yok, gecikmesi yine kaydedilir
+	void fail(long startNanos, long endNanos) {
+		recorder.recordValue(Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(endNanos - startNanos), 1), HIGHEST_MICROS));
+		failures.increment();
+	}
+
+	/**
+	 * Son çağrıdan bu yana kaydedilenleri döner; measured ise toplam histograma da ekler.
+	 * Tek bir raporlayıcı thread'inden çağrılır.
+	 */
+	synchronized Histogram interval(boolean measured) {
+		recycled = recorder.getIntervalHistogram(recycled);
+		if (measured) {
+			total.add(recycled);
+		}
+		return recycled;
+	}
+
+	synchronized Histogram total() {
+		return total;
+	}
+
+	// Isınma bittiğinde sayaçlar sıfırlanır; histogram zaten sadece ölçüm aralıklarını toplar
+	void resetCounters() {
+		ok.reset();
+		conflicts.reset();
+		errors.reset();
+		failures.reset();
+	}
+
+	long ok() {
+		return ok.sum();
+	}
+
+	long conflicts() {
+		return conflicts.sum();
+	}
+
+	long errors() {
+		return errors.sum();
+	}
+
+	long failures() {
+		return failures.sum();
+	}
+}
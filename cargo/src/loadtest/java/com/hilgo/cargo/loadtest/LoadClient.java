@@ -0,0 +1,103 @@
+package com.hilgo.cargo.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * JDK HttpClient üzerinde asenkron istemci. Her istek adıyla (ör. "POST /driver/takeCargo")
+ * bir EndpointStats'a kaydedilir; gecikme, çağıranın verdiği başlangıç anından ölçülür.
+ */
+final class LoadClient implements AutoCloseable {
+
+	private final URI baseUri;
+	private final Duration requestTimeout;
+	private final ExecutorService executor;
+	private final HttpClient httpClient;
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+	LoadClient(URI baseUri, Duration requestTimeout, int threads) {
+		this.baseUri = baseUri;
+		this.requestTimeout = requestTimeout;
+		this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "loadtest-client");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.httpClient = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(requestTimeout)
+				.executor(executor)
+				.build();
+	}
+
+	HttpRequest.Builder get(String path, String token) {
+		return request(path, token).GET();
+	}
+
+	HttpRequest.Builder post(String path, String token, Object body) {
+		HttpRequest.BodyPublisher publisher;
+		try {
+			publisher = body == null ? HttpRequest.BodyPublishers.noBody()
+					: HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException(e);
+		}
+		return request(path, token).header("Content-Type", "application/json").POST(publisher);
+	}
+
+	/**
+	 * İsteği gönderir ve sonucu endpoint'in istatistiğine yazar. startNanos açık modelde
+	 * varışın planlandığı andır: istemci geride kalsa da bekleme süresi gecikmeye dahil olur.
+	 */
+	CompletableFuture<HttpResponse<byte[]>> send(String endpoint, HttpRequest.Builder request, long startNanos) {
+		EndpointStats endpointStats = stats.computeIfAbsent(endpoint, EndpointStats::new);
+		return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+				.whenComplete((response, error) -> {
+					long end = System.nanoTime();
+					if (error != null) {
+						endpointStats.fail(startNanos, end);
+					} else {
+						endpointStats.record(startNanos, end, response.statusCode());
+					}
+				});
+	}
+
+	JsonNode json(HttpResponse<byte[]> response) {
+		try {
+			return objectMapper.readTree(response.body());
+		} catch (Exception e) {
+			return objectMapper.missingNode();
+		}
+	}
+
+	Collection<EndpointStats> stats() {
+		return stats.values();
+	}
+
+	private HttpRequest.Builder request(String path, String token) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path)).timeout(requestTimeout);
+		if (token != null) {
+			builder.header("Authorization", "Bearer " + token);
+		}
+		return builder;
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,160 @@
+package com.hilgo.cargo.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.hilgo.cargo.loadtest.LoadTestScripts.Script;
+
+/**
+ * Açık model yük üretici: varışlar sabit bir hızda (poisson ya da uniform aralıklarla)
+ * planlanır ve önceki isteklerin bitmesi beklenmez. Sunucu yavaşladığında istek kuyruğu büyür,
+ * planlanan varıştan ölçülen gecikme de bunu gösterir (coordinated omission yok). Aynı anda
+ * açık senaryo sayısı maxInFlight'ı aşarsa varış düşürülür ve ayrıca sayılır.
+ */
+final class LoadGenerator {
+
+	private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+
+	private final LoadClient client;
+	private final List<Script> scripts = new ArrayList<>();
+	private final List<String> names = new ArrayList<>();
+	private final int[] cumulativeWeights;
+	private final double rate;
+	private final boolean poisson;
+	private final int maxInFlight;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final LongAdder started = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+
+	LoadGenerator(LoadClient client, Map<String, Script> available, Map<String, Integer> weights, double rate,
+			String arrival, int maxInFlight) {
+		this.client = client;
+		List<Integer> cumulative = new ArrayList<>();
+		int sum = 0;
+		for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+			Script script = available.get(weight.getKey());
+			if (script == null) {
+				throw new IllegalArgumentException("Unknown script: " + weight.getKey());
+			}
+			if (weight.getValue() <= 0) {
+				continue;
+			}
+			sum += weight.getValue();
+			scripts.add(script);
+			names.add(weight.getKey());
+			cumulative.add(sum);
+		}
+		if (scripts.isEmpty()) {
+			throw new IllegalArgumentException("No script has a positive weight");
+		}
+		this.cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+		this.rate = rate;
+		this.poisson = "poisson".equalsIgnoreCase(arrival);
+		this.maxInFlight = maxInFlight;
+	}
+
+	/**
+	 * Isınma + ölçüm süresince yük üretir. Ölçüm bitince açık senaryoların bitmesi en fazla
+	 * drainTimeout kadar beklenir. Dönen değer ölçüm aralığının gerçek süresidir.
+	 */
+	Duration run(Duration warmup, Duration duration, Duration reportInterval, Duration drainTimeout) {
+		log.info("Running {} for {} warm-up + {} at {} arrivals/s ({})", names, warmup, duration, rate,
+				poisson ? "poisson" : "uniform");
+		long begin = System.nanoTime();
+		long measureFrom = begin + warmup.toNanos();
+		long end = measureFrom + duration.toNanos();
+		long nextReport = begin + reportInterval.toNanos();
+		boolean measuring = false;
+		long measuredStarted = 0;
+		long measuredDropped = 0;
+
+		long next = begin;
+		while (next < end) {
+			long now = System.nanoTime();
+			if (now >= nextReport) {
+				report(now - begin, measuring);
+				nextReport += reportInterval.toNanos();
+			}
+			if (!measuring && now >= measureFrom) {
+				// Isınmanın son aralığı toplam histograma girmez
+				for (EndpointStats stats : client.stats()) {
+					stats.interval(false);
+					stats.resetCounters();
+				}
+				measuredStarted = started.sum();
+				measuredDropped = dropped.sum();
+				measuring = true;
+			}
+			if (next > now) {
+				LockSupport.parkNanos(Math.min(next - now, nextReport - now));
+				continue;
+			}
+			arrive(next);
+			next += interval();
+		}
+		long drainUntil = System.nanoTime() + drainTimeout.toNanos();
+		while (inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+		}
+		long measured = System.nanoTime() - measureFrom;
+		report(System.nanoTime() - begin, true);
+		log.info("Started {} scenarios, dropped {} (max-in-flight {}), {} still open", started.sum() - measuredStarted,
+				dropped.sum() - measuredDropped, maxInFlight, inFlight.get());
+		return Duration.ofNanos(measured);
+	}
+
+	private void arrive(long intendedNanos) {
+		if (inFlight.incrementAndGet() > maxInFlight) {
+			inFlight.decrementAndGet();
+			dropped.increment();
+			return;
+		}
+		started.increment();
+		try {
+			pick().run(client, intendedNanos).whenComplete((result, error) -> inFlight.decrementAndGet());
+		} catch (RuntimeException e) {
+			inFlight.decrementAndGet();
+			throw e;
+		}
+	}
+
+	private Script pick() {
+		int roll = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+		for (int i = 0; i < cumulativeWeights.length; i++) {
+			if (roll < cumulativeWeights[i]) {
+				return scripts.get(i);
+			}
+		}
+		return scripts.get(scripts.size() - 1);
+	}
+
+	private long interval() {
+		double seconds = poisson ? -Math.log(1 - ThreadLocalRandom.current().nextDouble()) / rate : 1 / rate;
+		return Math.max((long) (seconds * 1e9), 1);
+	}
+
+	private void report(long elapsedNanos, boolean measured) {
+		StringBuilder line = new StringBuilder(String.format("t=%3ds%s in-flight=%d",
+				TimeUnit.NANOSECONDS.toSeconds(elapsedNanos), measured ? "" : " (warm-up)", inFlight.get()));
+		for (EndpointStats stats : client.stats()) {
+			Histogram interval = stats.interval(measured);
+			if (interval.getTotalCount() > 0) {
+				line.append(String.format("  %s n=%d p99=%.1fms", stats.name(), interval.getTotalCount(),
+						interval.getValueAtPercentile(99) / 1000.0));
+			}
+		}
+		log.info(line.toString());
+	}
+}
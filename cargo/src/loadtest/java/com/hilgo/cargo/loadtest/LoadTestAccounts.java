@@ -0,0 +1,68 @@
+package com.hilgo.cargo.loadtest;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.hilgo.cargo.entity.enums.Roles;
+
+/**
+ * Tohumlanmış sürücü ve dağıtıcı hesapları. Token login script'i tarafından yenilenir.
+ */
+final class LoadTestAccounts {
+
+	static final class Account {
+
+		private final String username;
+		private final String password;
+		private final Roles role;
+		private volatile String token;
+
+		Account(String username, String password, Roles role, String token) {
+			this.username = username;
+			this.password = password;
+			this.role = role;
+			this.token = token;
+		}
+
+		String username() {
+			return username;
+		}
+
+		String password() {
+			return password;
+		}
+
+		Roles role() {
+			return role;
+		}
+
+		String token() {
+			return token;
+		}
+
+		void token(String token) {
+			this.token = token;
+		}
+	}
+
+	private final List<Account> drivers;
+	private final List<Account> distributors;
+
+	LoadTestAccounts(List<Account> drivers, List<Account> distributors) {
+		this.drivers = List.copyOf(drivers);
+		this.distributors = List.copyOf(distributors);
+	}
+
+	Account randomDriver() {
+		return drivers.get(ThreadLocalRandom.current().nextInt(drivers.size()));
+	}
+
+	Account randomDistributor() {
+		return distributors.get(ThreadLocalRandom.current().nextInt(distributors.size()));
+	}
+
+	Account randomAccount() {
+		int index = ThreadLocalRandom.current().nextInt(drivers.size() + distributors.size());
+		return index < drivers.size() ? drivers.get(index) : distributors.get(index - drivers.size());
+	}
+}
@@ -0,0 +1,150 @@
+package com.hilgo.cargo.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.util.StringUtils;
+
+import com.hilgo.cargo.CargoApplication;
+import com.hilgo.cargo.loadtest.LoadTestScripts.Script;
+import com.hilgo.cargo.service.SmtpStubServer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Uygulamayı "loadtest" profiliyle (bellek içi H2, MySQL modu; süreç içi SMTP stub'ı) rastgele
+ * bir portta başlatır, hesapları ve kargoları tohumlar, ardından HTTP üzerinden açık model yük
+ * uygular. Çalıştırma: mvn -Ploadtest verify -Dloadtest.args="--loadtest.rate=100 --loadtest.duration=2m"
+ * Ayarlar application-loadtest.properties'tedir, --loadtest.* argümanlarıyla ezilir.
+ * --loadtest.threading=platform,virtual aynı yükü iki thread modunda sırayla koşturup
+ * throughput ve p99'u yan yana yazar (virtual için JVM Java 21+ olmalı, bkz. -Dloadtest.java).
+ */
+public final class LoadTestApplication {
+
+	private static final Logger log = LoggerFactory.getLogger(LoadTestApplication.class);
+
+	private LoadTestApplication() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		// devtools test classpath'inde de var; yeniden başlatma main'i ikinci kez çalıştırırdı
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		String threading = new SimpleCommandLinePropertySource(args).getProperty("loadtest.threading");
+		if (!StringUtils.hasText(threading)) {
+			System.exit(launch(args).exitCode());
+		}
+
+		// Aynı yük her thread moduna sırayla uygulanır; her koşu kendi H2 veritabanını ve çıktı klasörünü kullanır.
+		// Koşular aynı JVM'de olduğundan sonrakiler ısınmış JIT'ten faydalanır: warmup'ı uzun tutun ya da sırayı çevirip tekrarlayın
+		Map<String, Map<String, Object>> summaries = new LinkedHashMap<>();
+		Path outputDir = null;
+		int exitCode = 0;
+		for (String mode : StringUtils.commaDelimitedListToStringArray(threading)) {
+			mode = mode.trim();
+			if (!mode.equals("platform") && !mode.equals("virtual")) {
+				throw new IllegalArgumentException("loadtest.threading accepts platform and virtual, got " + mode);
+			}
+			Result result = launch(append(args, "--spring.threads.virtual.enabled=" + mode.equals("virtual"),
+					"--loadtest.db-name=loadtest-" + mode, "--loadtest.run-name=" + mode));
+			summaries.put(mode, result.summary());
+			outputDir = result.outputDir();
+			exitCode = Math.max(exitCode, result.exitCode());
+		}
+		LoadTestReport.compare(summaries, outputDir, System.out);
+		System.exit(exitCode);
+	}
+
+	private static Result launch(String[] args) throws Exception {
+		try (SmtpStubServer smtp = new SmtpStubServer(0, 0)) {
+			ConfigurableApplicationContext context = new SpringApplicationBuilder(CargoApplication.class)
+					.profiles("loadtest")
+					.properties("loadtest.smtp-port=" + smtp.getPort())
+					.run(args);
+			try {
+				Result result = run(context);
+				log.info("SMTP stub received {} mails", smtp.getMessageCount());
+				return result;
+			} finally {
+				SpringApplication.exit(context);
+			}
+		}
+	}
+
+	private static Result run(ConfigurableApplicationContext context) throws Exception {
+		Environment env = context.getEnvironment();
+		URI baseUri = URI.create("http://localhost:" + env.getRequiredProperty("local.server.port"));
+		double rate = env.getProperty("loadtest.rate", Double.class, 50.0);
+		String arrival = env.getProperty("loadtest.arrival", "poisson");
+		Duration warmup = duration(env, "loadtest.warmup", "15s");
+		Duration duration = duration(env, "loadtest.duration", "60s");
+		Duration reportInterval = duration(env, "loadtest.report-interval", "5s");
+		Duration requestTimeout = duration(env, "loadtest.request-timeout", "10s");
+		int maxInFlight = env.getProperty("loadtest.max-in-flight", Integer.class, 512);
+		int clientThreads = env.getProperty("loadtest.client-threads", Integer.class, 4);
+		Path outputDir = Path.of(env.getProperty("loadtest.output-dir", "target/loadtest"));
+		String runName = env.getProperty("loadtest.run-name", "");
+		// spring.threads.virtual.enabled Java 17'de yok sayılır; raporda gerçekte kullanılan mod yazılır
+		String threading = Threading.VIRTUAL.isActive(env) ? "virtual" : "platform";
+		if (env.getProperty("spring.threads.virtual.enabled", Boolean.class, false) && threading.equals("platform")) {
+			log.warn("Virtual threads need Java 21+, running on platform threads (java {})", Runtime.version());
+		}
+
+		long start = System.nanoTime();
+		LoadTestAccounts accounts = LoadTestSeeder.seed(context);
+		log.info("Seeded accounts and cargoes in {} ms", (System.nanoTime() - start) / 1_000_000);
+
+		Map<String, Script> scripts = LoadTestScripts.create(accounts, LoadTestSeeder.PASSWORD);
+		Map<String, Integer> weights = new LinkedHashMap<>();
+		for (String name : scripts.keySet()) {
+			weights.put(name, env.getProperty("loadtest.mix." + name, Integer.class, 0));
+		}
+
+		Map<String, Object> settings = new LinkedHashMap<>();
+		settings.put("rate", rate);
+		settings.put("arrival", arrival);
+		settings.put("warmup", warmup.toString());
+		settings.put("duration", duration.toString());
+		settings.put("maxInFlight", maxInFlight);
+		settings.put("mix", weights);
+		settings.put("threading", threading);
+		settings.put("java", Runtime.version().toString());
+
+		try (LoadClient client = new LoadClient(baseUri, requestTimeout, clientThreads)) {
+			LoadGenerator generator = new LoadGenerator(client, scripts, weights, rate, arrival, maxInFlight);
+			Duration measured = generator.run(warmup, duration, reportInterval, requestTimeout);
+			Timer pinned = context.getBean(MeterRegistry.class).find("jvm.threads.virtual.pinned").timer();
+			settings.put("virtualThreadPinnedEvents", pinned != null ? pinned.count() : 0);
+			Map<String, Object> summary = LoadTestReport.write(client, measured, settings,
+					outputDir.resolve(runName), System.out);
+			boolean anySucceeded = client.stats().stream().anyMatch(stats -> stats.ok() > 0);
+			return new Result(anySucceeded ? 0 : 1, summary, outputDir);
+		}
+	}
+
+	private static String[] append(String[] args, String... extra) {
+		String[] all = Arrays.copyOf(args, args.length + extra.length);
+		System.arraycopy(extra, 0, all, args.length, extra.length);
+		return all;
+	}
+
+	private static Duration duration(Environment env, String key, String defaultValue) {
+		return DurationStyle.detectAndParse(env.getProperty(key, defaultValue));
+	}
+
+	private record Result(int exitCode, Map<String, Object> summary, Path outputDir) {
+	}
+}
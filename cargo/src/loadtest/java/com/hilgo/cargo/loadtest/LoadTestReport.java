@@ -0,0 +1,126 @@
+package com.hilgo.cargo.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Ölçüm aralığının özetini yazdırır; outputDir altına summary.json (sürümler arası karşılaştırma
+ * için) ve her endpoint için HdrHistogram'ın .hgrm yüzdelik dağılımını bırakır.
+ */
+final class LoadTestReport {
+
+	private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+	private LoadTestReport() {
+	}
+
+	static Map<String, Object> write(LoadClient client, Duration measured, Map<String, Object> settings,
+			Path outputDir, PrintStream out) throws IOException {
+		Files.createDirectories(outputDir);
+		double seconds = measured.toNanos() / 1e9;
+		List<EndpointStats> endpoints = new ArrayList<>(client.stats());
+		endpoints.sort(Comparator.comparing(EndpointStats::name));
+
+		out.printf("%n%-28s %9s %8s %9s %9s %9s %9s %9s %7s %7s %7s%n", "endpoint", "requests", "req/s", "p50 ms",
+				"p90 ms", "p99 ms", "p99.9 ms", "max ms", "409", "errors", "failed");
+		List<Map<String, Object>> rows = new ArrayList<>();
+		for (EndpointStats stats : endpoints) {
+			Histogram histogram = stats.total();
+			long count = histogram.getTotalCount();
+			Map<String, Object> row = new LinkedHashMap<>();
+			row.put("endpoint", stats.name());
+			row.put("requests", count);
+			row.put("requestsPerSecond", round(count / seconds));
+			for (double percentile : PERCENTILES) {
+				row.put("p" + String.valueOf(percentile).replace(".0", "").replace('.', '_') + "Millis",
+						round(histogram.getValueAtPercentile(percentile) / 1000.0));
+			}
+			row.put("maxMillis", round(histogram.getMaxValue() / 1000.0));
+			row.put("ok", stats.ok());
+			row.put("conflicts", stats.conflicts());
+			row.put("errors", stats.errors());
+			row.put("failures", stats.failures());
+			rows.add(row);
+			out.printf("%-28s %9d %8.1f %9.1f %9.1f %9.1f %9.1f %9.1f %7d %7d %7d%n", stats.name(), count,
+					count / seconds, histogram.getValueAtPercentile(50) / 1000.0,
+					histogram.getValueAtPercentile(90) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+					histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0,
+					stats.conflicts(), stats.errors(), stats.failures());
+
+			String file = stats.name().replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "") + ".hgrm";
+			try (PrintStream hgrm = new PrintStream(Files.newOutputStream(outputDir.resolve(file)))) {
+				// Değerler mikrosaniye; 1000 ile bölünerek milisaniye yazılır
+				histogram.outputPercentileDistribution(hgrm, 1000.0);
+			}
+		}
+
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("measuredSeconds", round(seconds));
+		summary.put("settings", settings);
+		summary.put("endpoints", rows);
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+				.writeValue(outputDir.resolve("summary.json").toFile(), summary);
+		out.printf("%nResults written to %s%n", outputDir.toAbsolutePath());
+		return summary;
+	}
+
+	/**
+	 * loadtest.threading ile koşulan modların özetlerini endpoint bazında yan yana yazdırır ve
+	 * outputDir/comparison.json'a kaydeder. Hata sütunu 5xx ile zaman aşımı / bağlantı hatalarının toplamıdır.
+	 */
+	@SuppressWarnings("unchecked")
+	static void compare(Map<String, Map<String, Object>> summaries, Path outputDir, PrintStream out)
+			throws IOException {
+		Map<String, Map<String, Map<String, Object>>> byEndpoint = new TreeMap<>();
+		summaries.forEach((mode, summary) -> {
+			for (Map<String, Object> row : (List<Map<String, Object>>) summary.get("endpoints")) {
+				byEndpoint.computeIfAbsent((String) row.get("endpoint"), key -> new LinkedHashMap<>()).put(mode, row);
+			}
+		});
+
+		out.printf("%n%-28s %-9s %9s %9s %9s %9s %7s%n", "endpoint", "mode", "req/s", "p50 ms", "p99 ms", "p99.9 ms",
+				"errors");
+		byEndpoint.forEach((endpoint, rows) -> rows.forEach((mode, row) -> out.printf(
+				"%-28s %-9s %9.1f %9.1f %9.1f %9.1f %7d%n", endpoint, mode, row.get("requestsPerSecond"),
+				row.get("p50Millis"), row.get("p99Millis"), row.get("p99_9Millis"), errors(row))));
+
+		out.printf("%n%-9s %-9s %9s %7s %9s%n", "mode", "threads", "req/s", "errors", "pinned");
+		summaries.forEach((mode, summary) -> {
+			Map<String, Object> settings = (Map<String, Object>) summary.get("settings");
+			double requestsPerSecond = 0;
+			long errors = 0;
+			for (Map<String, Object> row : (List<Map<String, Object>>) summary.get("endpoints")) {
+				requestsPerSecond += ((Number) row.get("requestsPerSecond")).doubleValue();
+				errors += errors(row);
+			}
+			out.printf("%-9s %-9s %9.1f %7d %9s%n", mode, settings.get("threading"), requestsPerSecond, errors,
+					settings.get("virtualThreadPinnedEvents"));
+		});
+
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+				.writeValue(outputDir.resolve("comparison.json").toFile(), summaries);
+		out.printf("%nComparison written to %s%n", outputDir.resolve("comparison.json").toAbsolutePath());
+	}
+
+	private static long errors(Map<String, Object> row) {
+		return ((Number) row.get("errors")).longValue() + ((Number) row.get("failures")).longValue();
+	}
+
+	private static double round(double value) {
+		return Math.round(value * 100) / 100.0;
+	}
+}
@@ -0,0 +1,122 @@
+package com.hilgo.cargo.loadtest;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.hilgo.cargo.entity.enums.Roles;
+import com.hilgo.cargo.loadtest.LoadTestAccounts.Account;
+
+/**
+ * Senaryo script'leri. Her varışta loadtest.mix.* ağırlığına göre biri seçilir ve adımları
+ * sırayla çalışır; ilk isteğin gecikmesi planlanan varış anından, sonrakiler gönderildikleri
+ * andan ölçülür.
+ */
+final class LoadTestScripts {
+
+	interface Script {
+
+		CompletableFuture<?> run(LoadClient client, long startNanos);
+	}
+
+	static final String LOGIN = "POST /auth/login";
+	static final String REGISTER = "POST /auth/register";
+	static final String GET_ALL_CARGOES = "GET /driver/getAllCargoes";
+	static final String TAKE_CARGO = "POST /driver/takeCargo";
+	static final String ADD_CARGO = "POST /distributor/addCargo";
+
+	// Kargo çıkış/varış noktaları: il merkezleri etrafında birkaç km dağıtılır
+	static final double[][] CITIES = { { 41.0082, 28.9784 }, { 39.9334, 32.8597 }, { 38.4237, 27.1428 },
+			{ 40.1885, 29.0610 }, { 36.8969, 30.7133 }, { 37.0000, 35.3213 }, { 41.2867, 36.3300 } };
+
+	private static final String BROWSE_PATH = "/driver/getAllCargoes?cursor=&size=20&sortBy=createdAt&direction=desc";
+
+	private static final AtomicLong REGISTERED = new AtomicLong();
+
+	private LoadTestScripts() {
+	}
+
+	static Map<String, Script> create(LoadTestAccounts accounts, String password) {
+		Map<String, Script> scripts = new LinkedHashMap<>();
+		scripts.put("driver-browse", (client, start) -> client
+				.send(GET_ALL_CARGOES, client.get(BROWSE_PATH, accounts.randomDriver().token()), start));
+		scripts.put("driver-take", (client, start) -> driverTake(client, accounts.randomDriver(), start));
+		scripts.put("distributor-add", (client, start) -> {
+			Account distributor = accounts.randomDistributor();
+			return client.send(ADD_CARGO, client.post("/distributor/addCargo", distributor.token(), cargoBody()),
+					start);
+		});
+		scripts.put("login", (client, start) -> login(client, accounts.randomAccount(), start));
+		scripts.put("register", (client, start) -> client.send(REGISTER,
+				client.post("/auth/register", null, registerBody(password)), start));
+		return scripts;
+	}
+
+	// Sürücü ilk sayfaya bakar ve açık kargolardan rastgele birini almaya çalışır
+	private static CompletableFuture<?> driverTake(LoadClient client, Account driver, long start) {
+		return client.send(GET_ALL_CARGOES, client.get(BROWSE_PATH, driver.token()), start).thenCompose(page -> {
+			List<Long> open = openCargoIds(client, page);
+			if (open.isEmpty()) {
+				return CompletableFuture.completedFuture(null);
+			}
+			long cargoId = open.get(ThreadLocalRandom.current().nextInt(open.size()));
+			return client.send(TAKE_CARGO, client.post("/driver/takeCargo/" + cargoId, driver.token(), null),
+					System.nanoTime());
+		});
+	}
+
+	private static CompletableFuture<?> login(LoadClient client, Account account, long start) {
+		Map<String, Object> body = Map.of("username", account.username(), "password", account.password());
+		return client.send(LOGIN, client.post("/auth/login", null, body), start).thenAccept(response -> {
+			String token = client.json(response).path("token").asText(null);
+			if (response.statusCode() == 200 && token != null) {
+				account.token(token);
+			}
+		});
+	}
+
+	private static List<Long> openCargoIds(LoadClient client, HttpResponse<byte[]> page) {
+		List<Long> ids = new ArrayList<>();
+		if (page.statusCode() != 200) {
+			return ids;
+		}
+		for (JsonNode cargo : client.json(page).path("data")) {
+			if ("CREATED".equals(cargo.path("cargoSituation").asText())) {
+				ids.add(cargo.path("id").asLong());
+			}
+		}
+		return ids;
+	}
+
+	static Map<String, Object> cargoBody() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int from = random.nextInt(CITIES.length);
+		int to = (from + 1 + random.nextInt(CITIES.length - 1)) % CITIES.length;
+		return Map.of("description", "loadtest cargo " + random.nextInt(1_000_000),
+				"selfLocation", location(CITIES[from]),
+				"targetLocation", location(CITIES[to]),
+				"measure", Map.of("weight", 1 + random.nextInt(50), "height", 10 + random.nextInt(90), "size",
+						List.of("S", "M", "L").get(random.nextInt(3))),
+				"phoneNumber", "+90555" + (1_000_000 + random.nextInt(9_000_000)));
+	}
+
+	private static Map<String, Object> location(double[] city) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		return Map.of("latitude", city[0] + random.nextDouble(-0.05, 0.05), "longitude",
+				city[1] + random.nextDouble(-0.05, 0.05));
+	}
+
+	private static Map<String, Object> registerBody(String password) {
+		long n = REGISTERED.incrementAndGet();
+		Roles role = n % 4 == 0 ? Roles.DISTRIBUTOR : Roles.DRIVER;
+		return Map.of("tcOrVkn", String.valueOf(10_000_000_000L + n), "mail", "lt-new-" + n + "@loadtest.local",
+				"username", "lt-new-" + n, "password", password, "phoneNumber", "+90544" + (1_000_000 + n),
+				"role", role.name());
+	}
+}
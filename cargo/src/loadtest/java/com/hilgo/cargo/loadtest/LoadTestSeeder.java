@@ -0,0 +1,110 @@
+package com.hilgo.cargo.loadtest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.hilgo.cargo.entity.Cargo;
+import com.hilgo.cargo.entity.Distributor;
+import com.hilgo.cargo.entity.Driver;
+import com.hilgo.cargo.entity.Location;
+import com.hilgo.cargo.entity.Measure;
+import com.hilgo.cargo.entity.User;
+import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.entity.enums.Roles;
+import com.hilgo.cargo.entity.enums.Size;
+import com.hilgo.cargo.loadtest.LoadTestAccounts.Account;
+import com.hilgo.cargo.repository.CargoRepository;
+import com.hilgo.cargo.repository.DistributorRepository;
+import com.hilgo.cargo.repository.DriverRepository;
+import com.hilgo.cargo.service.JwtService;
+import com.hilgo.cargo.service.OpenCargoIndex;
+
+/**
+ * Doğrulanmış sürücü/dağıtıcı hesaplarını ve başlangıçtaki açık kargoları doğrudan
+ * repository'lerle yazar. Şifre bir kez hash'lenir, token'lar JwtService'ten alınır; böylece
+ * tohumlama BCrypt maliyeti ödemez, login yükü yalnızca login script'inden gelir.
+ */
+final class LoadTestSeeder {
+
+	static final String PASSWORD = "LoadTest-123";
+
+	private LoadTestSeeder() {
+	}
+
+	static LoadTestAccounts seed(ApplicationContext context) {
+		Environment env = context.getEnvironment();
+		int driverCount = env.getProperty("loadtest.seed.drivers", Integer.class, 200);
+		int distributorCount = env.getProperty("loadtest.seed.distributors", Integer.class, 50);
+		int cargoesPerDistributor = env.getProperty("loadtest.seed.cargoes-per-distributor", Integer.class, 20);
+
+		String hash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+		JwtService jwtService = context.getBean(JwtService.class);
+
+		List<Driver> drivers = new ArrayList<>();
+		for (int i = 0; i < driverCount; i++) {
+			drivers.add(user(new Driver(), "lt-driver-" + i, Roles.DRIVER, hash, "+90533" + (1_000_000 + i)));
+		}
+		drivers = context.getBean(DriverRepository.class).saveAll(drivers);
+		List<Distributor> distributors = new ArrayList<>();
+		for (int i = 0; i < distributorCount; i++) {
+			distributors.add(user(new Distributor(), "lt-distributor-" + i, Roles.DISTRIBUTOR, hash,
+					"+90532" + (1_000_000 + i)));
+		}
+		distributors = context.getBean(DistributorRepository.class).saveAll(distributors);
+
+		List<Cargo> cargoes = new ArrayList<>();
+		for (Distributor distributor : distributors) {
+			for (int i = 0; i < cargoesPerDistributor; i++) {
+				cargoes.add(cargo(distributor));
+			}
+		}
+		context.getBean(CargoRepository.class).saveAll(cargoes);
+		// Açık kargo index'i uygulama açılırken boş veritabanından kuruldu
+		context.getBean(OpenCargoIndex.class).rebuild();
+
+		List<Account> driverAccounts = new ArrayList<>();
+		for (Driver driver : drivers) {
+			driverAccounts.add(new Account(driver.getUsername(), PASSWORD, Roles.DRIVER, jwtService.generateToken(driver)));
+		}
+		List<Account> distributorAccounts = new ArrayList<>();
+		for (Distributor distributor : distributors) {
+			distributorAccounts.add(new Account(distributor.getUsername(), PASSWORD, Roles.DISTRIBUTOR,
+					jwtService.generateToken(distributor)));
+		}
+		return new LoadTestAccounts(driverAccounts, distributorAccounts);
+	}
+
+	private static <T extends User> T user(T user, String username, Roles role, String passwordHash,
+			String phoneNumber) {
+		user.setUsername(username);
+		user.setMail(username + "@loadtest.local");
+		user.setPassword(passwordHash);
+		user.setPhoneNumber(phoneNumber);
+		user.setRoles(role);
+		user.setEnable(true);
+		return user;
+	}
+
+	private static Cargo cargo(Distributor distributor) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		double[] from = LoadTestScripts.CITIES[random.nextInt(LoadTestScripts.CITIES.length)];
+		double[] to = LoadTestScripts.CITIES[random.nextInt(LoadTestScripts.CITIES.length)];
+		Cargo cargo = new Cargo();
+		cargo.setDistributor(distributor);
+		cargo.setDescription("seeded cargo");
+		cargo.setPhoneNumber(distributor.getPhoneNumber());
+		cargo.setCargoSituation(CargoSituation.CREATED);
+		cargo.setSelfLocation(new Location(null, from[0] + random.nextDouble(-0.05, 0.05),
+				from[1] + random.nextDouble(-0.05, 0.05), LocalDateTime.now()));
+		cargo.setTargetLocation(new Location(null, to[0] + random.nextDouble(-0.05, 0.05),
+				to[1] + random.nextDouble(-0.05, 0.05), LocalDateTime.now()));
+		cargo.setMeasure(new Measure(null, 1.0 + random.nextInt(50), 10.0 + random.nextInt(90), Size.M));
+		return cargo;
+	}
+}
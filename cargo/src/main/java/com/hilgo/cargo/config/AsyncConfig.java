@@ -2,20 +2,36 @@ package com.hilgo.cargo.config;
 
 import java.util.concurrent.Executor;
 
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import lombok.RequiredArgsConstructor;
+
 @Configuration
 @EnableAsync  // Asenkron işlemleri etkinleştirir
+@RequiredArgsConstructor
 public class AsyncConfig implements AsyncConfigurer {
 
+    private final Environment environment;
+
     // Asenkron işlemler için Executor yapılandırması
     @Override
     public Executor getAsyncExecutor() {
+        // spring.threads.virtual.enabled=true ve Java 21+: her görev kendi sanal thread'inde, kuyruk ve ret yok.
+        // DB'ye eşzamanlı giriş VirtualThreadConfig'teki semaforla sınırlanır
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("async-task-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        
+
         // Thread havuzunun yapılandırması
         executor.setCorePoolSize(10);  // Başlangıçta kullanılacak thread sayısı
         executor.setMaxPoolSize(50);   // Maksimum kullanılabilecek thread sayısı
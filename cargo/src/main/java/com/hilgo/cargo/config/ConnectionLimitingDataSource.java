@@ -0,0 +1,98 @@
+package com.hilgo.cargo.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Bağlantı almayı adil bir semaforla sınırlayan DataSource; izin bağlantı kapanınca geri verilir.
+ * Sanal thread modunda binlerce istek aynı anda havuza yüklenebilir: semafor havuz boyutunda
+ * tutulur, fazlası burada sırayla bekler ve acquire-timeout'ta SQLTransientConnectionException alır.
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource {
+
+	private final Semaphore permits;
+	private final long acquireTimeoutMs;
+
+	public ConnectionLimitingDataSource(DataSource target, int permits, long acquireTimeoutMs) {
+		super(target);
+		this.permits = new Semaphore(permits, true);
+		this.acquireTimeoutMs = acquireTimeoutMs;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		acquire();
+		try {
+			return wrap(super.getConnection());
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		acquire();
+		try {
+			return wrap(super.getConnection(username, password));
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	public int getAvailablePermits() {
+		return permits.availablePermits();
+	}
+
+	public int getWaiting() {
+		return permits.getQueueLength();
+	}
+
+	private void acquire() throws SQLException {
+		try {
+			if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+				throw new SQLTransientConnectionException("No database permit available within " + acquireTimeoutMs
+						+ " ms, " + permits.getQueueLength() + " threads waiting");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLTransientConnectionException("Interrupted while waiting for a database permit", e);
+		}
+	}
+
+	private Connection wrap(Connection connection) {
+		AtomicBoolean released = new AtomicBoolean();
+		return (Connection) Proxy.newProxyInstance(ConnectionLimitingDataSource.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "equals":
+						return proxy == args[0];
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					default:
+						break;
+					}
+					try {
+						return method.invoke(connection, args);
+					} catch (InvocationTargetException e) {
+						throw e.getTargetException();
+					} finally {
+						// close iki kez çağrılsa da izin bir kez döner
+						if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+							permits.release();
+						}
+					}
+				});
+	}
+}
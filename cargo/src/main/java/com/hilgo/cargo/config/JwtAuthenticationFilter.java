@@ -4,15 +4,14 @@ import java.io.IOException;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.hilgo.cargo.entity.User;
-import com.hilgo.cargo.repository.UserRepository;
+import com.hilgo.cargo.service.AuthenticatedUser;
 import com.hilgo.cargo.service.JwtService;
+import com.hilgo.cargo.service.PrincipalCache;
+import com.hilgo.cargo.service.VerifiedToken;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -25,8 +24,7 @@ import lombok.RequiredArgsConstructor;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -36,6 +34,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
+        final VerifiedToken token;
         final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -44,20 +43,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
+        token = jwtService.verify(jwt);
+        username = token.getSubject();
         
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            AuthenticatedUser principal = principalCache.get(username);
 
-            User user = userRepository.findByUsername(username).get();
-            if(!user.getActive())             
+            if(!principal.isActive())
                 throw new RuntimeException("Exit error");
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            // Şifre sıfırlama gibi amaca özel token'lar ve devre dışı hesaplar oturum açmaz
+            if (username.equals(principal.getUsername()) && principal.isEnabled() && !token.isExpired()
+                    && token.getPurpose() == null
+                    && token.matches(principal.getId(), principal.getTokenVersion())) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
+                        principal,
                         null,
-                        userDetails.getAuthorities()
+                        principal.getAuthorities()
                 );
 
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -0,0 +1,42 @@
+package com.hilgo.cargo.config;
+
+import java.util.Properties;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import com.hilgo.cargo.service.PooledMailSender;
+
+@Configuration
+@EnableConfigurationProperties(MailProperties.class)
+public class MailConfig {
+
+	// spring.mail.* ayarları aynen kullanılır, sadece SMTP bağlantıları havuzlanır
+	@Bean
+	public JavaMailSender mailSender(MailProperties properties,
+			@Value("${mail.pool.max-connections:3}") int maxConnections,
+			@Value("${mail.pool.idle-timeout-ms:60000}") long idleTimeoutMillis,
+			@Value("${mail.pool.max-messages-per-connection:100}") int maxMessagesPerConnection,
+			@Value("${mail.pool.acquire-timeout-ms:30000}") long acquireTimeoutMillis) {
+		PooledMailSender sender = new PooledMailSender(maxConnections, idleTimeoutMillis,
+				maxMessagesPerConnection, acquireTimeoutMillis);
+		sender.setHost(properties.getHost());
+		if (properties.getPort() != null) {
+			sender.setPort(properties.getPort());
+		}
+		sender.setUsername(properties.getUsername());
+		sender.setPassword(properties.getPassword());
+		sender.setProtocol(properties.getProtocol());
+		if (properties.getDefaultEncoding() != null) {
+			sender.setDefaultEncoding(properties.getDefaultEncoding().name());
+		}
+		Properties javaMailProperties = new Properties();
+		javaMailProperties.putAll(properties.getProperties());
+		sender.setJavaMailProperties(javaMailProperties);
+		return sender;
+	}
+}
@@ -0,0 +1,23 @@
+package com.hilgo.cargo.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Bir controller metodunun tek istekte çalıştırabileceği SQL sayısı. Sayım tüm isteği kapsar
+ * (principal cache ıskası gibi filtre sorguları dahil). QueryStatsFilter aşımı loglar ve
+ * metriğe yazar; sql.stats.enforce-budgets=true iken QueryBudgetExceededException fırlatır.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+	int statements();
+
+	// Aynı şekildeki bir sorgunun en fazla kaç kez çalışabileceği (N+1 sınırı)
+	int repeats() default Integer.MAX_VALUE;
+}
@@ -0,0 +1,161 @@
+package com.hilgo.cargo.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Bağlantıları, ifadeleri ve ResultSet'leri saran DataSource. Her execute* çağrısı ve okunan /
+ * değişen her satır o anki RequestQueryStats'a yazılır. Kapsam açık değilken alınan bağlantılar
+ * (zamanlanmış işler, async thread'ler) hiç sarılmaz, ek maliyetleri olmaz.
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+	public QueryCountingDataSource(DataSource target) {
+		super(target);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return wrap(super.getConnection());
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return wrap(super.getConnection(username, password));
+	}
+
+	private static Connection wrap(Connection connection) {
+		if (RequestQueryStats.current() == null) {
+			return connection;
+		}
+		return proxy(Connection.class, new ConnectionHandler(connection));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+		return (T) Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(), new Class<?>[] { type },
+				handler);
+	}
+
+	private abstract static class Handler implements InvocationHandler {
+
+		final Object target;
+
+		Handler(Object target) {
+			this.target = target;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if (method.getName().equals("equals")) {
+				return proxy == args[0];
+			}
+			if (method.getName().equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			}
+			return handle(method, args);
+		}
+
+		abstract Object handle(Method method, Object[] args) throws Throwable;
+
+		Object call(Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getTargetException();
+			}
+		}
+	}
+
+	private static final class ConnectionHandler extends Handler {
+
+		ConnectionHandler(Connection connection) {
+			super(connection);
+		}
+
+		@Override
+		Object handle(Method method, Object[] args) throws Throwable {
+			Object result = call(method, args);
+			switch (method.getName()) {
+			case "prepareCall":
+				return proxy(CallableStatement.class, new StatementHandler(result, (String) args[0]));
+			case "prepareStatement":
+				return proxy(PreparedStatement.class, new StatementHandler(result, (String) args[0]));
+			case "createStatement":
+				return proxy(Statement.class, new StatementHandler(result, null));
+			default:
+				return result;
+			}
+		}
+	}
+
+	private static final class StatementHandler extends Handler {
+
+		// Hazır ifadelerde SQL; düz Statement'ta execute'a verilen SQL kullanılır
+		private final String sql;
+
+		StatementHandler(Object statement, String sql) {
+			super(statement);
+			this.sql = sql;
+		}
+
+		@Override
+		Object handle(Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			RequestQueryStats stats = RequestQueryStats.current();
+			if (stats == null || !(name.startsWith("execute") || name.equals("getResultSet"))) {
+				return call(method, args);
+			}
+			if (name.startsWith("execute")) {
+				stats.statement(args != null && args.length > 0 && args[0] instanceof String text ? text : sql);
+			}
+			Object result = call(method, args);
+			if (result instanceof ResultSet resultSet) {
+				return proxy(ResultSet.class, new ResultSetHandler(resultSet));
+			}
+			if (name.equals("executeUpdate") || name.equals("executeLargeUpdate")) {
+				stats.rows(((Number) result).longValue());
+			} else if (result instanceof int[] counts) {
+				for (int count : counts) {
+					stats.rows(Math.max(count, 0));
+				}
+			} else if (result instanceof long[] counts) {
+				for (long count : counts) {
+					stats.rows(Math.max(count, 0));
+				}
+			}
+			return result;
+		}
+	}
+
+	private static final class ResultSetHandler extends Handler {
+
+		ResultSetHandler(ResultSet resultSet) {
+			super(resultSet);
+		}
+
+		@Override
+		Object handle(Method method, Object[] args) throws Throwable {
+			Object result = call(method, args);
+			if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+				RequestQueryStats stats = RequestQueryStats.current();
+				if (stats != null) {
+					stats.rows(1);
+				}
+			}
+			return result;
+		}
+	}
+}
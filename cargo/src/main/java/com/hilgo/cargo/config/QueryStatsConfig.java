@@ -0,0 +1,25 @@
+package com.hilgo.cargo.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class QueryStatsConfig {
+
+	// Hikari havuzu QueryCountingDataSource ile sarılır; JPA, JdbcTemplate ve export aynı havuzu kullanır
+	@Bean
+	static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof DataSource dataSource && !(bean instanceof QueryCountingDataSource)) {
+					return new QueryCountingDataSource(dataSource);
+				}
+				return bean;
+			}
+		};
+	}
+}
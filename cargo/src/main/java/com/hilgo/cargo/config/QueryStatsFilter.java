@@ -0,0 +1,111 @@
+package com.hilgo.cargo.config;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.hilgo.cargo.exception.QueryBudgetExceededException;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Her HTTP isteği için bir RequestQueryStats kapsamı açar (güvenlik filtrelerinden de önce).
+ * İstek bitince ifade ve satır sayıları http.server.requests.sql.* histogramlarına yazılır,
+ * aynı şekli repeat-threshold kez tekrarlanan sorgular olası N+1 olarak loglanır ve
+ * endpoint'in @QueryBudget'ı kontrol edilir. spring.jpa.show-sql'in yerini alır.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+	private static final Logger log = LoggerFactory.getLogger(QueryStatsFilter.class);
+
+	private final MeterRegistry meterRegistry;
+
+	@Value("${sql.stats.enabled:true}")
+	private boolean enabled;
+
+	@Value("${sql.stats.repeat-threshold:5}")
+	private int repeatThreshold;
+
+	@Value("${sql.stats.enforce-budgets:false}")
+	private boolean enforceBudgets;
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !enabled;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		RequestQueryStats stats = RequestQueryStats.open();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			stats.close();
+		}
+		record(request, stats);
+	}
+
+	private void record(HttpServletRequest request, RequestQueryStats stats) {
+		// Şablon yoksa (404, statik kaynak) tek etikette toplanır, kardinalite patlamaz
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+		Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+		DistributionSummary.builder("http.server.requests.sql.statements")
+				.baseUnit("statements")
+				.tags(tags)
+				.publishPercentileHistogram()
+				.register(meterRegistry)
+				.record(stats.statements());
+		DistributionSummary.builder("http.server.requests.sql.rows")
+				.baseUnit("rows")
+				.tags(tags)
+				.publishPercentileHistogram()
+				.register(meterRegistry)
+				.record(stats.rows());
+
+		Map<String, Integer> repeated = stats.repeated(repeatThreshold);
+		if (!repeated.isEmpty()) {
+			meterRegistry.counter("http.server.requests.sql.repeated", tags).increment();
+			repeated.forEach((shape, count) -> log.warn("Possible N+1 in {} {}: {} x {}", request.getMethod(), uri,
+					count, shape));
+		}
+
+		QueryBudget budget = budget(request);
+		if (budget == null || (stats.statements() <= budget.statements() && stats.maxRepeats() <= budget.repeats())) {
+			return;
+		}
+		meterRegistry.counter("http.server.requests.sql.budget.exceeded", tags).increment();
+		String message = String.format("%s %s ran %d SQL statements (budget %d), max %d repeats of one query (budget %d)",
+				request.getMethod(), uri, stats.statements(), budget.statements(), stats.maxRepeats(),
+				budget.repeats());
+		if (enforceBudgets) {
+			throw new QueryBudgetExceededException(message, stats.statements(), stats.maxRepeats());
+		}
+		log.warn(message);
+	}
+
+	private static QueryBudget budget(HttpServletRequest request) {
+		Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+		return handler instanceof HandlerMethod method ? method.getMethodAnnotation(QueryBudget.class) : null;
+	}
+}
@@ -0,0 +1,42 @@
+package com.hilgo.cargo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Geliştirmede (sql.stats.header=true) cevaba X-Sql-Statements / X-Sql-Rows başlıklarını ekler.
+ * Başlık gövde yazılmadan hemen önce konur; serileştirme sırasındaki lazy yüklemeler
+ * başlıkta değil, yalnızca metriklerde görünür.
+ */
+@RestControllerAdvice
+public class QueryStatsHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+	public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+	public static final String ROWS_HEADER = "X-Sql-Rows";
+
+	@Value("${sql.stats.header:false}")
+	private boolean header;
+
+	@Override
+	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+		return header;
+	}
+
+	@Override
+	public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+			Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+			ServerHttpResponse response) {
+		RequestQueryStats stats = RequestQueryStats.current();
+		if (stats != null) {
+			response.getHeaders().set(STATEMENTS_HEADER, String.valueOf(stats.statements()));
+			response.getHeaders().set(ROWS_HEADER, String.valueOf(stats.rows()));
+		}
+		return body;
+	}
+}
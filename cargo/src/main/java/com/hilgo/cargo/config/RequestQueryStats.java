@@ -0,0 +1,107 @@
+package com.hilgo.cargo.config;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Bir isteğin (ya da testte açılan bir kapsamın) çalıştırdığı SQL ifadelerini ve satırları sayar.
+ * QueryCountingDataSource buraya yazar; kapsam thread'e bağlıdır, açık değilse hiçbir şey sayılmaz.
+ * Aynı "şekildeki" (literal'leri ? yapılmış) sorguların tekrarları N+1 tespiti için tutulur.
+ */
+public final class RequestQueryStats implements AutoCloseable {
+
+	private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+	private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+	private static final Pattern NUMBER = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+	private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+	// Hibernate aynı SQL metnini tekrar tekrar kullanır; normalleştirme bir kez yapılır
+	private static final Cache<String, String> SHAPES = Caffeine.newBuilder().maximumSize(2_000).build();
+
+	private final RequestQueryStats previous;
+	private final Map<String, Integer> shapes = new HashMap<>();
+	private int statements;
+	private long rows;
+
+	private RequestQueryStats(RequestQueryStats previous) {
+		this.previous = previous;
+	}
+
+	/**
+	 * Bu thread için yeni bir sayım kapsamı açar; close() önceki kapsamı geri getirir.
+	 */
+	public static RequestQueryStats open() {
+		RequestQueryStats stats = new RequestQueryStats(CURRENT.get());
+		CURRENT.set(stats);
+		return stats;
+	}
+
+	public static RequestQueryStats current() {
+		return CURRENT.get();
+	}
+
+	void statement(String sql) {
+		statements++;
+		if (sql != null) {
+			shapes.merge(shape(sql), 1, Integer::sum);
+		}
+	}
+
+	void rows(long count) {
+		rows += count;
+	}
+
+	public int statements() {
+		return statements;
+	}
+
+	/**
+	 * Okunan (ResultSet.next) ve değişen (update/batch sonucu) satırların toplamı.
+	 */
+	public long rows() {
+		return rows;
+	}
+
+	/**
+	 * En az threshold kez çalışmış sorgu şekilleri, çoktan aza.
+	 */
+	public Map<String, Integer> repeated(int threshold) {
+		Map<String, Integer> repeated = new LinkedHashMap<>();
+		shapes.entrySet().stream()
+				.filter(entry -> entry.getValue() >= threshold)
+				.sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+				.forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+		return repeated;
+	}
+
+	public int maxRepeats() {
+		return shapes.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+	}
+
+	@Override
+	public void close() {
+		if (CURRENT.get() == this) {
+			if (previous != null) {
+				CURRENT.set(previous);
+			} else {
+				CURRENT.remove();
+			}
+		}
+	}
+
+	static String shape(String sql) {
+		return SHAPES.get(sql, text -> {
+			String shape = STRING_LITERAL.matcher(text).replaceAll("?");
+			shape = NUMBER.matcher(shape).replaceAll("?");
+			shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+			return IN_LIST.matcher(shape).replaceAll("(?)");
+		});
+	}
+}
@@ -0,0 +1,9 @@
+package com.hilgo.cargo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling  // Mail outbox gibi periyodik işleri etkinleştirir; havuz boyutu: spring.task.scheduling.pool.size
+public class SchedulingConfig {
+}
@@ -10,6 +10,7 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.authentication.logout.LogoutHandler;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 
 @Configuration
@@ -28,6 +29,8 @@ public class SecurityConfiguration{
             .cors()
             .and()
             .authorizeHttpRequests()
+            // SSE akışlarının async dispatch'i; istek ilk dispatch'te zaten yetkilendirildi
+            .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
             //.requestMatchers("/auth/change","/auth/forgot", "/auth/setPassword").hasAnyAuthority("ROLE_DRIVER", "ROLE_DISTRIBUTOR")
             .requestMatchers(
                 "/auth/**",
@@ -42,6 +45,7 @@ public class SecurityConfiguration{
             ).permitAll()
             .requestMatchers("/distributor/**").hasAuthority("ROLE_DISTRIBUTOR")
             .requestMatchers("/driver/**").hasAuthority("ROLE_DRIVER")
+            .requestMatchers("/admin/**").hasAuthority("ROLE_ADMIN")
             .anyRequest().authenticated()
             .and()
             .sessionManagement()
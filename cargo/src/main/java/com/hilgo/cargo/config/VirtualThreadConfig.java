@@ -0,0 +1,60 @@
+package com.hilgo.cargo.config;
+
+import java.sql.SQLException;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * spring.threads.virtual.enabled=true ve Java 21+ iken devreye girer. Tomcat istek thread'lerini
+ * Spring Boot, @Async görevlerini AsyncConfig sanal thread'e çevirir; burada yalnızca sanal
+ * thread'lere özgü korumalar var: DB eşzamanlılık semaforu ve pinning izleme.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+	// Semafor varsayılan olarak Hikari havuzu kadar izin verir; fazlası havuzda değil burada sıraya girer
+	@Bean
+	static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+			@Value("${db.concurrency.permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+			@Value("${db.concurrency.acquire-timeout-ms:30000}") long acquireTimeoutMs) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+					return new ConnectionLimitingDataSource(dataSource, permits, acquireTimeoutMs);
+				}
+				return bean;
+			}
+		};
+	}
+
+	@Bean
+	MeterBinder connectionLimitMetrics(DataSource dataSource) throws SQLException {
+		ConnectionLimitingDataSource limited = dataSource.unwrap(ConnectionLimitingDataSource.class);
+		return registry -> {
+			Gauge.builder("db.concurrency.permits.available", limited, ConnectionLimitingDataSource::getAvailablePermits)
+					.register(registry);
+			Gauge.builder("db.concurrency.waiting", limited, ConnectionLimitingDataSource::getWaiting)
+					.register(registry);
+		};
+	}
+
+	@Bean
+	VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry meterRegistry,
+			@Value("${virtual.threads.pinned-threshold-ms:20}") long thresholdMs) {
+		return new VirtualThreadPinningMonitor(meterRegistry, Duration.ofMillis(thresholdMs));
+	}
+}
@@ -0,0 +1,78 @@
+package com.hilgo.cargo.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * JFR'nin jdk.VirtualThreadPinned olayını dinler: sanal thread synchronized içinde ya da native
+ * çağrıda bloklanıp carrier thread'i threshold'dan uzun tuttuğunda jvm.threads.virtual.pinned
+ * timer'ına yazılır. Aynı yer için tekrar WARN basılmaz, sonrakiler DEBUG'dır.
+ */
+public class VirtualThreadPinningMonitor {
+
+	private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+	static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+	private static final int LOGGED_FRAMES = 6;
+
+	private final Timer pinned;
+	private final Duration threshold;
+	private final Set<String> reported = ConcurrentHashMap.newKeySet();
+	private RecordingStream stream;
+
+	public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, Duration threshold) {
+		this.pinned = Timer.builder("jvm.threads.virtual.pinned")
+				.description("Virtual threads pinned to their carrier longer than the threshold")
+				.register(meterRegistry);
+		this.threshold = threshold;
+	}
+
+	@PostConstruct
+	void start() {
+		stream = new RecordingStream();
+		stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+		stream.onEvent(PINNED_EVENT, this::onPinned);
+		stream.startAsync();
+	}
+
+	@PreDestroy
+	void stop() {
+		stream.close();
+	}
+
+	void onPinned(RecordedEvent event) {
+		pinned.record(event.getDuration());
+		String frames = frames(event);
+		if (reported.add(frames)) {
+			log.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), frames);
+		} else {
+			log.debug("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), frames);
+		}
+	}
+
+	private static String frames(RecordedEvent event) {
+		if (event.getStackTrace() == null) {
+			return "unknown";
+		}
+		List<RecordedFrame> frames = event.getStackTrace().getFrames();
+		return frames.stream()
+				.limit(LOGGED_FRAMES)
+				.map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":"
+						+ frame.getLineNumber())
+				.collect(Collectors.joining(" <- "));
+	}
+}
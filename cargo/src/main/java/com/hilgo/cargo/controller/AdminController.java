@@ -0,0 +1,70 @@
+package com.hilgo.cargo.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hilgo.cargo.entity.enums.Roles;
+import com.hilgo.cargo.response.DeliveryStatsResponse;
+import com.hilgo.cargo.response.DistributorStatsResponse;
+import com.hilgo.cargo.response.StatsResponse;
+import com.hilgo.cargo.service.AuthenticatedUser;
+import com.hilgo.cargo.service.DeliveryStatsService;
+import com.hilgo.cargo.service.StatsService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+	final private StatsService statsService;
+	final private DeliveryStatsService deliveryStatsService;
+
+	@GetMapping("/stats")
+	public ResponseEntity<StatsResponse> stats(@RequestParam(defaultValue = "30") int days) {
+		return ResponseEntity.ok(statsService.overview(Math.min(days, 366)));
+	}
+
+	@GetMapping("/stats/distributors/{distributorId}")
+	public ResponseEntity<DistributorStatsResponse> distributorStats(@PathVariable Long distributorId) {
+		return ResponseEntity.ok(statsService.distributor(distributorId));
+	}
+
+	// Sayaçları tablolardan baştan hesaplar; yazılmamış farklar atılır
+	@PostMapping("/stats/rebuild")
+	public ResponseEntity<Integer> rebuild() {
+		AuthenticatedUser.current(Roles.ADMIN);
+		return ResponseEntity.ok(statsService.rebuild());
+	}
+
+	// Teslimat süresi yüzdelikleri; driverId ya da distributorId verilmezse tüm teslimatlar
+	@GetMapping("/deliveryStats")
+	public ResponseEntity<DeliveryStatsResponse> deliveryStats(@RequestParam(required = false) Long driverId,
+			@RequestParam(required = false) Long distributorId) {
+		if (driverId != null) {
+			return ResponseEntity.ok(deliveryStatsService.forDriver(driverId));
+		}
+		if (distributorId != null) {
+			return ResponseEntity.ok(deliveryStatsService.forDistributor(distributorId));
+		}
+		return ResponseEntity.ok(deliveryStatsService.overall());
+	}
+
+	@GetMapping("/deliveryStats/route")
+	public ResponseEntity<DeliveryStatsResponse> routeDeliveryStats(@RequestParam double fromLatitude,
+			@RequestParam double fromLongitude, @RequestParam double toLatitude, @RequestParam double toLongitude) {
+		return ResponseEntity.ok(deliveryStatsService.forRoute(fromLatitude, fromLongitude, toLatitude, toLongitude));
+	}
+
+	@PostMapping("/deliveryStats/rebuild")
+	public ResponseEntity<Long> rebuildDeliveryStats() {
+		AuthenticatedUser.current(Roles.ADMIN);
+		return ResponseEntity.ok(deliveryStatsService.rebuild());
+	}
+}
@@ -7,6 +7,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,14 +18,23 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.hilgo.cargo.config.QueryBudget;
+import com.hilgo.cargo.repository.CargoCursor;
 import com.hilgo.cargo.request.CargoRequest;
 import com.hilgo.cargo.request.DistributorRequest;
 import com.hilgo.cargo.response.CargoResponse;
+import com.hilgo.cargo.response.CargoTrackResponse;
 import com.hilgo.cargo.response.CargoesResponse;
+import com.hilgo.cargo.response.DeliveryStatsResponse;
 import com.hilgo.cargo.response.DistributorResponse;
+import com.hilgo.cargo.service.CargoExportService;
+import com.hilgo.cargo.service.DeliveryStatsService;
 import com.hilgo.cargo.service.DistributorService;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -33,6 +43,8 @@ import lombok.RequiredArgsConstructor;
 public class DistributorController {
 	
 	final private DistributorService distributorService;
+	final private DeliveryStatsService deliveryStatsService;
+	final private CargoExportService cargoExportService;
 	
 	@PostMapping("/updateDistributor")
 	public ResponseEntity<DistributorResponse> updateDistributor(@RequestBody DistributorRequest distributorRequest){
@@ -40,7 +52,7 @@ public class DistributorController {
 	}
 	
 	@PostMapping("/addCargo")
-	public ResponseEntity<List<CargoResponse>> addCargo(@RequestBody CargoRequest cargoRequest){
+	public ResponseEntity<List<CargoesResponse>> addCargo(@RequestBody CargoRequest cargoRequest){
 		return ResponseEntity.ok(distributorService.addCargo(cargoRequest));
 	}
 	
@@ -55,14 +67,47 @@ public class DistributorController {
 	}
 
 	
+	@GetMapping(path = "/tracking", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter tracking() {
+		return distributorService.trackMyCargoes();
+	}
+
+	@GetMapping("/cargoTrack/{cargoId}")
+	public ResponseEntity<CargoTrackResponse> cargoTrack(@PathVariable("cargoId") Long cargoId,
+			@RequestParam(defaultValue = "10") double toleranceMeters) {
+		return ResponseEntity.ok(distributorService.getCargoTrack(cargoId, toleranceMeters));
+	}
+
+	// Tüm geçmiş (arşiv dahil) tek dosya olarak akıtılır; format=csv|ndjson
+	@GetMapping("/export")
+	public WebAsyncTask<Void> export(@RequestParam(defaultValue = "csv") String format, HttpServletResponse response) {
+		return cargoExportService.export(CargoExportService.format(format), response);
+	}
+
+	@GetMapping("/deliveryStats")
+	public ResponseEntity<DeliveryStatsResponse> deliveryStats() {
+		return ResponseEntity.ok(deliveryStatsService.myDistributorStats());
+	}
+
+	@QueryBudget(statements = 5, repeats = 1)
 	@GetMapping("/getMyCargoes")
 	public ResponseEntity<Map<String, Object>> getMyCargoes(
 		@RequestParam(defaultValue = "0") int page,
 		@RequestParam(defaultValue = "10") int size,
-		@RequestParam(defaultValue = "id") String sortBy
-	) {
+		@RequestParam(defaultValue = "id") String sortBy,
+		@RequestParam(defaultValue = "asc") String direction,
+		@RequestParam(required = false) String cursor,
+		@RequestParam(defaultValue = "false") boolean withTotal
+	){
+		if (cursor != null) {
+			// Yeni istemciler: ilk sayfa için boş cursor gönderilir
+			CargoCursor cargoCursor = cursor.isEmpty() ? CargoCursor.first(sortBy, CargoCursor.isDescending(direction))
+					: CargoCursor.decode(cursor);
+			return ResponseEntity.ok(distributorService.getMyCargoes(cargoCursor, CargoCursor.clampSize(size), withTotal).toResponse());
+		}
 	
-		Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy));
+		Sort.Direction sortDirection = CargoCursor.isDescending(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+		Pageable pageable = PageRequest.of(Math.max(page, 0), CargoCursor.clampSize(size), Sort.by(sortDirection, sortBy));
 		Page<CargoesResponse> cargopage = distributorService.getMyCargoes(pageable);
 		Map<String, Object> meta = new HashMap<String , Object>();
 		meta.put("currentPage", cargopage.getNumber());
@@ -76,7 +121,4 @@ public class DistributorController {
 		response.put("meta", meta);
 		return ResponseEntity.ok(response);
 	}
-	
-	
-
 }
@@ -1,6 +1,7 @@
 package com.hilgo.cargo.controller;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.data.domain.Page;
@@ -8,6 +9,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -16,10 +18,21 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.hilgo.cargo.config.QueryBudget;
+import com.hilgo.cargo.repository.CargoCursor;
+import com.hilgo.cargo.request.DriverLocationRequest;
 import com.hilgo.cargo.request.DriverRequest;
+import com.hilgo.cargo.request.TripSubscriptionRequest;
 import com.hilgo.cargo.response.CargoesResponse;
+import com.hilgo.cargo.response.DeliveryStatsResponse;
 import com.hilgo.cargo.response.DriverResponse;
+import com.hilgo.cargo.response.NearbyCargoResponse;
+import com.hilgo.cargo.response.RouteMatchResponse;
+import com.hilgo.cargo.response.TripMatchResponse;
+import com.hilgo.cargo.response.TripSubscriptionResponse;
+import com.hilgo.cargo.service.DeliveryStatsService;
 import com.hilgo.cargo.service.DriverService;
+import com.hilgo.cargo.service.TripSubscriptionService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -29,6 +42,8 @@ import lombok.RequiredArgsConstructor;
 public class DriverController {
 
 	final private DriverService driverService;
+	final private TripSubscriptionService tripSubscriptionService;
+	final private DeliveryStatsService deliveryStatsService;
 
 	@PostMapping("/takeCargo/{cargoId}")
 	public ResponseEntity<Boolean> takeCargo(@PathVariable("cargoId") Long cargoId){
@@ -40,19 +55,41 @@ public class DriverController {
 		return ResponseEntity.ok(driverService.deliverCargo(cargoId, deliveryCode));
 	}
 	
+	@PostMapping("/location")
+	public ResponseEntity<Integer> updateLocation(@RequestBody DriverLocationRequest request) {
+		return ResponseEntity.ok(driverService.updateLocation(request));
+	}
+
 	@PostMapping("/updateDriver")
 	public ResponseEntity<DriverResponse> updateDriver(@RequestBody DriverRequest driverRequest)
 	{
 		return ResponseEntity.ok(driverService.updateDriver(driverRequest));
 	}	
+
+	@GetMapping("/deliveryStats")
+	public ResponseEntity<DeliveryStatsResponse> deliveryStats() {
+		return ResponseEntity.ok(deliveryStatsService.myDriverStats());
+	}
 	
+	// Sıcak + arşiv sayfası, withTotal ile iki count, principal cache ıskası
+	@QueryBudget(statements = 5, repeats = 1)
 	@GetMapping("/getMyCargoes")
 	public ResponseEntity<Map<String, Object>> getMyCargoes(
 			@RequestParam(defaultValue = "0") int page,
 			@RequestParam(defaultValue = "10") int size,
-			@RequestParam(defaultValue = "id") String sortBy
+			@RequestParam(defaultValue = "id") String sortBy,
+			@RequestParam(defaultValue = "asc") String direction,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = "false") boolean withTotal
 			){
-		Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy));
+		if (cursor != null) {
+			// Yeni istemciler: ilk sayfa için boş cursor gönderilir
+			CargoCursor cargoCursor = cursor.isEmpty() ? CargoCursor.first(sortBy, CargoCursor.isDescending(direction))
+					: CargoCursor.decode(cursor);
+			return ResponseEntity.ok(driverService.getMyCargoes(cargoCursor, CargoCursor.clampSize(size), withTotal).toResponse());
+		}
+		Sort.Direction sortDirection = CargoCursor.isDescending(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+		Pageable pageable = PageRequest.of(Math.max(page, 0), CargoCursor.clampSize(size), Sort.by(sortDirection, sortBy));
 		Page<CargoesResponse> cargoPage = driverService.getMyCargoes(pageable);
 		Map<String, Object> meta = new HashMap<String, Object>();
 		meta.put("currentPage", cargoPage.getNumber());
@@ -67,13 +104,24 @@ public class DriverController {
 		return ResponseEntity.ok(response);
 	}
 
+	@QueryBudget(statements = 3, repeats = 1)
 	@GetMapping("/getAllCargoes")
 	public ResponseEntity<Map<String, Object>> getAllCargoes(
 			@RequestParam(defaultValue = "0") int page,
 			@RequestParam(defaultValue = "10") int size,
-			@RequestParam(defaultValue = "id") String sortBy
+			@RequestParam(defaultValue = "id") String sortBy,
+			@RequestParam(defaultValue = "asc") String direction,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = "false") boolean withTotal
 			){
-		Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy));
+		if (cursor != null) {
+			// Yeni istemciler: ilk sayfa için boş cursor gönderilir
+			CargoCursor cargoCursor = cursor.isEmpty() ? CargoCursor.first(sortBy, CargoCursor.isDescending(direction))
+					: CargoCursor.decode(cursor);
+			return ResponseEntity.ok(driverService.getAllCargoes(cargoCursor, CargoCursor.clampSize(size), withTotal).toResponse());
+		}
+		Sort.Direction sortDirection = CargoCursor.isDescending(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+		Pageable pageable = PageRequest.of(Math.max(page, 0), CargoCursor.clampSize(size), Sort.by(sortDirection, sortBy));
 		Page<CargoesResponse> cargoPage = driverService.getAllCargoes(pageable);
 		
 		Map<String, Object> meta = new HashMap<String, Object>();
@@ -90,8 +138,47 @@ public class DriverController {
 		
 	}
 
-	
-	
-	
-	
+	@QueryBudget(statements = 2, repeats = 1)
+	@GetMapping("/nearbyCargoes")
+	public ResponseEntity<List<NearbyCargoResponse>> nearbyCargoes(
+			@RequestParam("lat") double latitude,
+			@RequestParam("lon") double longitude,
+			@RequestParam(defaultValue = "10") double radiusKm,
+			@RequestParam(defaultValue = "50") int limit
+			){
+		return ResponseEntity.ok(driverService.getNearbyCargoes(latitude, longitude, radiusKm, limit));
+	}
+
+	@QueryBudget(statements = 2, repeats = 1)
+	@GetMapping("/routeMatches")
+	public ResponseEntity<List<RouteMatchResponse>> routeMatches(
+			@RequestParam double fromLat,
+			@RequestParam double fromLon,
+			@RequestParam double toLat,
+			@RequestParam double toLon,
+			@RequestParam(defaultValue = "20") double detourKm,
+			@RequestParam(defaultValue = "50") int limit
+			){
+		return ResponseEntity.ok(driverService.getRouteMatches(fromLat, fromLon, toLat, toLon, detourKm, limit));
+	}
+
+	@PostMapping("/subscriptions")
+	public ResponseEntity<TripSubscriptionResponse> subscribe(@RequestBody TripSubscriptionRequest request) {
+		return ResponseEntity.ok(tripSubscriptionService.subscribe(request));
+	}
+
+	@GetMapping("/subscriptions")
+	public ResponseEntity<List<TripSubscriptionResponse>> getMySubscriptions() {
+		return ResponseEntity.ok(tripSubscriptionService.getMySubscriptions());
+	}
+
+	@DeleteMapping("/subscriptions/{subscriptionId}")
+	public ResponseEntity<Boolean> cancelSubscription(@PathVariable("subscriptionId") Long subscriptionId) {
+		return ResponseEntity.ok(tripSubscriptionService.cancel(subscriptionId));
+	}
+
+	@GetMapping("/tripMatches")
+	public ResponseEntity<List<TripMatchResponse>> getMyTripMatches(@RequestParam(defaultValue = "50") int limit) {
+		return ResponseEntity.ok(tripSubscriptionService.getMyMatches(limit));
+	}
 }
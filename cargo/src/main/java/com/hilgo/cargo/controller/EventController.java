@@ -0,0 +1,24 @@
+package com.hilgo.cargo.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.hilgo.cargo.service.CargoEventStream;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequiredArgsConstructor
+public class EventController {
+
+	final private CargoEventStream cargoEventStream;
+
+	// Kargo durum değişiklikleri; istemci yeniden bağlanırken son aldığı "epoch-sıra" id'sini Last-Event-ID ile gönderir
+	@GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter events(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+		return cargoEventStream.subscribe(lastEventId);
+	}
+}
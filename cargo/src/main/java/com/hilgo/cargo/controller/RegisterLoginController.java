@@ -9,15 +9,12 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import com.hilgo.cargo.entity.User;
-import com.hilgo.cargo.repository.UserRepository;
 import com.hilgo.cargo.request.LoginRequest;
 import com.hilgo.cargo.request.RegisterRequest;
 import com.hilgo.cargo.request.SetPasswordRequest;
 import com.hilgo.cargo.request.VerifyUserRequest;
 import com.hilgo.cargo.response.LoginResponse;
 import com.hilgo.cargo.response.RegisterResponse;
-import com.hilgo.cargo.service.JwtService;
 import com.hilgo.cargo.service.RegisterLoginService;
 
 import lombok.RequiredArgsConstructor;
@@ -29,8 +26,6 @@ import lombok.RequiredArgsConstructor;
 public class RegisterLoginController {
 
 	private final RegisterLoginService registerLoginService;
-	private final UserRepository	userRepository;
-	private final JwtService  jwtService;
 
 	@PostMapping(path = "/register")
 	public ResponseEntity<RegisterResponse> register(@RequestBody RegisterRequest registerRequest)
@@ -70,20 +65,25 @@ public class RegisterLoginController {
 		return ResponseEntity.ok(registerLoginService.changePassword(email));
 	}
 
+	// Maildeki kod doğruysa setPassword için sıfırlama token'ı döner
+	@PostMapping(path = "/change/verify")
+	public ResponseEntity<String> verifyPasswordCode(@RequestBody VerifyUserRequest verifyUserRequest) {
+		try {
+			return ResponseEntity.ok(registerLoginService.verifyPasswordCode(verifyUserRequest));
+		} catch (RuntimeException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+
 	@PutMapping(path = "/setPassword")
-	public ResponseEntity<String> setPassword(@RequestParam String token, @RequestBody SetPasswordRequest setPasswordRequest) {
-	User user = userRepository.findByMail(setPasswordRequest.getEmail()).orElseThrow(() -> new RuntimeException("User not found!"));
-    boolean tokenValid = jwtService.isTokenValid(token, user);
-    	if (tokenValid) {
-    	    // Token geçerli ise, şifreyi değiştir
-    	    boolean passwordChanged = registerLoginService.setPassword(setPasswordRequest);
-    	    if (passwordChanged) {
-    	        return ResponseEntity.ok("Password successfully updated.");
-    	    } else {
-    	        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to update password.");
-    	    }
-    	} else {
-    	    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid or expired reset token.");
-    	}
+	public ResponseEntity<String> setPassword(@RequestParam(required = false) String token, @RequestBody SetPasswordRequest setPasswordRequest) {
+		// Eski istemciler token'ı query parametresiyle gönderir
+		if (setPasswordRequest.getToken() == null) {
+			setPasswordRequest.setToken(token);
+		}
+		if (registerLoginService.setPassword(setPasswordRequest)) {
+			return ResponseEntity.ok("Password successfully updated.");
+		}
+		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid or expired reset token.");
 	}
 }
@@ -15,8 +15,10 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -24,6 +26,17 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@Table(indexes = {
+		// Keyset sayfalama (CargoCursor) için sıralama anahtarı + id
+		@Index(name = "idx_cargo_created", columnList = "created_at, id"),
+		@Index(name = "idx_cargo_updated", columnList = "updated_at, id"),
+		@Index(name = "idx_cargo_distributor_created", columnList = "distributor_user_id, created_at, id"),
+		@Index(name = "idx_cargo_driver_created", columnList = "driver_user_id, created_at, id"),
+		@Index(name = "idx_cargo_distributor_updated", columnList = "distributor_user_id, updated_at, id"),
+		@Index(name = "idx_cargo_driver_updated", columnList = "driver_user_id, updated_at, id"),
+		// CargoExpiryService: süresi dolan CREATED kargolar tablo taranmadan bulunur
+		@Index(name = "idx_cargo_situation_created", columnList = "cargo_situation, created_at, id")
+})
 @Getter
 @Setter
 @Builder
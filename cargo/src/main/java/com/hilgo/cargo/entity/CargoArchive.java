@@ -0,0 +1,98 @@
+package com.hilgo.cargo.entity;
+
+import java.time.LocalDateTime;
+
+import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.entity.enums.Size;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * EskiKargolar: CargoArchiver'ın sıcak cargo tablosundan taşıdığı bitmiş kargolar. Konum, ölçü
+ * ve ShipmentSent satırları tek satıra açılır; id kargonun orijinal id'sidir.
+ */
+@Entity
+@Table(name = "cargo_archive", indexes = {
+		@Index(name = "idx_cargo_archive_distributor_created", columnList = "distributor_id, created_at, id"),
+		@Index(name = "idx_cargo_archive_driver_created", columnList = "driver_id, created_at, id")
+})
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CargoArchive {
+
+	@Id
+	private Long id;
+
+	@Column
+	private String description;
+
+	@Enumerated(EnumType.STRING)
+	private CargoSituation cargoSituation;
+
+	@Column
+	private String phoneNumber;
+
+	@Column
+	private String verificationCode;
+
+	@Column(name = "distributor_id")
+	private Long distributorId;
+
+	@Column(name = "driver_id")
+	private Long driverId;
+
+	@Column
+	private Double selfLatitude;
+
+	@Column
+	private Double selfLongitude;
+
+	@Column
+	private Double targetLatitude;
+
+	@Column
+	private Double targetLongitude;
+
+	@Column
+	private Double weight;
+
+	@Column
+	private Double height;
+
+	@Enumerated(EnumType.STRING)
+	private Size size;
+
+	@Column
+	private LocalDateTime takingTime;
+
+	@Column
+	private LocalDateTime deliveredTime;
+
+	@Column(name = "created_at")
+	private LocalDateTime createdAt;
+
+	@Column(name = "updated_at")
+	private LocalDateTime updatedAt;
+
+	// ShipmentSent kaydından
+	@Column
+	private Long shipmentId;
+
+	@Column
+	private LocalDateTime shipmentDate;
+
+	@Column
+	private LocalDateTime archivedAt;
+}
@@ -0,0 +1,88 @@
+package com.hilgo.cargo.entity;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import com.hilgo.cargo.entity.enums.MailStatus;
+import com.hilgo.cargo.entity.enums.MailTemplate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "mail_outbox", indexes = {
+		@Index(name = "idx_mail_outbox_status_next", columnList = "status, next_attempt_at"),
+		@Index(name = "idx_mail_outbox_claim", columnList = "claim_token")
+})
+public class MailOutbox {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(nullable = false)
+	private String recipient;
+
+	// Gövde, gönderim sırasında şablon + değişkenlerden render edilir
+	@Enumerated(EnumType.STRING)
+	private MailTemplate template;
+
+	@Column(length = 8)
+	private String locale;
+
+	@Convert(converter = MailVariablesConverter.class)
+	@Column(columnDefinition = "TEXT")
+	private Map<String, String> variables;
+
+	// Şablonsuz (önceden render edilmiş) kayıtlar için
+	@Column
+	private String subject;
+
+	@Column(columnDefinition = "TEXT")
+	private String body;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	private MailStatus status;
+
+	@Column
+	private int attempts;
+
+	@Column(name = "next_attempt_at")
+	private LocalDateTime nextAttemptAt;
+
+	// Kaydı gönderim için alan dispatcher turunun kimliği
+	@Column(name = "claim_token")
+	private String claimToken;
+
+	@Column
+	private LocalDateTime lockedUntil;
+
+	@Column(length = 1000)
+	private String lastError;
+
+	@Column
+	private LocalDateTime sentAt;
+
+	@CreationTimestamp
+	@Column(name = "created_at")
+	private LocalDateTime createdAt;
+}
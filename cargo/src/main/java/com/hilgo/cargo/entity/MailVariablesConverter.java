@@ -0,0 +1,43 @@
+package com.hilgo.cargo.entity;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Mail şablon değişkenlerini outbox tablosunda JSON olarak saklar
+@Converter
+public class MailVariablesConverter implements AttributeConverter<Map<String, String>, String> {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final TypeReference<Map<String, String>> TYPE = new TypeReference<>() {
+	};
+
+	@Override
+	public String convertToDatabaseColumn(Map<String, String> attribute) {
+		if (attribute == null) {
+			return null;
+		}
+		try {
+			return MAPPER.writeValueAsString(attribute);
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("Mail variables could not be serialized", e);
+		}
+	}
+
+	@Override
+	public Map<String, String> convertToEntityAttribute(String dbData) {
+		if (dbData == null) {
+			return null;
+		}
+		try {
+			return MAPPER.readValue(dbData, TYPE);
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("Mail variables could not be read", e);
+		}
+	}
+}
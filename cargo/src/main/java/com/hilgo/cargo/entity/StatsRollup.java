@@ -0,0 +1,45 @@
+package com.hilgo.cargo.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Admin istatistiklerinin kalıcı toplamları; StatsService bellekteki sayaçları periyodik olarak
+ * buraya ekler. Örn. metric = "cargo.situation", dimension = "DELIVERED".
+ */
+@Entity
+@Table(name = "stats_rollup",
+		uniqueConstraints = @UniqueConstraint(name = "uk_stats_rollup", columnNames = { "metric", "dimension" }))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class StatsRollup {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(nullable = false, length = 64)
+	private String metric;
+
+	@Column(nullable = false, length = 64)
+	private String dimension;
+
+	@Column(nullable = false)
+	private long total;
+
+	@Column
+	private LocalDateTime updatedAt;
+}
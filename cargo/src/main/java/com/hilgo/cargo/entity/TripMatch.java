@@ -0,0 +1,52 @@
+package com.hilgo.cargo.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "trip_match",
+		uniqueConstraints = @UniqueConstraint(name = "uk_trip_match", columnNames = { "subscription_id", "cargo_id" }),
+		indexes = @Index(name = "idx_trip_match_cargo", columnList = "cargo_id"))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TripMatch {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@ManyToOne(fetch = FetchType.LAZY, optional = false)
+	@JoinColumn(name = "subscription_id")
+	private TripSubscription subscription;
+
+	@ManyToOne(fetch = FetchType.LAZY, optional = false)
+	@JoinColumn(name = "cargo_id")
+	private Cargo cargo;
+
+	// Kargonun yolculuğa eklediği sapma
+	@Column
+	private Double detourKm;
+
+	@CreationTimestamp
+	@Column(name = "created_at")
+	private LocalDateTime createdAt;
+}
@@ -0,0 +1,81 @@
+package com.hilgo.cargo.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import com.hilgo.cargo.entity.enums.CarType;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Sürücünün bir kez kaydettiği planlı yolculuk. Yeni eklenen kargolar bu rotaya, tarih
+ * aralığına ve araç tipine göre sürekli eşleştirilir (TripMatch).
+ */
+@Entity
+@Table(name = "trip_subscription", indexes = {
+		@Index(name = "idx_trip_subscription_active", columnList = "active, available_until"),
+		@Index(name = "idx_trip_subscription_driver", columnList = "driver_user_id, id")
+})
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TripSubscription {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@ManyToOne(fetch = FetchType.LAZY, optional = false)
+	@JoinColumn(name = "driver_user_id")
+	private Driver driver;
+
+	@Column(nullable = false)
+	private Double originLatitude;
+
+	@Column(nullable = false)
+	private Double originLongitude;
+
+	@Column(nullable = false)
+	private Double destinationLatitude;
+
+	@Column(nullable = false)
+	private Double destinationLongitude;
+
+	// Rotaya eklenebilecek en fazla sapma
+	@Column(nullable = false)
+	private Double detourKm;
+
+	@Column(name = "available_from")
+	private LocalDateTime availableFrom;
+
+	@Column(name = "available_until", nullable = false)
+	private LocalDateTime availableUntil;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	private CarType carType;
+
+	@Column(nullable = false)
+	private boolean active = true;
+
+	@CreationTimestamp
+	@Column(name = "created_at")
+	private LocalDateTime createdAt;
+}
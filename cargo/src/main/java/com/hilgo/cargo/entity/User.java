@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
+import org.hibernate.annotations.CreationTimestamp;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -73,6 +74,22 @@ public class User implements UserDetails{
 	
 	@Column
 	private boolean enable;
+
+	@CreationTimestamp
+	@Column(name = "created_at", updatable = false)
+	private LocalDateTime createdAt;
+
+	// Arttırıldığında bu kullanıcıya daha önce verilmiş tüm token'lar geçersiz olur
+	@Column
+	private Integer tokenVersion = 0;
+
+	public int getTokenVersion() {
+		return tokenVersion == null ? 0 : tokenVersion;
+	}
+
+	public void increaseTokenVersion() {
+		tokenVersion = getTokenVersion() + 1;
+	}
 	
 	@Override
 	public Collection<? extends GrantedAuthority> getAuthorities() {
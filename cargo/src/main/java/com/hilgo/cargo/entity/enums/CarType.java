@@ -1,13 +1,28 @@
 package com.hilgo.cargo.entity.enums;
 
 public enum CarType {
-    SEDAN,
-    HATCHBACK,
-    SUV,
-    MINIVAN,
-    PICKUP,
-    PANELVAN,
-    MOTORCYCLE,
-    TRUCK,
-    TRAILER
-}
\ No newline at end of file
+    SEDAN(Size.M),
+    HATCHBACK(Size.S),
+    SUV(Size.L),
+    MINIVAN(Size.L),
+    PICKUP(Size.XL),
+    PANELVAN(Size.XL),
+    MOTORCYCLE(Size.S),
+    TRUCK(Size.XXL),
+    TRAILER(Size.XXL);
+
+    // Aracın taşıyabileceği en büyük kargo boyutu
+    private final Size maxSize;
+
+    CarType(Size maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Size getMaxSize() {
+        return maxSize;
+    }
+
+    public boolean canCarry(Size size) {
+        return size == null || size.ordinal() <= maxSize.ordinal();
+    }
+}
@@ -0,0 +1,8 @@
+package com.hilgo.cargo.entity.enums;
+
+public enum MailStatus {
+    PENDING,    // Gönderilmeyi bekliyor (ilk deneme veya tekrar deneme)
+    SENDING,    // Bir dispatcher tarafından alındı, gönderiliyor
+    SENT,       // Başarıyla gönderildi
+    DEAD        // Deneme hakkı bitti, elle incelenmeli
+}
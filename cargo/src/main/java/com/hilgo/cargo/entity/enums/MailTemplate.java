@@ -0,0 +1,17 @@
+package com.hilgo.cargo.entity.enums;
+
+public enum MailTemplate {
+    VERIFICATION("verification"),        // Kayıt sonrası doğrulama kodu
+    PASSWORD_CHANGE("password_change"),  // Şifre değiştirme kodu
+    PASSWORD_RESET("password_reset");    // Şifre sıfırlama bağlantısı
+
+    private final String fileName;
+
+    MailTemplate(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+}
@@ -2,5 +2,7 @@ package com.hilgo.cargo.entity.enums;
 
 public enum Roles {
 	DRIVER,
-	DISTRIBUTOR;
+	DISTRIBUTOR,
+	// Kayıtla alınamaz; veritabanında elle atanır
+	ADMIN;
 }
@@ -0,0 +1,33 @@
+package com.hilgo.cargo.event;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Teslim edilen kargonun teslimat süresi analizi için gereken bilgileri; commit'ten sonra
+ * DeliveryStatsService'e iletilir. Konumu olmayan kargolarda koordinatlar null'dır.
+ */
+@Getter
+@AllArgsConstructor
+public class CargoDeliveredEvent {
+
+	private final Long cargoId;
+
+	private final Long driverId;
+
+	private final Long distributorId;
+
+	private final LocalDateTime takingTime;
+
+	private final LocalDateTime deliveredTime;
+
+	private final Double fromLatitude;
+
+	private final Double fromLongitude;
+
+	private final Double toLatitude;
+
+	private final Double toLongitude;
+}
@@ -0,0 +1,30 @@
+package com.hilgo.cargo.event;
+
+import java.time.LocalDateTime;
+
+import com.hilgo.cargo.entity.enums.CargoSituation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Kargonun CargoSituation geçişi. İşlem commit edildikten sonra dinleyicilere (TrackingHub,
+ * CargoEventStream) iletilir. Yeni kargoda previousSituation null'dır.
+ */
+@Getter
+@AllArgsConstructor
+public class CargoSituationChangedEvent {
+
+	private final Long cargoId;
+
+	private final Long distributorId;
+
+	// Kargo henüz alınmadıysa null
+	private final Long driverId;
+
+	private final CargoSituation previousSituation;
+
+	private final CargoSituation situation;
+
+	private final LocalDateTime occurredAt;
+}
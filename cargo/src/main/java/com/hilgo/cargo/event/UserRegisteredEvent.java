@@ -0,0 +1,22 @@
+package com.hilgo.cargo.event;
+
+import java.time.LocalDateTime;
+
+import com.hilgo.cargo.entity.enums.Roles;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Yeni kullanıcı kaydı; kayıt transaction'ı commit edildikten sonra dinleyicilere iletilir.
+ */
+@Getter
+@AllArgsConstructor
+public class UserRegisteredEvent {
+
+	private final Long userId;
+
+	private final Roles role;
+
+	private final LocalDateTime registeredAt;
+}
@@ -0,0 +1,29 @@
+package com.hilgo.cargo.exception;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+	@ExceptionHandler(CargoStateException.class)
+	public ResponseEntity<Map<String, Object>> handleCargoState(CargoStateException e) {
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("error", e.getMessage());
+		body.put("cargoId", e.getCargoId());
+		body.put("cargoSituation", e.getCurrentSituation());
+		return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+	}
+
+	@ExceptionHandler(InvalidPageRequestException.class)
+	public ResponseEntity<Map<String, Object>> handleInvalidPage(InvalidPageRequestException e) {
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("error", e.getMessage());
+		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
+	}
+}
@@ -0,0 +1,23 @@
+package com.hilgo.cargo.exception;
+
+import com.hilgo.cargo.entity.enums.CargoSituation;
+
+import lombok.Getter;
+
+/**
+ * Kargo beklenen durumda değil (ör. başka bir sürücü tarafından alınmış). 409 Conflict olarak döner.
+ */
+@Getter
+public class CargoStateException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Long cargoId;
+	private final CargoSituation currentSituation;
+
+	public CargoStateException(Long cargoId, CargoSituation currentSituation, String message) {
+		super(message);
+		this.cargoId = cargoId;
+		this.currentSituation = currentSituation;
+	}
+}
@@ -0,0 +1,18 @@
+package com.hilgo.cargo.exception;
+
+/**
+ * Sayfalama parametreleri geçersiz (bilinmeyen sıralama alanı/yönü, bozuk cursor, çok derin sayfa).
+ * 400 Bad Request olarak döner.
+ */
+public class InvalidPageRequestException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public InvalidPageRequestException(String message) {
+		super(message);
+	}
+
+	public InvalidPageRequestException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -0,0 +1,22 @@
+package com.hilgo.cargo.exception;
+
+import lombok.Getter;
+
+/**
+ * Endpoint @QueryBudget'ta bildirdiğinden fazla SQL çalıştırdı. Yalnızca
+ * sql.stats.enforce-budgets=true iken (testler) fırlatılır; üretimde uyarı olarak loglanır.
+ */
+@Getter
+public class QueryBudgetExceededException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int statements;
+	private final int maxRepeats;
+
+	public QueryBudgetExceededException(String message, int statements, int maxRepeats) {
+		super(message);
+		this.statements = statements;
+		this.maxRepeats = maxRepeats;
+	}
+}
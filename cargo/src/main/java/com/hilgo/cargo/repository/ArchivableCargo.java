@@ -0,0 +1,22 @@
+package com.hilgo.cargo.repository;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Arşive taşınacak kargo; uydu satırların id'leri ile birlikte
+@Getter
+@AllArgsConstructor
+public class ArchivableCargo {
+
+	private Long cargoId;
+
+	private LocalDateTime updatedAt;
+
+	private Long selfLocationId;
+
+	private Long targetLocationId;
+
+	private Long measureId;
+}
@@ -0,0 +1,28 @@
+package com.hilgo.cargo.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.hilgo.cargo.entity.CargoArchive;
+
+@Repository
+public interface CargoArchiveRepository extends JpaRepository<CargoArchive, Long> {
+
+	/**
+	 * CargoRepository.CARGOES_RESPONSE_SELECT'in arşiv karşılığı; alias ve sıralama alanları aynıdır,
+	 * böylece CargoCursor iki tabloda da aynı şekilde çalışır.
+	 */
+	String CARGOES_RESPONSE_SELECT = "select new com.hilgo.cargo.response.CargoesResponse("
+			+ "c.id, c.description, c.selfLatitude, c.selfLongitude, c.targetLatitude, c.targetLongitude, "
+			+ "c.weight, c.height, c.size, c.cargoSituation, c.phoneNumber, d.phoneNumber, "
+			+ "c.createdAt, c.updatedAt, c.verificationCode) "
+			+ "from CargoArchive c left join Distributor d on d.Id = c.distributorId";
+
+	Optional<CargoArchive> findByIdAndDistributorId(Long cargoId, Long distributorId);
+
+	long countByDistributorId(Long distributorId);
+
+	long countByDriverId(Long driverId);
+}
@@ -0,0 +1,135 @@
+package com.hilgo.cargo.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import com.hilgo.cargo.exception.InvalidPageRequestException;
+import com.hilgo.cargo.response.CargoesResponse;
+
+import lombok.Getter;
+
+/**
+ * Keyset sayfalama için opak devam token'ı. Son satırın sıralama anahtarı ve id'sini taşır;
+ * bir sonraki sayfa OFFSET yerine "(anahtar, id) > (son anahtar, son id)" koşuluyla okunur.
+ * Token, base64url ile kodlanmış "v1|sıralama|yön|değer|id" metnidir. NULL anahtarlar artan
+ * sırada en başta, azalan sırada en sonda yer alır; token'da NULL_VALUE ile kodlanır.
+ */
+@Getter
+public final class CargoCursor {
+
+	private static final String VERSION = "v1";
+
+	// Tarih değerleriyle çakışmayan NULL işareti; "null" eski token'larda görülür
+	private static final String NULL_VALUE = "~";
+	private static final String LEGACY_NULL_VALUE = "null";
+
+	// Cursor modunda tek sayfada dönebilecek en fazla kargo
+	public static final int MAX_PAGE_SIZE = 100;
+
+	/**
+	 * İzin verilen sıralama anahtarları; her biri Cargo üzerindeki bir index ile desteklenir.
+	 */
+	public enum SortKey {
+		ID("id", "c.id"),
+		CREATED_AT("createdAt", "c.createdAt"),
+		UPDATED_AT("updatedAt", "c.updatedAt");
+
+		private final String param;
+		private final String path;
+
+		SortKey(String param, String path) {
+			this.param = param;
+			this.path = path;
+		}
+
+		public String getPath() {
+			return path;
+		}
+
+		public static SortKey fromParam(String param) {
+			for (SortKey key : values()) {
+				if (key.param.equals(param)) {
+					return key;
+				}
+			}
+			throw new InvalidPageRequestException("Unsupported sort key: " + param);
+		}
+
+		Object valueOf(CargoesResponse cargo) {
+			return switch (this) {
+			case ID -> cargo.getId();
+			case CREATED_AT -> cargo.getCreatedAt();
+			case UPDATED_AT -> cargo.getUpdatedAt();
+			};
+		}
+	}
+
+	private final SortKey sortKey;
+	private final boolean descending;
+	// null ise ilk sayfa
+	private final Object lastValue;
+	private final Long lastId;
+
+	private CargoCursor(SortKey sortKey, boolean descending, Object lastValue, Long lastId) {
+		this.sortKey = sortKey;
+		this.descending = descending;
+		this.lastValue = lastValue;
+		this.lastId = lastId;
+	}
+
+	public static int clampSize(int size) {
+		return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+	}
+
+	// İstek parametresindeki sıralama yönü; "asc" ya da "desc"
+	public static boolean isDescending(String direction) {
+		if ("desc".equalsIgnoreCase(direction)) {
+			return true;
+		}
+		if ("asc".equalsIgnoreCase(direction)) {
+			return false;
+		}
+		throw new InvalidPageRequestException("Unsupported sort direction: " + direction);
+	}
+
+	public static CargoCursor first(String sortBy, boolean descending) {
+		return new CargoCursor(SortKey.fromParam(sortBy), descending, null, null);
+	}
+
+	public static CargoCursor decode(String token) {
+		try {
+			String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", -1);
+			if (parts.length != 5 || !VERSION.equals(parts[0])) {
+				throw new IllegalArgumentException("Unknown cursor format");
+			}
+			SortKey sortKey = SortKey.fromParam(parts[1]);
+			Long lastId = Long.valueOf(parts[4]);
+			Object lastValue = sortKey == SortKey.ID ? lastId : parseValue(parts[3]);
+			return new CargoCursor(sortKey, "d".equals(parts[2]), lastValue, lastId);
+		} catch (RuntimeException e) {
+			throw new InvalidPageRequestException("Invalid cursor", e);
+		}
+	}
+
+	private static LocalDateTime parseValue(String value) {
+		if (NULL_VALUE.equals(value) || LEGACY_NULL_VALUE.equals(value)) {
+			return null;
+		}
+		return LocalDateTime.parse(value);
+	}
+
+	public boolean isFirstPage() {
+		return lastId == null;
+	}
+
+	CargoCursor after(CargoesResponse last) {
+		return new CargoCursor(sortKey, descending, sortKey.valueOf(last), last.getId());
+	}
+
+	public String encode() {
+		String value = sortKey == SortKey.ID ? "" : lastValue == null ? NULL_VALUE : lastValue.toString();
+		String raw = String.join("|", VERSION, sortKey.param, descending ? "d" : "a", value, String.valueOf(lastId));
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,25 @@
+package com.hilgo.cargo.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.hilgo.cargo.response.CargoWindow;
+import com.hilgo.cargo.response.CargoesResponse;
+
+/**
+ * OFFSET ve COUNT(*) kullanmadan, CargoCursor ile kargo listesinde ilerleyen sorgular; kullanıcı
+ * geçmişi için eski page/size modunun arşivi de kapsayan karşılıkları.
+ */
+public interface CargoFeedRepository {
+
+	CargoWindow findCargoWindow(CargoCursor cursor, int size);
+
+	CargoWindow findCargoWindowByDistributorId(Long distributorId, CargoCursor cursor, int size);
+
+	CargoWindow findCargoWindowByDriverId(Long driverId, CargoCursor cursor, int size);
+
+	// Eski page/size modu; sıcak tablo ve cargo_archive birlikte, derin sayfalar cursor moduna yönlendirilir
+	Page<CargoesResponse> findCargoPageByDistributorId(Long distributorId, Pageable pageable);
+
+	Page<CargoesResponse> findCargoPageByDriverId(Long driverId, Pageable pageable);
+}
@@ -0,0 +1,261 @@
+package com.hilgo.cargo.repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.hilgo.cargo.exception.InvalidPageRequestException;
+import com.hilgo.cargo.response.CargoWindow;
+import com.hilgo.cargo.response.CargoesResponse;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+class CargoFeedRepositoryImpl implements CargoFeedRepository {
+
+	// Eski page/size modu her iki tablodan offset + size satır okur; daha derin sayfalar cursor ile istenir
+	static final int MAX_PAGE_OFFSET = 1_000;
+
+	/**
+	 * Eski page/size modunun sıralayabildiği alanlar; sıcak tablo ve arşivdeki yolları ile birleşimde
+	 * karşılaştırılan değer.
+	 */
+	private enum PageSort {
+		ID("id", "c.id", "c.id", CargoesResponse::getId),
+		DESCRIPTION("description", "c.description", "c.description", CargoesResponse::getDescription),
+		CARGO_SITUATION("cargoSituation", "c.cargoSituation", "c.cargoSituation", CargoesResponse::getCargoSituation),
+		PHONE_NUMBER("phoneNumber", "c.phoneNumber", "c.phoneNumber", CargoesResponse::getPhoneNumber),
+		CREATED_AT("createdAt", "c.createdAt", "c.createdAt", CargoesResponse::getCreatedAt),
+		UPDATED_AT("updatedAt", "c.updatedAt", "c.updatedAt", CargoesResponse::getUpdatedAt),
+		WEIGHT("measure.weight", "m.weight", "c.weight", cargo -> cargo.getResponseMeasure().getWeight()),
+		HEIGHT("measure.height", "m.height", "c.height", cargo -> cargo.getResponseMeasure().getHeight()),
+		SIZE("measure.size", "m.size", "c.size", cargo -> cargo.getResponseMeasure().getSize());
+
+		private final String param;
+		private final String hotPath;
+		private final String archivePath;
+		private final Function<CargoesResponse, Object> value;
+
+		PageSort(String param, String hotPath, String archivePath, Function<CargoesResponse, Object> value) {
+			this.param = param;
+			this.hotPath = hotPath;
+			this.archivePath = archivePath;
+			this.value = value;
+		}
+
+		static PageSort fromParam(String param) {
+			for (PageSort sort : values()) {
+				if (sort.param.equals(param)) {
+					return sort;
+				}
+			}
+			throw new InvalidPageRequestException("Unsupported sort key: " + param);
+		}
+	}
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public CargoWindow findCargoWindow(CargoCursor cursor, int size) {
+		return findWindow(null, null, cursor, size);
+	}
+
+	@Override
+	public CargoWindow findCargoWindowByDistributorId(Long distributorId, CargoCursor cursor, int size) {
+		return findHistoryWindow("c.distributor.Id", "c.distributorId", distributorId, cursor, size);
+	}
+
+	@Override
+	public CargoWindow findCargoWindowByDriverId(Long driverId, CargoCursor cursor, int size) {
+		return findHistoryWindow("c.driver.Id", "c.driverId", driverId, cursor, size);
+	}
+
+	@Override
+	public Page<CargoesResponse> findCargoPageByDistributorId(Long distributorId, Pageable pageable) {
+		return findHistoryPage("c.distributor.Id", "c.distributorId", distributorId, pageable);
+	}
+
+	@Override
+	public Page<CargoesResponse> findCargoPageByDriverId(Long driverId, Pageable pageable) {
+		return findHistoryPage("c.driver.Id", "c.driverId", driverId, pageable);
+	}
+
+	private CargoWindow findWindow(String ownerPath, Long ownerId, CargoCursor cursor, int requestedSize) {
+		int size = CargoCursor.clampSize(requestedSize);
+		List<CargoesResponse> rows = findRows(CargoRepository.CARGOES_RESPONSE_SELECT, ownerPath, ownerId, cursor,
+				size + 1);
+		return toWindow(rows, cursor, size);
+	}
+
+	/**
+	 * Kullanıcının kendi kargo geçmişi: sıcak tablo ile cargo_archive aynı cursor ile okunup
+	 * sıralama anahtarına göre birleştirilir; istemci kargonun arşive taşındığını fark etmez.
+	 */
+	private CargoWindow findHistoryWindow(String ownerPath, String archiveOwnerPath, Long ownerId, CargoCursor cursor,
+			int requestedSize) {
+		int size = CargoCursor.clampSize(requestedSize);
+		// size + 1 satır okunur; fazlası sonraki sayfanın varlığını COUNT olmadan gösterir
+		List<CargoesResponse> merged = findMerged(ownerPath, archiveOwnerPath, ownerId, cursor, size + 1);
+		return toWindow(merged, cursor, size);
+	}
+
+	/**
+	 * Eski page/size modu için aynı birleşim: iki tablodan da offset + size satır okunur, birleşik
+	 * sıradan istenen sayfa kesilir. Toplam, iki tablonun sayımlarının toplamıdır. Sayfa boyutu
+	 * cursor moduyla aynı sınırdadır; MAX_PAGE_OFFSET'ten derin sayfalar reddedilir.
+	 */
+	private Page<CargoesResponse> findHistoryPage(String ownerPath, String archiveOwnerPath, Long ownerId,
+			Pageable pageable) {
+		Sort.Order order = pageable.getSort().stream().findFirst().orElse(Sort.Order.asc("id"));
+		PageSort sort = PageSort.fromParam(order.getProperty());
+		int size = CargoCursor.clampSize(pageable.getPageSize());
+		long offset = (long) pageable.getPageNumber() * size;
+		if (offset > MAX_PAGE_OFFSET) {
+			throw new InvalidPageRequestException("Page too deep, use cursor paging");
+		}
+		int limit = (int) offset + size;
+		List<CargoesResponse> hot = findOrdered(CargoRepository.CARGOES_RESPONSE_SELECT, ownerPath, ownerId,
+				sort.hotPath, order.isDescending(), limit);
+		List<CargoesResponse> archived = findOrdered(CargoArchiveRepository.CARGOES_RESPONSE_SELECT,
+				archiveOwnerPath, ownerId, sort.archivePath, order.isDescending(), limit);
+		Comparator<CargoesResponse> comparator = Comparator
+				.comparing(sort.value, CargoFeedRepositoryImpl::compareValues)
+				.thenComparing(CargoesResponse::getId);
+		List<CargoesResponse> merged = merge(hot, archived,
+				order.isDescending() ? comparator.reversed() : comparator, limit);
+		List<CargoesResponse> content = offset < merged.size()
+				? new ArrayList<>(merged.subList((int) offset, merged.size()))
+				: List.of();
+		return PageableExecutionUtils.getPage(content, PageRequest.of(pageable.getPageNumber(), size, Sort.by(order)),
+				() -> count("Cargo", ownerPath, ownerId) + count("CargoArchive", archiveOwnerPath, ownerId));
+	}
+
+	// Veritabanı sırasına yakın karşılaştırma: NULL başta, enum'lar STRING kolon olarak adıyla,
+	// metinler varsayılan MySQL collation'ı gibi büyük/küçük harf duyarsız
+	@SuppressWarnings("unchecked")
+	private static int compareValues(Object left, Object right) {
+		if (left == null) {
+			return right == null ? 0 : -1;
+		}
+		if (right == null) {
+			return 1;
+		}
+		if (left instanceof Enum<?> l && right instanceof Enum<?> r) {
+			return l.name().compareTo(r.name());
+		}
+		if (left instanceof String l && right instanceof String r) {
+			return String.CASE_INSENSITIVE_ORDER.compare(l, r);
+		}
+		return ((Comparable<Object>) left).compareTo(right);
+	}
+
+	private List<CargoesResponse> findOrdered(String select, String ownerPath, Long ownerId, String path,
+			boolean descending, int limit) {
+		String dir = descending ? " desc" : " asc";
+		StringBuilder jpql = new StringBuilder(select).append(" where ").append(ownerPath).append(" = :ownerId")
+				.append(" order by ").append(path).append(dir);
+		if (!"c.id".equals(path)) {
+			jpql.append(descending ? " nulls last" : " nulls first").append(", c.id").append(dir);
+		}
+		return entityManager.createQuery(jpql.toString(), CargoesResponse.class).setParameter("ownerId", ownerId)
+				.setMaxResults(limit).getResultList();
+	}
+
+	// Aynı sırada gelen iki listenin birleşik sırasındaki ilk limit satır
+	private static List<CargoesResponse> merge(List<CargoesResponse> hot, List<CargoesResponse> archived,
+			Comparator<CargoesResponse> order, int limit) {
+		if (archived.isEmpty()) {
+			return hot;
+		}
+		List<CargoesResponse> merged = new ArrayList<>(hot.size() + archived.size());
+		merged.addAll(hot);
+		merged.addAll(archived);
+		merged.sort(order);
+		return merged.size() > limit ? merged.subList(0, limit) : merged;
+	}
+
+	// Her iki tablodan sıralı ilk limit satır okunup birleştirilir; birleşik sıranın ilk limit satırı döner
+	@SuppressWarnings("unchecked")
+	private List<CargoesResponse> findMerged(String ownerPath, String archiveOwnerPath, Long ownerId,
+			CargoCursor cursor, int limit) {
+		List<CargoesResponse> hot = findRows(CargoRepository.CARGOES_RESPONSE_SELECT, ownerPath, ownerId, cursor, limit);
+		List<CargoesResponse> archived = findRows(CargoArchiveRepository.CARGOES_RESPONSE_SELECT, archiveOwnerPath,
+				ownerId, cursor, limit);
+		CargoCursor.SortKey key = cursor.getSortKey();
+		// findRows ile aynı sıra: NULL anahtarlar artan sırada başta, azalan sırada sonda
+		Comparator<CargoesResponse> order = Comparator
+				.comparing(cargo -> (Comparable<Object>) key.valueOf(cargo), Comparator.nullsFirst(Comparator.naturalOrder()));
+		order = order.thenComparing(CargoesResponse::getId);
+		return merge(hot, archived, cursor.isDescending() ? order.reversed() : order, limit);
+	}
+
+	private long count(String entity, String ownerPath, Long ownerId) {
+		return entityManager.createQuery("select count(c) from " + entity + " c where " + ownerPath + " = :ownerId",
+				Long.class).setParameter("ownerId", ownerId).getSingleResult();
+	}
+
+	private List<CargoesResponse> findRows(String select, String ownerPath, Long ownerId, CargoCursor cursor,
+			int limit) {
+		String key = cursor.getSortKey().getPath();
+		String op = cursor.isDescending() ? "<" : ">";
+		String dir = cursor.isDescending() ? " desc" : " asc";
+
+		StringBuilder jpql = new StringBuilder(select).append(" where 1 = 1");
+		if (ownerPath != null) {
+			jpql.append(" and ").append(ownerPath).append(" = :ownerId");
+		}
+		boolean nullValue = !cursor.isFirstPage() && cursor.getLastValue() == null;
+		if (!cursor.isFirstPage()) {
+			if (cursor.getSortKey() == CargoCursor.SortKey.ID) {
+				jpql.append(" and c.id ").append(op).append(" :lastId");
+			} else if (nullValue) {
+				// NULL grubunun içinde id ile ilerlenir; artan sırada NULL'lardan sonra dolu değerler gelir
+				jpql.append(" and (").append(key).append(" is null and c.id ").append(op).append(" :lastId");
+				if (!cursor.isDescending()) {
+					jpql.append(" or ").append(key).append(" is not null");
+				}
+				jpql.append(')');
+			} else {
+				jpql.append(" and (").append(key).append(' ').append(op).append(" :lastValue or (")
+						.append(key).append(" = :lastValue and c.id ").append(op).append(" :lastId)");
+				if (cursor.isDescending()) {
+					jpql.append(" or ").append(key).append(" is null");
+				}
+				jpql.append(')');
+			}
+		}
+		jpql.append(" order by ").append(key).append(dir);
+		if (cursor.getSortKey() != CargoCursor.SortKey.ID) {
+			jpql.append(cursor.isDescending() ? " nulls last" : " nulls first");
+			jpql.append(", c.id").append(dir);
+		}
+
+		TypedQuery<CargoesResponse> query = entityManager.createQuery(jpql.toString(), CargoesResponse.class);
+		if (ownerPath != null) {
+			query.setParameter("ownerId", ownerId);
+		}
+		if (!cursor.isFirstPage()) {
+			query.setParameter("lastId", cursor.getLastId());
+			if (cursor.getSortKey() != CargoCursor.SortKey.ID && !nullValue) {
+				query.setParameter("lastValue", cursor.getLastValue());
+			}
+		}
+		return query.setMaxResults(limit).getResultList();
+	}
+
+	private static CargoWindow toWindow(List<CargoesResponse> rows, CargoCursor cursor, int size) {
+		boolean hasNext = rows.size() > size;
+		List<CargoesResponse> data = hasNext ? new ArrayList<>(rows.subList(0, size)) : rows;
+		String nextCursor = hasNext ? cursor.after(data.get(data.size() - 1)).encode() : null;
+		return new CargoWindow(data, nextCursor, hasNext, null);
+	}
+}
@@ -0,0 +1,20 @@
+package com.hilgo.cargo.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Konum index'lerini doldurmak için kargo id + alış/teslim koordinatları projection'ı
+@Getter
+@AllArgsConstructor
+public class CargoPoint {
+
+	private Long id;
+
+	private Double latitude;
+
+	private Double longitude;
+
+	private Double targetLatitude;
+
+	private Double targetLongitude;
+}
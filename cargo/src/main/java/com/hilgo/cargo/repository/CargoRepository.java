@@ -1,19 +1,85 @@
 package com.hilgo.cargo.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.hilgo.cargo.entity.Cargo;
+import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.response.CargoesResponse;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+public interface CargoRepository extends JpaRepository<Cargo, Long>, CargoFeedRepository {
+
+	/**
+	 * Kargo listelerini tek sorguda CargoesResponse'a çeviren ortak select. Konum, ölçü ve
+	 * dağıtıcı telefonu join ile gelir; entity ve ilişkileri yüklenmez.
+	 */
+	String CARGOES_RESPONSE_SELECT = "select new com.hilgo.cargo.response.CargoesResponse("
+			+ "c.id, c.description, sl.latitude, sl.longitude, tl.latitude, tl.longitude, "
+			+ "m.weight, m.height, m.size, c.cargoSituation, c.phoneNumber, d.phoneNumber, "
+			+ "c.createdAt, c.updatedAt, c.verificationCode) "
+			+ "from Cargo c left join c.selfLocation sl left join c.targetLocation tl "
+			+ "left join c.measure m left join c.distributor d";
 
-public interface CargoRepository extends JpaRepository<Cargo, Long>{
 	Optional<Cargo> findByIdAndDistributorId(Long cargoId, Long distributorId);
 	Optional<Cargo> findByIdAndDriverId(Long cargoId, Long driverId);
 	List<Cargo> findAllByDistributorId(Long id);
     Page<Cargo> findByDistributorId(Long id, Pageable pageable);
+	long countByDistributorId(Long id);
+
+	@Query(value = CARGOES_RESPONSE_SELECT + " where c.distributor.Id = :distributorId",
+			countQuery = "select count(c) from Cargo c where c.distributor.Id = :distributorId")
+	Page<CargoesResponse> findCargoesByDistributorId(@Param("distributorId") Long distributorId, Pageable pageable);
+
+	@Query(CARGOES_RESPONSE_SELECT + " where c.distributor.Id = :distributorId order by c.id")
+	List<CargoesResponse> findAllCargoesByDistributorId(@Param("distributorId") Long distributorId);
+
+	// Güncelleme/silme öncesi durumu kontrol ederken satırı kilitler; aynı anda gelen takeCargo bekler
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select c from Cargo c where c.id = :cargoId and c.distributor.Id = :distributorId")
+	Optional<Cargo> findByIdAndDistributorIdForUpdate(@Param("cargoId") Long cargoId,
+			@Param("distributorId") Long distributorId);
+
+	// Süresi dolmuş CREATED kargolar, en eskiden; (cargo_situation, created_at) index'i ile sadece
+	// süresi dolanlar okunur. Lock timeout -2 = SKIP LOCKED: başka instance'ın o an işlediği satırlar atlanır
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+	@Query("select new com.hilgo.cargo.repository.ExpiringCargo(c.id, c.distributor.Id) from Cargo c "
+			+ "where c.cargoSituation = com.hilgo.cargo.entity.enums.CargoSituation.CREATED "
+			+ "and c.createdAt < :cutoff order by c.createdAt, c.id")
+	List<ExpiringCargo> lockExpired(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
 
+	// Sadece hâlâ CREATED olanlar; arada alınan kargo EXPIRED olmaz
+	@Transactional
+	@Modifying
+	@Query("update Cargo c set c.cargoSituation = com.hilgo.cargo.entity.enums.CargoSituation.EXPIRED, "
+			+ "c.updatedAt = :now "
+			+ "where c.id in :ids and c.cargoSituation = com.hilgo.cargo.entity.enums.CargoSituation.CREATED")
+	int expire(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
 
+	// CargoArchiver: (updated_at, id) sırasıyla keyset; kilitli satırlar başka instance'ta, atlanır
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+	@Query("select new com.hilgo.cargo.repository.ArchivableCargo(c.id, c.updatedAt, c.selfLocation.id, "
+			+ "c.targetLocation.id, c.measure.id) from Cargo c "
+			+ "where c.cargoSituation in :situations and c.updatedAt < :cutoff "
+			+ "and (c.updatedAt > :afterUpdatedAt or (c.updatedAt = :afterUpdatedAt and c.id > :afterId)) "
+			+ "order by c.updatedAt, c.id")
+	List<ArchivableCargo> lockArchivable(@Param("situations") Collection<CargoSituation> situations,
+			@Param("cutoff") LocalDateTime cutoff, @Param("afterUpdatedAt") LocalDateTime afterUpdatedAt,
+			@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -1,18 +1,77 @@
 package com.hilgo.cargo.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.hilgo.cargo.entity.Cargo;
+import com.hilgo.cargo.entity.Driver;
+import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.response.CargoesResponse;
 
-public interface CargoRespository extends JpaRepository<Cargo, Long> {
+public interface CargoRespository extends JpaRepository<Cargo, Long>, CargoFeedRepository {
 
 	Optional<Cargo> findByIdAndDistributorId(Long cargoId, Long distributorId);
 
 	Optional<Cargo> findByIdAndDriverId(Long cargoId, Long driverId);
 
 	Page<Cargo> findByDriverId(Long id, Pageable pageable);
+
+	long countByDriverId(Long id);
+
+	@Query(value = CargoRepository.CARGOES_RESPONSE_SELECT + " where c.driver.Id = :driverId",
+			countQuery = "select count(c) from Cargo c where c.driver.Id = :driverId")
+	Page<CargoesResponse> findCargoesByDriverId(@Param("driverId") Long driverId, Pageable pageable);
+
+	@Query(value = CargoRepository.CARGOES_RESPONSE_SELECT, countQuery = "select count(c) from Cargo c")
+	Page<CargoesResponse> findAllCargoes(Pageable pageable);
+
+	@Query(CargoRepository.CARGOES_RESPONSE_SELECT + " where c.id in :ids")
+	List<CargoesResponse> findCargoesByIdIn(@Param("ids") Collection<Long> ids);
+
+	@Query("select new com.hilgo.cargo.repository.CargoPoint(c.id, sl.latitude, sl.longitude, tl.latitude, tl.longitude) "
+			+ "from Cargo c join c.selfLocation sl left join c.targetLocation tl "
+			+ "where c.cargoSituation = :situation and c.id > :afterId order by c.id")
+	List<CargoPoint> findLocationPoints(@Param("situation") CargoSituation situation,
+			@Param("afterId") Long afterId, Pageable pageable);
+
+	@Query("select c.cargoSituation from Cargo c where c.id = :cargoId")
+	Optional<CargoSituation> findSituationById(@Param("cargoId") Long cargoId);
+
+	// Sadece hâlâ CREATED olan kargo alınır; yarışan sürücülerden biri 1, diğerleri 0 satır günceller
+	@Transactional
+	@Modifying
+	@Query("update Cargo c set c.driver = :driver, "
+			+ "c.cargoSituation = com.hilgo.cargo.entity.enums.CargoSituation.PICKED_UP, "
+			+ "c.verificationCode = :verificationCode, c.takingTime = :now, c.updatedAt = :now "
+			+ "where c.id = :cargoId and c.cargoSituation = com.hilgo.cargo.entity.enums.CargoSituation.CREATED")
+	int claim(@Param("cargoId") Long cargoId, @Param("driver") Driver driver,
+			@Param("verificationCode") String verificationCode, @Param("now") LocalDateTime now);
+
+	// Teslim kodu doğru ve kargo hâlâ bu sürücüde PICKED_UP ise DELIVERED yapar
+	@Transactional
+	@Modifying
+	@Query("update Cargo c set c.cargoSituation = com.hilgo.cargo.entity.enums.CargoSituation.DELIVERED, "
+			+ "c.deliveredTime = :now, c.updatedAt = :now "
+			+ "where c.id = :cargoId and c.driver.Id = :driverId and c.verificationCode = :verificationCode "
+			+ "and c.cargoSituation = com.hilgo.cargo.entity.enums.CargoSituation.PICKED_UP")
+	int markDelivered(@Param("cargoId") Long cargoId, @Param("driverId") Long driverId,
+			@Param("verificationCode") String verificationCode, @Param("now") LocalDateTime now);
+
+	@Query("select new com.hilgo.cargo.repository.TransitCargo(c.id, c.driver.Id, c.distributor.Id) from Cargo c "
+			+ "where c.cargoSituation = com.hilgo.cargo.entity.enums.CargoSituation.PICKED_UP and c.id > :afterId "
+			+ "order by c.id")
+	List<TransitCargo> findTransitCargoes(@Param("afterId") Long afterId, Pageable pageable);
+
+	@Query("select c.distributor.Id from Cargo c where c.id = :cargoId")
+	Optional<Long> findDistributorIdById(@Param("cargoId") Long cargoId);
 }
@@ -0,0 +1,14 @@
+package com.hilgo.cargo.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// TTL'i dolmuş, hâlâ CREATED olan kargo ve bildirilecek dağıtıcı
+@Getter
+@AllArgsConstructor
+public class ExpiringCargo {
+
+	private Long cargoId;
+
+	private Long distributorId;
+}
@@ -0,0 +1,61 @@
+package com.hilgo.cargo.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hilgo.cargo.entity.MailOutbox;
+import com.hilgo.cargo.entity.enums.MailStatus;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+	@Query("select m.id from MailOutbox m where m.status = com.hilgo.cargo.entity.enums.MailStatus.PENDING "
+			+ "and m.nextAttemptAt <= :now order by m.id")
+	List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+	// Sadece hâlâ PENDING olan satırlar alınır; aynı anda çalışan diğer instance'lar bu satırları atlar
+	@Transactional
+	@Modifying
+	@Query("update MailOutbox m set m.status = com.hilgo.cargo.entity.enums.MailStatus.SENDING, "
+			+ "m.claimToken = :claimToken, m.lockedUntil = :lockedUntil "
+			+ "where m.id in :ids and m.status = com.hilgo.cargo.entity.enums.MailStatus.PENDING")
+	int claim(@Param("ids") List<Long> ids, @Param("claimToken") String claimToken,
+			@Param("lockedUntil") LocalDateTime lockedUntil);
+
+	List<MailOutbox> findByClaimTokenAndStatus(String claimToken, MailStatus status);
+
+	// Sonuçlar toplu yazılır; claim süresi dolup başka bir instance'a geçen satırlara dokunulmaz
+	@Transactional
+	@Modifying
+	@Query("update MailOutbox m set m.status = com.hilgo.cargo.entity.enums.MailStatus.SENT, m.sentAt = :sentAt, "
+			+ "m.claimToken = null, m.lockedUntil = null, m.lastError = null "
+			+ "where m.id in :ids and m.claimToken = :claimToken")
+	int markSent(@Param("ids") List<Long> ids, @Param("claimToken") String claimToken,
+			@Param("sentAt") LocalDateTime sentAt);
+
+	@Transactional
+	@Modifying
+	@Query("update MailOutbox m set m.status = :status, m.attempts = :attempts, m.nextAttemptAt = :nextAttemptAt, "
+			+ "m.lastError = :lastError, m.claimToken = null, m.lockedUntil = null "
+			+ "where m.id in :ids and m.claimToken = :claimToken")
+	int markFailed(@Param("ids") List<Long> ids, @Param("claimToken") String claimToken,
+			@Param("status") MailStatus status, @Param("attempts") int attempts,
+			@Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("lastError") String lastError);
+
+	// Gönderirken çöken bir instance'ın bıraktığı kayıtları tekrar kuyruğa alır
+	@Transactional
+	@Modifying
+	@Query("update MailOutbox m set m.status = com.hilgo.cargo.entity.enums.MailStatus.PENDING, m.claimToken = null "
+			+ "where m.status = com.hilgo.cargo.entity.enums.MailStatus.SENDING and m.lockedUntil < :now")
+	int releaseExpiredClaims(@Param("now") LocalDateTime now);
+
+	long countByStatus(MailStatus status);
+}
@@ -0,0 +1,16 @@
+package com.hilgo.cargo.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Yoldaki (PICKED_UP) kargonun hangi sürücüde ve hangi dağıtıcıya ait olduğu
+@Getter
+@AllArgsConstructor
+public class TransitCargo {
+
+	private Long cargoId;
+
+	private Long driverId;
+
+	private Long distributorId;
+}
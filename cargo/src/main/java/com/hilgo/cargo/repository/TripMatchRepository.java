@@ -0,0 +1,23 @@
+package com.hilgo.cargo.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.hilgo.cargo.entity.TripMatch;
+import com.hilgo.cargo.response.TripMatchResponse;
+
+public interface TripMatchRepository extends JpaRepository<TripMatch, Long> {
+
+	@Query("select new com.hilgo.cargo.response.TripMatchResponse(m.id, m.subscription.id, m.cargo.id, m.detourKm, m.createdAt) "
+			+ "from TripMatch m where m.subscription.driver.Id = :driverId order by m.id desc")
+	List<TripMatchResponse> findResponsesByDriverId(@Param("driverId") Long driverId, Pageable pageable);
+
+	@Modifying
+	@Query("delete from TripMatch m where m.cargo.id = :cargoId")
+	int deleteByCargoId(@Param("cargoId") Long cargoId);
+}
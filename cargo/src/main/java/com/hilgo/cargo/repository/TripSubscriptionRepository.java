@@ -0,0 +1,20 @@
+package com.hilgo.cargo.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.hilgo.cargo.entity.TripSubscription;
+
+public interface TripSubscriptionRepository extends JpaRepository<TripSubscription, Long> {
+
+	List<TripSubscription> findByActiveTrueAndAvailableUntilAfterAndIdGreaterThanOrderById(LocalDateTime now,
+			Long afterId, Pageable pageable);
+
+	List<TripSubscription> findByDriverIdOrderByIdDesc(Long driverId);
+
+	Optional<TripSubscription> findByIdAndDriverId(Long id, Long driverId);
+}
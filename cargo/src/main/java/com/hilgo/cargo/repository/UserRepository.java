@@ -3,9 +3,12 @@ package com.hilgo.cargo.repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.hilgo.cargo.entity.User;
+import com.hilgo.cargo.service.AuthenticatedUser;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long>{
@@ -16,4 +19,9 @@ public interface UserRepository extends JpaRepository<User, Long>{
 	boolean existsByUsername(String username);
 	boolean existsByMail(String mail);
 	boolean existsByPhoneNumber(String phoneNumber);
+
+	// Sadece user tablosu okunur; driver/distributor tablolarına join atılmaz
+	@Query("select new com.hilgo.cargo.service.AuthenticatedUser(u.username, u.Id, u.roles, u.active, u.enable, u.tokenVersion) "
+			+ "from User u where u.username = :username")
+	Optional<AuthenticatedUser> findPrincipalByUsername(@Param("username") String username);
 }
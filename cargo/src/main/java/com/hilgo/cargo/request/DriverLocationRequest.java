@@ -0,0 +1,18 @@
+package com.hilgo.cargo.request;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Tek ping (latitude/longitude/recordedAt) ya da çevrimdışı biriktirilmiş ping'ler (points).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class DriverLocationRequest extends LocationPingRequest {
+
+	private List<LocationPingRequest> points;
+}
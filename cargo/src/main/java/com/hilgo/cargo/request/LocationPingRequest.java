@@ -0,0 +1,18 @@
+package com.hilgo.cargo.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationPingRequest {
+
+	private Double latitude;
+	private Double longitude;
+	// Cihazın ölçüm zamanı (epoch ms); boşsa sunucu zamanı kullanılır
+	private Long recordedAt;
+}
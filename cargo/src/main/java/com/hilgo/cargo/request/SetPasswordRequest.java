@@ -14,4 +14,6 @@ public class SetPasswordRequest {
 	private String email;
 	private String password;
 	private String checkPassword;
+	// forgotPassword linkindeki ya da /auth/change/verify'ın döndüğü sıfırlama token'ı
+	private String token;
 }
@@ -0,0 +1,25 @@
+package com.hilgo.cargo.request;
+
+import java.time.LocalDateTime;
+
+import com.hilgo.cargo.entity.enums.CarType;
+import com.hilgo.cargo.response.ResponseLocation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TripSubscriptionRequest {
+
+	private ResponseLocation origin;
+	private ResponseLocation destination;
+	private Double detourKm;
+	private LocalDateTime availableFrom;
+	private LocalDateTime availableUntil;
+	private CarType carType;
+}
@@ -0,0 +1,36 @@
+package com.hilgo.cargo.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.hilgo.cargo.entity.enums.CargoSituation;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Kargonun alınıp teslim edilene kadarki rotası; yoldaysa şu ana kadarki kısmı.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CargoTrackResponse {
+
+	private Long cargoId;
+
+	private Long driverId;
+
+	private CargoSituation cargoSituation;
+
+	private LocalDateTime takingTime;
+
+	private LocalDateTime deliveredTime;
+
+	// Sadeleştirmeden önceki nokta sayısı
+	private Integer recordedPoints;
+
+	private List<TrackPointResponse> points;
+}
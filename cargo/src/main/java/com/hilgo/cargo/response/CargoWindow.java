@@ -0,0 +1,41 @@
+package com.hilgo.cargo.response;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class CargoWindow {
+
+	private List<CargoesResponse> data;
+
+	// Son sayfada null
+	private String nextCursor;
+
+	private boolean hasNext;
+
+	// Sadece istenirse ve ilk sayfada hesaplanır
+	private Long totalItems;
+
+	// Cursor modundaki getMyCargoes / getAllCargoes cevabı: { data, meta }
+	public Map<String, Object> toResponse() {
+		Map<String, Object> meta = new HashMap<String, Object>();
+		meta.put("pageSize", data.size());
+		meta.put("hasNext", hasNext);
+		meta.put("nextCursor", nextCursor);
+		if (totalItems != null) {
+			meta.put("totalItems", totalItems);
+		}
+
+		Map<String, Object> response = new HashMap<String, Object>();
+		response.put("data", data);
+		response.put("meta", meta);
+		return response;
+	}
+}
@@ -3,6 +3,7 @@ package com.hilgo.cargo.response;
 import java.time.LocalDateTime;
 
 import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.entity.enums.Size;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -36,4 +37,14 @@ public class CargoesResponse {
 	private LocalDateTime updatedAt; 
     
 	private String verificationCode;
+
+	// CargoRepository.CARGOES_RESPONSE_SELECT tarafından kullanılan JPQL constructor projection'ı
+	public CargoesResponse(Long id, String description, Double selfLatitude, Double selfLongitude,
+			Double targetLatitude, Double targetLongitude, Double weight, Double height, Size size,
+			CargoSituation cargoSituation, String phoneNumber, String distPhoneNumber, LocalDateTime createdAt,
+			LocalDateTime updatedAt, String verificationCode) {
+		this(id, description, new ResponseLocation(selfLatitude, selfLongitude),
+				new ResponseLocation(targetLatitude, targetLongitude), new ResponseMeasure(weight, height, size),
+				cargoSituation, phoneNumber, distPhoneNumber, createdAt, updatedAt, verificationCode);
+	}
 }
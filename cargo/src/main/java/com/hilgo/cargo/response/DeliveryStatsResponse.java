@@ -0,0 +1,27 @@
+package com.hilgo.cargo.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Alınıştan teslime geçen sürenin dağılımı (dakika); teslimat yoksa yüzdelikler null.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeliveryStatsResponse {
+
+	// "all", "driver:12", "distributor:7" ya da "41.00,29.00>39.75,32.75"
+	private String scope;
+
+	private Long deliveries;
+
+	private Double p50Minutes;
+
+	private Double p90Minutes;
+
+	private Double p99Minutes;
+}
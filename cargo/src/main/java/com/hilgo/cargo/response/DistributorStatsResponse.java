@@ -0,0 +1,19 @@
+package com.hilgo.cargo.response;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class DistributorStatsResponse {
+
+	private Long distributorId;
+
+	private Long totalCargoes;
+
+	private Map<String, Long> cargoesBySituation;
+}
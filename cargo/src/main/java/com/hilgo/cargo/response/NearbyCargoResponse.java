@@ -0,0 +1,18 @@
+package com.hilgo.cargo.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class NearbyCargoResponse {
+
+	private CargoesResponse cargo;
+
+	// Sürücünün konumuna haversine mesafesi
+	private Double distanceKm;
+}
@@ -0,0 +1,18 @@
+package com.hilgo.cargo.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class RouteMatchResponse {
+
+	private CargoesResponse cargo;
+
+	// Kargoyu almak ve teslim etmek için rotaya eklenen mesafe
+	private Double detourKm;
+}
@@ -0,0 +1,31 @@
+package com.hilgo.cargo.response;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Admin paneli özeti; günlük sayaçlar yyyy-MM-dd anahtarlı ve tarihe göre sıralıdır.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StatsResponse {
+
+	private Map<String, Long> cargoesBySituation;
+
+	private Map<String, Long> usersByRole;
+
+	// Araç tipi girilmemiş sürücüler NONE altında
+	private Map<String, Long> driversByCarType;
+
+	private Map<String, Long> cargoesCreatedPerDay;
+
+	private Map<String, Long> cargoesDeliveredPerDay;
+
+	private Map<String, Long> registrationsPerDay;
+}
@@ -0,0 +1,20 @@
+package com.hilgo.cargo.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrackPointResponse {
+
+	private Double latitude;
+
+	private Double longitude;
+
+	// Cihazın ölçüm zamanı (epoch ms)
+	private Long recordedAt;
+}
@@ -0,0 +1,36 @@
+package com.hilgo.cargo.response;
+
+import com.hilgo.cargo.entity.enums.CargoSituation;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Dağıtıcının takip akışına giden olay: sürücü konumu (position) ya da kargo durumu (status).
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrackingEvent {
+
+	public static final String POSITION = "position";
+	public static final String STATUS = "status";
+
+	private String type;
+
+	private Long cargoId;
+
+	private Long driverId;
+
+	private Double latitude;
+
+	private Double longitude;
+
+	private CargoSituation cargoSituation;
+
+	// Olayın zamanı (epoch ms); konumda cihazın ölçüm zamanı
+	private Long timestamp;
+}
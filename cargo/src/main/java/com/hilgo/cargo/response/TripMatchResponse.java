@@ -0,0 +1,27 @@
+package com.hilgo.cargo.response;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TripMatchResponse {
+
+	private Long id;
+	private Long subscriptionId;
+	private Long cargoId;
+	private Double detourKm;
+	private LocalDateTime createdAt;
+	private CargoesResponse cargo;
+
+	// TripMatchRepository.findResponsesByDriverId projection'ı; kargo sonradan doldurulur
+	public TripMatchResponse(Long id, Long subscriptionId, Long cargoId, Double detourKm, LocalDateTime createdAt) {
+		this(id, subscriptionId, cargoId, detourKm, createdAt, null);
+	}
+}
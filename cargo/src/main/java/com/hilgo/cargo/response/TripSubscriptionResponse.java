@@ -0,0 +1,28 @@
+package com.hilgo.cargo.response;
+
+import java.time.LocalDateTime;
+
+import com.hilgo.cargo.entity.enums.CarType;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TripSubscriptionResponse {
+
+	private Long id;
+	private ResponseLocation origin;
+	private ResponseLocation destination;
+	private Double detourKm;
+	private LocalDateTime availableFrom;
+	private LocalDateTime availableUntil;
+	private CarType carType;
+	private boolean active;
+}
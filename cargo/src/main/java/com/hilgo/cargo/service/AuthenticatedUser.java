@@ -0,0 +1,78 @@
+package com.hilgo.cargo.service;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.hilgo.cargo.entity.enums.Roles;
+
+import lombok.Getter;
+
+/**
+ * SecurityContext'e konulan hafif kullanıcı bilgisi. User entity'sinin aksine
+ * JOINED kalıtım tablolarına dokunmadan tek tablodan yüklenir ve cache'lenebilir.
+ */
+@Getter
+public final class AuthenticatedUser implements UserDetails {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String username;
+
+	private final Long id;
+
+	private final Roles role;
+
+	private final boolean active;
+
+	private final boolean enabled;
+
+	private final int tokenVersion;
+
+	public AuthenticatedUser(String username, Long id, Roles role, boolean active, boolean enabled,
+			Integer tokenVersion) {
+		this.username = username;
+		this.id = id;
+		this.role = role;
+		this.active = active;
+		this.enabled = enabled;
+		this.tokenVersion = tokenVersion == null ? 0 : tokenVersion;
+	}
+
+	/**
+	 * İsteği yapan kullanıcı. Servisler id/rol için veritabanına gitmek yerine bunu kullanır.
+	 */
+	public static AuthenticatedUser current() {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser principal)) {
+			throw new RuntimeException("User not found");
+		}
+		return principal;
+	}
+
+	/**
+	 * Mevcut kullanıcıyı döndürür; rolü beklenen rol değilse hata fırlatır.
+	 */
+	public static AuthenticatedUser current(Roles expectedRole) {
+		AuthenticatedUser principal = current();
+		if (principal.getRole() != expectedRole) {
+			throw new RuntimeException("User not found");
+		}
+		return principal;
+	}
+
+	@Override
+	public Collection<? extends GrantedAuthority> getAuthorities() {
+		return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+	}
+
+	@Override
+	public String getPassword() {
+		return null;
+	}
+}
@@ -0,0 +1,145 @@
+package com.hilgo.cargo.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.repository.ArchivableCargo;
+import com.hilgo.cargo.repository.CargoRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Bitmiş (DELIVERED, CANCELLED, EXPIRED) ve cargo.archive.after-days gündür değişmeyen kargoları
+ * sıcak tablolardan cargo_archive'a taşır. Kargolar (updated_at, id) sırasıyla batch'ler halinde
+ * kilitlenir (SKIP LOCKED); her batch tek transaction'da INSERT ... SELECT ile kopyalanır, sonra
+ * trip_match, shipment_sent, cargo, location ve measure satırları toplu silinir. Böylece cargo
+ * tablosunda sadece aktif ve yakın zamanda biten kargolar kalır.
+ */
+@Service
+@RequiredArgsConstructor
+public class CargoArchiver {
+
+	private static final Logger log = LoggerFactory.getLogger(CargoArchiver.class);
+
+	static final Set<CargoSituation> FINISHED = EnumSet.of(CargoSituation.DELIVERED, CargoSituation.CANCELLED,
+			CargoSituation.EXPIRED);
+
+	private static final String COPY_TO_ARCHIVE = "insert into cargo_archive (id, description, cargo_situation, "
+			+ "phone_number, verification_code, distributor_id, driver_id, self_latitude, self_longitude, "
+			+ "target_latitude, target_longitude, weight, height, size, taking_time, delivered_time, created_at, "
+			+ "updated_at, shipment_id, shipment_date, archived_at) "
+			+ "select c.id, c.description, c.cargo_situation, c.phone_number, c.verification_code, "
+			+ "c.distributor_user_id, c.driver_user_id, sl.latitude, sl.longitude, tl.latitude, tl.longitude, "
+			+ "m.weight, m.height, m.size, c.taking_time, c.delivered_time, c.created_at, c.updated_at, "
+			+ "s.id, s.date, :now "
+			+ "from cargo c left join location sl on sl.id = c.self_location_id "
+			+ "left join location tl on tl.id = c.target_location_id left join measure m on m.id = c.measure_id "
+			+ "left join shipment_sent s on s.cargo_id = c.id where c.id in (:ids)";
+
+	private final CargoRepository cargoRepository;
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+
+	@Value("${cargo.archive.after-days:30}")
+	private int afterDays;
+
+	@Value("${cargo.archive.batch-size:500}")
+	private int batchSize;
+
+	@Value("${cargo.archive.max-batches-per-run:200}")
+	private int maxBatchesPerRun;
+
+	@Scheduled(fixedDelayString = "${cargo.archive.interval:3600000}", initialDelayString = "${cargo.archive.interval:3600000}")
+	public void scheduledArchive() {
+		try {
+			long start = System.currentTimeMillis();
+			int archived = archive();
+			if (archived > 0) {
+				log.info("Archived {} cargoes in {} ms", archived, System.currentTimeMillis() - start);
+			}
+		} catch (RuntimeException e) {
+			log.error("Cargo archiving failed", e);
+		}
+	}
+
+	/**
+	 * Arşive taşınan kargo sayısını döner. Birikmiş iş varsa en fazla maxBatchesPerRun batch işlenir.
+	 */
+	public int archive() {
+		LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+		// Keyset: bu turda atlanan (kilitli) satırlar tekrar okunmaz
+		LocalDateTime afterUpdatedAt = LocalDateTime.of(1970, 1, 1, 0, 0);
+		Long afterId = 0L;
+		int total = 0;
+		for (int round = 0; round < maxBatchesPerRun; round++) {
+			LocalDateTime fromUpdatedAt = afterUpdatedAt;
+			Long fromId = afterId;
+			List<ArchivableCargo> batch = transactionTemplate
+					.execute(status -> archiveBatch(cutoff, fromUpdatedAt, fromId));
+			if (batch.isEmpty()) {
+				break;
+			}
+			total += batch.size();
+			ArchivableCargo last = batch.get(batch.size() - 1);
+			afterUpdatedAt = last.getUpdatedAt();
+			afterId = last.getCargoId();
+			if (batch.size() < batchSize) {
+				break;
+			}
+		}
+		return total;
+	}
+
+	private List<ArchivableCargo> archiveBatch(LocalDateTime cutoff, LocalDateTime afterUpdatedAt, Long afterId) {
+		List<ArchivableCargo> batch = cargoRepository.lockArchivable(FINISHED, cutoff, afterUpdatedAt, afterId,
+				PageRequest.of(0, batchSize));
+		if (batch.isEmpty()) {
+			return batch;
+		}
+		List<Long> ids = new ArrayList<>(batch.size());
+		List<Long> locationIds = new ArrayList<>();
+		List<Long> measureIds = new ArrayList<>();
+		for (ArchivableCargo cargo : batch) {
+			ids.add(cargo.getCargoId());
+			if (cargo.getSelfLocationId() != null) {
+				locationIds.add(cargo.getSelfLocationId());
+			}
+			if (cargo.getTargetLocationId() != null) {
+				locationIds.add(cargo.getTargetLocationId());
+			}
+			if (cargo.getMeasureId() != null) {
+				measureIds.add(cargo.getMeasureId());
+			}
+		}
+
+		MapSqlParameterSource params = new MapSqlParameterSource("ids", ids)
+				.addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+		jdbcTemplate.update(COPY_TO_ARCHIVE, params);
+		// Önce kargoya bakan satırlar, sonra kargo, en son kargonun uydu satırları
+		jdbcTemplate.update("delete from trip_match where cargo_id in (:ids)", params);
+		jdbcTemplate.update("delete from shipment_sent where cargo_id in (:ids)", params);
+		jdbcTemplate.update("delete from cargo where id in (:ids)", params);
+		if (!locationIds.isEmpty()) {
+			jdbcTemplate.update("delete from location where id in (:ids)", new MapSqlParameterSource("ids", locationIds));
+		}
+		if (!measureIds.isEmpty()) {
+			jdbcTemplate.update("delete from measure where id in (:ids)", new MapSqlParameterSource("ids", measureIds));
+		}
+		return batch;
+	}
+}
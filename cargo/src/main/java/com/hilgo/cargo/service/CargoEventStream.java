@@ -0,0 +1,289 @@
+package com.hilgo.cargo.service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.hilgo.cargo.event.CargoSituationChangedEvent;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Kullanıcılara kendi kargolarının durum değişikliklerini SSE ile ileten akış. Her olay artan
+ * bir sıra numarası alır ve sınırlı bir replay halkasında tutulur. SSE id'si "epoch-sıra"dır;
+ * epoch her açılışta yenilenir, başka bir açılışın id'siyle gelen istemci reset alır. Yeniden bağlanan
+ * istemci Last-Event-ID ile kaçırdıklarını alır. Kısa bir pencere içinde aynı kargoya gelen
+ * olaylar birleştirilir, istemciye sadece son durum gider. Halkadan düşmüş bir noktadan devam
+ * edilemiyorsa istemciye "reset" gönderilir ve listeyi bir kez yeniden çekmesi beklenir.
+ */
+@Service
+public class CargoEventStream {
+
+	public static final String CARGO_EVENT = "cargo";
+	public static final String RESET_EVENT = "reset";
+
+	@Value("${cargo.events.replay-size:10000}")
+	private int replaySize;
+
+	@Value("${cargo.events.coalesce-window:250}")
+	private long coalesceWindowMillis;
+
+	@Value("${cargo.events.max-pending:500}")
+	private int maxPending;
+
+	@Value("${cargo.events.sender-threads:2}")
+	private int senderThreads;
+
+	@Value("${cargo.events.emitter-timeout:1800000}")
+	private long emitterTimeout;
+
+	// Sıra numaraları açılışta 1'den başlar; önceki açılışın id'leri epoch ile ayırt edilir
+	private String epoch;
+
+	private final Object ringLock = new Object();
+	private Entry[] ring;
+	private long nextSequence = 1;
+
+	private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+	private final AtomicLong sent = new AtomicLong();
+
+	private ThreadPoolTaskScheduler senders;
+
+	@PostConstruct
+	void init() {
+		epoch = Long.toString(System.currentTimeMillis(), 36) + Integer.toString(ThreadLocalRandom.current().nextInt(1 << 20), 36);
+		ring = new Entry[replaySize];
+		senders = new ThreadPoolTaskScheduler();
+		senders.setPoolSize(senderThreads);
+		senders.setThreadNamePrefix("cargo-events-");
+		senders.initialize();
+	}
+
+	@PreDestroy
+	void shutdown() {
+		subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+		senders.shutdown();
+	}
+
+	/**
+	 * Oturumdaki kullanıcı için akış açar. lastEventId verilirse ondan sonraki olaylar tekrar gönderilir.
+	 */
+	public SseEmitter subscribe(String lastEventId) {
+		AuthenticatedUser principal = AuthenticatedUser.current();
+		SseEmitter emitter = new SseEmitter(emitterTimeout);
+		register(principal.getId(), lastEventId, emitter);
+		return emitter;
+	}
+
+	void register(Long userId, String lastEventId, SseEmitter emitter) {
+		Subscriber subscriber = new Subscriber(userId, emitter);
+		emitter.onCompletion(() -> unregister(subscriber));
+		emitter.onTimeout(() -> unregister(subscriber));
+		emitter.onError(e -> unregister(subscriber));
+		// Replay ile canlı olaylar arasında boşluk kalmasın diye ikisi aynı kilit altında
+		synchronized (ringLock) {
+			subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+			if (lastEventId != null) {
+				replay(subscriber, sequenceOf(lastEventId));
+			}
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCargoSituationChanged(CargoSituationChangedEvent event) {
+		synchronized (ringLock) {
+			Entry entry = new Entry(nextSequence++, event);
+			ring[(int) (entry.sequence % ring.length)] = entry;
+			offer(event.getDistributorId(), entry);
+			if (event.getDriverId() != null && !event.getDriverId().equals(event.getDistributorId())) {
+				offer(event.getDriverId(), entry);
+			}
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${cargo.events.heartbeat-interval:15000}")
+	public void heartbeat() {
+		for (Set<Subscriber> set : subscribers.values()) {
+			for (Subscriber subscriber : set) {
+				senders.execute(() -> {
+					try {
+						subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+					} catch (IOException | IllegalStateException e) {
+						subscriber.emitter.completeWithError(e);
+						unregister(subscriber);
+					}
+				});
+			}
+		}
+	}
+
+	public int subscriberCount() {
+		return subscribers.values().stream().mapToInt(Set::size).sum();
+	}
+
+	public long sentEvents() {
+		return sent.get();
+	}
+
+	String epoch() {
+		return epoch;
+	}
+
+	private String eventId(long sequence) {
+		return epoch + "-" + sequence;
+	}
+
+	// Bu açılışa ait değilse ya da bozuksa -1; eski sürümün düz sayı id'leri de böyle sayılır
+	private long sequenceOf(String eventId) {
+		int dash = eventId.lastIndexOf('-');
+		if (dash < 0 || !epoch.equals(eventId.substring(0, dash))) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(eventId.substring(dash + 1));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private void replay(Subscriber subscriber, long lastEventId) {
+		long oldest = Math.max(1, nextSequence - ring.length);
+		if (lastEventId < 0 || lastEventId + 1 < oldest || lastEventId >= nextSequence) {
+			// Halkadan düşmüş ya da sunucu yeniden başlamış; istemci listeyi tazelemeli
+			synchronized (subscriber) {
+				subscriber.reset = true;
+			}
+			schedule(subscriber, 0);
+			return;
+		}
+		for (long sequence = lastEventId + 1; sequence < nextSequence; sequence++) {
+			Entry entry = ring[(int) (sequence % ring.length)];
+			if (concerns(entry.event, subscriber.userId)) {
+				offer(subscriber, entry, 0);
+			}
+		}
+	}
+
+	private void offer(Long userId, Entry entry) {
+		Set<Subscriber> set = subscribers.get(userId);
+		if (set == null) {
+			return;
+		}
+		for (Subscriber subscriber : set) {
+			offer(subscriber, entry, coalesceWindowMillis);
+		}
+	}
+
+	private void offer(Subscriber subscriber, Entry entry, long delayMillis) {
+		synchronized (subscriber) {
+			if (subscriber.closed || subscriber.reset) {
+				return;
+			}
+			// Aynı kargonun bekleyen olayı varsa yenisiyle değiştirilir
+			subscriber.pending.put(entry.event.getCargoId(), entry);
+			if (subscriber.pending.size() > maxPending) {
+				subscriber.pending.clear();
+				subscriber.reset = true;
+			}
+		}
+		schedule(subscriber, delayMillis);
+	}
+
+	private void schedule(Subscriber subscriber, long delayMillis) {
+		synchronized (subscriber) {
+			if (subscriber.scheduled) {
+				return;
+			}
+			subscriber.scheduled = true;
+		}
+		senders.schedule(() -> flush(subscriber), Instant.now().plusMillis(delayMillis));
+	}
+
+	// Abone başına aynı anda tek flush çalışır; bu sırada gelen olaylar bir sonraki pencereye kalır
+	private void flush(Subscriber subscriber) {
+		List<Entry> entries;
+		boolean reset;
+		synchronized (subscriber) {
+			entries = new ArrayList<>(subscriber.pending.values());
+			subscriber.pending.clear();
+			reset = subscriber.reset;
+			subscriber.reset = false;
+		}
+		entries.sort(Comparator.comparingLong(entry -> entry.sequence));
+		try {
+			if (reset) {
+				long last;
+				synchronized (ringLock) {
+					last = nextSequence - 1;
+				}
+				subscriber.emitter.send(SseEmitter.event().id(eventId(last)).name(RESET_EVENT).data(""));
+			}
+			for (Entry entry : entries) {
+				subscriber.emitter.send(SseEmitter.event().id(eventId(entry.sequence)).name(CARGO_EVENT)
+						.data(entry.event, MediaType.APPLICATION_JSON));
+				sent.incrementAndGet();
+			}
+		} catch (IOException | IllegalStateException e) {
+			subscriber.emitter.completeWithError(e);
+			unregister(subscriber);
+			return;
+		}
+		synchronized (subscriber) {
+			if (subscriber.closed || (subscriber.pending.isEmpty() && !subscriber.reset)) {
+				subscriber.scheduled = false;
+				return;
+			}
+		}
+		senders.schedule(() -> flush(subscriber), Instant.now().plusMillis(coalesceWindowMillis));
+	}
+
+	private void unregister(Subscriber subscriber) {
+		synchronized (subscriber) {
+			subscriber.closed = true;
+			subscriber.pending.clear();
+		}
+		subscribers.computeIfPresent(subscriber.userId, (id, set) -> {
+			set.remove(subscriber);
+			return set.isEmpty() ? null : set;
+		});
+	}
+
+	private static boolean concerns(CargoSituationChangedEvent event, Long userId) {
+		return userId.equals(event.getDistributorId()) || userId.equals(event.getDriverId());
+	}
+
+	private record Entry(long sequence, CargoSituationChangedEvent event) {
+	}
+
+	private static final class Subscriber {
+
+		private final Long userId;
+		private final SseEmitter emitter;
+		private final Map<Long, Entry> pending = new LinkedHashMap<>();
+		private boolean scheduled;
+		private boolean reset;
+		private boolean closed;
+
+		private Subscriber(Long userId, SseEmitter emitter) {
+			this.userId = userId;
+			this.emitter = emitter;
+		}
+	}
+}
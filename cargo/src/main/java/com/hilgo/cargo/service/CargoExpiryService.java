@@ -0,0 +1,100 @@
+package com.hilgo.cargo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.event.CargoSituationChangedEvent;
+import com.hilgo.cargo.repository.CargoRepository;
+import com.hilgo.cargo.repository.ExpiringCargo;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * cargo.expiry.ttl süresince alınmayan CREATED kargoları EXPIRED yapar. Her turda süresi dolan
+ * kargolar (cargo_situation, created_at) index'inden en eskiden başlayarak parça parça kilitlenir
+ * (SKIP LOCKED) ve tek bir koşullu UPDATE ile geçirilir; maliyet tablo boyutuna değil süresi
+ * dolan kargo sayısına bağlıdır. Birden fazla instance aynı anda çalışırsa her biri farklı
+ * satırları alır. Geçişler CargoSituationChangedEvent olarak yayınlanır, dağıtıcı /events
+ * üzerinden haberdar olur.
+ */
+@Service
+@RequiredArgsConstructor
+public class CargoExpiryService {
+
+	private static final Logger log = LoggerFactory.getLogger(CargoExpiryService.class);
+
+	private final CargoRepository cargoRepository;
+	private final OpenCargoIndex openCargoIndex;
+	private final TransactionTemplate transactionTemplate;
+	private final ApplicationEventPublisher eventPublisher;
+
+	@Value("${cargo.expiry.ttl:72h}")
+	private Duration ttl;
+
+	@Value("${cargo.expiry.chunk-size:500}")
+	private int chunkSize;
+
+	@Value("${cargo.expiry.max-chunks-per-run:20}")
+	private int maxChunksPerRun;
+
+	@Scheduled(fixedDelayString = "${cargo.expiry.interval:60000}", initialDelayString = "${cargo.expiry.interval:60000}")
+	public void scheduledExpire() {
+		try {
+			int expired = expireDue();
+			if (expired > 0) {
+				log.info("Expired {} cargoes older than {}", expired, ttl);
+			}
+		} catch (RuntimeException e) {
+			log.error("Cargo expiry failed", e);
+		}
+	}
+
+	/**
+	 * Süresi dolmuş kargoları EXPIRED yapar ve bu instance'ın geçirdiği kargo sayısını döner.
+	 * Birikmiş çok sayıda kargo varsa bir tur en fazla maxChunksPerRun parça işler, kalanı sonraki tura kalır.
+	 */
+	public int expireDue() {
+		LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+		int total = 0;
+		for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+			int[] result = transactionTemplate.execute(status -> expireChunk(cutoff));
+			total += result[1];
+			if (result[0] < chunkSize) {
+				break;
+			}
+		}
+		return total;
+	}
+
+	// [kilitlenen, güncellenen]
+	private int[] expireChunk(LocalDateTime cutoff) {
+		List<ExpiringCargo> chunk = cargoRepository.lockExpired(cutoff, PageRequest.of(0, chunkSize));
+		if (chunk.isEmpty()) {
+			return new int[] { 0, 0 };
+		}
+		List<Long> ids = chunk.stream().map(ExpiringCargo::getCargoId).toList();
+		LocalDateTime now = LocalDateTime.now();
+		int updated = cargoRepository.expire(ids, now);
+		// Satırlar bu transaction'da kilitli: hepsi CREATED iken okundu ve hepsi bu UPDATE ile geçmeli
+		if (updated != chunk.size()) {
+			log.warn("Expected to expire {} locked cargoes but updated {}", chunk.size(), updated);
+		}
+		for (ExpiringCargo cargo : chunk) {
+			AfterCommit.run(() -> openCargoIndex.remove(cargo.getCargoId()));
+			eventPublisher.publishEvent(new CargoSituationChangedEvent(cargo.getCargoId(), cargo.getDistributorId(),
+					null, CargoSituation.CREATED, CargoSituation.EXPIRED, now));
+		}
+		return new int[] { chunk.size(), updated };
+	}
+}
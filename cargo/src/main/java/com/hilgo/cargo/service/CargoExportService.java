@@ -0,0 +1,288 @@
+package com.hilgo.cargo.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.Semaphore;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.hilgo.cargo.entity.enums.Roles;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Dağıtıcının tüm kargo geçmişini (arşiv + sıcak tablo) CSV ya da NDJSON olarak akıtır. Satırlar
+ * entity'ye çevrilmeden ileri yönlü bir JDBC cursor'ından cargo.export.fetch-size'lık parçalarla
+ * okunur ve hemen yazılır; bellekte tek satır ve yazma tamponu kalır, geçmişin boyutu heap'i
+ * etkilemez. İki sorgu tek bir salt okunur transaction'da çalışır, arşivleme araya girse de bir
+ * kargo iki kez ya da hiç görünmez. MySQL'de yalnızca bu sorgular satır satır akıtılır
+ * (fetch size Integer.MIN_VALUE); bağlantı adresine useCursorFetch eklenmez.
+ */
+@Service
+@RequiredArgsConstructor
+public class CargoExportService {
+
+	private static final Logger log = LoggerFactory.getLogger(CargoExportService.class);
+
+	private static final JsonFactory JSON = new JsonFactory();
+
+	private static final String[] COLUMNS = { "id", "description", "situation", "created_at", "taking_time",
+			"delivered_time", "shipment_date", "driver_id", "phone_number", "from_latitude", "from_longitude",
+			"to_latitude", "to_longitude", "weight", "height", "size", "archived" };
+
+	// Sütun sırası COLUMNS ile aynıdır (archived hariç); doğrulama kodu dışarı verilmez
+	private static final String ARCHIVED_ROWS = "select id, description, cargo_situation, created_at, taking_time, "
+			+ "delivered_time, shipment_date, driver_id, phone_number, self_latitude, self_longitude, "
+			+ "target_latitude, target_longitude, weight, height, size from cargo_archive "
+			+ "where distributor_id = ? order by created_at, id";
+	private static final String HOT_ROWS = "select c.id, c.description, c.cargo_situation, c.created_at, "
+			+ "c.taking_time, c.delivered_time, s.date, c.driver_user_id, c.phone_number, sl.latitude, sl.longitude, "
+			+ "tl.latitude, tl.longitude, m.weight, m.height, m.size from cargo c "
+			+ "left join location sl on sl.id = c.self_location_id left join location tl on tl.id = c.target_location_id "
+			+ "left join measure m on m.id = c.measure_id left join shipment_sent s on s.cargo_id = c.id "
+			+ "where c.distributor_user_id = ? order by c.created_at, c.id";
+
+	public enum Format {
+		CSV("text/csv", "csv"), NDJSON("application/x-ndjson", "ndjson");
+
+		private final String contentType;
+		private final String extension;
+
+		Format(String contentType, String extension) {
+			this.contentType = contentType;
+			this.extension = extension;
+		}
+
+		public String contentType() {
+			return contentType;
+		}
+
+		public String extension() {
+			return extension;
+		}
+	}
+
+	private final DataSource dataSource;
+	private final PlatformTransactionManager transactionManager;
+
+	@Value("${cargo.export.fetch-size:1000}")
+	private int fetchSize;
+
+	@Value("${cargo.export.max-concurrent:4}")
+	private int maxConcurrent;
+
+	// Sadece export isteğinin async süresi; diğer async istekler genel varsayılanı kullanır
+	@Value("${cargo.export.timeout:3600000}")
+	private long timeout;
+
+	private JdbcTemplate cursorTemplate;
+	private TransactionTemplate snapshot;
+	private Semaphore running;
+
+	@PostConstruct
+	void init() {
+		cursorTemplate = new JdbcTemplate(dataSource);
+		cursorTemplate.setFetchSize(isMySql() ? Integer.MIN_VALUE : fetchSize);
+		snapshot = new TransactionTemplate(transactionManager);
+		snapshot.setReadOnly(true);
+		snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+		running = new Semaphore(maxConcurrent);
+	}
+
+	// Connector/J sonucu tamamen belleğe alır; Integer.MIN_VALUE fetch size'lı ileri yönlü sorgu satır satır okunur
+	private boolean isMySql() {
+		try {
+			String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+			return "MySQL".equals(JdbcUtils.commonDatabaseName(product));
+		} catch (MetaDataAccessException e) {
+			log.warn("Could not detect database for export streaming, using fetch size {}", fetchSize, e);
+			return false;
+		}
+	}
+
+	public static Format format(String format) {
+		try {
+			return Format.valueOf(format.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw new RuntimeException("Unsupported export format: " + format);
+		}
+	}
+
+	/**
+	 * Oturumdaki dağıtıcının geçmişini response'a yazan async görevi döner. Yazma isteğin kendi
+	 * thread'inde değil MVC async thread'inde, cargo.export.timeout süresiyle çalışır; kullanıcı
+	 * burada, istek thread'inde çözülür.
+	 */
+	public WebAsyncTask<Void> export(Format format, HttpServletResponse response) {
+		AuthenticatedUser principal = AuthenticatedUser.current(Roles.DISTRIBUTOR);
+		Long distributorId = principal.getId();
+		return new WebAsyncTask<>(timeout, () -> {
+			// Her export bir bağlantıyı sonuna kadar tutar; aynı anda çalışan sayısı sınırlıdır. İzin
+			// görevin içinde alınır: görev hiç başlamazsa (zaman aşımı, iptal) bırakılacak izin de yoktur
+			if (!running.tryAcquire()) {
+				throw new RuntimeException("Too many exports in progress, try again later");
+			}
+			try {
+				response.setContentType(format.contentType() + ";charset=UTF-8");
+				response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+						"attachment; filename=\"cargo-history." + format.extension() + "\"");
+				long rows = write(distributorId, format, response.getOutputStream());
+				response.flushBuffer();
+				log.info("Exported {} cargoes of distributor {} as {}", rows, distributorId, format);
+			} finally {
+				running.release();
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * Satırları out'a yazar ve yazılan satır sayısını döner.
+	 */
+	long write(Long distributorId, Format format, OutputStream out) throws IOException {
+		RowWriter writer = format == Format.CSV ? new CsvWriter(out) : new NdjsonWriter(out);
+		try {
+			long[] rows = new long[1];
+			snapshot.executeWithoutResult(status -> {
+				for (boolean archived : new boolean[] { true, false }) {
+					cursorTemplate.query(archived ? ARCHIVED_ROWS : HOT_ROWS, rs -> {
+						try {
+							writer.row(rs, archived);
+						} catch (IOException e) {
+							// İstemci bağlantıyı kapattı: cursor kapanır, transaction geri alınır
+							throw new UncheckedIOException(e);
+						}
+						rows[0]++;
+					}, distributorId);
+				}
+			});
+			writer.finish();
+			return rows[0];
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	private interface RowWriter {
+
+		void row(ResultSet rs, boolean archived) throws SQLException, IOException;
+
+		void finish() throws IOException;
+	}
+
+	private static final class CsvWriter implements RowWriter {
+
+		private final Writer writer;
+
+		CsvWriter(OutputStream out) throws IOException {
+			writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+			writer.write(String.join(",", COLUMNS));
+			writer.write('\n');
+		}
+
+		@Override
+		public void row(ResultSet rs, boolean archived) throws SQLException, IOException {
+			for (int column = 1; column < COLUMNS.length; column++) {
+				String value = text(rs.getObject(column));
+				if (value != null) {
+					writeEscaped(value);
+				}
+				writer.write(',');
+			}
+			writer.write(archived ? "true\n" : "false\n");
+		}
+
+		@Override
+		public void finish() throws IOException {
+			writer.flush();
+		}
+
+		private void writeEscaped(String value) throws IOException {
+			boolean quote = false;
+			for (int i = 0; i < value.length() && !quote; i++) {
+				char c = value.charAt(i);
+				quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+			}
+			if (!quote) {
+				writer.write(value);
+				return;
+			}
+			writer.write('"');
+			writer.write(value.replace("\"", "\"\""));
+			writer.write('"');
+		}
+	}
+
+	private static final class NdjsonWriter implements RowWriter {
+
+		private final JsonGenerator generator;
+
+		NdjsonWriter(OutputStream out) throws IOException {
+			generator = JSON.createGenerator(out);
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		}
+
+		@Override
+		public void row(ResultSet rs, boolean archived) throws SQLException, IOException {
+			generator.writeStartObject();
+			for (int column = 1; column < COLUMNS.length; column++) {
+				Object value = rs.getObject(column);
+				generator.writeFieldName(COLUMNS[column - 1]);
+				if (value == null) {
+					generator.writeNull();
+				} else if (value instanceof Double || value instanceof Float) {
+					generator.writeNumber(((Number) value).doubleValue());
+				} else if (value instanceof Number number) {
+					generator.writeNumber(number.longValue());
+				} else {
+					generator.writeString(text(value));
+				}
+			}
+			generator.writeBooleanField("archived", archived);
+			generator.writeEndObject();
+			generator.writeRaw('\n');
+		}
+
+		@Override
+		public void finish() throws IOException {
+			generator.flush();
+		}
+	}
+
+	// Zamanlar ISO-8601 (yerel saat), diğerleri metin hali
+	private static String text(Object value) {
+		if (value == null) {
+			return null;
+		}
+		if (value instanceof Timestamp timestamp) {
+			return timestamp.toLocalDateTime().toString();
+		}
+		return value.toString();
+	}
+}
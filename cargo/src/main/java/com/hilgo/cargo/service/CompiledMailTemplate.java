@@ -0,0 +1,84 @@
+package com.hilgo.cargo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Başlangıçta bir kez parse edilmiş şablon: sabit metin parçaları ve aralarındaki
+ * {{değişken}} yerleri. Render sırasında metin yeniden taranmaz, sadece parçalar
+ * verilen buffer'a eklenir.
+ */
+final class CompiledMailTemplate {
+
+	private final String[] literals;
+	private final String[] variables;
+	private final boolean escapeHtml;
+	private final int estimatedLength;
+
+	private CompiledMailTemplate(String[] literals, String[] variables, boolean escapeHtml) {
+		this.literals = literals;
+		this.variables = variables;
+		this.escapeHtml = escapeHtml;
+		int length = 0;
+		for (String literal : literals) {
+			length += literal.length();
+		}
+		this.estimatedLength = length + variables.length * 16;
+	}
+
+	static CompiledMailTemplate compile(String source, boolean escapeHtml) {
+		List<String> literals = new ArrayList<>();
+		List<String> variables = new ArrayList<>();
+		int position = 0;
+		while (true) {
+			int open = source.indexOf("{{", position);
+			if (open < 0) {
+				break;
+			}
+			int close = source.indexOf("}}", open + 2);
+			if (close < 0) {
+				throw new IllegalArgumentException("Unclosed placeholder at index " + open);
+			}
+			literals.add(source.substring(position, open));
+			variables.add(source.substring(open + 2, close).trim());
+			position = close + 2;
+		}
+		literals.add(source.substring(position));
+		return new CompiledMailTemplate(literals.toArray(new String[0]), variables.toArray(new String[0]), escapeHtml);
+	}
+
+	int getEstimatedLength() {
+		return estimatedLength;
+	}
+
+	void render(Map<String, String> values, StringBuilder out) {
+		out.append(literals[0]);
+		for (int i = 0; i < variables.length; i++) {
+			String value = values.get(variables[i]);
+			if (value == null) {
+				throw new IllegalArgumentException("Missing mail template variable: " + variables[i]);
+			}
+			if (escapeHtml) {
+				appendEscaped(value, out);
+			} else {
+				out.append(value);
+			}
+			out.append(literals[i + 1]);
+		}
+	}
+
+	private static void appendEscaped(String value, StringBuilder out) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '<' -> out.append("&lt;");
+			case '>' -> out.append("&gt;");
+			case '&' -> out.append("&amp;");
+			case '"' -> out.append("&quot;");
+			case '\'' -> out.append("&#39;");
+			default -> out.append(c);
+			}
+		}
+	}
+}
@@ -0,0 +1,361 @@
+package com.hilgo.cargo.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.hilgo.cargo.entity.enums.Roles;
+import com.hilgo.cargo.event.CargoDeliveredEvent;
+import com.hilgo.cargo.response.DeliveryStatsResponse;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Teslimat süresi (alınıştan teslime, dakika) dağılımları. Her teslimat commit'ten sonra genel,
+ * sürücü, dağıtıcı ve şehir çifti sketch'lerine eklenir; p50/p90/p99 geçmiş taranmadan sketch'ten
+ * okunur. Şehir, delivery.stats.city-cell-degrees boyutlu enlem/boylam hücresidir. Sketch'ler
+ * bellekte tutulur; açılışta (ve delivery.stats.rebuild-cron verilmişse periyodik olarak) cargo ile
+ * cargo_archive'daki teslimatlar id aralıklarına bölünüp paralel okunarak baştan kurulur. Bu sırada
+ * gelen teslimatlar yeni sketch'lere de eklenir, böylece geçişte kayıp olmaz. deliveredTime commit'ten
+ * önce alındığından cutoff'tan hemen önce teslim edilip taramadan sonra commit edilen kayıt tabloda
+ * görünmeyebilir; cutoff'tan önceki delivery.stats.commit-lag penceresindeki teslimatları tarama ve
+ * olay hangisi önce görürse o sayar (kargo id'si ile).
+ */
+@Service
+@RequiredArgsConstructor
+public class DeliveryStatsService {
+
+	private static final Logger log = LoggerFactory.getLogger(DeliveryStatsService.class);
+
+	private static final String HOT_ROWS = "select c.driver_user_id, c.distributor_user_id, c.taking_time, "
+			+ "c.delivered_time, sl.latitude, sl.longitude, tl.latitude, tl.longitude, c.id from cargo c "
+			+ "left join location sl on sl.id = c.self_location_id left join location tl on tl.id = c.target_location_id "
+			+ "where c.cargo_situation = 'DELIVERED' and c.id between ? and ? and c.delivered_time < ?";
+	private static final String ARCHIVED_ROWS = "select driver_id, distributor_id, taking_time, delivered_time, "
+			+ "self_latitude, self_longitude, target_latitude, target_longitude, id from cargo_archive "
+			+ "where cargo_situation = 'DELIVERED' and id between ? and ? and delivered_time < ?";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	@Value("${delivery.stats.relative-accuracy:0.01}")
+	private double relativeAccuracy;
+
+	@Value("${delivery.stats.city-cell-degrees:0.25}")
+	private double cityCellDegrees;
+
+	@Value("${delivery.stats.rebuild-threads:4}")
+	private int rebuildThreads;
+
+	@Value("${delivery.stats.rebuild-chunk:20000}")
+	private int rebuildChunk;
+
+	@Value("${delivery.stats.commit-lag:60000}")
+	private long commitLagMillis;
+
+	// Kayıt ve rebuild geçişi aynı anda current/building çiftini görür
+	private final Object swapLock = new Object();
+	private final Object rebuildLock = new Object();
+	private volatile Sketches current;
+	private Sketches building;
+
+	private ExecutorService rebuildPool;
+
+	@PostConstruct
+	void init() {
+		current = new Sketches(relativeAccuracy, null, null);
+		rebuildPool = Executors.newFixedThreadPool(rebuildThreads, runnable -> {
+			Thread thread = new Thread(runnable, "delivery-stats-rebuild");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@PreDestroy
+	void shutdown() {
+		rebuildPool.shutdownNow();
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCargoDelivered(CargoDeliveredEvent event) {
+		record(event.getCargoId(), event.getDriverId(), event.getDistributorId(), event.getTakingTime(),
+				event.getDeliveredTime(), event.getFromLatitude(), event.getFromLongitude(), event.getToLatitude(),
+				event.getToLongitude());
+	}
+
+	void record(Long cargoId, Long driverId, Long distributorId, LocalDateTime takingTime,
+			LocalDateTime deliveredTime, Double fromLatitude, Double fromLongitude, Double toLatitude,
+			Double toLongitude) {
+		if (takingTime == null || deliveredTime == null) {
+			return;
+		}
+		double minutes = minutes(takingTime, deliveredTime);
+		String route = route(fromLatitude, fromLongitude, toLatitude, toLongitude);
+		// Kilit altında eklenir: rebuild current'ı değiştirirken teslimat eski sketch'te kalmaz
+		synchronized (swapLock) {
+			if (current.accepts(cargoId, deliveredTime)) {
+				current.add(driverId, distributorId, route, minutes);
+			}
+			// Rebuild sadece başladığı andan önceki teslimatları okur; sonrakiler buradan gelir
+			if (building != null && building.accepts(cargoId, deliveredTime)) {
+				building.add(driverId, distributorId, route, minutes);
+			}
+		}
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuildOnStartup() {
+		rebuildAndLog();
+	}
+
+	// Varsayılan "-" periyodik rebuild'i kapatır; sketch'ler canlı teslimatlarla güncel kalır
+	@Scheduled(cron = "${delivery.stats.rebuild-cron:-}")
+	public void scheduledRebuild() {
+		rebuildAndLog();
+	}
+
+	private void rebuildAndLog() {
+		try {
+			long start = System.currentTimeMillis();
+			long deliveries = rebuild();
+			log.info("Rebuilt delivery time sketches from {} deliveries in {} ms", deliveries,
+					System.currentTimeMillis() - start);
+		} catch (RuntimeException e) {
+			log.error("Delivery stats rebuild failed", e);
+		}
+	}
+
+	/**
+	 * Sketch'leri geçmiş teslimatlardan baştan kurar ve okunan teslimat sayısını döner.
+	 */
+	public long rebuild() {
+		synchronized (rebuildLock) {
+			Sketches next;
+			// Cutoff yayınla aynı anda alınır; arada teslim edilen kayıt ne tablodan ne record'dan kaçar
+			synchronized (swapLock) {
+				LocalDateTime cutoff = LocalDateTime.now();
+				next = new Sketches(relativeAccuracy, cutoff, cutoff.minusNanos(commitLagMillis * 1_000_000));
+				building = next;
+			}
+			try {
+				List<Future<Sketches>> parts = new ArrayList<>();
+				submitRanges(parts, "cargo", HOT_ROWS, next);
+				submitRanges(parts, "cargo_archive", ARCHIVED_ROWS, next);
+				for (Future<Sketches> part : parts) {
+					next.merge(part.get());
+				}
+				// Yayın ve building'in bırakılması tek adımdır; aradaki teslimat eski sketch'te kalmaz
+				synchronized (swapLock) {
+					current = next;
+					building = null;
+				}
+				return next.all.count();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException("Delivery stats rebuild interrupted", e);
+			} catch (ExecutionException e) {
+				throw new RuntimeException("Delivery stats rebuild failed", e.getCause());
+			} finally {
+				synchronized (swapLock) {
+					if (building == next) {
+						building = null;
+					}
+				}
+			}
+		}
+	}
+
+	public DeliveryStatsResponse overall() {
+		AuthenticatedUser.current(Roles.ADMIN);
+		return response("all", current.all);
+	}
+
+	public DeliveryStatsResponse forDriver(Long driverId) {
+		AuthenticatedUser.current(Roles.ADMIN);
+		return response("driver:" + driverId, current.byDriver.get(driverId));
+	}
+
+	public DeliveryStatsResponse forDistributor(Long distributorId) {
+		AuthenticatedUser.current(Roles.ADMIN);
+		return response("distributor:" + distributorId, current.byDistributor.get(distributorId));
+	}
+
+	public DeliveryStatsResponse forRoute(double fromLatitude, double fromLongitude, double toLatitude,
+			double toLongitude) {
+		AuthenticatedUser.current(Roles.ADMIN);
+		String route = route(fromLatitude, fromLongitude, toLatitude, toLongitude);
+		return response(route, current.byRoute.get(route));
+	}
+
+	public DeliveryStatsResponse myDriverStats() {
+		AuthenticatedUser principal = AuthenticatedUser.current(Roles.DRIVER);
+		return response("driver:" + principal.getId(), current.byDriver.get(principal.getId()));
+	}
+
+	public DeliveryStatsResponse myDistributorStats() {
+		AuthenticatedUser principal = AuthenticatedUser.current(Roles.DISTRIBUTOR);
+		return response("distributor:" + principal.getId(), current.byDistributor.get(principal.getId()));
+	}
+
+	// Tablo id aralığı rebuild-chunk'lık parçalara bölünür, her parça kendi sketch'lerini kurar
+	private void submitRanges(List<Future<Sketches>> parts, String table, String sql, Sketches target) {
+		Map<String, Object> bounds = jdbcTemplate.queryForMap("select min(id) low, max(id) high from " + table
+				+ " where cargo_situation = 'DELIVERED'");
+		if (bounds.get("low") == null) {
+			return;
+		}
+		long low = ((Number) bounds.get("low")).longValue();
+		long high = ((Number) bounds.get("high")).longValue();
+		Timestamp before = Timestamp.valueOf(target.cutoff);
+		for (long from = low; from <= high; from += rebuildChunk) {
+			long to = Math.min(high, from + rebuildChunk - 1);
+			long start = from;
+			parts.add(rebuildPool.submit(() -> {
+				Sketches part = new Sketches(relativeAccuracy, target.cutoff, null);
+				jdbcTemplate.query(sql, rs -> {
+					replay(part, target, rs);
+				}, start, to, before);
+				return part;
+			}));
+		}
+	}
+
+	// Pencere kayıtları hedef sketch'in kimlik kümesinde işaretlenir; olay önce geldiyse atlanır
+	private void replay(Sketches part, Sketches target, ResultSet rs) throws SQLException {
+		Timestamp takingTime = rs.getTimestamp(3);
+		Timestamp deliveredTime = rs.getTimestamp(4);
+		if (takingTime == null || deliveredTime == null
+				|| !target.claim(rs.getLong(9), deliveredTime.toLocalDateTime())) {
+			return;
+		}
+		String route = route(nullableDouble(rs, 5), nullableDouble(rs, 6), nullableDouble(rs, 7),
+				nullableDouble(rs, 8));
+		part.add(nullableLong(rs, 1), nullableLong(rs, 2), route,
+				minutes(takingTime.toLocalDateTime(), deliveredTime.toLocalDateTime()));
+	}
+
+	private String route(Double fromLatitude, Double fromLongitude, Double toLatitude, Double toLongitude) {
+		if (fromLatitude == null || fromLongitude == null || toLatitude == null || toLongitude == null) {
+			return null;
+		}
+		return city(fromLatitude, fromLongitude) + ">" + city(toLatitude, toLongitude);
+	}
+
+	private String city(double latitude, double longitude) {
+		return String.format(Locale.ROOT, "%.2f,%.2f", Math.floor(latitude / cityCellDegrees) * cityCellDegrees,
+				Math.floor(longitude / cityCellDegrees) * cityCellDegrees);
+	}
+
+	private static DeliveryStatsResponse response(String scope, QuantileSketch sketch) {
+		if (sketch == null || sketch.count() == 0) {
+			return DeliveryStatsResponse.builder().scope(scope).deliveries(0L).build();
+		}
+		return DeliveryStatsResponse.builder()
+				.scope(scope)
+				.deliveries(sketch.count())
+				.p50Minutes(round(sketch.quantile(0.5)))
+				.p90Minutes(round(sketch.quantile(0.9)))
+				.p99Minutes(round(sketch.quantile(0.99)))
+				.build();
+	}
+
+	private static double minutes(LocalDateTime takingTime, LocalDateTime deliveredTime) {
+		return Duration.between(takingTime, deliveredTime).toMillis() / 60_000.0;
+	}
+
+	private static double round(double minutes) {
+		return Math.round(minutes * 10) / 10.0;
+	}
+
+	private static Long nullableLong(ResultSet rs, int column) throws SQLException {
+		long value = rs.getLong(column);
+		return rs.wasNull() ? null : value;
+	}
+
+	private static Double nullableDouble(ResultSet rs, int column) throws SQLException {
+		double value = rs.getDouble(column);
+		return rs.wasNull() ? null : value;
+	}
+
+	static final class Sketches {
+
+		private final double relativeAccuracy;
+		// Bu zamandan önce teslim edilenler tablodan okunur (sadece rebuild sırasında anlamlı)
+		private final LocalDateTime cutoff;
+		// [windowStart, cutoff) teslimatları hem taramadan hem olaydan gelebilir; ilk gelen sayılır
+		private final LocalDateTime windowStart;
+		private final Set<Long> claimed = ConcurrentHashMap.newKeySet();
+		private final QuantileSketch all;
+		private final Map<Long, QuantileSketch> byDriver = new ConcurrentHashMap<>();
+		private final Map<Long, QuantileSketch> byDistributor = new ConcurrentHashMap<>();
+		private final Map<String, QuantileSketch> byRoute = new ConcurrentHashMap<>();
+
+		Sketches(double relativeAccuracy, LocalDateTime cutoff, LocalDateTime windowStart) {
+			this.relativeAccuracy = relativeAccuracy;
+			this.cutoff = cutoff;
+			this.windowStart = windowStart;
+			this.all = new QuantileSketch(relativeAccuracy);
+		}
+
+		// Olay: cutoff'tan sonrakiler her zaman, pencere öncesi hiç (tarama okudu), pencere içi
+		// taramada görülmediyse
+		boolean accepts(Long cargoId, LocalDateTime deliveredTime) {
+			if (cutoff == null || !deliveredTime.isBefore(cutoff)) {
+				return true;
+			}
+			return !deliveredTime.isBefore(windowStart) && (cargoId == null || claimed.add(cargoId));
+		}
+
+		// Tarama: pencere öncesi her zaman, pencere içi olayda görülmediyse
+		boolean claim(long cargoId, LocalDateTime deliveredTime) {
+			return deliveredTime.isBefore(windowStart) || claimed.add(cargoId);
+		}
+
+		void add(Long driverId, Long distributorId, String route, double minutes) {
+			all.add(minutes);
+			if (driverId != null) {
+				sketch(byDriver, driverId).add(minutes);
+			}
+			if (distributorId != null) {
+				sketch(byDistributor, distributorId).add(minutes);
+			}
+			if (route != null) {
+				sketch(byRoute, route).add(minutes);
+			}
+		}
+
+		void merge(Sketches other) {
+			all.merge(other.all);
+			other.byDriver.forEach((id, sketch) -> sketch(byDriver, id).merge(sketch));
+			other.byDistributor.forEach((id, sketch) -> sketch(byDistributor, id).merge(sketch));
+			other.byRoute.forEach((route, sketch) -> sketch(byRoute, route).merge(sketch));
+		}
+
+		private <K> QuantileSketch sketch(Map<K, QuantileSketch> sketches, K key) {
+			return sketches.computeIfAbsent(key, k -> new QuantileSketch(relativeAccuracy));
+		}
+	}
+}
@@ -1,33 +1,45 @@
 package com.hilgo.cargo.service;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.hilgo.cargo.entity.Address;
 import com.hilgo.cargo.entity.Cargo;
+import com.hilgo.cargo.entity.CargoArchive;
 import com.hilgo.cargo.entity.Distributor;
 import com.hilgo.cargo.entity.Location;
 import com.hilgo.cargo.entity.Measure;
 import com.hilgo.cargo.entity.User;
 import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.entity.enums.Roles;
+import com.hilgo.cargo.event.CargoSituationChangedEvent;
+import com.hilgo.cargo.exception.CargoStateException;
 import com.hilgo.cargo.repository.AddressRepository;
+import com.hilgo.cargo.repository.CargoArchiveRepository;
+import com.hilgo.cargo.repository.CargoCursor;
 import com.hilgo.cargo.repository.CargoRepository;
 import com.hilgo.cargo.repository.DistributorRepository;
 import com.hilgo.cargo.repository.UserRepository;
 import com.hilgo.cargo.request.CargoRequest;
 import com.hilgo.cargo.request.DistributorRequest;
 import com.hilgo.cargo.response.CargoResponse;
+import com.hilgo.cargo.response.CargoTrackResponse;
+import com.hilgo.cargo.response.CargoWindow;
 import com.hilgo.cargo.response.CargoesResponse;
 import com.hilgo.cargo.response.DistributorResponse;
-import com.hilgo.cargo.response.ResponseLocation;
-import com.hilgo.cargo.response.ResponseMeasure;
+import com.hilgo.cargo.response.TrackPointResponse;
+import com.hilgo.cargo.service.DriverTrackStore.TrackPoint;
 
 import lombok.RequiredArgsConstructor;
 
@@ -40,6 +52,13 @@ public class DistributorService {
 	final private DistributorRepository distributorRepository;
 	final private AddressRepository addressRepository;
 	final private JwtService jwtService;
+	final private PrincipalCache principalCache;
+	final private OpenCargoIndex openCargoIndex;
+	final private TripSubscriptionService tripSubscriptionService;
+	final private TrackingHub trackingHub;
+	final private ApplicationEventPublisher eventPublisher;
+	final private DriverTrackStore driverTrackStore;
+	final private CargoArchiveRepository cargoArchiveRepository;
 	
 	public DistributorResponse updateDistributor(DistributorRequest distributorRequest) {
 		
@@ -76,6 +95,8 @@ public class DistributorService {
 
 		addressRepository.save(address);
 		distributorRepository.save(dist);
+		principalCache.invalidate(username);
+		principalCache.invalidate(dist.getUsername());
 		return DistributorResponse.builder()
 				.token(token)
 				.vkn(((Distributor)user).getVkn())
@@ -88,12 +109,16 @@ public class DistributorService {
 		
 	}
 
-	public List<CargoResponse> addCargo(CargoRequest cargoRequest) {
-		String username = SecurityContextHolder.getContext().getAuthentication().getName();
-		User user = userRepository.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found!"));
+	/**
+	 * Kargo ve trip_match eşleşmeleri aynı transaction'da yazılır; açık kargo index'i commit'ten
+	 * sonra güncellenir, CREATED olayı da dinleyicilere commit'ten sonra ulaşır.
+	 */
+	@Transactional
+	public List<CargoesResponse> addCargo(CargoRequest cargoRequest) {
+		AuthenticatedUser principal = AuthenticatedUser.current(Roles.DISTRIBUTOR);
 		
 		Cargo cargo = new Cargo();
-		cargo.setDistributor(((Distributor)user));
+		cargo.setDistributor(distributorRepository.getReferenceById(principal.getId()));
 		cargo.setMeasure(new Measure(null, cargoRequest.getMeasure().getWeight(), cargoRequest.getMeasure().getHeight(), cargoRequest.getMeasure().getSize()));
 		cargo.setDescription(cargoRequest.getDescription());
 		cargo.setPhoneNumber(cargoRequest.getPhoneNumber());
@@ -103,45 +128,46 @@ public class DistributorService {
 		cargo.setCargoSituation(CargoSituation.CREATED);
 		
 		cargoRepository.save(cargo);
+		tripSubscriptionService.onCargoCreated(cargo);
+		AfterCommit.run(() -> openCargoIndex.update(cargo));
+		eventPublisher.publishEvent(new CargoSituationChangedEvent(cargo.getId(), principal.getId(), null, null,
+				CargoSituation.CREATED, LocalDateTime.now()));
 		
-		List<Cargo> cargoList = cargoRepository.findAllByDistributorId(user.getId());
-
-		return cargoList.stream().map(c -> new CargoResponse(
-				c.getDescription(),
-				c.getSelfLocation(),
-				c.getTargetLocation(),
-				c.getMeasure(),
-				c.getPhoneNumber(),
-				c.getCargoSituation()
-				)).collect(Collectors.toList());
+		return cargoRepository.findAllCargoesByDistributorId(principal.getId());
 	}
 
+	// Satır kilitlenip durum kontrol edilir; sürücü almış olduğu kargo silinemez
+	@Transactional
 	public Boolean deleteCargo(Long cargoId) {
-		String username = SecurityContextHolder.getContext().getAuthentication().getName();
-		User user = userRepository.findByUsername(username)
-				.orElseThrow(() -> new RuntimeException("Kullanıcı bulunamadı."));
-		Cargo cargo = cargoRepository.findByIdAndDistributorId(cargoId, user.getId())
+		AuthenticatedUser principal = AuthenticatedUser.current(Roles.DISTRIBUTOR);
+		Cargo cargo = cargoRepository.findByIdAndDistributorIdForUpdate(cargoId, principal.getId())
 				.orElseThrow(() -> new RuntimeException("Kargo bulunamadı."));
+		requireCreated(cargo, "Cargo has already been taken and cannot be deleted");
+		tripSubscriptionService.onCargoDeleted(cargoId);
 		cargoRepository.delete(cargo);
+		AfterCommit.run(() -> openCargoIndex.remove(cargoId));
+		// Silinen kargo istemcilerde iptal edilmiş olarak görünür
+		eventPublisher.publishEvent(new CargoSituationChangedEvent(cargoId, principal.getId(), null,
+				CargoSituation.CREATED, CargoSituation.CANCELLED, LocalDateTime.now()));
 		
 		return true;
 	}
 
+	@Transactional
 	public CargoResponse updateCargo(Long cargoId, CargoRequest cargoRequest) {
-		String username = SecurityContextHolder.getContext().getAuthentication().getName();
-		userRepository.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found!"));
+		AuthenticatedUser principal = AuthenticatedUser.current(Roles.DISTRIBUTOR);
 		
-		Cargo cargo = cargoRepository.findById(cargoId).orElseThrow(() -> new RuntimeException("Cargo not found!"));
+		Cargo cargo = cargoRepository.findByIdAndDistributorIdForUpdate(cargoId, principal.getId())
+				.orElseThrow(() -> new RuntimeException("Cargo not found!"));
 		
-		if (!cargo.getCargoSituation().toString().equals("CREATED")) {
-			throw new RuntimeException("Update Error!");
-		}
+		requireCreated(cargo, "Cargo has already been taken and cannot be updated");
 		cargo.setMeasure(new Measure(null, cargoRequest.getMeasure().getWeight(), cargoRequest.getMeasure().getHeight(), cargoRequest.getMeasure().getSize()));
 		cargo.setDescription(cargoRequest.getDescription());
 		cargo.setPhoneNumber(cargoRequest.getPhoneNumber());
 		cargo.setSelfLocation(new Location(null, cargoRequest.getSelfLocation().getLatitude(),  cargoRequest.getSelfLocation().getLongitude(), LocalDateTime.now()));
 		cargo.setTargetLocation(new Location(null, cargoRequest.getTargetLocation().getLatitude(),  cargoRequest.getTargetLocation().getLongitude(), LocalDateTime.now()));
 		cargoRepository.save(cargo);
+		AfterCommit.run(() -> openCargoIndex.update(cargo));
 		
 		return CargoResponse.builder()
 				.description(cargo.getDescription())
@@ -154,29 +180,77 @@ public class DistributorService {
 		
 	}
 
-    public Page<CargoesResponse> getMyCargoes(Pageable pageable) {
-		String username = SecurityContextHolder.getContext().getAuthentication().getName();
-		Optional<User> userOpt = userRepository.findByUsername(username);
+	private static void requireCreated(Cargo cargo, String message) {
+		if (cargo.getCargoSituation() != CargoSituation.CREATED) {
+			throw new CargoStateException(cargo.getId(), cargo.getCargoSituation(), message);
+		}
+	}
+
+	/**
+	 * Dağıtıcının yoldaki kargoları için canlı konum/durum akışı (SSE).
+	 */
+	public SseEmitter trackMyCargoes() {
+		AuthenticatedUser principal = AuthenticatedUser.current(Roles.DISTRIBUTOR);
+		return trackingHub.subscribe(principal.getId());
+	}
+
+	/**
+	 * Kargonun alındığı andan teslimine kadarki rota; yoldaki kargoda şu ana kadarki kısım.
+	 * toleranceMeters > 0 ise harita için sadeleştirilir.
+	 */
+	public CargoTrackResponse getCargoTrack(Long cargoId, double toleranceMeters) {
+		AuthenticatedUser principal = AuthenticatedUser.current(Roles.DISTRIBUTOR);
+		Optional<Cargo> hot = cargoRepository.findByIdAndDistributorId(cargoId, principal.getId());
+		if (hot.isPresent()) {
+			Cargo cargo = hot.get();
+			return cargoTrack(cargoId, cargo.getDriver() == null ? null : cargo.getDriver().getId(),
+					cargo.getCargoSituation(), cargo.getTakingTime(), cargo.getDeliveredTime(), toleranceMeters);
+		}
+		// Eski kargolar cargo_archive'da
+		CargoArchive archived = cargoArchiveRepository.findByIdAndDistributorId(cargoId, principal.getId())
+				.orElseThrow(() -> new RuntimeException("Cargo not found"));
+		return cargoTrack(cargoId, archived.getDriverId(), archived.getCargoSituation(), archived.getTakingTime(),
+				archived.getDeliveredTime(), toleranceMeters);
+	}
 
-		if (userOpt.isEmpty()) {
-			throw new RuntimeException("User not found.");
+	private CargoTrackResponse cargoTrack(Long cargoId, Long driverId, CargoSituation situation,
+			LocalDateTime takingTime, LocalDateTime deliveredTime, double toleranceMeters) {
+		if (driverId == null || takingTime == null) {
+			throw new CargoStateException(cargoId, situation, "Cargo has not been picked up");
 		}
-		Distributor distributor = (Distributor) userRepository.findByUsername(username).get();
-
-		Page<Cargo> cargoesPage = cargoRepository.findByDistributorId(distributor.getId(), pageable);
-		Page<CargoesResponse> cargoResponse = cargoesPage.map(cargo -> new CargoesResponse(
-	    cargo.getId(),
-	    cargo.getDescription(),  
-	    new ResponseLocation(cargo.getSelfLocation().getLatitude(), cargo.getSelfLocation().getLongitude()),
-	    new ResponseLocation(cargo.getTargetLocation().getLatitude(), cargo.getTargetLocation().getLongitude()),
-	    new ResponseMeasure(cargo.getMeasure().getWeight(), cargo.getMeasure().getHeight(), cargo.getMeasure().getSize()),
-	    cargo.getCargoSituation(),
-	    cargo.getPhoneNumber(), 
-	    cargo.getDistributor().getPhoneNumber(),
-	    cargo.getCreatedAt(),   
-	    cargo.getUpdatedAt(),   
-	    cargo.getVerificationCode() 
-			));
-		return cargoResponse;
+		long from = epochMillis(takingTime);
+		long to = deliveredTime == null ? System.currentTimeMillis() : epochMillis(deliveredTime);
+		List<TrackPoint> recorded = driverTrackStore.read(driverId, from, to);
+		List<TrackPointResponse> points = TrackSimplifier.simplify(recorded, toleranceMeters).stream()
+				.map(point -> new TrackPointResponse(point.latitude(), point.longitude(), point.recordedAtMillis()))
+				.collect(Collectors.toList());
+		return CargoTrackResponse.builder()
+				.cargoId(cargoId)
+				.driverId(driverId)
+				.cargoSituation(situation)
+				.takingTime(takingTime)
+				.deliveredTime(deliveredTime)
+				.recordedPoints(recorded.size())
+				.points(points)
+				.build();
+	}
+
+	private static long epochMillis(LocalDateTime time) {
+		return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+
+    public Page<CargoesResponse> getMyCargoes(Pageable pageable) {
+		AuthenticatedUser principal = AuthenticatedUser.current(Roles.DISTRIBUTOR);
+		return cargoRepository.findCargoPageByDistributorId(principal.getId(), pageable);
     }
+
+	public CargoWindow getMyCargoes(CargoCursor cursor, int size, boolean withTotal) {
+		AuthenticatedUser principal = AuthenticatedUser.current(Roles.DISTRIBUTOR);
+		CargoWindow window = cargoRepository.findCargoWindowByDistributorId(principal.getId(), cursor, size);
+		if (withTotal && cursor.isFirstPage()) {
+			window.setTotalItems(cargoRepository.countByDistributorId(principal.getId())
+					+ cargoArchiveRepository.countByDistributorId(principal.getId()));
+		}
+		return window;
+	}
 }
@@ -0,0 +1,126 @@
+package com.hilgo.cargo.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * DriverPositionStore'daki değişmiş konumları birkaç saniyede bir JDBC batch'leri ile
+ * location tablosuna yazar (write-behind). Hiç konumu olmayan sürücüler için location satırı
+ * oluşturulup driver.location_id bağlanır. Yazma başarısız olursa konumlar tekrar dirty
+ * işaretlenir ve bir sonraki turda denenir.
+ */
+@Service
+@RequiredArgsConstructor
+public class DriverLocationFlusher {
+
+	private static final Logger log = LoggerFactory.getLogger(DriverLocationFlusher.class);
+
+	private static final String UPDATE_LOCATION = "update location set latitude = ?, longitude = ?, updated_at = ? "
+			+ "where id = (select d.location_id from driver d where d.user_id = ?)";
+	private static final String INSERT_LOCATION = "insert into location (latitude, longitude, updated_at) values (?, ?, ?)";
+	private static final String LINK_LOCATION = "update driver set location_id = ? where user_id = ? and location_id is null";
+
+	private final DriverPositionStore driverPositionStore;
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+
+	@Value("${driver.location.flush-batch-size:500}")
+	private int batchSize;
+
+	@Scheduled(fixedDelayString = "${driver.location.flush-interval:3000}")
+	public void scheduledFlush() {
+		try {
+			flush();
+		} catch (RuntimeException e) {
+			log.error("Driver location flush failed", e);
+		}
+	}
+
+	/**
+	 * Değişmiş konumları yazar ve yazılan sürücü sayısını döner.
+	 */
+	public int flush() {
+		DriverPositionStore.Batch batch = driverPositionStore.drainDirty();
+		if (batch.size() == 0) {
+			return 0;
+		}
+		try {
+			transactionTemplate.executeWithoutResult(status -> write(batch));
+		} catch (RuntimeException e) {
+			driverPositionStore.restore(batch);
+			throw e;
+		}
+		return batch.size();
+	}
+
+	@PreDestroy
+	void shutdown() {
+		// Kapanırken bellekte kalan son konumlar kaybolmasın
+		flush();
+	}
+
+	private void write(DriverPositionStore.Batch batch) {
+		List<Integer> missing = new ArrayList<>();
+		for (int from = 0; from < batch.size(); from += batchSize) {
+			int start = from;
+			int count = Math.min(batchSize, batch.size() - from);
+			int[] updated = jdbcTemplate.batchUpdate(UPDATE_LOCATION, new BatchPreparedStatementSetter() {
+				@Override
+				public void setValues(PreparedStatement ps, int i) throws SQLException {
+					int index = start + i;
+					ps.setDouble(1, batch.latitude(index));
+					ps.setDouble(2, batch.longitude(index));
+					ps.setTimestamp(3, timestamp(batch.recordedAtMillis(index)));
+					ps.setLong(4, batch.driverId(index));
+				}
+
+				@Override
+				public int getBatchSize() {
+					return count;
+				}
+			});
+			for (int i = 0; i < updated.length; i++) {
+				if (updated[i] == 0) {
+					missing.add(start + i);
+				}
+			}
+		}
+		// Sürücünün ilk konumu: nadir, tek tek eklenir
+		for (int index : missing) {
+			KeyHolder keyHolder = new GeneratedKeyHolder();
+			jdbcTemplate.update(connection -> {
+				PreparedStatement ps = connection.prepareStatement(INSERT_LOCATION, Statement.RETURN_GENERATED_KEYS);
+				ps.setDouble(1, batch.latitude(index));
+				ps.setDouble(2, batch.longitude(index));
+				ps.setTimestamp(3, timestamp(batch.recordedAtMillis(index)));
+				return ps;
+			}, keyHolder);
+			jdbcTemplate.update(LINK_LOCATION, keyHolder.getKey().longValue(), batch.driverId(index));
+		}
+	}
+
+	private static Timestamp timestamp(long epochMillis) {
+		return Timestamp.valueOf(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()));
+	}
+}
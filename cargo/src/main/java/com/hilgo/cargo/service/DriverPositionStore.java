@@ -0,0 +1,282 @@
+package com.hilgo.cargo.service;
+
+import java.util.Arrays;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Sürücülerin son bilinen konumu. GPS ping'leri kutulanmış nesne üretmeden, kilit parçalı
+ * (striped) açık adresli tablolara yazılır: sürücü id'si long[], konum double[] dizilerinde
+ * tutulur. Değişen kayıtlar "dirty" işaretlenir ve DriverLocationFlusher tarafından toplu
+ * olarak veritabanına yazılır; aynı sürücünün flush'lar arasındaki ping'leri tek satıra iner.
+ */
+@Service
+public class DriverPositionStore {
+
+	private static final long EMPTY = 0L;
+
+	@Value("${driver.location.stripes:64}")
+	private int stripeCount;
+
+	private Stripe[] stripes;
+	private int stripeMask;
+
+	@PostConstruct
+	void init() {
+		int count = Integer.highestOneBit(Math.max(stripeCount - 1, 1)) << 1;
+		stripes = new Stripe[count];
+		for (int i = 0; i < count; i++) {
+			stripes[i] = new Stripe(64);
+		}
+		stripeMask = count - 1;
+	}
+
+	/**
+	 * Sürücünün konumunu günceller. Sıradışı gelen (daha eski zamanlı) ping'ler yok sayılır.
+	 *
+	 * @return ping kabul edildiyse true
+	 */
+	public boolean update(long driverId, double latitude, double longitude, long recordedAtMillis) {
+		if (driverId == EMPTY) {
+			throw new IllegalArgumentException("Driver id must not be 0");
+		}
+		long hash = mix(driverId);
+		Stripe stripe = stripes[(int) hash & stripeMask];
+		synchronized (stripe) {
+			return stripe.put(driverId, hash >>> 32, latitude, longitude, recordedAtMillis);
+		}
+	}
+
+	/**
+	 * Son bilinen konum; sürücü hiç ping göndermediyse null.
+	 */
+	public Position get(long driverId) {
+		long hash = mix(driverId);
+		Stripe stripe = stripes[(int) hash & stripeMask];
+		synchronized (stripe) {
+			int slot = stripe.find(driverId, hash >>> 32);
+			if (slot < 0) {
+				return null;
+			}
+			return new Position(driverId, stripe.latitudes[slot], stripe.longitudes[slot], stripe.times[slot]);
+		}
+	}
+
+	/**
+	 * Son drain'den beri değişen konumları toplayıp dirty işaretlerini temizler.
+	 */
+	public Batch drainDirty() {
+		Batch batch = new Batch(64);
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				stripe.drainInto(batch);
+			}
+		}
+		return batch;
+	}
+
+	/**
+	 * Yazılamayan batch'i tekrar dirty işaretler; arada daha yeni ping geldiyse o zaten dirty'dir.
+	 */
+	public void restore(Batch batch) {
+		for (int i = 0; i < batch.size; i++) {
+			long driverId = batch.driverIds[i];
+			long hash = mix(driverId);
+			Stripe stripe = stripes[(int) hash & stripeMask];
+			synchronized (stripe) {
+				int slot = stripe.find(driverId, hash >>> 32);
+				if (slot >= 0 && !stripe.dirty[slot]) {
+					stripe.dirty[slot] = true;
+					stripe.dirtyCount++;
+				}
+			}
+		}
+	}
+
+	public int size() {
+		int size = 0;
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				size += stripe.size;
+			}
+		}
+		return size;
+	}
+
+	public int dirtyCount() {
+		int dirty = 0;
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				dirty += stripe.dirtyCount;
+			}
+		}
+		return dirty;
+	}
+
+	// Ardışık id'ler aynı stripe'a ve aynı kümeye düşmesin
+	private static long mix(long value) {
+		value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+		value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return value ^ (value >>> 33);
+	}
+
+	public record Position(long driverId, double latitude, double longitude, long recordedAtMillis) {
+	}
+
+	/**
+	 * Flush edilecek konumlar; paralel diziler halinde.
+	 */
+	public static final class Batch {
+
+		private long[] driverIds;
+		private double[] latitudes;
+		private double[] longitudes;
+		private long[] times;
+		private int size;
+
+		private Batch(int capacity) {
+			driverIds = new long[capacity];
+			latitudes = new double[capacity];
+			longitudes = new double[capacity];
+			times = new long[capacity];
+		}
+
+		private void add(long driverId, double latitude, double longitude, long time) {
+			if (size == driverIds.length) {
+				int capacity = size * 2;
+				driverIds = Arrays.copyOf(driverIds, capacity);
+				latitudes = Arrays.copyOf(latitudes, capacity);
+				longitudes = Arrays.copyOf(longitudes, capacity);
+				times = Arrays.copyOf(times, capacity);
+			}
+			driverIds[size] = driverId;
+			latitudes[size] = latitude;
+			longitudes[size] = longitude;
+			times[size] = time;
+			size++;
+		}
+
+		public int size() {
+			return size;
+		}
+
+		public long driverId(int index) {
+			return driverIds[index];
+		}
+
+		public double latitude(int index) {
+			return latitudes[index];
+		}
+
+		public double longitude(int index) {
+			return longitudes[index];
+		}
+
+		public long recordedAtMillis(int index) {
+			return times[index];
+		}
+	}
+
+	private static final class Stripe {
+
+		private long[] keys;
+		private double[] latitudes;
+		private double[] longitudes;
+		private long[] times;
+		private boolean[] dirty;
+		private int size;
+		private int dirtyCount;
+
+		private Stripe(int capacity) {
+			allocate(capacity);
+		}
+
+		private void allocate(int capacity) {
+			keys = new long[capacity];
+			latitudes = new double[capacity];
+			longitudes = new double[capacity];
+			times = new long[capacity];
+			dirty = new boolean[capacity];
+		}
+
+		private int find(long key, long hash) {
+			int mask = keys.length - 1;
+			for (int slot = (int) hash & mask;; slot = (slot + 1) & mask) {
+				if (keys[slot] == key) {
+					return slot;
+				}
+				if (keys[slot] == EMPTY) {
+					return -1;
+				}
+			}
+		}
+
+		private boolean put(long key, long hash, double latitude, double longitude, long time) {
+			int mask = keys.length - 1;
+			int slot = (int) hash & mask;
+			while (keys[slot] != key && keys[slot] != EMPTY) {
+				slot = (slot + 1) & mask;
+			}
+			if (keys[slot] == key) {
+				if (time < times[slot]) {
+					return false;
+				}
+			} else {
+				if ((size + 1) * 2 > keys.length) {
+					grow();
+					return put(key, hash, latitude, longitude, time);
+				}
+				keys[slot] = key;
+				size++;
+			}
+			latitudes[slot] = latitude;
+			longitudes[slot] = longitude;
+			times[slot] = time;
+			if (!dirty[slot]) {
+				dirty[slot] = true;
+				dirtyCount++;
+			}
+			return true;
+		}
+
+		private void grow() {
+			long[] oldKeys = keys;
+			double[] oldLatitudes = latitudes;
+			double[] oldLongitudes = longitudes;
+			long[] oldTimes = times;
+			boolean[] oldDirty = dirty;
+			allocate(oldKeys.length * 2);
+			int mask = keys.length - 1;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] == EMPTY) {
+					continue;
+				}
+				int slot = (int) (mix(oldKeys[i]) >>> 32) & mask;
+				while (keys[slot] != EMPTY) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				latitudes[slot] = oldLatitudes[i];
+				longitudes[slot] = oldLongitudes[i];
+				times[slot] = oldTimes[i];
+				dirty[slot] = oldDirty[i];
+			}
+		}
+
+		private void drainInto(Batch batch) {
+			if (dirtyCount == 0) {
+				return;
+			}
+			for (int slot = 0; slot < keys.length; slot++) {
+				if (dirty[slot]) {
+					batch.add(keys[slot], latitudes[slot], longitudes[slot], times[slot]);
+					dirty[slot] = false;
+				}
+			}
+			dirtyCount = 0;
+		}
+	}
+}
@@ -1,28 +1,45 @@
 package com.hilgo.cargo.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.hilgo.cargo.entity.Cargo;
 import com.hilgo.cargo.entity.Driver;
+import com.hilgo.cargo.entity.Location;
 import com.hilgo.cargo.entity.ShipmentSent;
 import com.hilgo.cargo.entity.User;
+import com.hilgo.cargo.entity.enums.CarType;
 import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.entity.enums.Roles;
+import com.hilgo.cargo.event.CargoDeliveredEvent;
+import com.hilgo.cargo.event.CargoSituationChangedEvent;
+import com.hilgo.cargo.exception.CargoStateException;
+import com.hilgo.cargo.repository.CargoArchiveRepository;
+import com.hilgo.cargo.repository.CargoCursor;
 import com.hilgo.cargo.repository.CargoRespository;
 import com.hilgo.cargo.repository.DriverRepository;
 import com.hilgo.cargo.repository.ShipmentSendRepository;
 import com.hilgo.cargo.repository.UserRepository;
+import com.hilgo.cargo.request.DriverLocationRequest;
 import com.hilgo.cargo.request.DriverRequest;
+import com.hilgo.cargo.request.LocationPingRequest;
+import com.hilgo.cargo.response.CargoWindow;
 import com.hilgo.cargo.response.CargoesResponse;
 import com.hilgo.cargo.response.DriverResponse;
-import com.hilgo.cargo.response.ResponseLocation;
-import com.hilgo.cargo.response.ResponseMeasure;
+import com.hilgo.cargo.response.NearbyCargoResponse;
+import com.hilgo.cargo.response.RouteMatchResponse;
 
 import lombok.RequiredArgsConstructor;
 
@@ -35,6 +52,21 @@ public class DriverService {
 	final private ShipmentSendRepository shipmentSendRepository;
 	final private DriverRepository driverRepository;
 	final private JwtService jwtService;
+	final private PrincipalCache principalCache;
+	final private OpenCargoIndex openCargoIndex;
+	final private DriverPositionStore driverPositionStore;
+	final private TrackingHub trackingHub;
+	final private DriverTrackStore driverTrackStore;
+	final private CargoArchiveRepository cargoArchiveRepository;
+	final private ApplicationEventPublisher eventPublisher;
+	final private StatsService statsService;
+
+	private static final double MAX_NEARBY_RADIUS_KM = 200;
+	private static final int MAX_NEARBY_LIMIT = 100;
+	private static final double MAX_DETOUR_KM = 200;
+	private static final int MAX_LOCATION_POINTS = 500;
+	// Cihaz saatindeki küçük kaymalara izin verilir, daha ilerisi sunucu zamanına çekilir
+	private static final long MAX_CLOCK_SKEW_MILLIS = 60_000;
 
 
 	private String generateDeliveryCode() {
@@ -43,42 +75,98 @@ public class DriverService {
 		return String.valueOf(code);
 	}
 
+	/**
+	 * Kargoyu tek bir koşullu UPDATE ile alır. Aynı kargoya yarışan sürücülerden sadece biri
+	 * kazanır; diğerleri CargoStateException (409) alır.
+	 */
 	public Boolean takeCargo(Long cargoId) {
-		Cargo cargo = cargoRepository.findById(cargoId).orElseThrow(() -> new RuntimeException("Cargo not found"));
-		String username = SecurityContextHolder.getContext().getAuthentication().getName();
-		User user = userRepository.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found"));
-		Driver driver = (Driver) user;
-		cargo.setDriver(driver);
-		cargo.setCargoSituation(CargoSituation.PICKED_UP);
-		cargo.setVerificationCode(generateDeliveryCode());
-		cargo.setTakingTime(LocalDateTime.now());
-		cargoRepository.save(cargo);
+		AuthenticatedUser principal = AuthenticatedUser.current(Roles.DRIVER);
+		int claimed = cargoRepository.claim(cargoId, driverRepository.getReferenceById(principal.getId()),
+				generateDeliveryCode(), LocalDateTime.now());
+		if (claimed == 0) {
+			CargoSituation situation = cargoRepository.findSituationById(cargoId)
+					.orElseThrow(() -> new RuntimeException("Cargo not found"));
+			throw new CargoStateException(cargoId, situation, "Cargo has already been taken");
+		}
+		AfterCommit.run(() -> openCargoIndex.remove(cargoId));
+		cargoRepository.findDistributorIdById(cargoId)
+				.ifPresent(distributorId -> eventPublisher.publishEvent(new CargoSituationChangedEvent(cargoId,
+						distributorId, principal.getId(), CargoSituation.CREATED, CargoSituation.PICKED_UP,
+						LocalDateTime.now())));
 		return true;
 	}
 
+	@Transactional
 	public boolean deliverCargo(Long cargoId, String verificationCode) {
-		String username = SecurityContextHolder.getContext().getAuthentication().getName();
-		Driver driver = (Driver) userRepository.findByUsername(username).get();
-		Cargo cargo = cargoRepository.findByIdAndDriverId(cargoId, driver.getId())
+		AuthenticatedUser principal = AuthenticatedUser.current(Roles.DRIVER);
+		LocalDateTime deliveredAt = LocalDateTime.now();
+		int delivered = cargoRepository.markDelivered(cargoId, principal.getId(), verificationCode, deliveredAt);
+		Cargo cargo = cargoRepository.findByIdAndDriverId(cargoId, principal.getId())
 				.orElseThrow(() -> new RuntimeException("Cargo Not found"));
-		if (!cargo.getVerificationCode().equals(verificationCode)) {
+		if (delivered == 0) {
+			if (cargo.getCargoSituation() != CargoSituation.PICKED_UP) {
+				throw new CargoStateException(cargoId, cargo.getCargoSituation(), "This cargo has already been delivered!");
+			}
 			throw new RuntimeException("Incorrect verification code");
 		}
 
-		if (shipmentSendRepository.existsByCargo(cargo)) {
-        throw new RuntimeException("This cargo has already been delivered!");
-    }
-
-		cargo.setCargoSituation(CargoSituation.DELIVERED);
-		cargo.setDeliveredTime(LocalDateTime.now());
-		cargoRepository.save(cargo);
-
 		ShipmentSent shipmentSent = new ShipmentSent();
 		shipmentSent.setCargo(cargo);
-		shipmentSent.setDriver(driver);
+		shipmentSent.setDriver(cargo.getDriver());
 		shipmentSent.setDistributor(cargo.getDistributor());
 		shipmentSent.setDate(LocalDateTime.now());
 		shipmentSendRepository.save(shipmentSent);
+		eventPublisher.publishEvent(new CargoSituationChangedEvent(cargoId, cargo.getDistributor().getId(),
+				principal.getId(), CargoSituation.PICKED_UP, CargoSituation.DELIVERED, LocalDateTime.now()));
+		Location from = cargo.getSelfLocation();
+		Location to = cargo.getTargetLocation();
+		eventPublisher.publishEvent(new CargoDeliveredEvent(cargoId, principal.getId(), cargo.getDistributor().getId(),
+				cargo.getTakingTime(), deliveredAt, from == null ? null : from.getLatitude(),
+				from == null ? null : from.getLongitude(), to == null ? null : to.getLatitude(),
+				to == null ? null : to.getLongitude()));
+		return true;
+	}
+
+	/**
+	 * GPS ping'lerini bellekteki konum store'una yazar; veritabanına DriverLocationFlusher
+	 * toplu olarak yazar. Kabul edilen ping sayısını döner.
+	 */
+	public int updateLocation(DriverLocationRequest request) {
+		AuthenticatedUser principal = AuthenticatedUser.current(Roles.DRIVER);
+		long now = System.currentTimeMillis();
+		int accepted = 0;
+		if (request.getPoints() != null) {
+			if (request.getPoints().size() > MAX_LOCATION_POINTS) {
+				throw new RuntimeException("Too many location points");
+			}
+			for (LocationPingRequest point : request.getPoints()) {
+				accepted += recordPing(principal.getId(), point, now) ? 1 : 0;
+			}
+		}
+		if (request.getLatitude() != null && request.getLongitude() != null) {
+			accepted += recordPing(principal.getId(), request, now) ? 1 : 0;
+		}
+		if (accepted > 0) {
+			// Batch'te sadece son konum takip edenlere gider
+			trackingHub.driverMoved(driverPositionStore.get(principal.getId()));
+		}
+		return accepted;
+	}
+
+	private boolean recordPing(Long driverId, LocationPingRequest ping, long now) {
+		if (ping.getLatitude() == null || ping.getLongitude() == null) {
+			throw new RuntimeException("Invalid coordinates");
+		}
+		checkCoordinates(ping.getLatitude(), ping.getLongitude());
+		long recordedAt = ping.getRecordedAt() == null || ping.getRecordedAt() > now + MAX_CLOCK_SKEW_MILLIS ? now
+				: ping.getRecordedAt();
+		if (!driverPositionStore.update(driverId, ping.getLatitude(), ping.getLongitude(), recordedAt)) {
+			return false;
+		}
+		// Rota geçmişi sadece kargo taşınırken tutulur
+		if (trackingHub.isCarrying(driverId)) {
+			driverTrackStore.append(driverId, ping.getLatitude(), ping.getLongitude(), recordedAt);
+		}
 		return true;
 	}
 
@@ -105,8 +193,12 @@ public class DriverService {
 			driver.setMail(driverRequest.getMail());
 			driver.setPhoneNumber(driverRequest.getPhoneNumber());
 			driver.setUsername(driverRequest.getUsername());
+			CarType previousCarType = ((Driver) driver).getCarType();
 			((Driver) driver).setCarType(driverRequest.getCarType());
 			userRepository.save(driver);
+			statsService.carTypeChanged(previousCarType, driverRequest.getCarType());
+			principalCache.invalidate(username);
+			principalCache.invalidate(driver.getUsername());
 
 			String token = jwtService.generateToken(driver);
 
@@ -119,51 +211,94 @@ public class DriverService {
 	}
 
 	public Page<CargoesResponse> getMyCargoes(Pageable pageable) {
-		String username = SecurityContextHolder.getContext().getAuthentication().getName();
-		Optional<User> userOpt = userRepository.findByUsername(username);
-		if (userOpt.isEmpty()) {
-			throw new RuntimeException("User not found.");
-		}
-		Driver driver = (Driver) userOpt.get();
-
-		Page<Cargo> cargoesPage = cargoRepository.findByDriverId(driver.getId(), pageable);
-		Page<CargoesResponse> cargoResponse = cargoesPage.map(cargo -> new CargoesResponse(
-    		cargo.getId(),
-    		cargo.getDescription(),  // ✅ EKLE
-    		new ResponseLocation(cargo.getSelfLocation().getLatitude(), cargo.getSelfLocation().getLongitude()),
-    		new ResponseLocation(cargo.getTargetLocation().getLatitude(), cargo.getTargetLocation().getLongitude()),
-    		new ResponseMeasure(cargo.getMeasure().getWeight(), cargo.getMeasure().getHeight(), cargo.getMeasure().getSize()),
-    		cargo.getCargoSituation(),
-    		cargo.getPhoneNumber(), 
-    		cargo.getDistributor().getPhoneNumber(),
-    		cargo.getCreatedAt(),   // ✅ EKLE (Cargo entity'de bu alan varsa)
-    		cargo.getUpdatedAt(),   // ✅ EKLE
-    		cargo.getVerificationCode() // ✅ EKLE
-		));
-		return cargoResponse;
+		AuthenticatedUser principal = AuthenticatedUser.current(Roles.DRIVER);
+		return cargoRepository.findCargoPageByDriverId(principal.getId(), pageable);
 	}
 
 	public Page<CargoesResponse> getAllCargoes(Pageable pageable) {
-		String username = SecurityContextHolder.getContext().getAuthentication().getName();
-		Long id = userRepository.findByUsername(username).get().getId();
-		Optional<Driver> driverOpt = driverRepository.findById(id);
-		if (driverOpt.isEmpty()) {
-			throw new RuntimeException("User Not Found");
+		AuthenticatedUser.current(Roles.DRIVER);
+		return cargoRepository.findAllCargoes(pageable);
+	}
+
+	public CargoWindow getMyCargoes(CargoCursor cursor, int size, boolean withTotal) {
+		AuthenticatedUser principal = AuthenticatedUser.current(Roles.DRIVER);
+		CargoWindow window = cargoRepository.findCargoWindowByDriverId(principal.getId(), cursor, size);
+		if (withTotal && cursor.isFirstPage()) {
+			window.setTotalItems(cargoRepository.countByDriverId(principal.getId())
+					+ cargoArchiveRepository.countByDriverId(principal.getId()));
+		}
+		return window;
+	}
+
+	public CargoWindow getAllCargoes(CargoCursor cursor, int size, boolean withTotal) {
+		AuthenticatedUser.current(Roles.DRIVER);
+		CargoWindow window = cargoRepository.findCargoWindow(cursor, size);
+		if (withTotal && cursor.isFirstPage()) {
+			window.setTotalItems(cargoRepository.count());
+		}
+		return window;
+	}
+
+	public List<NearbyCargoResponse> getNearbyCargoes(double latitude, double longitude, double radiusKm, int limit) {
+		AuthenticatedUser.current(Roles.DRIVER);
+		checkCoordinates(latitude, longitude);
+		if (!(radiusKm > 0)) {
+			throw new RuntimeException("Invalid radius");
+		}
+		List<GeoGrid.Hit> hits = openCargoIndex.nearby(latitude, longitude,
+				Math.min(radiusKm, MAX_NEARBY_RADIUS_KM), Math.min(limit, MAX_NEARBY_LIMIT));
+		if (hits.isEmpty()) {
+			return List.of();
+		}
+		Map<Long, CargoesResponse> cargoes = loadOpenCargoes(hits.stream().map(GeoGrid.Hit::id).toList());
+		List<NearbyCargoResponse> nearby = new ArrayList<>(hits.size());
+		for (GeoGrid.Hit hit : hits) {
+			CargoesResponse cargo = cargoes.get(hit.id());
+			if (cargo != null) {
+				nearby.add(new NearbyCargoResponse(cargo, hit.distanceKm()));
+			}
+		}
+		return nearby;
+	}
+
+	public List<RouteMatchResponse> getRouteMatches(double fromLat, double fromLon, double toLat, double toLon,
+			double detourKm, int limit) {
+		AuthenticatedUser.current(Roles.DRIVER);
+		checkCoordinates(fromLat, fromLon);
+		checkCoordinates(toLat, toLon);
+		if (Double.isNaN(detourKm)) {
+			throw new RuntimeException("Invalid detour");
+		}
+		List<OpenCargoIndex.RouteMatch> matches = openCargoIndex.routeMatches(fromLat, fromLon, toLat, toLon,
+				Math.min(Math.max(detourKm, 0), MAX_DETOUR_KM), Math.min(limit, MAX_NEARBY_LIMIT));
+		if (matches.isEmpty()) {
+			return List.of();
+		}
+		Map<Long, CargoesResponse> cargoes = loadOpenCargoes(matches.stream().map(OpenCargoIndex.RouteMatch::cargoId).toList());
+		List<RouteMatchResponse> response = new ArrayList<>(matches.size());
+		for (OpenCargoIndex.RouteMatch match : matches) {
+			CargoesResponse cargo = cargoes.get(match.cargoId());
+			if (cargo != null) {
+				response.add(new RouteMatchResponse(cargo, match.detourKm()));
+			}
+		}
+		return response;
+	}
+
+	// Index sadece id + konum tutar; detaylar tek sorguda gelir. Bu arada alınmış kargolar elenir.
+	private Map<Long, CargoesResponse> loadOpenCargoes(List<Long> ids) {
+		Map<Long, CargoesResponse> cargoes = new HashMap<>();
+		for (CargoesResponse cargo : cargoRepository.findCargoesByIdIn(ids)) {
+			if (cargo.getCargoSituation() == CargoSituation.CREATED) {
+				cargoes.put(cargo.getId(), cargo);
+			}
+		}
+		return cargoes;
+	}
+
+	private static void checkCoordinates(double latitude, double longitude) {
+		if (!GeoGrid.isValidCoordinate(latitude, longitude)) {
+			throw new RuntimeException("Invalid coordinates");
 		}
-		Page<Cargo> cargoes = cargoRepository.findAll(pageable);
-		Page<CargoesResponse> cargoResponse = cargoes.map(cargo -> new CargoesResponse(
-		    cargo.getId(),
-		    cargo.getDescription(),  // ✅ EKLE
-		    new ResponseLocation(cargo.getSelfLocation().getLatitude(), cargo.getSelfLocation().getLongitude()),
-		    new ResponseLocation(cargo.getTargetLocation().getLatitude(), cargo.getTargetLocation().getLongitude()),
-		    new ResponseMeasure(cargo.getMeasure().getWeight(), cargo.getMeasure().getHeight(), cargo.getMeasure().getSize()),
-		    cargo.getCargoSituation(),
-		    cargo.getPhoneNumber(), 
-		    cargo.getDistributor().getPhoneNumber(),
-		    cargo.getCreatedAt(),   // ✅ EKLE (Cargo entity'de bu alan varsa)
-		    cargo.getUpdatedAt(),   // ✅ EKLE
-		    cargo.getVerificationCode() // ✅ EKLE
-		));
-		return cargoResponse;
 	}
 }
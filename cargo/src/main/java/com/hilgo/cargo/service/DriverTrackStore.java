@@ -0,0 +1,540 @@
+package com.hilgo.cargo.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Sürücülerin geçmiş rotası; yerel diskte sürücü başına klasör, içinde sadece sona eklenen
+ * segment dosyaları. Her nokta bir öncekine göre fark (zaman ms, enlem/boylam 1e-6 derece)
+ * olarak varint ile yazılır, tipik bir ping 5-7 byte tutar. Her syncInterval noktada bir
+ * mutlak nokta yazılır ve segmentin .idx dosyasına (zaman, offset) kaydı eklenir; zaman
+ * aralığı okumaları bu index'ten başlayıp memory-mapped segment üzerinde decode eder.
+ * Yazmalar bellekte biriktirilip periyodik olarak diske eklenir.
+ */
+@Service
+public class DriverTrackStore {
+
+	private static final Logger log = LoggerFactory.getLogger(DriverTrackStore.class);
+
+	private static final String SEGMENT_SUFFIX = ".seg";
+	private static final String INDEX_SUFFIX = ".idx";
+	private static final int INDEX_RECORD_BYTES = 16;
+	private static final double SCALE = 1e6;
+	// Yüklenen segmentte bundan ileri zamanlı nokta bozuk sayılır
+	private static final long MAX_FUTURE_MILLIS = 86_400_000L;
+
+	@Value("${driver.track.dir:data/tracks}")
+	private String directory;
+
+	@Value("${driver.track.segment-bytes:1048576}")
+	private int segmentBytes;
+
+	@Value("${driver.track.sync-interval:128}")
+	private int syncInterval;
+
+	@Value("${driver.track.retention-days:90}")
+	private int retentionDays;
+
+	@Value("${driver.track.idle-eviction:600000}")
+	private long idleEvictionMillis;
+
+	private Path root;
+	private final Map<Long, Track> tracks = new ConcurrentHashMap<>();
+	// Okumalar dosyaları açarken purge onları silemez
+	private final ReadWriteLock purgeLock = new ReentrantReadWriteLock();
+
+	@PostConstruct
+	void init() throws IOException {
+		root = Paths.get(directory);
+		Files.createDirectories(root);
+	}
+
+	@PreDestroy
+	void shutdown() {
+		flush();
+	}
+
+	/**
+	 * Noktayı sürücünün rotasına ekler. Son noktadan eski ya da aynı zamanlı noktalar yok sayılır.
+	 */
+	public boolean append(long driverId, double latitude, double longitude, long recordedAtMillis) {
+		while (true) {
+			Track track = track(driverId);
+			track.lock.lock();
+			try {
+				if (!track.evicted) {
+					return track.append(recordedAtMillis, (int) Math.round(latitude * SCALE),
+							(int) Math.round(longitude * SCALE));
+				}
+			} finally {
+				track.lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * [from, to] aralığındaki noktalar, zaman sırasıyla.
+	 */
+	public List<TrackPoint> read(long driverId, long fromMillis, long toMillis) {
+		Track track = track(driverId);
+		long currentSegment;
+		long committedSize;
+		track.lock.lock();
+		try {
+			track.writePending();
+			currentSegment = track.segmentStart;
+			committedSize = track.segmentSize;
+		} finally {
+			track.lock.unlock();
+		}
+		List<TrackPoint> points = new ArrayList<>();
+		purgeLock.readLock().lock();
+		try {
+			long[] segments = segments(track.dir);
+			for (int i = 0; i < segments.length; i++) {
+				long end = i + 1 < segments.length ? segments[i + 1] : Long.MAX_VALUE;
+				if (end <= fromMillis || segments[i] > toMillis) {
+					continue;
+				}
+				// Aktif segmente sonradan eklenenler okunmaz; eski segmentler değişmez
+				Path segment = track.dir.resolve(segmentName(segments[i]) + SEGMENT_SUFFIX);
+				long size = segments[i] == currentSegment ? committedSize : size(segment);
+				readSegment(track.dir, segments[i], size, fromMillis, toMillis, points);
+			}
+		} finally {
+			purgeLock.readLock().unlock();
+		}
+		return points;
+	}
+
+	/**
+	 * Bellekte biriken noktaları diske ekler; uzun süredir sessiz sürücüleri bellekten atar.
+	 */
+	@Scheduled(fixedDelayString = "${driver.track.flush-interval:5000}")
+	public void flush() {
+		long now = System.currentTimeMillis();
+		for (Map.Entry<Long, Track> entry : tracks.entrySet()) {
+			Track track = entry.getValue();
+			track.lock.lock();
+			try {
+				track.writePending();
+				if (now - track.lastAppendMillis > idleEvictionMillis) {
+					track.evicted = true;
+					tracks.remove(entry.getKey(), track);
+				}
+			} catch (UncheckedIOException e) {
+				log.error("Track flush failed for driver {}", entry.getKey(), e);
+			} finally {
+				track.lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Saklama süresini aşmış segmentleri siler; sürücünün son segmentine dokunulmaz.
+	 */
+	@Scheduled(fixedDelayString = "${driver.track.purge-interval:3600000}")
+	public void purgeExpired() {
+		long cutoff = System.currentTimeMillis() - retentionDays * 86_400_000L;
+		try (DirectoryStream<Path> drivers = Files.newDirectoryStream(root)) {
+			for (Path dir : drivers) {
+				long[] segments = segments(dir);
+				// Segment i, i+1'in başlangıcında biter
+				for (int i = 0; i + 1 < segments.length && segments[i + 1] < cutoff; i++) {
+					purgeLock.writeLock().lock();
+					try {
+						Files.deleteIfExists(dir.resolve(segmentName(segments[i]) + SEGMENT_SUFFIX));
+						Files.deleteIfExists(dir.resolve(segmentName(segments[i]) + INDEX_SUFFIX));
+					} finally {
+						purgeLock.writeLock().unlock();
+					}
+				}
+			}
+		} catch (IOException e) {
+			log.error("Track purge failed", e);
+		}
+	}
+
+	/**
+	 * Diskte kullanılan toplam byte; ölçüm ve testler için.
+	 */
+	public long diskBytes(long driverId) {
+		Path dir = root.resolve(Long.toString(driverId));
+		long total = 0;
+		for (long segment : segments(dir)) {
+			total += size(dir.resolve(segmentName(segment) + SEGMENT_SUFFIX));
+			total += size(dir.resolve(segmentName(segment) + INDEX_SUFFIX));
+		}
+		return total;
+	}
+
+	private Track track(long driverId) {
+		return tracks.computeIfAbsent(driverId, id -> load(root.resolve(Long.toString(id))));
+	}
+
+	// Yeniden başlatmadan sonra son segmentin sonundaki durum kurtarılır. Segment baştan çözülür;
+	// yarım kalmış, segment başlangıcından önceki, geriye giden ya da gelecekteki ilk noktada kesilir
+	private Track load(Path dir) {
+		Track track = new Track(dir);
+		long[] segments = segments(dir);
+		if (segments.length == 0) {
+			return track;
+		}
+		long start = segments[segments.length - 1];
+		Path segment = dir.resolve(segmentName(start) + SEGMENT_SUFFIX);
+		long size = size(segment);
+		long[] index = validIndex(readIndex(dir, start, size), start);
+		Decoder decoder = new Decoder(map(segment, size), index);
+		long limit = System.currentTimeMillis() + MAX_FUTURE_MILLIS;
+		long previous = start - 1;
+		int end = 0;
+		while (decoder.next() && decoder.time > previous && decoder.time <= limit) {
+			previous = decoder.time;
+			end = decoder.position;
+			track.lastTime = decoder.time;
+			track.lastLat = decoder.lat;
+			track.lastLon = decoder.lon;
+		}
+		int indexed = 0;
+		while (indexed * 2 < index.length && index[indexed * 2 + 1] < end) {
+			indexed++;
+		}
+		truncate(segment, size, end);
+		Path indexFile = dir.resolve(segmentName(start) + INDEX_SUFFIX);
+		truncate(indexFile, size(indexFile), (long) indexed * INDEX_RECORD_BYTES);
+		track.segmentStart = start;
+		track.segmentSize = end;
+		track.indexSize = (long) indexed * INDEX_RECORD_BYTES;
+		track.sinceSync = syncInterval;
+		return track;
+	}
+
+	// Baştan itibaren zamanı segment başlangıcından küçük olmayan, zamanı ve offset'i artan kayıtlar
+	private static long[] validIndex(long[] index, long start) {
+		int count = 0;
+		while (count * 2 < index.length && index[count * 2] >= start
+				&& (count == 0 || index[count * 2] > index[count * 2 - 2]
+						&& index[count * 2 + 1] > index[count * 2 - 1])) {
+			count++;
+		}
+		return Arrays.copyOf(index, count * 2);
+	}
+
+	private static void truncate(Path file, long size, long length) {
+		if (length >= size) {
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.truncate(length);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void readSegment(Path dir, long start, long size, long fromMillis, long toMillis, List<TrackPoint> out) {
+		if (size == 0) {
+			return;
+		}
+		Decoder decoder = new Decoder(map(dir.resolve(segmentName(start) + SEGMENT_SUFFIX), size),
+				readIndex(dir, start, size));
+		// from'dan önceki son sync noktasından başla
+		long[] index = decoder.index;
+		int low = 0;
+		int high = index.length / 2 - 1;
+		int found = -1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (index[mid * 2] <= fromMillis) {
+				found = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		decoder.seek(found < 0 ? 0 : index[found * 2 + 1]);
+		while (decoder.next() && decoder.time <= toMillis) {
+			if (decoder.time >= fromMillis) {
+				out.add(new TrackPoint(decoder.lat / SCALE, decoder.lon / SCALE, decoder.time));
+			}
+		}
+	}
+
+	// (zaman, offset) çiftleri; segmentte henüz olmayan offset'ler atlanır
+	private static long[] readIndex(Path dir, long start, long segmentSize) {
+		Path file = dir.resolve(segmentName(start) + INDEX_SUFFIX);
+		if (!Files.exists(file)) {
+			return new long[0];
+		}
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+			long[] index = new long[buffer.remaining() / INDEX_RECORD_BYTES * 2];
+			int count = 0;
+			while (buffer.remaining() >= INDEX_RECORD_BYTES) {
+				long time = buffer.getLong();
+				long offset = buffer.getLong();
+				if (offset < segmentSize) {
+					index[count++] = time;
+					index[count++] = offset;
+				}
+			}
+			return Arrays.copyOf(index, count);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static MappedByteBuffer map(Path segment, long size) {
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static long[] segments(Path dir) {
+		if (!Files.isDirectory(dir)) {
+			return new long[0];
+		}
+		List<Long> starts = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SEGMENT_SUFFIX)) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				starts.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return starts.stream().mapToLong(Long::longValue).sorted().toArray();
+	}
+
+	private static long size(Path file) {
+		try {
+			return Files.exists(file) ? Files.size(file) : 0;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	// Sıfır dolgulu isim: dosya adı sırası zaman sırasıdır
+	private static String segmentName(long start) {
+		return String.format("%020d", start);
+	}
+
+	public record TrackPoint(double latitude, double longitude, long recordedAtMillis) {
+	}
+
+	/**
+	 * Tek sürücünün yazma durumu; tüm erişim lock altında. Kilit tutulurken dosyaya yazıldığından
+	 * synchronized değil ReentrantLock: sanal thread'de bekleyen taşıyıcı thread'i sabitlemez.
+	 */
+	private final class Track {
+
+		private final Path dir;
+		private final ReentrantLock lock = new ReentrantLock();
+		private long segmentStart = -1;
+		private long segmentSize;
+		private long indexSize;
+		private long lastTime = Long.MIN_VALUE;
+		private int lastLat;
+		private int lastLon;
+		private int sinceSync;
+		private byte[] pending = new byte[64];
+		private int pendingLength;
+		private long[] pendingIndex = new long[4];
+		private int pendingIndexLength;
+		private long lastAppendMillis = System.currentTimeMillis();
+		private boolean evicted;
+
+		private Track(Path dir) {
+			this.dir = dir;
+		}
+
+		private boolean append(long time, int lat, int lon) {
+			if (time <= lastTime) {
+				return false;
+			}
+			if (segmentStart < 0 || segmentSize + pendingLength >= segmentBytes) {
+				writePending();
+				segmentStart = time;
+				segmentSize = 0;
+				indexSize = 0;
+				sinceSync = syncInterval;
+			}
+			long baseTime = lastTime;
+			int baseLat = lastLat;
+			int baseLon = lastLon;
+			if (sinceSync >= syncInterval) {
+				// Mutlak nokta: decode buradan başlayabilir
+				addIndex(time, segmentSize + pendingLength);
+				baseTime = 0;
+				baseLat = 0;
+				baseLon = 0;
+				sinceSync = 0;
+			}
+			writeVarint(time - baseTime);
+			writeVarint(zigzag(lat - baseLat));
+			writeVarint(zigzag(lon - baseLon));
+			lastTime = time;
+			lastLat = lat;
+			lastLon = lon;
+			sinceSync++;
+			lastAppendMillis = System.currentTimeMillis();
+			return true;
+		}
+
+		// Önce segment, sonra index yazılır; ikisi de bilinen boyuttan itibaren yazıldığı için yarım
+		// kalan yazma tekrar denenince üzerine yazılır. Segment yazılınca noktalar bekleyenlerden
+		// düşer, index hatası sadece index kayıtlarını bekletir
+		private void writePending() {
+			if (pendingLength == 0 && pendingIndexLength == 0) {
+				return;
+			}
+			try {
+				if (pendingLength > 0) {
+					Files.createDirectories(dir);
+					write(SEGMENT_SUFFIX, ByteBuffer.wrap(pending, 0, pendingLength), segmentSize);
+					segmentSize += pendingLength;
+					pendingLength = 0;
+				}
+				if (pendingIndexLength > 0) {
+					ByteBuffer buffer = ByteBuffer.allocate(pendingIndexLength * 8);
+					for (int i = 0; i < pendingIndexLength; i++) {
+						buffer.putLong(pendingIndex[i]);
+					}
+					buffer.flip();
+					write(INDEX_SUFFIX, buffer, indexSize);
+					indexSize += pendingIndexLength * 8L;
+					pendingIndexLength = 0;
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		private void write(String suffix, ByteBuffer buffer, long position) throws IOException {
+			try (FileChannel channel = FileChannel.open(dir.resolve(segmentName(segmentStart) + suffix),
+					StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+				while (buffer.hasRemaining()) {
+					position += channel.write(buffer, position);
+				}
+			}
+		}
+
+		private void addIndex(long time, long offset) {
+			if (pendingIndexLength + 2 > pendingIndex.length) {
+				pendingIndex = Arrays.copyOf(pendingIndex, pendingIndex.length * 2);
+			}
+			pendingIndex[pendingIndexLength++] = time;
+			pendingIndex[pendingIndexLength++] = offset;
+		}
+
+		private void writeVarint(long value) {
+			if (pendingLength + 10 > pending.length) {
+				pending = Arrays.copyOf(pending, pending.length * 2);
+			}
+			while ((value & ~0x7FL) != 0) {
+				pending[pendingLength++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			pending[pendingLength++] = (byte) value;
+		}
+	}
+
+	private static long zigzag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	/**
+	 * Segmenti sırayla çözer; index'teki offset'lerde mutlak noktaya geçer.
+	 */
+	private static final class Decoder {
+
+		private final MappedByteBuffer buffer;
+		private final long[] index;
+		private int nextSync;
+		private int position;
+		private long time;
+		private int lat;
+		private int lon;
+
+		private Decoder(MappedByteBuffer buffer, long[] index) {
+			this.buffer = buffer;
+			this.index = index;
+		}
+
+		private void seek(long offset) {
+			position = (int) offset;
+			nextSync = 0;
+			while (nextSync * 2 < index.length && index[nextSync * 2 + 1] < offset) {
+				nextSync++;
+			}
+		}
+
+		// Sonda yarım kalmış nokta varsa false döner, position son tam noktanın sonunda kalır
+		private boolean next() {
+			long baseTime = time;
+			int baseLat = lat;
+			int baseLon = lon;
+			if (nextSync * 2 < index.length && index[nextSync * 2 + 1] == position) {
+				baseTime = 0;
+				baseLat = 0;
+				baseLon = 0;
+				nextSync++;
+			}
+			int start = position;
+			long deltaTime = readVarint();
+			long deltaLat = readVarint();
+			long deltaLon = readVarint();
+			if (deltaLon < 0) {
+				position = start;
+				return false;
+			}
+			time = baseTime + deltaTime;
+			lat = baseLat + (int) unzigzag(deltaLat);
+			lon = baseLon + (int) unzigzag(deltaLon);
+			return true;
+		}
+
+		// Veri bittiyse -1
+		private long readVarint() {
+			long value = 0;
+			for (int shift = 0; position < buffer.limit(); shift += 7) {
+				byte b = buffer.get(position++);
+				value |= (long) (b & 0x7F) << shift;
+				if (b >= 0) {
+					return value;
+				}
+			}
+			return -1;
+		}
+
+		private static long unzigzag(long value) {
+			return (value >>> 1) ^ -(value & 1);
+		}
+	}
+}
@@ -0,0 +1,302 @@
+package com.hilgo.cargo.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Enlem/boylamı sabit boyutlu hücrelere bölen (geohash benzeri) eşzamanlı grid index.
+ * Her id en fazla bir noktada tutulur. Yarıçap sorgusu sadece yarıçapın sınır kutusuna
+ * düşen hücreleri tarar, adayları haversine mesafesine göre sıralayıp döner.
+ */
+public final class GeoGrid {
+
+	public static final double EARTH_RADIUS_KM = 6371.0088;
+	private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+	private static final int CORRIDOR_BLOCK = 8;
+
+	private final double cellDegrees;
+	private final long cellsPerTurn;
+
+	private final Map<Long, Point> points = new ConcurrentHashMap<>();
+	private final Map<Long, Map<Long, Point>> cells = new ConcurrentHashMap<>();
+
+	public GeoGrid(double cellDegrees) {
+		if (cellDegrees <= 0) {
+			throw new IllegalArgumentException("cellDegrees must be positive");
+		}
+		this.cellDegrees = cellDegrees;
+		this.cellsPerTurn = Math.round(360.0 / cellDegrees);
+	}
+
+	public void put(long id, double latitude, double longitude) {
+		Point point = new Point(id, latitude, longitude, cellKey(latitude, longitude));
+		// Aynı id için eşzamanlı put/remove'lar compute ile sıraya girer
+		points.compute(id, (key, previous) -> {
+			if (previous != null && previous.cell != point.cell) {
+				removeFromCell(previous);
+			}
+			cells.compute(point.cell, (cell, members) -> {
+				Map<Long, Point> target = members != null ? members : new ConcurrentHashMap<>();
+				target.put(id, point);
+				return target;
+			});
+			return point;
+		});
+	}
+
+	public void remove(long id) {
+		points.computeIfPresent(id, (key, previous) -> {
+			removeFromCell(previous);
+			return null;
+		});
+	}
+
+	public void clear() {
+		points.clear();
+		cells.clear();
+	}
+
+	public int size() {
+		return points.size();
+	}
+
+	public boolean contains(long id) {
+		return points.containsKey(id);
+	}
+
+	// id'nin konumu; index'te yoksa null
+	public double[] get(long id) {
+		Point point = points.get(id);
+		return point != null ? new double[] { point.latitude, point.longitude } : null;
+	}
+
+	/**
+	 * radiusKm içindeki en yakın en fazla limit noktayı, yakından uzağa sıralı döner.
+	 */
+	public List<Hit> nearby(double latitude, double longitude, double radiusKm, int limit) {
+		if (limit <= 0 || radiusKm < 0) {
+			return List.of();
+		}
+		double latDelta = radiusKm / KM_PER_DEGREE;
+		long[] range = cellRange(latitude, longitude, radiusKm);
+
+		// En uzak aday başta; limit dolunca daha uzak olanlar elenir
+		PriorityQueue<Hit> best = new PriorityQueue<>(Comparator.comparingDouble(Hit::distanceKm).reversed());
+		for (long latIndex = range[0]; latIndex <= range[1]; latIndex++) {
+			for (long lonIndex = range[2]; lonIndex <= range[3]; lonIndex++) {
+				Map<Long, Point> members = cells.get(key(latIndex, wrapLon(lonIndex)));
+				if (members == null) {
+					continue;
+				}
+				for (Point point : members.values()) {
+					if (Math.abs(point.latitude - latitude) > latDelta) {
+						continue;
+					}
+					double distance = haversineKm(latitude, longitude, point.latitude, point.longitude);
+					if (distance > radiusKm) {
+						continue;
+					}
+					if (best.size() < limit) {
+						best.add(new Hit(point.id, point.latitude, point.longitude, distance));
+					} else if (distance < best.peek().distanceKm()) {
+						best.poll();
+						best.add(new Hit(point.id, point.latitude, point.longitude, distance));
+					}
+				}
+			}
+		}
+		List<Hit> hits = new ArrayList<>(best);
+		hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+		return hits;
+	}
+
+	/**
+	 * Odakları from ve to olan elipsin içindeki noktaları döner: from -> nokta -> to
+	 * mesafesi maxTotalKm'yi geçmeyenler. Hit.distanceKm bu toplam mesafedir. Elipsin dışında
+	 * kalan hücreler, hücre merkezine göre yapılan kaba bir kontrolle hiç taranmaz.
+	 */
+	public List<Hit> withinCorridor(double fromLat, double fromLon, double toLat, double toLon, double maxTotalKm) {
+		double direct = haversineKm(fromLat, fromLon, toLat, toLon);
+		if (maxTotalKm < direct) {
+			return List.of();
+		}
+		// Elipsin her noktası, from-to orta noktasına en fazla (direct + maxTotalKm) / 2 uzaklıkta
+		double[] mid = midpoint(fromLat, fromLon, toLat, toLon);
+		long[] range = cellRange(mid[0], mid[1], (direct + maxTotalKm) / 2);
+		double cellSlack = cellDegrees * KM_PER_DEGREE * Math.sqrt(2);
+		double blockSlack = cellSlack * CORRIDOR_BLOCK;
+		double fromPhi = Math.toRadians(fromLat), fromLambda = Math.toRadians(fromLon), fromCos = Math.cos(fromPhi);
+		double toPhi = Math.toRadians(toLat), toLambda = Math.toRadians(toLon), toCos = Math.cos(toPhi);
+
+		List<Hit> hits = new ArrayList<>();
+		// Önce CORRIDOR_BLOCK x CORRIDOR_BLOCK hücrelik bloklar, sonra hücreler elipse göre budanır
+		for (long blockLat = range[0]; blockLat <= range[1]; blockLat += CORRIDOR_BLOCK) {
+			long blockLatEnd = Math.min(blockLat + CORRIDOR_BLOCK - 1, range[1]);
+			for (long blockLon = range[2]; blockLon <= range[3]; blockLon += CORRIDOR_BLOCK) {
+				long blockLonEnd = Math.min(blockLon + CORRIDOR_BLOCK - 1, range[3]);
+				if (outsideCorridor((blockLat + blockLatEnd + 1) / 2.0, (blockLon + blockLonEnd + 1) / 2.0, fromPhi,
+						fromLambda, fromCos, toPhi, toLambda, toCos, maxTotalKm + blockSlack)) {
+					continue;
+				}
+				for (long latIndex = blockLat; latIndex <= blockLatEnd; latIndex++) {
+					for (long lonIndex = blockLon; lonIndex <= blockLonEnd; lonIndex++) {
+						Map<Long, Point> members = cells.get(key(latIndex, wrapLon(lonIndex)));
+						if (members == null || outsideCorridor(latIndex + 0.5, lonIndex + 0.5, fromPhi, fromLambda,
+								fromCos, toPhi, toLambda, toCos, maxTotalKm + cellSlack)) {
+							continue;
+						}
+						for (Point point : members.values()) {
+							double total = distanceKm(fromPhi, fromLambda, fromCos, point.phi, point.lambda, point.cos)
+									+ distanceKm(point.phi, point.lambda, point.cos, toPhi, toLambda, toCos);
+							if (total <= maxTotalKm) {
+								hits.add(new Hit(point.id, point.latitude, point.longitude, total));
+							}
+						}
+					}
+				}
+			}
+		}
+		return hits;
+	}
+
+	/**
+	 * Odakları from ve to olan elipsle (maxTotalKm) kesişebilecek tüm hücrelerin anahtarları.
+	 * Grid'de nokta tutmadan, elipsleri hücrelere kaydetmek için kullanılır.
+	 */
+	public List<Long> corridorCells(double fromLat, double fromLon, double toLat, double toLon, double maxTotalKm) {
+		double direct = haversineKm(fromLat, fromLon, toLat, toLon);
+		if (maxTotalKm < direct) {
+			return List.of();
+		}
+		double[] mid = midpoint(fromLat, fromLon, toLat, toLon);
+		long[] range = cellRange(mid[0], mid[1], (direct + maxTotalKm) / 2);
+		double cellSlack = cellDegrees * KM_PER_DEGREE * Math.sqrt(2);
+		double fromPhi = Math.toRadians(fromLat), fromLambda = Math.toRadians(fromLon), fromCos = Math.cos(fromPhi);
+		double toPhi = Math.toRadians(toLat), toLambda = Math.toRadians(toLon), toCos = Math.cos(toPhi);
+
+		List<Long> keys = new ArrayList<>();
+		for (long latIndex = range[0]; latIndex <= range[1]; latIndex++) {
+			for (long lonIndex = range[2]; lonIndex <= range[3]; lonIndex++) {
+				if (!outsideCorridor(latIndex + 0.5, lonIndex + 0.5, fromPhi, fromLambda, fromCos, toPhi, toLambda, toCos,
+						maxTotalKm + cellSlack)) {
+					keys.add(key(latIndex, wrapLon(lonIndex)));
+				}
+			}
+		}
+		return keys;
+	}
+
+	// Hücre indeksi cinsinden verilen merkez, from/to odaklı elipsin (limitKm) dışında mı
+	private boolean outsideCorridor(double latCells, double lonCells, double fromPhi, double fromLambda, double fromCos,
+			double toPhi, double toLambda, double toCos, double limitKm) {
+		double phi = Math.toRadians(latCells * cellDegrees);
+		double lambda = Math.toRadians(lonCells * cellDegrees);
+		double cos = Math.cos(phi);
+		return distanceKm(fromPhi, fromLambda, fromCos, phi, lambda, cos)
+				+ distanceKm(phi, lambda, cos, toPhi, toLambda, toCos) > limitKm;
+	}
+
+	// NaN/sonsuz değerler aralık karşılaştırmalarını geçtiği için ayrıca elenir
+	public static boolean isValidCoordinate(double latitude, double longitude) {
+		return Double.isFinite(latitude) && Double.isFinite(longitude) && latitude >= -90 && latitude <= 90
+				&& longitude >= -180 && longitude <= 180;
+	}
+
+	public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+		double phi1 = Math.toRadians(lat1);
+		double phi2 = Math.toRadians(lat2);
+		return distanceKm(phi1, Math.toRadians(lon1), Math.cos(phi1), phi2, Math.toRadians(lon2), Math.cos(phi2));
+	}
+
+	// Radyan cinsinden, enlem kosinüsleri önceden hesaplanmış haversine
+	private static double distanceKm(double phi1, double lambda1, double cos1, double phi2, double lambda2, double cos2) {
+		double sinDPhi = Math.sin((phi2 - phi1) / 2);
+		double sinDLambda = Math.sin((lambda2 - lambda1) / 2);
+		double a = sinDPhi * sinDPhi + cos1 * cos2 * sinDLambda * sinDLambda;
+		return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+	}
+
+	// Merkezi verilen yarıçaplı dairenin sınır kutusuna düşen hücre aralığı: minLat, maxLat, minLon, maxLon
+	private long[] cellRange(double latitude, double longitude, double radiusKm) {
+		double latDelta = radiusKm / KM_PER_DEGREE;
+		double cos = Math.max(Math.cos(Math.toRadians(latitude)), 1e-6);
+		double lonDelta = Math.min(radiusKm / (KM_PER_DEGREE * cos), 180.0);
+
+		long minLat = index(Math.max(latitude - latDelta, -90.0));
+		long maxLat = index(Math.min(latitude + latDelta, 90.0));
+		long minLon = index(longitude - lonDelta);
+		long maxLon = index(longitude + lonDelta);
+		if (maxLon - minLon + 1 >= cellsPerTurn) {
+			// Kutuplara yakın: tüm boylam hücrelerini bir kez tara
+			minLon = index(-180.0);
+			maxLon = minLon + cellsPerTurn - 1;
+		}
+		return new long[] { minLat, maxLat, minLon, maxLon };
+	}
+
+	private static double[] midpoint(double lat1, double lon1, double lat2, double lon2) {
+		double phi1 = Math.toRadians(lat1);
+		double phi2 = Math.toRadians(lat2);
+		double lambda1 = Math.toRadians(lon1);
+		double dLambda = Math.toRadians(lon2 - lon1);
+		double bx = Math.cos(phi2) * Math.cos(dLambda);
+		double by = Math.cos(phi2) * Math.sin(dLambda);
+		double phi = Math.atan2(Math.sin(phi1) + Math.sin(phi2), Math.sqrt((Math.cos(phi1) + bx) * (Math.cos(phi1) + bx) + by * by));
+		double lambda = lambda1 + Math.atan2(by, Math.cos(phi1) + bx);
+		return new double[] { Math.toDegrees(phi), (Math.toDegrees(lambda) + 540) % 360 - 180 };
+	}
+
+	private void removeFromCell(Point point) {
+		cells.computeIfPresent(point.cell, (cell, members) -> {
+			members.remove(point.id);
+			return members.isEmpty() ? null : members;
+		});
+	}
+
+	private long index(double degrees) {
+		return (long) Math.floor(degrees / cellDegrees);
+	}
+
+	// 180. meridyeni geçen sorgular için boylam hücresini [-180, 180) aralığına sar
+	private long wrapLon(long lonIndex) {
+		long min = index(-180.0);
+		return Math.floorMod(lonIndex - min, cellsPerTurn) + min;
+	}
+
+	public long cellKey(double latitude, double longitude) {
+		return key(index(latitude), wrapLon(index(longitude)));
+	}
+
+	private static long key(long latIndex, long lonIndex) {
+		return (latIndex << 32) | (lonIndex & 0xffffffffL);
+	}
+
+	public record Hit(long id, double latitude, double longitude, double distanceKm) {
+	}
+
+	private static final class Point {
+
+		private final long id;
+		private final double latitude;
+		private final double longitude;
+		private final long cell;
+		// Mesafe hesabı için önceden hesaplanmış radyan değerleri
+		private final double phi;
+		private final double lambda;
+		private final double cos;
+
+		private Point(long id, double latitude, double longitude, long cell) {
+			this.id = id;
+			this.latitude = latitude;
+			this.longitude = longitude;
+			this.cell = cell;
+			this.phi = Math.toRadians(latitude);
+			this.lambda = Math.toRadians(longitude);
+			this.cos = Math.cos(phi);
+		}
+	}
+}
@@ -5,6 +5,7 @@ import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import javax.crypto.spec.SecretKeySpec;
@@ -13,55 +14,153 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.hilgo.cargo.entity.User;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+    public static final String CLAIM_PURPOSE = "pur";
+    public static final String PURPOSE_PASSWORD_RESET = "password-reset";
+
+    private final MeterRegistry meterRegistry;
+
     @Value("${security.jwt.secret}")
     private String SECRET_KEY;
 
+    @Value("${security.jwt.cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+
+    @Value("${security.jwt.reset-expiration-ms:900000}")
+    private long resetExpirationMs;
+
+    private Key signingKey;
+    private JwtParser parser;
+
+    // token -> doğrulanmış claim'ler; her kayıt token'ın kendi exp zamanında düşer
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        byte[] decodedKey = Base64.getDecoder().decode(SECRET_KEY);
+        signingKey = new SecretKeySpec(decodedKey, 0, decodedKey.length, "HmacSHA256");
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+                        long remainingMillis = verified.getExpirationMillis() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, VerifiedToken verified, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwtTokens");
+    }
+
+    /**
+     * Token'ı en fazla bir kez parse edip imzasını doğrular. Aynı token tekrar geldiğinde
+     * cache'ten döner; aynı anda gelen ıskalamalar tek parse'ı bekler. Süresi dolmuş ya da
+     * geçersiz token'lar JwtException fırlatır ve cache'e girmez.
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedToken verified = verifiedTokens.get(token, this::parse);
+        if (verified.isExpired()) {
+            // Kayıt exp anında düşer; saat sınırında kalan kayıt yeniden parse edilip reddedilir
+            verifiedTokens.invalidate(token);
+            return parse(token);
+        }
+        return verified;
+    }
+
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).getSubject();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsTFunction) {
-        final Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claimsTFunction.apply(claims);
+        return claimsTFunction.apply(verify(token).claims());
     }
 
-    public String generateToken(UserDetails user) {
+    public String generateToken(User user) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_ROLE, user.getRoles().name());
+        claims.put(CLAIM_TOKEN_VERSION, user.getTokenVersion());
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(user.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 5)) // 5 saat
-                .signWith(getKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Yalnızca şifre sıfırlamada geçerli, kısa ömürlü token. ver claim'i setPassword'da kullanıcının
+     * güncel versiyonuyla birebir karşılaştırılır; şifre değişince versiyon artar ve link bir kez kullanılır.
+     * pur claim'i taşıdığı için JwtAuthenticationFilter bu token'la oturum açtırmaz.
+     */
+    public String generatePasswordResetToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_TOKEN_VERSION, user.getTokenVersion());
+        claims.put(CLAIM_PURPOSE, PURPOSE_PASSWORD_RESET);
+        return Jwts.builder()
+                .setClaims(claims)
+                .setSubject(user.getUsername())
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + resetExpirationMs))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        final VerifiedToken verified = verify(token);
+        if (verified.getPurpose() != null) {
+            return false;
+        }
+        if (userDetails instanceof User user && !verified.matches(user.getId(), user.getTokenVersion())) {
+            return false;
+        }
+        return (verified.getSubject().equals(userDetails.getUsername()) && !verified.isExpired());
     }
 
-    private Key getKey() {
-        byte[] decodedKey = Base64.getDecoder().decode(SECRET_KEY);
-        return new SecretKeySpec(decodedKey, 0, decodedKey.length, "HmacSHA256");
+    private VerifiedToken parse(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() == null) {
+            throw new MalformedJwtException("Token has no expiration");
+        }
+        return new VerifiedToken(claims);
     }
 }
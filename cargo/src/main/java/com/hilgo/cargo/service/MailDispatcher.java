@@ -0,0 +1,264 @@
+package com.hilgo.cargo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import com.hilgo.cargo.entity.MailOutbox;
+import com.hilgo.cargo.entity.enums.MailStatus;
+import com.hilgo.cargo.repository.MailOutboxRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * mail_outbox tablosunu batch'ler halinde boşaltır. Her turda vadesi gelen kayıtları
+ * koşullu UPDATE ile sahiplenir, parçalara bölüp worker havuzuna dağıtır ve her parçayı
+ * tek SMTP bağlantısı üzerinden gönderir. Başarısız gönderimler üstel bekleme ile
+ * tekrar denenir, deneme hakkı biten kayıtlar DEAD olarak işaretlenir.
+ */
+@Service
+@RequiredArgsConstructor
+public class MailDispatcher {
+
+	private static final Logger log = LoggerFactory.getLogger(MailDispatcher.class);
+
+	private final MailOutboxRepository mailOutboxRepository;
+	private final JavaMailSender mailSender;
+	private final MailTemplateEngine mailTemplateEngine;
+
+	@Value("${mail.outbox.workers:3}")
+	private int workers;
+
+	@Value("${mail.outbox.batch-size:200}")
+	private int batchSize;
+
+	@Value("${mail.outbox.chunk-size:20}")
+	private int chunkSize;
+
+	@Value("${mail.outbox.max-attempts:6}")
+	private int maxAttempts;
+
+	@Value("${mail.outbox.initial-backoff:30s}")
+	private Duration initialBackoff;
+
+	@Value("${mail.outbox.max-backoff:1h}")
+	private Duration maxBackoff;
+
+	@Value("${mail.outbox.claim-timeout:5m}")
+	private Duration claimTimeout;
+
+	private ThreadPoolTaskExecutor workerPool;
+
+	@PostConstruct
+	void init() {
+		workerPool = new ThreadPoolTaskExecutor();
+		workerPool.setCorePoolSize(workers);
+		workerPool.setMaxPoolSize(workers);
+		workerPool.setQueueCapacity(0);
+		// Worker'lar doluysa parça, poll eden thread'de gönderilir
+		workerPool.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+		workerPool.setThreadNamePrefix("mail-dispatcher-");
+		workerPool.initialize();
+	}
+
+	@PreDestroy
+	void shutdown() {
+		workerPool.shutdown();
+	}
+
+	@Scheduled(fixedDelayString = "${mail.outbox.poll-interval:2000}")
+	public void poll() {
+		try {
+			mailOutboxRepository.releaseExpiredClaims(LocalDateTime.now());
+			while (dispatchDue() == batchSize) {
+				// Kuyrukta daha fazla kayıt var, beklemeden devam et
+			}
+		} catch (RuntimeException e) {
+			log.error("Mail outbox dispatch failed", e);
+		}
+	}
+
+	/**
+	 * Vadesi gelmiş en fazla batchSize kaydı gönderir ve işlenen kayıt sayısını döner.
+	 */
+	public int dispatchDue() {
+		LocalDateTime now = LocalDateTime.now();
+		List<Long> dueIds = mailOutboxRepository.findDueIds(now, PageRequest.of(0, batchSize));
+		if (dueIds.isEmpty()) {
+			return 0;
+		}
+		String claimToken = UUID.randomUUID().toString();
+		mailOutboxRepository.claim(dueIds, claimToken, now.plus(claimTimeout));
+		List<MailOutbox> claimed = mailOutboxRepository.findByClaimTokenAndStatus(claimToken, MailStatus.SENDING);
+
+		List<CompletableFuture<Void>> chunks = new ArrayList<>();
+		for (int i = 0; i < claimed.size(); i += chunkSize) {
+			List<MailOutbox> chunk = claimed.subList(i, Math.min(i + chunkSize, claimed.size()));
+			chunks.add(CompletableFuture.runAsync(() -> sendChunk(chunk), workerPool));
+		}
+		CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+		saveResults(claimed, claimToken);
+		return dueIds.size();
+	}
+
+	/**
+	 * Sonuçları aynı sonuca sahip kayıtlar için tek bir UPDATE ... WHERE id IN (...) ile yazar;
+	 * detached entity'ler merge edilmez. Bir parçadaki hatalar genelde aynı olduğundan
+	 * tur başına birkaç sorgu çalışır.
+	 */
+	private void saveResults(List<MailOutbox> claimed, String claimToken) {
+		LocalDateTime now = LocalDateTime.now();
+		List<Long> sent = new ArrayList<>();
+		Map<Outcome, List<Long>> failed = new LinkedHashMap<>();
+		for (MailOutbox mail : claimed) {
+			if (mail.getStatus() == MailStatus.SENT) {
+				sent.add(mail.getId());
+			} else {
+				failed.computeIfAbsent(new Outcome(mail.getStatus(), mail.getAttempts(), mail.getLastError()),
+						key -> new ArrayList<>()).add(mail.getId());
+			}
+		}
+		if (!sent.isEmpty()) {
+			mailOutboxRepository.markSent(sent, claimToken, now);
+		}
+		failed.forEach((outcome, ids) -> {
+			// DEAD kayıtlar bir daha seçilmez, nextAttemptAt yalnızca kayıt olarak kalır
+			LocalDateTime nextAttemptAt = outcome.status() == MailStatus.PENDING ? now.plus(backoff(outcome.attempts())) : now;
+			mailOutboxRepository.markFailed(ids, claimToken, outcome.status(), outcome.attempts(), nextAttemptAt,
+					outcome.lastError());
+		});
+	}
+
+	private void sendChunk(List<MailOutbox> chunk) {
+		Map<MimeMessage, MailOutbox> messages = new IdentityHashMap<>();
+		for (Map.Entry<MailOutbox, RenderedMail> entry : render(chunk).entrySet()) {
+			MailOutbox mail = entry.getKey();
+			try {
+				messages.put(toMimeMessage(mail, entry.getValue()), mail);
+			} catch (MessagingException | RuntimeException e) {
+				markFailed(mail, e);
+			}
+		}
+		if (messages.isEmpty()) {
+			return;
+		}
+		try {
+			mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+			messages.values().forEach(this::markSent);
+		} catch (MailSendException e) {
+			Map<Object, Exception> failed = e.getFailedMessages();
+			messages.forEach((message, mail) -> {
+				if (failed.containsKey(message)) {
+					markFailed(mail, failed.get(message));
+				} else if (failed.isEmpty()) {
+					markFailed(mail, e);
+				} else {
+					markSent(mail);
+				}
+			});
+		} catch (MailException e) {
+			messages.values().forEach(mail -> markFailed(mail, e));
+		}
+	}
+
+	/**
+	 * Parçadaki kayıtları şablon + dil bazında gruplayıp her grubu tek seferde render eder.
+	 * Render edilemeyen kayıtlar başarısız sayılır ve sonuçta yer almaz.
+	 */
+	private Map<MailOutbox, RenderedMail> render(List<MailOutbox> chunk) {
+		Map<MailOutbox, RenderedMail> rendered = new LinkedHashMap<>();
+		Map<String, List<MailOutbox>> groups = new LinkedHashMap<>();
+		for (MailOutbox mail : chunk) {
+			if (mail.getTemplate() == null) {
+				rendered.put(mail, new RenderedMail(mail.getSubject(), mail.getBody()));
+			} else {
+				groups.computeIfAbsent(mail.getTemplate() + "_" + mail.getLocale(), key -> new ArrayList<>()).add(mail);
+			}
+		}
+		for (List<MailOutbox> group : groups.values()) {
+			MailOutbox first = group.get(0);
+			Locale locale = first.getLocale() != null ? Locale.forLanguageTag(first.getLocale()) : null;
+			try {
+				List<RenderedMail> mails = mailTemplateEngine.renderBatch(first.getTemplate(), locale,
+						group.stream().map(MailOutbox::getVariables).toList());
+				for (int i = 0; i < group.size(); i++) {
+					rendered.put(group.get(i), mails.get(i));
+				}
+			} catch (RuntimeException e) {
+				// Gruptaki hatalı kaydı bulmak için tek tek dene
+				for (MailOutbox mail : group) {
+					try {
+						rendered.put(mail, mailTemplateEngine.render(mail.getTemplate(), locale, mail.getVariables()));
+					} catch (RuntimeException single) {
+						markFailed(mail, single);
+					}
+				}
+			}
+		}
+		return rendered;
+	}
+
+	private MimeMessage toMimeMessage(MailOutbox mail, RenderedMail rendered) throws MessagingException {
+		MimeMessage mimeMessage = mailSender.createMimeMessage();
+		MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+		helper.setTo(mail.getRecipient());
+		helper.setSubject(rendered.getSubject());
+		helper.setText(rendered.getHtmlBody(), true);
+		return mimeMessage;
+	}
+
+	private void markSent(MailOutbox mail) {
+		mail.setStatus(MailStatus.SENT);
+		mail.setSentAt(LocalDateTime.now());
+		mail.setClaimToken(null);
+		mail.setLockedUntil(null);
+		mail.setLastError(null);
+	}
+
+	private void markFailed(MailOutbox mail, Exception e) {
+		int attempts = mail.getAttempts() + 1;
+		mail.setAttempts(attempts);
+		mail.setClaimToken(null);
+		mail.setLockedUntil(null);
+		String error = String.valueOf(e.getMessage());
+		mail.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+		if (attempts >= maxAttempts) {
+			mail.setStatus(MailStatus.DEAD);
+			log.warn("Mail {} to {} moved to DEAD after {} attempts", mail.getId(), mail.getRecipient(), attempts);
+			return;
+		}
+		mail.setStatus(MailStatus.PENDING);
+	}
+
+	private Duration backoff(int attempts) {
+		Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+		return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+	}
+
+	private record Outcome(MailStatus status, int attempts, String lastError) {
+	}
+}
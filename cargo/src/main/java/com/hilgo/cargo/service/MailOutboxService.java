@@ -0,0 +1,41 @@
+package com.hilgo.cargo.service;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hilgo.cargo.entity.MailOutbox;
+import com.hilgo.cargo.entity.enums.MailStatus;
+import com.hilgo.cargo.entity.enums.MailTemplate;
+import com.hilgo.cargo.repository.MailOutboxRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Mailleri SMTP'ye göndermek yerine outbox tablosuna yazar. Çağıranın transaction'ına katılır;
+ * böylece mail, kullanıcı kaydı ile birlikte commit edilir ya da birlikte geri alınır.
+ * Asıl gönderim MailDispatcher tarafından yapılır.
+ */
+@Service
+@RequiredArgsConstructor
+public class MailOutboxService {
+
+	private final MailOutboxRepository mailOutboxRepository;
+
+	@Transactional(propagation = Propagation.MANDATORY)
+	public MailOutbox enqueue(String recipient, MailTemplate template, Locale locale, Map<String, String> variables) {
+		MailOutbox mail = new MailOutbox();
+		mail.setRecipient(recipient);
+		mail.setTemplate(template);
+		mail.setLocale(locale != null ? locale.getLanguage() : null);
+		mail.setVariables(variables);
+		mail.setStatus(MailStatus.PENDING);
+		mail.setAttempts(0);
+		mail.setNextAttemptAt(LocalDateTime.now());
+		return mailOutboxRepository.save(mail);
+	}
+}
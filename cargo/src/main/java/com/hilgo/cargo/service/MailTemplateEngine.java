@@ -0,0 +1,114 @@
+package com.hilgo.cargo.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+
+import com.hilgo.cargo.entity.enums.MailTemplate;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * classpath:mail-templates/{şablon}_{dil}.html dosyalarını başlangıçta derler ve
+ * render eder. Dosyanın ilk satırı "Subject: ..." başlığıdır, boş satırdan sonrası HTML
+ * gövdesidir. Gövdedeki değişkenler HTML escape edilir. İstenen dilde şablon yoksa
+ * varsayılan dil kullanılır.
+ */
+@Service
+public class MailTemplateEngine {
+
+	private static final String SUBJECT_PREFIX = "Subject:";
+	private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+	@Value("${mail.template.default-locale:tr}")
+	private String defaultLanguage;
+
+	private final Map<MailTemplate, Map<String, Compiled>> templates = new EnumMap<>(MailTemplate.class);
+
+	// Her thread kendi buffer'ını tekrar kullanır; render başına yeni StringBuilder ayrılmaz
+	private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+	@PostConstruct
+	void init() throws IOException {
+		PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+		for (MailTemplate template : MailTemplate.values()) {
+			Map<String, Compiled> byLanguage = new HashMap<>();
+			for (Resource resource : resolver.getResources("classpath:mail-templates/" + template.getFileName() + "_*.html")) {
+				String fileName = resource.getFilename();
+				String language = fileName.substring(template.getFileName().length() + 1, fileName.length() - ".html".length());
+				byLanguage.put(language, compile(resource));
+			}
+			if (!byLanguage.containsKey(defaultLanguage)) {
+				throw new IllegalStateException("Missing default mail template " + template.getFileName() + "_" + defaultLanguage);
+			}
+			templates.put(template, byLanguage);
+		}
+	}
+
+	public RenderedMail render(MailTemplate template, Locale locale, Map<String, String> variables) {
+		return render(resolve(template, locale), variables);
+	}
+
+	/**
+	 * Aynı şablonu bir grup alıcı için render eder; şablon bir kez çözülür ve aynı buffer
+	 * tüm mailler için kullanılır.
+	 */
+	public List<RenderedMail> renderBatch(MailTemplate template, Locale locale, List<Map<String, String>> variables) {
+		Compiled compiled = resolve(template, locale);
+		List<RenderedMail> rendered = new ArrayList<>(variables.size());
+		for (Map<String, String> values : variables) {
+			rendered.add(render(compiled, values));
+		}
+		return rendered;
+	}
+
+	private RenderedMail render(Compiled compiled, Map<String, String> variables) {
+		StringBuilder buffer = buffers.get();
+		if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+			buffer = new StringBuilder(compiled.body.getEstimatedLength());
+			buffers.set(buffer);
+		}
+		buffer.setLength(0);
+		compiled.subject.render(variables, buffer);
+		String subject = buffer.toString();
+
+		buffer.setLength(0);
+		buffer.ensureCapacity(compiled.body.getEstimatedLength());
+		compiled.body.render(variables, buffer);
+		return new RenderedMail(subject, buffer.toString());
+	}
+
+	private Compiled resolve(MailTemplate template, Locale locale) {
+		Map<String, Compiled> byLanguage = templates.get(template);
+		Compiled compiled = locale != null ? byLanguage.get(locale.getLanguage()) : null;
+		return compiled != null ? compiled : byLanguage.get(defaultLanguage);
+	}
+
+	private static Compiled compile(Resource resource) throws IOException {
+		String source;
+		try (InputStream in = resource.getInputStream()) {
+			source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		int lineEnd = source.indexOf('\n');
+		if (!source.startsWith(SUBJECT_PREFIX) || lineEnd < 0) {
+			throw new IllegalStateException("Mail template must start with a Subject line: " + resource.getFilename());
+		}
+		String subject = source.substring(SUBJECT_PREFIX.length(), lineEnd).trim();
+		String body = source.substring(lineEnd + 1).stripLeading();
+		return new Compiled(CompiledMailTemplate.compile(subject, false), CompiledMailTemplate.compile(body, true));
+	}
+
+	private record Compiled(CompiledMailTemplate subject, CompiledMailTemplate body) {
+	}
+}
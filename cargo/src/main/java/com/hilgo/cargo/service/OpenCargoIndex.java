@@ -0,0 +1,189 @@
+package com.hilgo.cargo.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.hilgo.cargo.entity.Cargo;
+import com.hilgo.cargo.entity.Location;
+import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.repository.CargoPoint;
+import com.hilgo.cargo.repository.CargoRespository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * CREATED durumundaki kargoların alış (selfLocation) ve teslim (targetLocation) noktalarını
+ * bellekte tutan konum index'i.
+ * Uygulama açılışında veritabanından doldurulur, kargo eklenip güncellendikçe, silindikçe
+ * ve sürücü tarafından alındıkça güncellenir. rebuild() yeni grid'leri yan tarafta doldurur;
+ * bu sırada gelen değişiklikler kaydedilip takastan önce yeni grid'lere de uygulanır.
+ */
+@Service
+@RequiredArgsConstructor
+public class OpenCargoIndex {
+
+	private static final Logger log = LoggerFactory.getLogger(OpenCargoIndex.class);
+
+	private final CargoRespository cargoRepository;
+
+	@Value("${cargo.index.cell-degrees:0.05}")
+	private double cellDegrees;
+
+	@Value("${cargo.index.rebuild-batch-size:10000}")
+	private int rebuildBatchSize;
+
+	private volatile GeoGrid pickups;
+	private volatile GeoGrid drops;
+
+	private final Object lock = new Object();
+	// rebuild sürerken gelen değişiklikler; rebuild yokken null
+	private List<Change> pending;
+
+	@PostConstruct
+	void init() {
+		pickups = new GeoGrid(cellDegrees);
+		drops = new GeoGrid(cellDegrees);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		synchronized (lock) {
+			if (pending != null) {
+				return;
+			}
+			pending = new ArrayList<>();
+		}
+		long start = System.currentTimeMillis();
+		GeoGrid newPickups = new GeoGrid(cellDegrees);
+		GeoGrid newDrops = new GeoGrid(cellDegrees);
+		try {
+			Long afterId = 0L;
+			List<CargoPoint> batch;
+			do {
+				batch = cargoRepository.findLocationPoints(CargoSituation.CREATED, afterId,
+						PageRequest.of(0, rebuildBatchSize));
+				for (CargoPoint point : batch) {
+					if (point.getLatitude() != null && point.getLongitude() != null) {
+						newPickups.put(point.getId(), point.getLatitude(), point.getLongitude());
+					}
+					if (point.getTargetLatitude() != null && point.getTargetLongitude() != null) {
+						newDrops.put(point.getId(), point.getTargetLatitude(), point.getTargetLongitude());
+					}
+					afterId = point.getId();
+				}
+			} while (batch.size() == rebuildBatchSize);
+		} catch (RuntimeException e) {
+			synchronized (lock) {
+				pending = null;
+			}
+			throw e;
+		}
+		synchronized (lock) {
+			// Okunan batch'ler bu değişikliklerden eski olabilir; sonuncusu kazanır
+			for (Change change : pending) {
+				change.apply(newPickups, newDrops);
+			}
+			pending = null;
+			pickups = newPickups;
+			drops = newDrops;
+		}
+		log.info("Open cargo index rebuilt with {} cargoes in {} ms", newPickups.size(),
+				System.currentTimeMillis() - start);
+	}
+
+	/**
+	 * Kargo CREATED ise index'e koyar ya da konumunu günceller, değilse index'ten çıkarır.
+	 */
+	public void update(Cargo cargo) {
+		boolean open = cargo.getCargoSituation() == CargoSituation.CREATED;
+		record(new Change(cargo.getId(), open ? cargo.getSelfLocation() : null, open ? cargo.getTargetLocation() : null));
+	}
+
+	public void remove(Long cargoId) {
+		record(new Change(cargoId, null, null));
+	}
+
+	private void record(Change change) {
+		synchronized (lock) {
+			change.apply(pickups, drops);
+			if (pending != null) {
+				pending.add(change);
+			}
+		}
+	}
+
+	public List<GeoGrid.Hit> nearby(double latitude, double longitude, double radiusKm, int limit) {
+		return pickups.nearby(latitude, longitude, radiusKm, limit);
+	}
+
+	/**
+	 * Alış ve teslim noktası from -> to rotasının koridorunda kalan kargoları, rotaya eklediği
+	 * sapmaya göre artan sırada döner. Sapma: from -> alış -> teslim -> to yolunun doğrudan
+	 * from -> to mesafesinden fazlası.
+	 */
+	public List<RouteMatch> routeMatches(double fromLat, double fromLon, double toLat, double toLon, double detourKm,
+			int limit) {
+		double direct = GeoGrid.haversineKm(fromLat, fromLon, toLat, toLon);
+		// Sapma sınırı içindeki her kargonun alış noktası, odakları from/to olan elipste kalır;
+		// koridor alış grid'inde budanır, teslim noktası id ile bakılır
+		List<GeoGrid.Hit> pickupHits = pickups.withinCorridor(fromLat, fromLon, toLat, toLon, direct + detourKm);
+
+		PriorityQueue<RouteMatch> best = new PriorityQueue<>(Comparator.comparingDouble(RouteMatch::detourKm).reversed());
+		for (GeoGrid.Hit pickup : pickupHits) {
+			double[] drop = drops.get(pickup.id());
+			if (drop == null) {
+				continue;
+			}
+			double route = GeoGrid.haversineKm(fromLat, fromLon, pickup.latitude(), pickup.longitude())
+					+ GeoGrid.haversineKm(pickup.latitude(), pickup.longitude(), drop[0], drop[1])
+					+ GeoGrid.haversineKm(drop[0], drop[1], toLat, toLon);
+			double detour = Math.max(route - direct, 0);
+			if (detour > detourKm) {
+				continue;
+			}
+			if (best.size() < limit) {
+				best.add(new RouteMatch(pickup.id(), detour));
+			} else if (detour < best.peek().detourKm()) {
+				best.poll();
+				best.add(new RouteMatch(pickup.id(), detour));
+			}
+		}
+		List<RouteMatch> matches = new ArrayList<>(best);
+		matches.sort(Comparator.comparingDouble(RouteMatch::detourKm));
+		return matches;
+	}
+
+	public int size() {
+		return pickups.size();
+	}
+
+	private static void put(GeoGrid grid, Long cargoId, Location location) {
+		if (location != null && location.getLatitude() != null && location.getLongitude() != null) {
+			grid.put(cargoId, location.getLatitude(), location.getLongitude());
+		} else {
+			grid.remove(cargoId);
+		}
+	}
+
+	public record RouteMatch(long cargoId, double detourKm) {
+	}
+
+	private record Change(Long cargoId, Location pickup, Location drop) {
+
+		void apply(GeoGrid pickups, GeoGrid drops) {
+			put(pickups, cargoId, pickup);
+			put(drops, cargoId, drop);
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package com.hilgo.cargo.service;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Kimliği doğrulanmış SMTP bağlantılarını (STARTTLS + AUTH yapılmış Transport) havuzda tutan
+ * JavaMailSender. JavaMailSenderImpl her send() çağrısında yeni bağlantı açıp kapatır; bu sınıf
+ * bağlantıları çağrılar arasında yeniden kullanır, bir bağlantı üzerinden çok sayıda mesaj
+ * gönderir, kopan bağlantıyı yeniden kurar ve sağlayıcıya açılan eşzamanlı bağlantı sayısını
+ * sınırlar.
+ */
+public class PooledMailSender extends JavaMailSenderImpl implements DisposableBean {
+
+	private static final Logger log = LoggerFactory.getLogger(PooledMailSender.class);
+
+	private final Semaphore permits;
+	private final ConcurrentLinkedDeque<PooledTransport> idle = new ConcurrentLinkedDeque<>();
+	private final long idleTimeoutMillis;
+	private final int maxMessagesPerConnection;
+	private final long acquireTimeoutMillis;
+
+	private final AtomicLong connectionsOpened = new AtomicLong();
+	private final AtomicLong messagesSent = new AtomicLong();
+
+	public PooledMailSender(int maxConnections, long idleTimeoutMillis, int maxMessagesPerConnection,
+			long acquireTimeoutMillis) {
+		this.permits = new Semaphore(maxConnections, true);
+		this.idleTimeoutMillis = idleTimeoutMillis;
+		this.maxMessagesPerConnection = maxMessagesPerConnection;
+		this.acquireTimeoutMillis = acquireTimeoutMillis;
+	}
+
+	@Override
+	protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+		Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+		PooledTransport transport = borrow();
+		try {
+			for (int i = 0; i < mimeMessages.length; i++) {
+				MimeMessage mimeMessage = mimeMessages[i];
+				Object original = (originalMessages != null ? originalMessages[i] : mimeMessage);
+				try {
+					prepare(mimeMessage);
+					Address[] addresses = mimeMessage.getAllRecipients();
+					transport = sendWithReconnect(transport, mimeMessage,
+							(addresses != null ? addresses : new Address[0]));
+				} catch (MessagingException | RuntimeException ex) {
+					failedMessages.put(original, ex);
+				}
+			}
+		} finally {
+			release(transport);
+		}
+		if (!failedMessages.isEmpty()) {
+			throw new MailSendException(failedMessages);
+		}
+	}
+
+	private PooledTransport sendWithReconnect(PooledTransport transport, MimeMessage message, Address[] addresses)
+			throws MessagingException {
+		if (transport.sent >= maxMessagesPerConnection) {
+			transport.close();
+			transport = open();
+		}
+		try {
+			transport.transport.sendMessage(message, addresses);
+		} catch (MessagingException ex) {
+			if (transport.transport.isConnected()) {
+				throw ex;
+			}
+			// Sunucu bağlantıyı düşürdü (idle timeout, ağ hatası); bir kez yeniden bağlanıp dene
+			log.debug("SMTP connection dropped, reconnecting", ex);
+			transport.close();
+			transport = open();
+			transport.transport.sendMessage(message, addresses);
+		}
+		transport.sent++;
+		transport.lastUsed = System.currentTimeMillis();
+		messagesSent.incrementAndGet();
+		return transport;
+	}
+
+	private void prepare(MimeMessage mimeMessage) throws MessagingException {
+		if (mimeMessage.getSentDate() == null) {
+			mimeMessage.setSentDate(new Date());
+		}
+		String messageId = mimeMessage.getMessageID();
+		mimeMessage.saveChanges();
+		if (messageId != null) {
+			// saveChanges() Message-ID'yi yeniler; önceden atanmışı koru
+			mimeMessage.setHeader("Message-ID", messageId);
+		}
+	}
+
+	private PooledTransport borrow() {
+		try {
+			if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+				throw new MailSendException("No SMTP connection available within " + acquireTimeoutMillis + " ms");
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new MailSendException("Interrupted while waiting for an SMTP connection", ex);
+		}
+		try {
+			PooledTransport pooled;
+			long now = System.currentTimeMillis();
+			while ((pooled = idle.pollFirst()) != null) {
+				if (now - pooled.lastUsed < idleTimeoutMillis && pooled.transport.isConnected()) {
+					return pooled;
+				}
+				pooled.close();
+			}
+			return open();
+		} catch (AuthenticationFailedException ex) {
+			permits.release();
+			throw new MailAuthenticationException(ex);
+		} catch (MessagingException | RuntimeException ex) {
+			permits.release();
+			throw new MailSendException("Mail server connection failed", ex);
+		}
+	}
+
+	private PooledTransport open() throws MessagingException {
+		Transport transport = connectTransport();
+		connectionsOpened.incrementAndGet();
+		return new PooledTransport(transport);
+	}
+
+	private void release(PooledTransport transport) {
+		try {
+			if (transport.transport.isConnected()) {
+				idle.offerFirst(transport);
+			} else {
+				transport.close();
+			}
+		} finally {
+			permits.release();
+		}
+	}
+
+	public long getConnectionsOpened() {
+		return connectionsOpened.get();
+	}
+
+	public long getMessagesSent() {
+		return messagesSent.get();
+	}
+
+	@Override
+	public void destroy() {
+		PooledTransport pooled;
+		while ((pooled = idle.pollFirst()) != null) {
+			pooled.close();
+		}
+	}
+
+	private static final class PooledTransport {
+
+		private final Transport transport;
+		private int sent;
+		private long lastUsed = System.currentTimeMillis();
+
+		private PooledTransport(Transport transport) {
+			this.transport = transport;
+		}
+
+		private void close() {
+			try {
+				transport.close();
+			} catch (MessagingException ex) {
+				log.debug("Could not close SMTP transport", ex);
+			}
+		}
+	}
+}
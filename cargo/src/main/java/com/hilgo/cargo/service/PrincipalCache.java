@@ -0,0 +1,74 @@
+package com.hilgo.cargo.service;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hilgo.cargo.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JwtAuthenticationFilter'ın her istekte veritabanına gitmemesi için kimliği doğrulanmış
+ * kullanıcıları kısa süreli tutar. Kullanıcıyı değiştiren servisler invalidate() çağırmalıdır;
+ * transaction içindeyse kayıt commit'ten sonra bir kez daha silinir, böylece arada eski satırı
+ * okuyup cache'e koyan eşzamanlı bir istek ttl boyunca eski yetkiyle kalmaz.
+ */
+@Service
+@RequiredArgsConstructor
+public class PrincipalCache {
+
+	private final UserRepository userRepository;
+	private final MeterRegistry meterRegistry;
+
+	@Value("${security.principal-cache.ttl:30s}")
+	private Duration ttl;
+
+	@Value("${security.principal-cache.maximum-size:10000}")
+	private long maximumSize;
+
+	private Cache<String, AuthenticatedUser> principals;
+
+	@PostConstruct
+	void init() {
+		principals = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(ttl)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, principals, "principals");
+	}
+
+	public AuthenticatedUser get(String username) {
+		AuthenticatedUser principal = principals.get(username,
+				name -> userRepository.findPrincipalByUsername(name).orElse(null));
+		if (principal == null) {
+			throw new UsernameNotFoundException("User not found");
+		}
+		return principal;
+	}
+
+	public void invalidate(String username) {
+		if (username == null) {
+			return;
+		}
+		principals.invalidate(username);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					principals.invalidate(username);
+				}
+			});
+		}
+	}
+}
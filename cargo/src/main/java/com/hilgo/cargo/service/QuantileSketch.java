@@ -0,0 +1,205 @@
+package com.hilgo.cargo.service;
+
+import java.util.Arrays;
+
+/**
+ * Göreli hatası sınırlı, birleştirilebilir quantile sketch'i (DDSketch benzeri). Pozitif değerler
+ * gamma = (1 + a) / (1 - a) tabanlı logaritmik kovalara sayılır; bir kovanın temsilcisi gerçek
+ * değerden en fazla a oranında sapar. Kovalar sadece dolu aralık kadar yer tutar (örn. %1 ile
+ * 10 dk - 3 gün aralığı ~300 kova). Aynı ayarlı iki sketch kova kova toplanarak birleştirilir;
+ * quantile sorgusu kova sayısıyla sınırlıdır, kaç değer eklendiğine bağlı değildir.
+ */
+public final class QuantileSketch {
+
+	private static final int INITIAL_BUCKETS = 32;
+
+	private final double relativeAccuracy;
+	private final double gamma;
+	private final double logGamma;
+	// Kova indeksi en fazla bu kadar geniş bir aralığa yayılabilir; dışındakiler uçlara katlanır
+	private final int maxBuckets;
+
+	private long[] counts;
+	private int offset;
+	private int minIndex = Integer.MAX_VALUE;
+	private int maxIndex = Integer.MIN_VALUE;
+	// 0 ve negatif değerler ayrı sayılır
+	private long zeroCount;
+	private long count;
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+
+	public QuantileSketch(double relativeAccuracy) {
+		this(relativeAccuracy, 2048);
+	}
+
+	public QuantileSketch(double relativeAccuracy, int maxBuckets) {
+		if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+			throw new IllegalArgumentException("relativeAccuracy must be in (0, 1)");
+		}
+		this.relativeAccuracy = relativeAccuracy;
+		this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+		this.logGamma = Math.log(gamma);
+		this.maxBuckets = maxBuckets;
+	}
+
+	public synchronized void add(double value) {
+		count++;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+		if (value <= 0) {
+			zeroCount++;
+			return;
+		}
+		increment(index(value), 1);
+	}
+
+	/**
+	 * Diğer sketch'in sayılarını bu sketch'e ekler; ikisinin göreli hatası aynı olmalıdır.
+	 */
+	public void merge(QuantileSketch other) {
+		if (other == this) {
+			throw new IllegalArgumentException("Cannot merge a sketch into itself");
+		}
+		if (other.relativeAccuracy != relativeAccuracy) {
+			throw new IllegalArgumentException("Sketches with different accuracy cannot be merged");
+		}
+		QuantileSketch copy = other.copy();
+		synchronized (this) {
+			if (copy.count == 0) {
+				return;
+			}
+			count += copy.count;
+			zeroCount += copy.zeroCount;
+			min = Math.min(min, copy.min);
+			max = Math.max(max, copy.max);
+			for (int index = copy.minIndex; index <= copy.maxIndex; index++) {
+				long bucket = copy.counts[index - copy.offset];
+				if (bucket != 0) {
+					increment(index, bucket);
+				}
+			}
+		}
+	}
+
+	/**
+	 * q (0..1) quantile'ı; sketch boşsa NaN.
+	 */
+	public synchronized double quantile(double q) {
+		if (count == 0) {
+			return Double.NaN;
+		}
+		if (q <= 0) {
+			return min;
+		}
+		if (q >= 1) {
+			return max;
+		}
+		long rank = (long) Math.floor(q * (count - 1));
+		if (rank < zeroCount) {
+			return Math.max(min, 0);
+		}
+		long seen = zeroCount;
+		for (int index = minIndex; index <= maxIndex; index++) {
+			seen += counts[index - offset];
+			if (seen > rank) {
+				// Kovanın ortası: [gamma^(i-1), gamma^i] aralığında göreli hatası en küçük nokta
+				double value = 2 * Math.pow(gamma, index) / (1 + gamma);
+				return Math.min(Math.max(value, min), max);
+			}
+		}
+		return max;
+	}
+
+	public synchronized long count() {
+		return count;
+	}
+
+	public synchronized double min() {
+		return count == 0 ? Double.NaN : min;
+	}
+
+	public synchronized double max() {
+		return count == 0 ? Double.NaN : max;
+	}
+
+	public double relativeAccuracy() {
+		return relativeAccuracy;
+	}
+
+	public synchronized QuantileSketch copy() {
+		QuantileSketch copy = new QuantileSketch(relativeAccuracy, maxBuckets);
+		copy.counts = counts == null ? null : counts.clone();
+		copy.offset = offset;
+		copy.minIndex = minIndex;
+		copy.maxIndex = maxIndex;
+		copy.zeroCount = zeroCount;
+		copy.count = count;
+		copy.min = min;
+		copy.max = max;
+		return copy;
+	}
+
+	private int index(double value) {
+		return (int) Math.ceil(Math.log(value) / logGamma);
+	}
+
+	private void increment(int index, long by) {
+		if (counts == null) {
+			counts = new long[INITIAL_BUCKETS];
+			offset = index - INITIAL_BUCKETS / 2;
+		}
+		// Aralık maxBuckets'ı aşarsa en küçük kovalar alttaki ilk kovaya katlanır (yüksek quantile'lar korunur)
+		if (maxIndex != Integer.MIN_VALUE && Math.max(maxIndex, index) - Math.min(minIndex, index) >= maxBuckets) {
+			int lowest = Math.max(maxIndex, index) - maxBuckets + 1;
+			collapseBelow(lowest);
+			index = Math.max(index, lowest);
+		}
+		ensureCapacity(index);
+		counts[index - offset] += by;
+		minIndex = Math.min(minIndex, index);
+		maxIndex = Math.max(maxIndex, index);
+	}
+
+	private void collapseBelow(int lowest) {
+		long folded = 0;
+		for (int index = minIndex; index < lowest && index <= maxIndex; index++) {
+			folded += counts[index - offset];
+			counts[index - offset] = 0;
+		}
+		if (minIndex >= lowest) {
+			return;
+		}
+		if (lowest > maxIndex) {
+			// Tüm kovalar katlandı: dizi yeni kovanın etrafında yeniden kurulur
+			minIndex = Integer.MAX_VALUE;
+			maxIndex = Integer.MIN_VALUE;
+			ensureCapacity(lowest);
+			maxIndex = lowest;
+		}
+		minIndex = lowest;
+		counts[lowest - offset] += folded;
+	}
+
+	private void ensureCapacity(int index) {
+		if (index >= offset && index < offset + counts.length) {
+			return;
+		}
+		int low = Math.min(index, minIndex == Integer.MAX_VALUE ? index : minIndex);
+		int high = Math.max(index, maxIndex == Integer.MIN_VALUE ? index : maxIndex);
+		int length = Math.max(counts.length * 2, high - low + 1 + INITIAL_BUCKETS);
+		int newOffset = low - (length - (high - low + 1)) / 2;
+		long[] grown = new long[length];
+		if (maxIndex != Integer.MIN_VALUE) {
+			System.arraycopy(counts, minIndex - offset, grown, minIndex - newOffset, maxIndex - minIndex + 1);
+		}
+		counts = grown;
+		offset = newOffset;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "QuantileSketch[count=" + count + ", buckets="
+				+ (counts == null ? 0 : Arrays.stream(counts).filter(c -> c != 0).count()) + "]";
+	}
+}
@@ -1,21 +1,25 @@
 package com.hilgo.cargo.service;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.hilgo.cargo.entity.Distributor;
 import com.hilgo.cargo.entity.Driver;
 import com.hilgo.cargo.entity.User;
+import com.hilgo.cargo.entity.enums.MailTemplate;
+import com.hilgo.cargo.entity.enums.Roles;
+import com.hilgo.cargo.event.UserRegisteredEvent;
 import com.hilgo.cargo.repository.DistributorRepository;
 import com.hilgo.cargo.repository.DriverRepository;
 import com.hilgo.cargo.repository.UserRepository;
@@ -27,8 +31,7 @@ import com.hilgo.cargo.response.LoginResponse;
 import com.hilgo.cargo.response.RegisterResponse;
 import com.hilgo.cargo.response.UserResponse;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -38,10 +41,12 @@ public class RegisterLoginService {
 	private final UserRepository userRepository;
 	private final PasswordEncoder passwordEncoder;
 	private final AuthenticationManager authenticationManager;
-	private final JavaMailSender mailSender;
+	private final MailOutboxService mailOutboxService;
 	private final JwtService jwtService;
 	private final DriverRepository driverRepository;
 	private final DistributorRepository distributorRepository;
+	private final PrincipalCache principalCache;
+	private final ApplicationEventPublisher eventPublisher;
 
 
 	private String generateVerificationCode() {
@@ -68,7 +73,7 @@ public class RegisterLoginService {
 		user.setEnable(false);
 		userRepository.save(user);
 		sendVerificationCode(user);
-		System.out.println("Asenkron iş dondü.");
+		eventPublisher.publishEvent(new UserRegisteredEvent(user.getId(), user.getRoles(), LocalDateTime.now()));
 		return new RegisterResponse(new UserResponse(request.getTcOrVkn(), user.getUsername(), user.getMail(), user.getRoles()));
 	}
 
@@ -90,11 +95,16 @@ public class RegisterLoginService {
 		user.setEnable(false);
 		userRepository.save(user);
 		sendVerificationCode(user);
-		System.out.println("Asenkron iş dondü.");
+		eventPublisher.publishEvent(new UserRegisteredEvent(user.getId(), user.getRoles(), LocalDateTime.now()));
 		return new RegisterResponse(new UserResponse(request.getTcOrVkn(), user.getUsername(), user.getMail(), user.getRoles()));
 	}
 
+	@Transactional
 	public RegisterResponse register(RegisterRequest request) {
+		// Admin yetkisi kayıtla alınamaz, veritabanında elle verilir
+		if (request.getRole() == null || request.getRole() == Roles.ADMIN) {
+			throw new RuntimeException("Geçersiz rol.");
+		}
 		Optional<User> existingUserByEmail = userRepository.findByMail(request.getMail());
 		if (existingUserByEmail.isPresent()) {
 			throw new RuntimeException("Bu e-posta adresi ile kayıtlı bir kullanıcı zaten var.");
@@ -115,60 +125,15 @@ public class RegisterLoginService {
 		}
 	}
 
-	@Async
 	private void sendVerificationCode(User user) {
-		MimeMessage mimeMessage = mailSender.createMimeMessage();
-
-		    System.out.println("Asenkron iş başladı.");
-		try {
-			MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
-
-			helper.setTo(user.getMail());
-			helper.setSubject("🎉 Kayıt Başarılı! Hoş Geldiniz, " + user.getUsername());
-
-			String htmlContent = "<!DOCTYPE html>" + "<html>"
-					+ "<body style='font-family: Arial, sans-serif; padding: 20px; background-color: #f9f9f9;'>"
-					+ "<div style='background-color: #ffffff; padding: 20px; border-radius: 10px; box-shadow: 0 0 10px #ccc;'>"
-					+ "<h2 style='color: #2c3e50;'>Hoş Geldiniz, <strong>" + user.getUsername() + "</strong> 👋</h2>"
-					+ "<p>Sisteme başarılı bir şekilde kayıt oldunuz. Tüm hizmetlerimizi almadan önce doğrulama kodunu girmeniz gerekiyor Doğrulama konuduz</p>"+ user.getVerificationCode()
-					+ "<p style='color: #27ae60;'><strong>Teşekkür ederiz,</strong></p>" + "<p><i>Hilgo Yazılım</i></p>"
-					+ "<img src='https://cdn-icons-png.flaticon.com/512/190/190411.png' alt='Success Icon' style='width: 100px; margin-top: 20px;'/>"
-					+ "</div>" + "</body>" + "</html>";
-
-			helper.setText(htmlContent, true); // true = HTML içeriği destekle
-			mailSender.send(mimeMessage);
-
-		} catch (MessagingException e) {
-			throw new RuntimeException("Mail gönderilirken hata oluştu", e);
-		}
-		    System.out.println("Asenkron iş bitti.");
-
+		// Mail, kullanıcı ile aynı transaction'da outbox'a yazılır; SMTP'yi MailDispatcher bekler
+		mailOutboxService.enqueue(user.getMail(), MailTemplate.VERIFICATION, LocaleContextHolder.getLocale(),
+				Map.of("username", user.getUsername(), "code", user.getVerificationCode()));
 	}
 
-	private void sendVerificationEmail(User user, String passwordCode) {
-		MimeMessage mimeMessage = mailSender.createMimeMessage();
-
-		try {
-			MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
-
-			helper.setTo(user.getMail());
-			helper.setSubject("🎉 Şifre Oluşturma, " + user.getUsername());
-
-			String htmlContent = "<!DOCTYPE html>" + "<html>"
-					+ "<body style='font-family: Arial, sans-serif; padding: 20px; background-color: #f9f9f9;'>"
-					+ "<div style='background-color: #ffffff; padding: 20px; border-radius: 10px; box-shadow: 0 0 10px #ccc;'>"
-					+ "<h2 style='color: #2c3e50;'>Hoş Geldiniz, <strong>" + user.getUsername() + "</strong> 👋</h2>"
-					+ "Doğrulama konuduz</p>"+ passwordCode
-					+ "<p style='color: #27ae60;'><strong>Teşekkür ederiz,</strong></p>" + "<p><i>Hilgo Yazılım</i></p>"
-					+ "<img src='https://cdn-icons-png.flaticon.com/512/190/190411.png' alt='Success Icon' style='width: 100px; margin-top: 20px;'/>"
-					+ "</div>" + "</body>" + "</html>";
-
-			helper.setText(htmlContent, true); // true = HTML içeriği destekle
-			mailSender.send(mimeMessage);
-
-		} catch (MessagingException e) {
-			throw new RuntimeException("Mail gönderilirken hata oluştu", e);
-		}
+	private void sendVerificationEmail(User user, MailTemplate template, String key, String value) {
+		mailOutboxService.enqueue(user.getMail(), template, LocaleContextHolder.getLocale(),
+				Map.of("username", user.getUsername(), key, value));
 	}
 
 
@@ -183,6 +148,7 @@ public class RegisterLoginService {
 			String token = jwtService.generateToken(user);
 			user.setActive(true);
 			userRepository.save(user);
+			principalCache.invalidate(user.getUsername());
 			return LoginResponse.builder()
 					.token(token)
 					.userResponse(userResponse)
@@ -202,51 +168,97 @@ public class RegisterLoginService {
 			user.setEnable(true);
 			user.setVerificationCodeExpiresAt(LocalDateTime.now().plusDays(2));
 			userRepository.save(user);
+			principalCache.invalidate(user.getUsername());
 		}else {
 			throw new RuntimeException("Doğrulama Kodu Hatalı!");
 		}
 	}
 
+	@Transactional
 	public String forgotPassword(String email) {
 		User user = userRepository.findByMail(email).orElseThrow(() -> new RuntimeException("User not found!"));
-		String token = jwtService.generateToken(user);
+		String token = jwtService.generatePasswordResetToken(user);
 		String link = "http://localhost:8000/reset-password?token=" + token;
-		sendVerificationEmail(user, link);
+		sendVerificationEmail(user, MailTemplate.PASSWORD_RESET, "link", link);
 		return "E-mail'inizi kontrol edin.";
 	}
 
+	@Transactional
 	public String changePassword(String email) {
 		User user = userRepository.findByMail(email).orElseThrow(() -> new RuntimeException("User not found!"));
 		String passwordCode = generateVerificationCode();
 		user.setVerificationCode(passwordCode);
+		user.setVerificationCodeExpiresAt(LocalDateTime.now().plusMinutes(15));
 		userRepository.save(user);
+		sendVerificationEmail(user, MailTemplate.PASSWORD_CHANGE, "code", passwordCode);
+		return "E-mail'inizi kontrol edin.";
+	}
 
-		try {
-			sendVerificationEmail(user, passwordCode);
-		} catch (Exception e) {
-			e.printStackTrace();
+	/**
+	 * changePassword mailindeki kodu sıfırlama token'ına çevirir; setPassword bu token'la
+	 * çağrılır. Kod tek kullanımlıktır.
+	 */
+	@Transactional
+	public String verifyPasswordCode(VerifyUserRequest verifyUserRequest) {
+		User user = userRepository.findByMail(verifyUserRequest.getEmail())
+				.orElseThrow(() -> new RuntimeException("User not found!"));
+		if (user.getVerificationCode() == null
+				|| !user.getVerificationCode().equals(verifyUserRequest.getVerificationCode())) {
+			throw new RuntimeException("Doğrulama Kodu Hatalı!");
 		}
-		return "E-mail'inizi kontrol edin.";
+		if (user.getVerificationCodeExpiresAt() == null || user.getVerificationCodeExpiresAt().isBefore(LocalDateTime.now())) {
+			throw new RuntimeException("Doğrulama Kodunun Süresi Doldu!");
+		}
+		user.setVerificationCode(null);
+		userRepository.save(user);
+		return jwtService.generatePasswordResetToken(user);
 	}
 
+	/**
+	 * Sıfırlama token'ı bu kullanıcıya ait ve versiyonu güncel değilse false döner. Şifre
+	 * değişince token versiyonu artar: link tek kullanımlıktır ve açık oturumlar kapanır.
+	 */
+	@Transactional
 	public boolean setPassword(SetPasswordRequest setPasswordRequest) {
 		User user = userRepository.findByMail(setPasswordRequest.getEmail()).orElseThrow(() -> new RuntimeException("User not found"));
+		if (!isResetTokenValid(setPasswordRequest.getToken(), user)) {
+			return false;
+		}
 		if (setPasswordRequest.getPassword().equals(setPasswordRequest.getCheckPassword())) {
 			user.setPassword(passwordEncoder.encode(setPasswordRequest.getCheckPassword()));
 			user.setVerificationCode(null);
+			user.increaseTokenVersion();
 			userRepository.save(user);
+			principalCache.invalidate(user.getUsername());
 			return true;
 		}else {
 			throw new RuntimeException("Şifreler Aynı Değil!");
 		}
 	}
 
+	private boolean isResetTokenValid(String token, User user) {
+		if (token == null || token.isBlank()) {
+			return false;
+		}
+		VerifiedToken verified;
+		try {
+			verified = jwtService.verify(token);
+		} catch (JwtException | IllegalArgumentException e) {
+			return false;
+		}
+		return JwtService.PURPOSE_PASSWORD_RESET.equals(verified.getPurpose()) && !verified.isExpired()
+				&& user.getId().equals(verified.getUserId())
+				&& verified.getTokenVersion() != null && verified.getTokenVersion() == user.getTokenVersion();
+	}
+
     public String logout() {
 		String username = SecurityContextHolder.getContext().getAuthentication().getName();
 		User user = userRepository.findByUsername(username).orElseThrow(() ->
 		new RuntimeException("User not found"));
 		user.setActive(false);
+		user.increaseTokenVersion();
 		userRepository.save(user);
+		principalCache.invalidate(username);
         return ("Logout");
 	}
 }
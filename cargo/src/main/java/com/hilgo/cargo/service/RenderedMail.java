@@ -0,0 +1,13 @@
+package com.hilgo.cargo.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public final class RenderedMail {
+
+	private final String subject;
+
+	private final String htmlBody;
+}
@@ -0,0 +1,328 @@
+package com.hilgo.cargo.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hilgo.cargo.entity.enums.CarType;
+import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.entity.enums.Roles;
+import com.hilgo.cargo.event.CargoSituationChangedEvent;
+import com.hilgo.cargo.event.UserRegisteredEvent;
+import com.hilgo.cargo.response.DistributorStatsResponse;
+import com.hilgo.cargo.response.StatsResponse;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Admin paneli sayaçları. Her kargo geçişi ve kayıt, commit'ten sonra bellekteki fark
+ * haritasına (metric, dimension) anahtarıyla eklenir; sıcak yolda sorgu yoktur.
+ * Birikmiş farklar stats.flush-interval'da bir stats_rollup tablosuna "total = total + ?" ile
+ * yazılır, böylece birden fazla instance aynı satırlara güvenle ekler. Okumalar rollup satırları
+ * ile henüz yazılmamış farkların toplamıdır. Sayaçlar kayarsa rebuild() tabloları baştan sayar.
+ */
+@Service
+@RequiredArgsConstructor
+public class StatsService {
+
+	private static final Logger log = LoggerFactory.getLogger(StatsService.class);
+
+	// Durum başına o an kaç kargo var (geçişte eskisi azalır, yenisi artar)
+	static final String CARGO_SITUATION = "cargo.situation";
+	// dimension = "<distributorId>:<SITUATION>"
+	static final String DISTRIBUTOR_SITUATION = "cargo.distributor.situation";
+	// dimension = yyyy-MM-dd
+	static final String CARGO_CREATED_DAY = "cargo.created.day";
+	static final String CARGO_DELIVERED_DAY = "cargo.delivered.day";
+	static final String USER_REGISTERED_DAY = "user.registered.day";
+	static final String USER_ROLE = "user.role";
+	static final String DRIVER_CAR_TYPE = "driver.car_type";
+
+	private static final String ADD_TO_ROLLUP = "update stats_rollup set total = total + ?, updated_at = ? "
+			+ "where metric = ? and dimension = ?";
+	private static final String INSERT_ROLLUP = "insert into stats_rollup (metric, dimension, total, updated_at) "
+			+ "values (?, ?, ?, ?)";
+
+	record StatKey(String metric, String dimension) {
+	}
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+
+	private final ConcurrentHashMap<StatKey, LongAdder> pending = new ConcurrentHashMap<>();
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCargoSituationChanged(CargoSituationChangedEvent event) {
+		String distributor = event.getDistributorId() == null ? null : event.getDistributorId() + ":";
+		if (event.getPreviousSituation() == null) {
+			add(CARGO_CREATED_DAY, day(event.getOccurredAt()), 1);
+		} else {
+			add(CARGO_SITUATION, event.getPreviousSituation().name(), -1);
+			if (distributor != null) {
+				add(DISTRIBUTOR_SITUATION, distributor + event.getPreviousSituation().name(), -1);
+			}
+		}
+		// İptal edilen kargo satırı silinir; rebuild ile aynı sonucu vermesi için sayılmaz
+		if (event.getSituation() != CargoSituation.CANCELLED) {
+			add(CARGO_SITUATION, event.getSituation().name(), 1);
+			if (distributor != null) {
+				add(DISTRIBUTOR_SITUATION, distributor + event.getSituation().name(), 1);
+			}
+		}
+		if (event.getSituation() == CargoSituation.DELIVERED) {
+			add(CARGO_DELIVERED_DAY, day(event.getOccurredAt()), 1);
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onUserRegistered(UserRegisteredEvent event) {
+		add(USER_ROLE, event.getRole().name(), 1);
+		add(USER_REGISTERED_DAY, day(event.getRegisteredAt()), 1);
+		if (event.getRole() == Roles.DRIVER) {
+			add(DRIVER_CAR_TYPE, "NONE", 1);
+		}
+	}
+
+	/**
+	 * Sürücü aracını değiştirdiğinde çağrılır; araç tipi olmayan sürücüler "NONE" altında sayılır.
+	 */
+	public void carTypeChanged(CarType previous, CarType current) {
+		if (previous == current) {
+			return;
+		}
+		add(DRIVER_CAR_TYPE, carType(previous), -1);
+		add(DRIVER_CAR_TYPE, carType(current), 1);
+	}
+
+	@Scheduled(fixedDelayString = "${stats.flush-interval:10000}", initialDelayString = "${stats.flush-interval:10000}")
+	public void scheduledFlush() {
+		try {
+			flush();
+		} catch (RuntimeException e) {
+			log.error("Stats flush failed", e);
+		}
+	}
+
+	@PreDestroy
+	void shutdown() {
+		flush();
+	}
+
+	/**
+	 * Bellekteki farkları stats_rollup'a ekler ve yazılan satır sayısını döner. Yazma başarısız
+	 * olursa farklar hücrelere geri eklenir, sonraki turda tekrar denenir.
+	 */
+	public synchronized int flush() {
+		Map<StatKey, Long> deltas = drain();
+		if (deltas.isEmpty()) {
+			return 0;
+		}
+		try {
+			transactionTemplate.executeWithoutResult(status -> write(deltas));
+		} catch (RuntimeException e) {
+			deltas.forEach(this::add);
+			throw e;
+		}
+		return deltas.size();
+	}
+
+	/**
+	 * stats_rollup'ı kargo (sıcak + arşiv), kullanıcı ve sürücü tablolarından baştan hesaplar.
+	 * Yazılmamış farklar atılır; rebuild sırasında gelen geçişler sonraki flush ile eklenir
+	 * ve bir kez daha sayılabilir, bu yüzden sakin bir zamanda çalıştırılmalıdır. Silinen (iptal
+	 * edilen) kargolar tablolarda kalmadığından cargo.created.day'de de sayılmazlar.
+	 */
+	public synchronized int rebuild() {
+		drain();
+		Map<StatKey, Long> totals = new HashMap<>();
+		transactionTemplate.executeWithoutResult(status -> {
+			count(totals, CARGO_SITUATION, "select cargo_situation, count(*) from cargo group by cargo_situation");
+			count(totals, CARGO_SITUATION,
+					"select cargo_situation, count(*) from cargo_archive group by cargo_situation");
+			countPerDistributor(totals, "select distributor_user_id, cargo_situation, count(*) from cargo "
+					+ "where distributor_user_id is not null group by distributor_user_id, cargo_situation");
+			countPerDistributor(totals, "select distributor_id, cargo_situation, count(*) from cargo_archive "
+					+ "where distributor_id is not null group by distributor_id, cargo_situation");
+			countPerDay(totals, CARGO_CREATED_DAY, "cargo", "created_at");
+			countPerDay(totals, CARGO_CREATED_DAY, "cargo_archive", "created_at");
+			countPerDay(totals, CARGO_DELIVERED_DAY, "cargo", "delivered_time");
+			countPerDay(totals, CARGO_DELIVERED_DAY, "cargo_archive", "delivered_time");
+			countPerDay(totals, USER_REGISTERED_DAY, "user", "created_at");
+			count(totals, USER_ROLE, "select roles, count(*) from user where roles is not null group by roles");
+			count(totals, DRIVER_CAR_TYPE, "select car_type, count(*) from driver group by car_type");
+			totals.remove(new StatKey(CARGO_SITUATION, CargoSituation.CANCELLED.name()));
+
+			jdbcTemplate.update("delete from stats_rollup");
+			insert(new ArrayList<>(totals.entrySet()), Timestamp.valueOf(LocalDateTime.now()));
+		});
+		log.info("Rebuilt {} stats rows", totals.size());
+		return totals.size();
+	}
+
+	public StatsResponse overview(int days) {
+		AuthenticatedUser.current(Roles.ADMIN);
+		String fromDay = LocalDate.now().minusDays(Math.max(days, 1) - 1L).toString();
+		Map<StatKey, Long> totals = new HashMap<>();
+		// Günlük boyutlar ISO tarih olduğundan metin olarak da sıralıdır
+		jdbcTemplate.query("select metric, dimension, total from stats_rollup where metric in (?, ?, ?) "
+				+ "or (metric in (?, ?, ?) and dimension >= ?)",
+				rs -> {
+					totals.merge(new StatKey(rs.getString(1), rs.getString(2)), rs.getLong(3), Long::sum);
+				}, CARGO_SITUATION, USER_ROLE, DRIVER_CAR_TYPE, CARGO_CREATED_DAY, CARGO_DELIVERED_DAY,
+				USER_REGISTERED_DAY, fromDay);
+		pending.forEach((key, adder) -> {
+			boolean daily = key.metric().endsWith(".day");
+			if (!key.metric().equals(DISTRIBUTOR_SITUATION) && (!daily || key.dimension().compareTo(fromDay) >= 0)) {
+				totals.merge(key, adder.sum(), Long::sum);
+			}
+		});
+		return StatsResponse.builder()
+				.cargoesBySituation(metric(totals, CARGO_SITUATION))
+				.usersByRole(metric(totals, USER_ROLE))
+				.driversByCarType(metric(totals, DRIVER_CAR_TYPE))
+				.cargoesCreatedPerDay(metric(totals, CARGO_CREATED_DAY))
+				.cargoesDeliveredPerDay(metric(totals, CARGO_DELIVERED_DAY))
+				.registrationsPerDay(metric(totals, USER_REGISTERED_DAY))
+				.build();
+	}
+
+	public DistributorStatsResponse distributor(Long distributorId) {
+		AuthenticatedUser.current(Roles.ADMIN);
+		String prefix = distributorId + ":";
+		Map<String, Long> situations = new TreeMap<>();
+		jdbcTemplate.query("select dimension, total from stats_rollup where metric = ? and dimension like ?",
+				rs -> {
+					situations.merge(rs.getString(1).substring(prefix.length()), rs.getLong(2), Long::sum);
+				}, DISTRIBUTOR_SITUATION, prefix + "%");
+		pending.forEach((key, adder) -> {
+			if (key.metric().equals(DISTRIBUTOR_SITUATION) && key.dimension().startsWith(prefix)) {
+				situations.merge(key.dimension().substring(prefix.length()), adder.sum(), Long::sum);
+			}
+		});
+		situations.values().removeIf(total -> total == 0);
+		long total = situations.values().stream().mapToLong(Long::longValue).sum();
+		return new DistributorStatsResponse(distributorId, total, situations);
+	}
+
+	void add(String metric, String dimension, long delta) {
+		add(new StatKey(metric, dimension), delta);
+	}
+
+	// Hücre bu sırada drain ile haritadan çıkarıldıysa eklenen kısım geri alınıp yeni hücreye yazılır;
+	// sumThenReset her artışı tek bir tarafa verir, fark ne kaybolur ne iki kez sayılır
+	private void add(StatKey key, long delta) {
+		while (delta != 0) {
+			LongAdder adder = pending.computeIfAbsent(key, k -> new LongAdder());
+			adder.add(delta);
+			if (pending.get(key) == adder) {
+				return;
+			}
+			delta = adder.sumThenReset();
+		}
+	}
+
+	int pendingSize() {
+		return pending.size();
+	}
+
+	/**
+	 * Her hücre sumThenReset ile okunup haritadan çıkarılır; çıkarma sırasında gelen artışlar
+	 * ikinci sumThenReset ile bu tura eklenir, sonrakileri add() yeni hücreye taşır. Böylece
+	 * bir kez artıp duran boyutlar (eski günler, pasif dağıtıcılar) haritada birikmez.
+	 */
+	private Map<StatKey, Long> drain() {
+		Map<StatKey, Long> deltas = new HashMap<>();
+		for (Map.Entry<StatKey, LongAdder> entry : pending.entrySet()) {
+			LongAdder adder = entry.getValue();
+			long delta = adder.sumThenReset();
+			pending.remove(entry.getKey(), adder);
+			delta += adder.sumThenReset();
+			if (delta != 0) {
+				deltas.merge(entry.getKey(), delta, Long::sum);
+			}
+		}
+		return deltas;
+	}
+
+	private void write(Map<StatKey, Long> deltas) {
+		List<Map.Entry<StatKey, Long>> entries = new ArrayList<>(deltas.entrySet());
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		int[] updated = jdbcTemplate.batchUpdate(ADD_TO_ROLLUP, entries.stream()
+				.map(entry -> new Object[] { entry.getValue(), now, entry.getKey().metric(), entry.getKey().dimension() })
+				.toList());
+		List<Map.Entry<StatKey, Long>> missing = new ArrayList<>();
+		for (int i = 0; i < updated.length; i++) {
+			if (updated[i] == 0) {
+				missing.add(entries.get(i));
+			}
+		}
+		// Yeni boyut (yeni gün, yeni dağıtıcı): satır eklenir
+		insert(missing, now);
+	}
+
+	private void insert(List<Map.Entry<StatKey, Long>> entries, Timestamp now) {
+		if (entries.isEmpty()) {
+			return;
+		}
+		jdbcTemplate.batchUpdate(INSERT_ROLLUP, entries.stream()
+				.map(entry -> new Object[] { entry.getKey().metric(), entry.getKey().dimension(), entry.getValue(), now })
+				.toList());
+	}
+
+	private void count(Map<StatKey, Long> totals, String metric, String sql) {
+		jdbcTemplate.query(sql, rs -> {
+			String dimension = rs.getString(1);
+			totals.merge(new StatKey(metric, dimension == null ? "NONE" : dimension), rs.getLong(2), Long::sum);
+		});
+	}
+
+	private void countPerDistributor(Map<StatKey, Long> totals, String sql) {
+		jdbcTemplate.query(sql, rs -> {
+			if (!CargoSituation.CANCELLED.name().equals(rs.getString(2))) {
+				totals.merge(new StatKey(DISTRIBUTOR_SITUATION, rs.getLong(1) + ":" + rs.getString(2)), rs.getLong(3),
+						Long::sum);
+			}
+		});
+	}
+
+	private void countPerDay(Map<StatKey, Long> totals, String metric, String table, String column) {
+		jdbcTemplate.query("select cast(" + column + " as date), count(*) from " + table + " where " + column
+				+ " is not null group by cast(" + column + " as date)", rs -> {
+					totals.merge(new StatKey(metric, rs.getDate(1).toLocalDate().toString()), rs.getLong(2), Long::sum);
+				});
+	}
+
+	private static Map<String, Long> metric(Map<StatKey, Long> totals, String metric) {
+		Map<String, Long> values = new TreeMap<>();
+		totals.forEach((key, total) -> {
+			if (key.metric().equals(metric) && total != 0) {
+				values.put(key.dimension(), total);
+			}
+		});
+		return values;
+	}
+
+	private static String day(LocalDateTime time) {
+		return (time == null ? LocalDate.now() : time.toLocalDate()).toString();
+	}
+
+	private static String carType(CarType carType) {
+		return carType == null ? "NONE" : carType.name();
+	}
+}
@@ -0,0 +1,87 @@
+package com.hilgo.cargo.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.hilgo.cargo.service.DriverTrackStore.TrackPoint;
+
+/**
+ * Harita gösterimi için Douglas–Peucker sadeleştirmesi. Rotanın şekli toleranceMeters içinde
+ * korunur; ilk ve son nokta her zaman kalır. Kısa mesafelerde yeterli olan yerel düzlem
+ * (equirectangular) izdüşümü kullanılır, özyineleme yerine açık yığın ile çalışır.
+ */
+public final class TrackSimplifier {
+
+	private static final double METERS_PER_DEGREE = GeoGrid.EARTH_RADIUS_KM * 1000 * Math.PI / 180.0;
+
+	private TrackSimplifier() {
+	}
+
+	public static List<TrackPoint> simplify(List<TrackPoint> points, double toleranceMeters) {
+		int n = points.size();
+		if (n < 3 || toleranceMeters <= 0) {
+			return points;
+		}
+		double cosLat = Math.cos(Math.toRadians(points.get(0).latitude()));
+		double[] x = new double[n];
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = points.get(i).longitude() * METERS_PER_DEGREE * cosLat;
+			y[i] = points.get(i).latitude() * METERS_PER_DEGREE;
+		}
+
+		boolean[] keep = new boolean[n];
+		keep[0] = true;
+		keep[n - 1] = true;
+		double toleranceSquared = toleranceMeters * toleranceMeters;
+		int[] stack = new int[64];
+		int top = 0;
+		stack[top++] = 0;
+		stack[top++] = n - 1;
+		while (top > 0) {
+			int last = stack[--top];
+			int first = stack[--top];
+			int farthest = -1;
+			double max = toleranceSquared;
+			for (int i = first + 1; i < last; i++) {
+				double distance = segmentDistanceSquared(x[i], y[i], x[first], y[first], x[last], y[last]);
+				if (distance > max) {
+					max = distance;
+					farthest = i;
+				}
+			}
+			if (farthest < 0) {
+				continue;
+			}
+			keep[farthest] = true;
+			if (top + 4 > stack.length) {
+				stack = Arrays.copyOf(stack, stack.length * 2);
+			}
+			stack[top++] = first;
+			stack[top++] = farthest;
+			stack[top++] = farthest;
+			stack[top++] = last;
+		}
+
+		List<TrackPoint> simplified = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			if (keep[i]) {
+				simplified.add(points.get(i));
+			}
+		}
+		return simplified;
+	}
+
+	// Noktanın [a, b] doğru parçasına uzaklığının karesi
+	private static double segmentDistanceSquared(double px, double py, double ax, double ay, double bx, double by) {
+		double dx = bx - ax;
+		double dy = by - ay;
+		double lengthSquared = dx * dx + dy * dy;
+		double t = lengthSquared == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSquared;
+		t = Math.max(0, Math.min(1, t));
+		double ex = px - (ax + t * dx);
+		double ey = py - (ay + t * dy);
+		return ex * ex + ey * ey;
+	}
+}
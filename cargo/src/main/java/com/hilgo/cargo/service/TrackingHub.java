@@ -0,0 +1,414 @@
+package com.hilgo.cargo.service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.event.CargoSituationChangedEvent;
+import com.hilgo.cargo.repository.CargoRespository;
+import com.hilgo.cargo.repository.TransitCargo;
+import com.hilgo.cargo.response.TrackingEvent;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Dağıtıcıların yoldaki kargolarını canlı takip ettiği SSE akışlarının fan-out merkezi.
+ * Bağlantı başına thread tutulmaz: her abonenin sınırlı bir olay buffer'ı vardır ve küçük bir
+ * gönderici havuzu sadece bekleyen olayı olan aboneleri boşaltır. Buffer dolarsa en eski olay
+ * atılır (yavaş istemci diğerlerini bekletmez). Periyodik heartbeat kopmuş bağlantıları temizler.
+ * send() süresi aşan (TCP buffer'ı dolmuş) abone kapatılır ve takılan gönderici thread'in yerine
+ * geçici olarak yenisi açılır; takılan bağlantılar diğer abonelerin olaylarını bekletmez.
+ */
+@Service
+@RequiredArgsConstructor
+public class TrackingHub {
+
+	private static final Logger log = LoggerFactory.getLogger(TrackingHub.class);
+
+	// Bir gönderim turunda aboneye yazılan en fazla olay; sonra sıra diğer abonelere geçer
+	private static final int MAX_EVENTS_PER_DRAIN = 64;
+
+	private final CargoRespository cargoRepository;
+	private final DriverPositionStore driverPositionStore;
+
+	@Value("${tracking.hub.buffer-size:256}")
+	private int bufferSize;
+
+	@Value("${tracking.hub.sender-threads:4}")
+	private int senderThreads;
+
+	@Value("${tracking.hub.emitter-timeout:1800000}")
+	private long emitterTimeout;
+
+	@Value("${tracking.hub.rebuild-batch-size:10000}")
+	private int rebuildBatchSize;
+
+	@Value("${tracking.hub.send-timeout:10000}")
+	private long sendTimeout;
+
+	private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+	private final Map<Long, TransitCargo> transit = new ConcurrentHashMap<>();
+	private final Map<Long, Set<Long>> cargoesByDriver = new ConcurrentHashMap<>();
+	private final Map<Long, Set<Long>> cargoesByDistributor = new ConcurrentHashMap<>();
+
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong sent = new AtomicLong();
+
+	private ThreadPoolTaskExecutor senders;
+	// Takılan gönderimlerin yerine açılan thread sayısı; senders kilidiyle korunur
+	private int extraSenders;
+
+	@PostConstruct
+	void init() {
+		senders = new ThreadPoolTaskExecutor();
+		senders.setCorePoolSize(senderThreads);
+		senders.setMaxPoolSize(senderThreads);
+		senders.setThreadNamePrefix("tracking-sender-");
+		senders.initialize();
+	}
+
+	@PreDestroy
+	void shutdown() {
+		subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+		senders.shutdown();
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		long start = System.currentTimeMillis();
+		transit.clear();
+		cargoesByDriver.clear();
+		cargoesByDistributor.clear();
+		Long afterId = 0L;
+		List<TransitCargo> batch;
+		do {
+			batch = cargoRepository.findTransitCargoes(afterId, PageRequest.of(0, rebuildBatchSize));
+			for (TransitCargo cargo : batch) {
+				link(cargo);
+				afterId = cargo.getCargoId();
+			}
+		} while (batch.size() == rebuildBatchSize);
+		log.info("Tracking hub loaded {} cargoes in transit in {} ms", transit.size(), System.currentTimeMillis() - start);
+	}
+
+	/**
+	 * Dağıtıcı için yeni bir takip akışı açar ve yoldaki kargolarının güncel durumunu gönderir.
+	 */
+	public SseEmitter subscribe(Long distributorId) {
+		SseEmitter emitter = new SseEmitter(emitterTimeout);
+		register(distributorId, emitter);
+		return emitter;
+	}
+
+	void register(Long distributorId, SseEmitter emitter) {
+		Subscriber subscriber = new Subscriber(distributorId, emitter, bufferSize);
+		emitter.onCompletion(() -> unregister(subscriber));
+		emitter.onTimeout(() -> unregister(subscriber));
+		emitter.onError(e -> unregister(subscriber));
+		subscribers.computeIfAbsent(distributorId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+		// İlk görüntü: yoldaki her kargonun durumu ve sürücünün son konumu
+		for (Long cargoId : cargoesByDistributor.getOrDefault(distributorId, Set.of())) {
+			TransitCargo cargo = transit.get(cargoId);
+			if (cargo == null) {
+				continue;
+			}
+			enqueue(subscriber, statusEvent(cargoId, cargo.getDriverId(), CargoSituation.PICKED_UP, System.currentTimeMillis()));
+			DriverPositionStore.Position position = driverPositionStore.get(cargo.getDriverId());
+			if (position != null) {
+				enqueue(subscriber, positionEvent(cargoId, position));
+			}
+		}
+	}
+
+	/**
+	 * Kargo alındığında konum akışı başlar; yoldan çıktığında (teslim, iptal vb.) son durum
+	 * gönderilir ve akış kesilir.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCargoSituationChanged(CargoSituationChangedEvent event) {
+		if (event.getSituation() == CargoSituation.PICKED_UP) {
+			cargoPickedUp(event.getCargoId(), event.getDriverId(), event.getDistributorId());
+		} else if (event.getPreviousSituation() == CargoSituation.PICKED_UP) {
+			cargoFinished(event.getCargoId(), event.getSituation());
+		}
+	}
+
+	void cargoPickedUp(Long cargoId, Long driverId, Long distributorId) {
+		TransitCargo cargo = new TransitCargo(cargoId, driverId, distributorId);
+		link(cargo);
+		publish(distributorId, statusEvent(cargoId, driverId, CargoSituation.PICKED_UP, System.currentTimeMillis()));
+		DriverPositionStore.Position position = driverPositionStore.get(driverId);
+		if (position != null) {
+			publish(distributorId, positionEvent(cargoId, position));
+		}
+	}
+
+	void cargoFinished(Long cargoId, CargoSituation situation) {
+		TransitCargo cargo = transit.remove(cargoId);
+		if (cargo == null) {
+			return;
+		}
+		unlink(cargo);
+		publish(cargo.getDistributorId(), statusEvent(cargoId, cargo.getDriverId(), situation, System.currentTimeMillis()));
+	}
+
+	/**
+	 * Sürücünün yeni konumunu, taşıdığı kargoların dağıtıcılarına iletir.
+	 */
+	public void driverMoved(DriverPositionStore.Position position) {
+		Set<Long> cargoIds = cargoesByDriver.get(position.driverId());
+		if (cargoIds == null) {
+			return;
+		}
+		for (Long cargoId : cargoIds) {
+			TransitCargo cargo = transit.get(cargoId);
+			if (cargo != null) {
+				publish(cargo.getDistributorId(), positionEvent(cargoId, position));
+			}
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${tracking.hub.heartbeat-interval:15000}")
+	public void heartbeat() {
+		for (Set<Subscriber> set : subscribers.values()) {
+			for (Subscriber subscriber : set) {
+				enqueue(subscriber, null);
+			}
+		}
+	}
+
+	/**
+	 * send() çağrısı sendTimeout'tan uzun süren aboneleri kapatır. Takılan thread gönderim bitene
+	 * kadar meşgul kalacağı için havuza bir thread eklenir; gönderim dönünce geri alınır.
+	 */
+	@Scheduled(fixedDelayString = "${tracking.hub.send-check-interval:1000}")
+	public void evictStalledSenders() {
+		long now = System.nanoTime();
+		long timeoutNanos = sendTimeout * 1_000_000L;
+		for (Set<Subscriber> set : subscribers.values()) {
+			for (Subscriber subscriber : set) {
+				synchronized (subscriber) {
+					if (!subscriber.sending || subscriber.stalled || now - subscriber.sendStartedNanos <= timeoutNanos) {
+						continue;
+					}
+					subscriber.stalled = true;
+				}
+				log.warn("Tracking stream of distributor {} stalled for over {} ms, closing", subscriber.distributorId,
+						sendTimeout);
+				unregister(subscriber);
+				resizeSenders(1);
+				try {
+					subscriber.emitter.completeWithError(new IOException("SSE send timed out"));
+				} catch (RuntimeException e) {
+					log.debug("Could not complete stalled emitter", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sürücü şu an yolda bir kargo taşıyor mu (PICKED_UP).
+	 */
+	public boolean isCarrying(Long driverId) {
+		return cargoesByDriver.containsKey(driverId);
+	}
+
+	public int subscriberCount() {
+		return subscribers.values().stream().mapToInt(Set::size).sum();
+	}
+
+	public long droppedEvents() {
+		return dropped.get();
+	}
+
+	public long sentEvents() {
+		return sent.get();
+	}
+
+	private void publish(Long distributorId, TrackingEvent event) {
+		Set<Subscriber> set = subscribers.get(distributorId);
+		if (set == null) {
+			return;
+		}
+		for (Subscriber subscriber : set) {
+			enqueue(subscriber, event);
+		}
+	}
+
+	// event null ise heartbeat; olayların arasına sadece boşken eklenir
+	private void enqueue(Subscriber subscriber, TrackingEvent event) {
+		boolean schedule;
+		synchronized (subscriber) {
+			if (subscriber.closed) {
+				return;
+			}
+			if (event == null) {
+				if (!subscriber.buffer.isEmpty()) {
+					return;
+				}
+				subscriber.heartbeatDue = true;
+			} else {
+				if (subscriber.buffer.size() == subscriber.capacity) {
+					subscriber.buffer.pollFirst();
+					dropped.incrementAndGet();
+				}
+				subscriber.buffer.addLast(event);
+			}
+			schedule = !subscriber.scheduled;
+			subscriber.scheduled = true;
+		}
+		if (schedule) {
+			senders.execute(() -> drain(subscriber));
+		}
+	}
+
+	private void drain(Subscriber subscriber) {
+		for (int i = 0; i < MAX_EVENTS_PER_DRAIN; i++) {
+			TrackingEvent event;
+			boolean heartbeat;
+			synchronized (subscriber) {
+				event = subscriber.buffer.pollFirst();
+				heartbeat = event == null && subscriber.heartbeatDue;
+				subscriber.heartbeatDue = false;
+				if (event == null && !heartbeat) {
+					subscriber.scheduled = false;
+					return;
+				}
+			}
+			boolean failed = false;
+			boolean stalled;
+			synchronized (subscriber) {
+				subscriber.sending = true;
+				subscriber.sendStartedNanos = System.nanoTime();
+			}
+			try {
+				if (heartbeat) {
+					subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+				} else {
+					subscriber.emitter.send(SseEmitter.event().name(event.getType()).data(event, MediaType.APPLICATION_JSON));
+					sent.incrementAndGet();
+				}
+			} catch (IOException | IllegalStateException e) {
+				// İstemci gitmiş; bağlantı kapatılır, buffer bırakılır
+				subscriber.emitter.completeWithError(e);
+				unregister(subscriber);
+				failed = true;
+			} finally {
+				synchronized (subscriber) {
+					subscriber.sending = false;
+					stalled = subscriber.stalled;
+				}
+			}
+			if (stalled) {
+				// Abone evictStalledSenders tarafından kapatıldı; yerine açılan thread geri alınır
+				resizeSenders(-1);
+				return;
+			}
+			if (failed) {
+				return;
+			}
+		}
+		// Buffer'da hâlâ olay var; diğer abonelerin sırası gelsin diye yeniden kuyruğa girer
+		senders.execute(() -> drain(subscriber));
+	}
+
+	private void resizeSenders(int delta) {
+		synchronized (senders) {
+			extraSenders += delta;
+			int size = senderThreads + extraSenders;
+			// core, max'tan büyük olamaz: büyürken önce max, küçülürken önce core ayarlanır
+			if (delta > 0) {
+				senders.setMaxPoolSize(size);
+				senders.setCorePoolSize(size);
+			} else {
+				senders.setCorePoolSize(size);
+				senders.setMaxPoolSize(size);
+			}
+		}
+	}
+
+	private void unregister(Subscriber subscriber) {
+		synchronized (subscriber) {
+			subscriber.closed = true;
+			subscriber.buffer.clear();
+		}
+		subscribers.computeIfPresent(subscriber.distributorId, (id, set) -> {
+			set.remove(subscriber);
+			return set.isEmpty() ? null : set;
+		});
+	}
+
+	private void link(TransitCargo cargo) {
+		TransitCargo previous = transit.put(cargo.getCargoId(), cargo);
+		if (previous != null) {
+			unlink(previous);
+		}
+		cargoesByDriver.computeIfAbsent(cargo.getDriverId(), id -> ConcurrentHashMap.newKeySet()).add(cargo.getCargoId());
+		cargoesByDistributor.computeIfAbsent(cargo.getDistributorId(), id -> ConcurrentHashMap.newKeySet())
+				.add(cargo.getCargoId());
+	}
+
+	private void unlink(TransitCargo cargo) {
+		cargoesByDriver.computeIfPresent(cargo.getDriverId(), (id, set) -> {
+			set.remove(cargo.getCargoId());
+			return set.isEmpty() ? null : set;
+		});
+		cargoesByDistributor.computeIfPresent(cargo.getDistributorId(), (id, set) -> {
+			set.remove(cargo.getCargoId());
+			return set.isEmpty() ? null : set;
+		});
+	}
+
+	private static TrackingEvent statusEvent(Long cargoId, Long driverId, CargoSituation situation, long timestamp) {
+		return TrackingEvent.builder().type(TrackingEvent.STATUS).cargoId(cargoId).driverId(driverId)
+				.cargoSituation(situation).timestamp(timestamp).build();
+	}
+
+	private static TrackingEvent positionEvent(Long cargoId, DriverPositionStore.Position position) {
+		return TrackingEvent.builder().type(TrackingEvent.POSITION).cargoId(cargoId).driverId(position.driverId())
+				.latitude(position.latitude()).longitude(position.longitude()).timestamp(position.recordedAtMillis())
+				.build();
+	}
+
+	private static final class Subscriber {
+
+		private final Long distributorId;
+		private final SseEmitter emitter;
+		private final int capacity;
+		private final ArrayDeque<TrackingEvent> buffer;
+		private boolean scheduled;
+		private boolean heartbeatDue;
+		private boolean closed;
+		private boolean sending;
+		private long sendStartedNanos;
+		private boolean stalled;
+
+		private Subscriber(Long distributorId, SseEmitter emitter, int capacity) {
+			this.distributorId = distributorId;
+			this.emitter = emitter;
+			this.capacity = capacity;
+			this.buffer = new ArrayDeque<>(Math.min(capacity, 16));
+		}
+	}
+}
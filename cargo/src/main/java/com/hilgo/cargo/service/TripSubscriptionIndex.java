@@ -0,0 +1,268 @@
+package com.hilgo.cargo.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.hilgo.cargo.entity.TripSubscription;
+import com.hilgo.cargo.entity.enums.CarType;
+import com.hilgo.cargo.entity.enums.Size;
+import com.hilgo.cargo.repository.TripSubscriptionRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Aktif yolculuk aboneliklerini rota koridorlarının (from/to odaklı elips) kestiği kaba grid
+ * hücrelerine kaydeden ters index. Yeni bir kargo için sadece koridoru hem alış hem teslim
+ * noktasının hücresinden geçen abonelikler kontrol edilir; maliyet toplam abonelik sayısıyla
+ * değil, o iki hücreden geçen rota sayısıyla orantılıdır.
+ */
+@Service
+@RequiredArgsConstructor
+public class TripSubscriptionIndex {
+
+	private static final Logger log = LoggerFactory.getLogger(TripSubscriptionIndex.class);
+
+	private final TripSubscriptionRepository tripSubscriptionRepository;
+
+	@Value("${trip.subscription.cell-degrees:0.5}")
+	private double cellDegrees;
+
+	@Value("${trip.subscription.rebuild-batch-size:5000}")
+	private int rebuildBatchSize;
+
+	// Kargo bu süre boyunca alınabilir kalır (CargoExpiryService ile aynı değer)
+	@Value("${cargo.expiry.ttl:72h}")
+	private Duration cargoTtl;
+
+	private GeoGrid grid;
+	private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+	private final Map<Long, Bucket> cells = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	void init() {
+		grid = new GeoGrid(cellDegrees);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		long start = System.currentTimeMillis();
+		entries.clear();
+		cells.clear();
+		LocalDateTime now = LocalDateTime.now();
+		Long afterId = 0L;
+		List<TripSubscription> batch;
+		do {
+			batch = tripSubscriptionRepository.findByActiveTrueAndAvailableUntilAfterAndIdGreaterThanOrderById(now, afterId,
+					PageRequest.of(0, rebuildBatchSize));
+			for (TripSubscription subscription : batch) {
+				register(subscription);
+				afterId = subscription.getId();
+			}
+		} while (batch.size() == rebuildBatchSize);
+		log.info("Trip subscription index rebuilt with {} subscriptions in {} ms", entries.size(),
+				System.currentTimeMillis() - start);
+	}
+
+	public void register(TripSubscription subscription) {
+		if (!subscription.isActive()) {
+			remove(subscription.getId());
+			return;
+		}
+		Entry entry = new Entry(subscription);
+		List<Long> keys = grid.corridorCells(entry.originLat, entry.originLon, entry.destinationLat, entry.destinationLon,
+				entry.direct + entry.detourKm);
+		entry.cells = keys.stream().mapToLong(Long::longValue).toArray();
+		entries.compute(entry.id, (id, previous) -> {
+			if (previous != null) {
+				unlink(previous);
+			}
+			for (long key : entry.cells) {
+				// Boşalan hücre unlink'te aynı compute ile silindiği için ekleme de compute içinde yapılır
+				cells.compute(key, (k, bucket) -> {
+					Bucket target = bucket != null ? bucket : new Bucket();
+					target.add(entry);
+					return target;
+				});
+			}
+			return entry;
+		});
+	}
+
+	public void remove(Long subscriptionId) {
+		entries.computeIfPresent(subscriptionId, (id, previous) -> {
+			unlink(previous);
+			return null;
+		});
+	}
+
+	/**
+	 * Kargonun alış ve teslim noktalarını, sapma sınırı içinde rotasına katabilen, aracı kargonun
+	 * boyutunu taşıyabilen ve [availableFrom, availableUntil] aralığı kargonun alınabilir olduğu
+	 * [createdAt, createdAt + cargo.expiry.ttl] aralığıyla kesişen aktif abonelikleri döner.
+	 */
+	public List<Match> match(double pickupLat, double pickupLon, double dropLat, double dropLon, Size size,
+			LocalDateTime createdAt) {
+		Bucket atPickup = cells.get(grid.cellKey(pickupLat, pickupLon));
+		Bucket atDrop = cells.get(grid.cellKey(dropLat, dropLon));
+		if (atPickup == null || atDrop == null) {
+			return List.of();
+		}
+		// Koridoru her iki hücreyi de kesmeyen abonelik eşleşemez; küçük hücre taranır
+		boolean fromPickup = atPickup.size() <= atDrop.size();
+		Bucket bucket = fromPickup ? atPickup : atDrop;
+		Entry[] members;
+		int count;
+		synchronized (bucket) {
+			members = bucket.members;
+			count = bucket.size;
+		}
+
+		long now = System.currentTimeMillis();
+		long cargoFrom = createdAt != null ? toMillis(createdAt) : now;
+		long cargoUntil = cargoFrom + cargoTtl.toMillis();
+		cargoFrom = Math.max(cargoFrom, now);
+		double pickupToDrop = GeoGrid.haversineKm(pickupLat, pickupLon, dropLat, dropLon);
+		List<Match> matches = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Entry entry = members[i];
+			if (entry.removed || entry.untilMillis < cargoFrom || entry.fromMillis > cargoUntil
+					|| !entry.carType.canCarry(size)) {
+				continue;
+			}
+			// Taranan hücre tarafındaki bacak tek başına sınırı aşıyorsa diğerini hesaplamaya gerek yok
+			double first = fromPickup ? GeoGrid.haversineKm(entry.originLat, entry.originLon, pickupLat, pickupLon)
+					: GeoGrid.haversineKm(dropLat, dropLon, entry.destinationLat, entry.destinationLon);
+			if (first + pickupToDrop - entry.direct > entry.detourKm) {
+				continue;
+			}
+			double second = fromPickup ? GeoGrid.haversineKm(dropLat, dropLon, entry.destinationLat, entry.destinationLon)
+					: GeoGrid.haversineKm(entry.originLat, entry.originLon, pickupLat, pickupLon);
+			double detour = first + pickupToDrop + second - entry.direct;
+			if (detour <= entry.detourKm) {
+				matches.add(new Match(entry.id, entry.driverId, Math.max(detour, 0)));
+			}
+		}
+		return matches;
+	}
+
+	@Scheduled(fixedDelayString = "${trip.subscription.evict-interval:600000}")
+	public void evictExpired() {
+		long now = System.currentTimeMillis();
+		entries.values().stream().filter(entry -> entry.untilMillis < now).map(entry -> entry.id).toList()
+				.forEach(this::remove);
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	private static long toMillis(LocalDateTime time) {
+		return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+
+	// Kayıt hücrelerden hemen silinmez, işaretlenir; hücre yarıdan fazlası ölü olduğunda sıkıştırılır,
+	// hiç canlı kaydı kalmayan hücre map'ten çıkarılır
+	private void unlink(Entry entry) {
+		entry.removed = true;
+		for (long key : entry.cells) {
+			cells.computeIfPresent(key, (k, bucket) -> bucket.markRemoved() ? null : bucket);
+		}
+	}
+
+	int cellCount() {
+		return cells.size();
+	}
+
+	public record Match(long subscriptionId, long driverId, double detourKm) {
+	}
+
+	private static final class Entry {
+
+		private final long id;
+		private final long driverId;
+		private final double originLat;
+		private final double originLon;
+		private final double destinationLat;
+		private final double destinationLon;
+		private final double direct;
+		private final double detourKm;
+		private final long fromMillis;
+		private final long untilMillis;
+		private final CarType carType;
+		private long[] cells;
+		private volatile boolean removed;
+
+		private Entry(TripSubscription subscription) {
+			this.id = subscription.getId();
+			this.driverId = subscription.getDriver().getId();
+			this.originLat = subscription.getOriginLatitude();
+			this.originLon = subscription.getOriginLongitude();
+			this.destinationLat = subscription.getDestinationLatitude();
+			this.destinationLon = subscription.getDestinationLongitude();
+			this.direct = GeoGrid.haversineKm(originLat, originLon, destinationLat, destinationLon);
+			this.detourKm = subscription.getDetourKm();
+			// Başlangıcı olmayan abonelik hemen geçerlidir
+			this.fromMillis = subscription.getAvailableFrom() != null ? toMillis(subscription.getAvailableFrom())
+					: Long.MIN_VALUE;
+			this.untilMillis = toMillis(subscription.getAvailableUntil());
+			this.carType = subscription.getCarType();
+		}
+	}
+
+	/**
+	 * Bir hücreden geçen abonelikler. Yazmalar kilit altında sona eklenir, sıkıştırma yeni dizi
+	 * oluşturur; okuyucu dizi ve boyutu kilit altında alıp taramayı kilitsiz yapar.
+	 */
+	private static final class Bucket {
+
+		private Entry[] members = new Entry[8];
+		private int size;
+		private int removed;
+
+		private synchronized void add(Entry entry) {
+			if (size == members.length) {
+				members = Arrays.copyOf(members, size * 2);
+			}
+			members[size] = entry;
+			size++;
+		}
+
+		// Sıkıştırma sonrası hücre boşsa true döner
+		private synchronized boolean markRemoved() {
+			removed++;
+			if (removed * 2 > size) {
+				Entry[] live = new Entry[Math.max(8, (size - removed) * 2)];
+				int count = 0;
+				for (int i = 0; i < size; i++) {
+					if (!members[i].removed) {
+						live[count++] = members[i];
+					}
+				}
+				members = live;
+				size = count;
+				removed = 0;
+			}
+			return size == 0;
+		}
+
+		private synchronized int size() {
+			return size;
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package com.hilgo.cargo.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hilgo.cargo.entity.Cargo;
+import com.hilgo.cargo.entity.TripMatch;
+import com.hilgo.cargo.entity.TripSubscription;
+import com.hilgo.cargo.entity.enums.Roles;
+import com.hilgo.cargo.repository.CargoRespository;
+import com.hilgo.cargo.repository.DriverRepository;
+import com.hilgo.cargo.repository.TripMatchRepository;
+import com.hilgo.cargo.repository.TripSubscriptionRepository;
+import com.hilgo.cargo.request.TripSubscriptionRequest;
+import com.hilgo.cargo.response.CargoesResponse;
+import com.hilgo.cargo.response.ResponseLocation;
+import com.hilgo.cargo.response.TripMatchResponse;
+import com.hilgo.cargo.response.TripSubscriptionResponse;
+
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+public class TripSubscriptionService {
+
+	private static final double MAX_DETOUR_KM = 200;
+	private static final int MAX_MATCHES = 100;
+
+	private final TripSubscriptionRepository tripSubscriptionRepository;
+	private final TripMatchRepository tripMatchRepository;
+	private final DriverRepository driverRepository;
+	private final CargoRespository cargoRepository;
+	private final TripSubscriptionIndex tripSubscriptionIndex;
+
+	public TripSubscriptionResponse subscribe(TripSubscriptionRequest request) {
+		AuthenticatedUser principal = AuthenticatedUser.current(Roles.DRIVER);
+		if (request.getOrigin() == null || request.getDestination() == null || request.getCarType() == null
+				|| request.getAvailableUntil() == null) {
+			throw new RuntimeException("Origin, destination, car type and end date are required");
+		}
+		checkLocation(request.getOrigin(), "origin");
+		checkLocation(request.getDestination(), "destination");
+		if (request.getDetourKm() != null && Double.isNaN(request.getDetourKm())) {
+			throw new RuntimeException("Invalid detour");
+		}
+		if (request.getAvailableUntil().isBefore(LocalDateTime.now())) {
+			throw new RuntimeException("Trip end date is in the past");
+		}
+		if (request.getAvailableFrom() != null && request.getAvailableFrom().isAfter(request.getAvailableUntil())) {
+			throw new RuntimeException("Trip start date is after the end date");
+		}
+		TripSubscription subscription = new TripSubscription();
+		subscription.setDriver(driverRepository.getReferenceById(principal.getId()));
+		subscription.setOriginLatitude(request.getOrigin().getLatitude());
+		subscription.setOriginLongitude(request.getOrigin().getLongitude());
+		subscription.setDestinationLatitude(request.getDestination().getLatitude());
+		subscription.setDestinationLongitude(request.getDestination().getLongitude());
+		double detourKm = request.getDetourKm() != null ? request.getDetourKm() : 20;
+		subscription.setDetourKm(Math.min(Math.max(detourKm, 0), MAX_DETOUR_KM));
+		subscription.setAvailableFrom(request.getAvailableFrom());
+		subscription.setAvailableUntil(request.getAvailableUntil());
+		subscription.setCarType(request.getCarType());
+		subscription.setActive(true);
+		tripSubscriptionRepository.save(subscription);
+		tripSubscriptionIndex.register(subscription);
+		return toResponse(subscription);
+	}
+
+	public List<TripSubscriptionResponse> getMySubscriptions() {
+		AuthenticatedUser principal = AuthenticatedUser.current(Roles.DRIVER);
+		return tripSubscriptionRepository.findByDriverIdOrderByIdDesc(principal.getId()).stream()
+				.map(TripSubscriptionService::toResponse).toList();
+	}
+
+	public Boolean cancel(Long subscriptionId) {
+		AuthenticatedUser principal = AuthenticatedUser.current(Roles.DRIVER);
+		TripSubscription subscription = tripSubscriptionRepository.findByIdAndDriverId(subscriptionId, principal.getId())
+				.orElseThrow(() -> new RuntimeException("Subscription not found"));
+		subscription.setActive(false);
+		tripSubscriptionRepository.save(subscription);
+		tripSubscriptionIndex.remove(subscriptionId);
+		return true;
+	}
+
+	public List<TripMatchResponse> getMyMatches(int limit) {
+		AuthenticatedUser principal = AuthenticatedUser.current(Roles.DRIVER);
+		List<TripMatchResponse> matches = tripMatchRepository.findResponsesByDriverId(principal.getId(),
+				PageRequest.of(0, Math.max(1, Math.min(limit, MAX_MATCHES))));
+		if (matches.isEmpty()) {
+			return matches;
+		}
+		Map<Long, CargoesResponse> cargoes = new HashMap<>();
+		for (CargoesResponse cargo : cargoRepository.findCargoesByIdIn(matches.stream().map(TripMatchResponse::getCargoId).toList())) {
+			cargoes.put(cargo.getId(), cargo);
+		}
+		matches.forEach(match -> match.setCargo(cargoes.get(match.getCargoId())));
+		return matches;
+	}
+
+	/**
+	 * Yeni kaydedilen kargoyu aktif aboneliklerle eşleştirip eşleşmeleri kaydeder.
+	 */
+	@Transactional
+	public List<TripSubscriptionIndex.Match> onCargoCreated(Cargo cargo) {
+		if (cargo.getSelfLocation() == null || cargo.getTargetLocation() == null
+				|| cargo.getSelfLocation().getLatitude() == null || cargo.getTargetLocation().getLatitude() == null) {
+			return List.of();
+		}
+		List<TripSubscriptionIndex.Match> matches = tripSubscriptionIndex.match(cargo.getSelfLocation().getLatitude(),
+				cargo.getSelfLocation().getLongitude(), cargo.getTargetLocation().getLatitude(),
+				cargo.getTargetLocation().getLongitude(), cargo.getMeasure() != null ? cargo.getMeasure().getSize() : null,
+				cargo.getCreatedAt());
+		if (matches.isEmpty()) {
+			return matches;
+		}
+		List<TripMatch> rows = new ArrayList<>(matches.size());
+		for (TripSubscriptionIndex.Match match : matches) {
+			TripMatch row = new TripMatch();
+			row.setSubscription(tripSubscriptionRepository.getReferenceById(match.subscriptionId()));
+			row.setCargo(cargo);
+			row.setDetourKm(match.detourKm());
+			rows.add(row);
+		}
+		tripMatchRepository.saveAll(rows);
+		return matches;
+	}
+
+	// Silinen kargoya ait eşleşmeler; kargo satırından önce silinmeli (trip_match -> cargo FK)
+	@Transactional
+	public void onCargoDeleted(Long cargoId) {
+		tripMatchRepository.deleteByCargoId(cargoId);
+	}
+
+	// DriverService.checkCoordinates ile aynı kural: null, NaN/sonsuz ve aralık dışı değerler reddedilir
+	private static void checkLocation(ResponseLocation location, String name) {
+		if (location.getLatitude() == null || location.getLongitude() == null
+				|| !GeoGrid.isValidCoordinate(location.getLatitude(), location.getLongitude())) {
+			throw new RuntimeException("Invalid " + name + " coordinates");
+		}
+	}
+
+	private static TripSubscriptionResponse toResponse(TripSubscription subscription) {
+		return TripSubscriptionResponse.builder()
+				.id(subscription.getId())
+				.origin(new ResponseLocation(subscription.getOriginLatitude(), subscription.getOriginLongitude()))
+				.destination(new ResponseLocation(subscription.getDestinationLatitude(), subscription.getDestinationLongitude()))
+				.detourKm(subscription.getDetourKm())
+				.availableFrom(subscription.getAvailableFrom())
+				.availableUntil(subscription.getAvailableUntil())
+				.carType(subscription.getCarType())
+				.active(subscription.isActive())
+				.build();
+	}
+}
@@ -0,0 +1,79 @@
+package com.hilgo.cargo.service;
+
+import java.util.Date;
+
+import com.hilgo.cargo.entity.enums.Roles;
+
+import io.jsonwebtoken.Claims;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Imzası doğrulanmış bir JWT'nin değişmez (immutable) özeti.
+ * JwtService tarafından bir kez oluşturulur ve token cache'inde tutulur.
+ */
+@Getter
+public final class VerifiedToken {
+
+	private final String subject;
+
+	// Kimlik claim'leri; bu alanlar eklenmeden önce üretilmiş token'larda null olabilir
+	private final Long userId;
+
+	private final Roles role;
+
+	private final Integer tokenVersion;
+
+	// Yalnızca amaca özel token'larda (şifre sıfırlama) dolu; oturum token'larında null
+	private final String purpose;
+
+	private final long issuedAtMillis;
+
+	private final long expirationMillis;
+
+	// Yalnızca JwtService.extractClaim okur; cache'teki kayıt paylaşıldığından dışarı verilmez
+	@Getter(AccessLevel.NONE)
+	private final Claims claims;
+
+	public VerifiedToken(Claims claims) {
+		this.subject = claims.getSubject();
+		Number uid = claims.get(JwtService.CLAIM_USER_ID, Number.class);
+		this.userId = uid != null ? uid.longValue() : null;
+		String roleName = claims.get(JwtService.CLAIM_ROLE, String.class);
+		this.role = roleName != null ? Roles.valueOf(roleName) : null;
+		Number version = claims.get(JwtService.CLAIM_TOKEN_VERSION, Number.class);
+		this.tokenVersion = version != null ? version.intValue() : null;
+		this.purpose = claims.get(JwtService.CLAIM_PURPOSE, String.class);
+		this.issuedAtMillis = claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
+		this.expirationMillis = claims.getExpiration().getTime();
+		this.claims = claims;
+	}
+
+	Claims claims() {
+		return claims;
+	}
+
+	public Date getIssuedAt() {
+		return new Date(issuedAtMillis);
+	}
+
+	public Date getExpiration() {
+		return new Date(expirationMillis);
+	}
+
+	public boolean isExpired() {
+		return expirationMillis <= System.currentTimeMillis();
+	}
+
+	/**
+	 * Token, kullanıcının şu anki kimliği ve token versiyonu ile uyumlu mu?
+	 */
+	public boolean matches(Long id, int currentTokenVersion) {
+		if (userId != null && !userId.equals(id)) {
+			return false;
+		}
+		// ver claim'i olmayan eski token'lar versiyon 0 sayılır
+		int version = tokenVersion != null ? tokenVersion : 0;
+		return version >= currentTokenVersion;
+	}
+}
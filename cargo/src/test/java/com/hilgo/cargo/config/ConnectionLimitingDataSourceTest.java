@@ -0,0 +1,70 @@
+package com.hilgo.cargo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class ConnectionLimitingDataSourceTest {
+
+	private static final String URL = "jdbc:h2:mem:connection-limit;DB_CLOSE_DELAY=-1";
+
+	@Test
+	void blocksBeyondPermitsUntilConnectionCloses() throws Exception {
+		ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(new DriverManagerDataSource(URL), 1,
+				5000);
+		Connection first = dataSource.getConnection();
+		assertEquals(0, dataSource.getAvailablePermits());
+
+		CompletableFuture<Connection> second = CompletableFuture.supplyAsync(() -> {
+			try {
+				return dataSource.getConnection();
+			} catch (SQLException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		while (dataSource.getWaiting() == 0) {
+			Thread.sleep(5);
+		}
+		assertFalse(second.isDone());
+
+		first.close();
+		try (Connection connection = second.get(5, TimeUnit.SECONDS)) {
+			assertTrue(connection.isValid(1));
+		}
+		assertEquals(1, dataSource.getAvailablePermits());
+	}
+
+	@Test
+	void timesOutAndReleasesOncePerConnection() throws Exception {
+		ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(new DriverManagerDataSource(URL), 2,
+				50);
+		Connection first = dataSource.getConnection();
+		Connection second = dataSource.getConnection();
+		assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+		// İkinci close izni tekrar vermez
+		first.close();
+		first.close();
+		assertEquals(1, dataSource.getAvailablePermits());
+		second.close();
+		assertEquals(2, dataSource.getAvailablePermits());
+	}
+
+	@Test
+	void releasesPermitWhenTargetFails() {
+		ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(
+				new DriverManagerDataSource("jdbc:h2:mem:missing;IFEXISTS=TRUE"), 1, 50);
+		assertThrows(SQLException.class, dataSource::getConnection);
+		assertEquals(1, dataSource.getAvailablePermits());
+	}
+}
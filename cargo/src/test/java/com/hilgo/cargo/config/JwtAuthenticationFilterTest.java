@@ -0,0 +1,84 @@
+package com.hilgo.cargo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hilgo.cargo.entity.Driver;
+import com.hilgo.cargo.entity.enums.Roles;
+import com.hilgo.cargo.service.AuthenticatedUser;
+import com.hilgo.cargo.service.JwtService;
+import com.hilgo.cargo.service.PrincipalCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JwtAuthenticationFilterTest {
+
+	private JwtService jwtService;
+	private PrincipalCache principalCache;
+	private JwtAuthenticationFilter filter;
+	private Driver user;
+
+	@BeforeEach
+	void setUp() {
+		jwtService = new JwtService(new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(jwtService, "SECRET_KEY", "kfN1Dw/4e58EeF+9eJYb8TxP9TDPDeeHKhktwvGuUrA=");
+		ReflectionTestUtils.setField(jwtService, "cacheMaximumSize", 100L);
+		ReflectionTestUtils.invokeMethod(jwtService, "init");
+		principalCache = mock(PrincipalCache.class);
+		filter = new JwtAuthenticationFilter(jwtService, principalCache);
+
+		user = new Driver();
+		user.setId(5L);
+		user.setUsername("filter-user");
+		user.setRoles(Roles.DRIVER);
+		user.setTokenVersion(2);
+	}
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void authenticatesEnabledUserWithCurrentToken() throws Exception {
+		when(principalCache.get("filter-user")).thenReturn(principal(true, 2));
+		filter.doFilter(request(jwtService.generateToken(user)), new MockHttpServletResponse(), new MockFilterChain());
+		assertEquals("filter-user", SecurityContextHolder.getContext().getAuthentication().getName());
+	}
+
+	@Test
+	void disabledUserIsNotAuthenticated() throws Exception {
+		when(principalCache.get("filter-user")).thenReturn(principal(false, 2));
+		filter.doFilter(request(jwtService.generateToken(user)), new MockHttpServletResponse(), new MockFilterChain());
+		assertNull(SecurityContextHolder.getContext().getAuthentication());
+	}
+
+	@Test
+	void revokedTokenIsNotAuthenticated() throws Exception {
+		// Çıkış sonrası versiyon arttı
+		when(principalCache.get("filter-user")).thenReturn(principal(true, 3));
+		filter.doFilter(request(jwtService.generateToken(user)), new MockHttpServletResponse(), new MockFilterChain());
+		assertNull(SecurityContextHolder.getContext().getAuthentication());
+	}
+
+	private static MockHttpServletRequest request(String token) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Authorization", "Bearer " + token);
+		return request;
+	}
+
+	private static AuthenticatedUser principal(boolean enabled, int tokenVersion) {
+		return new AuthenticatedUser("filter-user", 5L, Roles.DRIVER, true, enabled, tokenVersion);
+	}
+}
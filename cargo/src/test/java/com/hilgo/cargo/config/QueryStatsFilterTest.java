@@ -0,0 +1,158 @@
+package com.hilgo.cargo.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.hilgo.cargo.exception.QueryBudgetExceededException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(QueryStatsConfig.class)
+class QueryStatsFilterTest {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private SimpleMeterRegistry meterRegistry;
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		QueryStatsFilter filter = new QueryStatsFilter(meterRegistry);
+		ReflectionTestUtils.setField(filter, "enabled", true);
+		ReflectionTestUtils.setField(filter, "repeatThreshold", 5);
+		ReflectionTestUtils.setField(filter, "enforceBudgets", true);
+		QueryStatsHeaderAdvice advice = new QueryStatsHeaderAdvice();
+		ReflectionTestUtils.setField(advice, "header", true);
+		mockMvc = MockMvcBuilders.standaloneSetup(new SqlController(jdbcTemplate))
+				.setControllerAdvice(advice)
+				.addFilters(filter)
+				.build();
+	}
+
+	@Test
+	void countsStatementsAndRowsPerRequest() throws Exception {
+		mockMvc.perform(get("/sql/rows"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(QueryStatsHeaderAdvice.STATEMENTS_HEADER, "2"))
+				.andExpect(header().string(QueryStatsHeaderAdvice.ROWS_HEADER, "4"));
+
+		assertEquals(2.0, meterRegistry.get("http.server.requests.sql.statements")
+				.tag("uri", "/sql/rows").summary().totalAmount());
+		assertEquals(4.0, meterRegistry.get("http.server.requests.sql.rows")
+				.tag("uri", "/sql/rows").summary().totalAmount());
+		assertNull(meterRegistry.find("http.server.requests.sql.repeated").counter());
+	}
+
+	@Test
+	void flagsQueriesRepeatedWithDifferentLiterals() throws Exception {
+		mockMvc.perform(get("/sql/n-plus-one"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(QueryStatsHeaderAdvice.STATEMENTS_HEADER, "7"));
+
+		assertEquals(1.0, meterRegistry.get("http.server.requests.sql.repeated")
+				.tag("uri", "/sql/n-plus-one").counter().count());
+	}
+
+	@Test
+	void enforcesQueryBudget() throws Exception {
+		QueryBudgetExceededException ex = assertThrows(QueryBudgetExceededException.class,
+				() -> mockMvc.perform(get("/sql/over-budget")));
+		assertEquals(2, ex.getStatements());
+		assertEquals(1.0, meterRegistry.get("http.server.requests.sql.budget.exceeded")
+				.tag("uri", "/sql/over-budget").counter().count());
+
+		mockMvc.perform(get("/sql/within-budget")).andExpect(status().isOk());
+	}
+
+	@Test
+	void countsOnlyInsideScope() {
+		jdbcTemplate.queryForList("select \"X\" from system_range(1, 3)");
+		assertNull(RequestQueryStats.current());
+
+		try (RequestQueryStats stats = RequestQueryStats.open()) {
+			jdbcTemplate.queryForList("select \"X\" from system_range(1, 3)");
+			assertEquals(1, stats.statements());
+			assertEquals(3, stats.rows());
+		}
+		assertNull(RequestQueryStats.current());
+	}
+
+	@Test
+	void normalizesLiteralsInShape() {
+		String shape = RequestQueryStats.shape("select * from cargo where id = 42 and name = 'x''y' and  id in (1, 2, 3)");
+		assertEquals(shape, RequestQueryStats.shape("select * from cargo where id = 7 and name = 'z' and id in (9)"));
+		assertTrue(shape.contains("id = ?"));
+	}
+
+	@RestController
+	static class SqlController {
+
+		private final JdbcTemplate jdbcTemplate;
+
+		SqlController(JdbcTemplate jdbcTemplate) {
+			this.jdbcTemplate = jdbcTemplate;
+		}
+
+		@GetMapping("/sql/rows")
+		List<Map<String, Object>> rows() {
+			List<Map<String, Object>> rows = new ArrayList<>(jdbcTemplate.queryForList("select \"X\" from system_range(1, 3)"));
+			rows.addAll(jdbcTemplate.queryForList("select 1 as x"));
+			return rows;
+		}
+
+		@GetMapping("/sql/n-plus-one")
+		List<Long> nPlusOne() {
+			List<Long> ids = jdbcTemplate.queryForList("select \"X\" from system_range(1, 6)", Long.class);
+			// Her id için ayrı sorgu, literal farklı ama şekil aynı
+			List<Long> found = new ArrayList<>();
+			for (Long id : ids) {
+				found.add(jdbcTemplate.queryForObject("select \"X\" from system_range(1, 6) where \"X\" = " + id, Long.class));
+			}
+			return found;
+		}
+
+		@QueryBudget(statements = 1)
+		@GetMapping("/sql/over-budget")
+		Integer overBudget() {
+			jdbcTemplate.queryForObject("select 1", Integer.class);
+			return jdbcTemplate.queryForObject("select 2", Integer.class);
+		}
+
+		@QueryBudget(statements = 1, repeats = 1)
+		@GetMapping("/sql/within-budget")
+		Integer withinBudget() {
+			return jdbcTemplate.queryForObject("select 1", Integer.class);
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package com.hilgo.cargo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hilgo.cargo.entity.Cargo;
+import com.hilgo.cargo.entity.Distributor;
+import com.hilgo.cargo.entity.Driver;
+import com.hilgo.cargo.entity.Location;
+import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.entity.enums.Roles;
+
+/**
+ * Aynı kargoya yarışan sürücüler: koşullu UPDATE ile sadece biri kazanmalı.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CargoClaimTest {
+
+	private static final int DRIVERS = 16;
+	private static final int CARGOES = 200;
+
+	@Autowired
+	private CargoRespository cargoRepository;
+
+	@Autowired
+	private DriverRepository driverRepository;
+
+	@Autowired
+	private DistributorRepository distributorRepository;
+
+	private final List<Long> driverIds = new ArrayList<>();
+	private final List<Long> cargoIds = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		Distributor distributor = new Distributor();
+		distributor.setUsername("claim-dist");
+		distributor.setRoles(Roles.DISTRIBUTOR);
+		distributorRepository.save(distributor);
+
+		for (int i = 0; i < DRIVERS; i++) {
+			Driver driver = new Driver();
+			driver.setUsername("claim-driver-" + i);
+			driver.setRoles(Roles.DRIVER);
+			driverIds.add(driverRepository.save(driver).getId());
+		}
+		for (int i = 0; i < CARGOES; i++) {
+			Cargo cargo = new Cargo();
+			cargo.setDescription("popular " + i);
+			cargo.setCargoSituation(CargoSituation.CREATED);
+			cargo.setSelfLocation(new Location(null, 41.0, 29.0, LocalDateTime.now()));
+			cargo.setDistributor(distributor);
+			cargoIds.add(cargoRepository.save(cargo).getId());
+		}
+	}
+
+	@AfterEach
+	void cleanUp() {
+		cargoRepository.deleteAll();
+		driverRepository.deleteAll();
+		distributorRepository.deleteAll();
+	}
+
+	@Test
+	void exactlyOneDriverWinsEachCargo() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(DRIVERS);
+		try {
+			for (Long cargoId : cargoIds) {
+				CountDownLatch go = new CountDownLatch(1);
+				List<Future<Integer>> attempts = new ArrayList<>();
+				for (Long driverId : driverIds) {
+					attempts.add(pool.submit(() -> {
+						go.await();
+						return cargoRepository.claim(cargoId, driverRepository.getReferenceById(driverId), "123456",
+								LocalDateTime.now());
+					}));
+				}
+				go.countDown();
+				int winners = 0;
+				for (Future<Integer> attempt : attempts) {
+					winners += attempt.get();
+				}
+				assertEquals(1, winners, "cargo " + cargoId + " must have exactly one winner");
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		for (Long cargoId : cargoIds) {
+			Cargo cargo = cargoRepository.findById(cargoId).orElseThrow();
+			assertEquals(CargoSituation.PICKED_UP, cargo.getCargoSituation());
+			assertEquals(CargoSituation.PICKED_UP, cargoRepository.findSituationById(cargoId).orElseThrow());
+		}
+		assertTrue(cargoRepository.findAll().stream().allMatch(cargo -> cargo.getTakingTime() != null));
+	}
+
+	@Test
+	void deliveryRequiresPickedUpStateAndCode() {
+		Long cargoId = cargoIds.get(0);
+		Long driverId = driverIds.get(0);
+		assertEquals(0, cargoRepository.markDelivered(cargoId, driverId, "123456", LocalDateTime.now()));
+
+		assertEquals(1, cargoRepository.claim(cargoId, driverRepository.getReferenceById(driverId), "123456",
+				LocalDateTime.now()));
+		assertEquals(0, cargoRepository.claim(cargoId, driverRepository.getReferenceById(driverIds.get(1)), "654321",
+				LocalDateTime.now()));
+		assertEquals(0, cargoRepository.markDelivered(cargoId, driverIds.get(1), "123456", LocalDateTime.now()));
+		assertEquals(0, cargoRepository.markDelivered(cargoId, driverId, "000000", LocalDateTime.now()));
+
+		assertEquals(1, cargoRepository.markDelivered(cargoId, driverId, "123456", LocalDateTime.now()));
+		assertEquals(0, cargoRepository.markDelivered(cargoId, driverId, "123456", LocalDateTime.now()));
+		assertEquals(CargoSituation.DELIVERED, cargoRepository.findSituationById(cargoId).orElseThrow());
+	}
+}
@@ -0,0 +1,266 @@
+package com.hilgo.cargo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.hilgo.cargo.entity.Cargo;
+import com.hilgo.cargo.entity.CargoArchive;
+import com.hilgo.cargo.entity.Distributor;
+import com.hilgo.cargo.entity.Driver;
+import com.hilgo.cargo.entity.Location;
+import com.hilgo.cargo.entity.Measure;
+import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.entity.enums.Roles;
+import com.hilgo.cargo.entity.enums.Size;
+import com.hilgo.cargo.response.CargoWindow;
+import com.hilgo.cargo.response.CargoesResponse;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CargoRepositoryTest {
+
+	private static final int CARGOES = 25;
+	private static final PageRequest PAGE = PageRequest.of(0, 10, Sort.by("id"));
+
+	@Autowired
+	private CargoRepository cargoRepository;
+
+	@Autowired
+	private CargoRespository cargoRespository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private Statistics statistics;
+	private Distributor distributor;
+	private Driver driver;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class)
+				.getStatistics();
+
+		distributor = new Distributor();
+		distributor.setUsername("dist");
+		distributor.setPhoneNumber("5550000000");
+		distributor.setRoles(Roles.DISTRIBUTOR);
+		entityManager.persist(distributor);
+
+		driver = new Driver();
+		driver.setUsername("driver");
+		driver.setRoles(Roles.DRIVER);
+		entityManager.persist(driver);
+
+		for (int i = 0; i < CARGOES; i++) {
+			Cargo cargo = new Cargo();
+			cargo.setDescription("cargo " + i);
+			cargo.setPhoneNumber("555" + i);
+			cargo.setCargoSituation(CargoSituation.CREATED);
+			cargo.setSelfLocation(new Location(null, 41.0 + i, 29.0, LocalDateTime.now()));
+			cargo.setTargetLocation(new Location(null, 39.9, 32.8 + i, LocalDateTime.now()));
+			cargo.setMeasure(new Measure(null, 1.5 * i, 2.0, Size.M));
+			cargo.setDistributor(distributor);
+			cargo.setDriver(driver);
+			entityManager.persist(cargo);
+		}
+		entityManager.flush();
+		entityManager.clear();
+		statistics.clear();
+	}
+
+	@Test
+	void distributorPageIsOneSelectPlusCount() {
+		Page<CargoesResponse> page = cargoRepository.findCargoesByDistributorId(distributor.getId(), PAGE);
+
+		assertEquals(10, page.getContent().size());
+		assertEquals(CARGOES, page.getTotalElements());
+		assertEquals(2, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+
+		CargoesResponse first = page.getContent().get(0);
+		assertEquals("cargo 0", first.getDescription());
+		assertEquals(41.0, first.getSelfLocation().getLatitude());
+		assertEquals(32.8, first.getTargetLocation().getLongitude());
+		assertEquals(Size.M, first.getResponseMeasure().getSize());
+		assertEquals("5550000000", first.getDistPhoneNumber());
+	}
+
+	@Test
+	void driverAndAllCargoesPagesAreOneSelectPlusCount() {
+		Page<CargoesResponse> mine = cargoRespository.findCargoesByDriverId(driver.getId(), PAGE);
+		assertEquals(10, mine.getContent().size());
+		assertEquals(2, statistics.getPrepareStatementCount());
+
+		statistics.clear();
+		Page<CargoesResponse> all = cargoRespository.findAllCargoes(PAGE);
+		assertEquals(10, all.getContent().size());
+		assertEquals(CARGOES, all.getTotalElements());
+		assertEquals(2, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+	}
+
+	@Test
+	void lastPageSkipsCountQuery() {
+		Page<CargoesResponse> page = cargoRepository.findCargoesByDistributorId(distributor.getId(),
+				PageRequest.of(2, 10, Sort.by("id")));
+
+		assertEquals(CARGOES - 20, page.getContent().size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void entityPageNeedsExtraSelectsPerRow() {
+		// Karşılaştırma: entity yükleyip ilişkiler üzerinden map etmek
+		Page<Cargo> page = cargoRepository.findByDistributorId(distributor.getId(), PAGE);
+		page.getContent().forEach(cargo -> cargo.getDistributor().getPhoneNumber());
+		assertTrue(statistics.getPrepareStatementCount() > 2);
+	}
+
+	@Test
+	void cursorWalksAllRowsWithBoundedStatementsPerPage() {
+		List<Long> seen = new ArrayList<>();
+		CargoCursor cursor = CargoCursor.first("id", false);
+		int pages = 0;
+		while (true) {
+			statistics.clear();
+			CargoWindow window = cargoRepository.findCargoWindowByDistributorId(distributor.getId(), cursor, 10);
+			// Geçmiş sorgusu: sıcak tablo + cargo_archive, ikisi de size + 1 satırla sınırlı; COUNT yok
+			assertEquals(2, statistics.getPrepareStatementCount());
+			statistics.clear();
+			cargoRepository.findCargoWindow(cursor, 10);
+			assertEquals(1, statistics.getPrepareStatementCount());
+			window.getData().forEach(cargo -> seen.add(cargo.getId()));
+			pages++;
+			if (!window.isHasNext()) {
+				assertNull(window.getNextCursor());
+				break;
+			}
+			cursor = CargoCursor.decode(window.getNextCursor());
+		}
+
+		assertEquals(3, pages);
+		assertEquals(CARGOES, seen.size());
+		for (int i = 1; i < seen.size(); i++) {
+			assertTrue(seen.get(i - 1) < seen.get(i));
+		}
+	}
+
+	@Test
+	void cursorOnTimestampBreaksTiesById() {
+		// Aynı created_at'e sahip satırlar sayfa sınırında kaybolmamalı
+		entityManager.getEntityManager().createQuery("update Cargo c set c.createdAt = :t")
+				.setParameter("t", LocalDateTime.of(2025, 1, 1, 12, 0)).executeUpdate();
+		entityManager.clear();
+
+		List<Long> seen = new ArrayList<>();
+		CargoCursor cursor = CargoCursor.first("createdAt", true);
+		CargoWindow window;
+		do {
+			window = cargoRespository.findCargoWindowByDriverId(driver.getId(), cursor, 7);
+			window.getData().forEach(cargo -> seen.add(cargo.getId()));
+			if (window.isHasNext()) {
+				cursor = CargoCursor.decode(window.getNextCursor());
+			}
+		} while (window.isHasNext());
+
+		assertEquals(CARGOES, seen.size());
+		for (int i = 1; i < seen.size(); i++) {
+			assertTrue(seen.get(i - 1) > seen.get(i));
+		}
+	}
+
+	@Test
+	void cursorWalksNullSortValuesOnceInBothDirections() {
+		// updated_at'i NULL olan satırlar (sıcak tabloda ve arşivde) sayfa sınırında kaybolmamalı
+		entityManager.getEntityManager().createQuery("update Cargo c set c.updatedAt = null where mod(c.id, 2) = 0")
+				.executeUpdate();
+		entityManager.persist(archived(10_000L, null));
+		entityManager.persist(archived(10_001L, LocalDateTime.of(2020, 1, 1, 0, 0)));
+		entityManager.flush();
+		entityManager.clear();
+
+		for (boolean descending : new boolean[] { false, true }) {
+			List<CargoesResponse> seen = new ArrayList<>();
+			CargoCursor cursor = CargoCursor.first("updatedAt", descending);
+			CargoWindow window;
+			do {
+				window = cargoRepository.findCargoWindowByDistributorId(distributor.getId(), cursor, 4);
+				seen.addAll(window.getData());
+				if (window.isHasNext()) {
+					cursor = CargoCursor.decode(window.getNextCursor());
+				}
+			} while (window.isHasNext());
+
+			assertEquals(CARGOES + 2, seen.size());
+			assertEquals(CARGOES + 2, seen.stream().map(CargoesResponse::getId).distinct().count());
+			// Artan sırada NULL'lar başta, azalan sırada sonda
+			int firstNonNull = -1;
+			int lastNull = -1;
+			for (int i = 0; i < seen.size(); i++) {
+				if (seen.get(i).getUpdatedAt() == null) {
+					lastNull = i;
+				} else if (firstNonNull < 0) {
+					firstNonNull = i;
+				}
+			}
+			long nulls = seen.stream().filter(cargo -> cargo.getUpdatedAt() == null).count();
+			assertEquals(descending ? seen.size() - 1 : nulls - 1, lastNull);
+			assertEquals(descending ? 0 : nulls, firstNonNull);
+		}
+	}
+
+	@Test
+	void rejectsUnknownSortKeyAndTamperedCursor() {
+		assertThrows(RuntimeException.class, () -> CargoCursor.first("phoneNumber", false));
+		assertThrows(RuntimeException.class, () -> CargoCursor.decode("bm90LWEtY3Vyc29y"));
+	}
+
+	@Test
+	void openCargoPointsAreReadInIdBatches() {
+		List<CargoPoint> first = cargoRespository.findLocationPoints(CargoSituation.CREATED, 0L, PageRequest.of(0, 20));
+		List<CargoPoint> rest = cargoRespository.findLocationPoints(CargoSituation.CREATED,
+				first.get(first.size() - 1).getId(), PageRequest.of(0, 20));
+
+		assertEquals(20, first.size());
+		assertEquals(CARGOES - 20, rest.size());
+		assertEquals(41.0, first.get(0).getLatitude());
+		assertEquals(32.8, first.get(0).getTargetLongitude());
+		assertTrue(cargoRespository.findLocationPoints(CargoSituation.PICKED_UP, 0L, PageRequest.of(0, 20)).isEmpty());
+
+		statistics.clear();
+		List<Long> ids = List.of(first.get(3).getId(), first.get(1).getId());
+		assertEquals(2, cargoRespository.findCargoesByIdIn(ids).size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	private CargoArchive archived(Long id, LocalDateTime updatedAt) {
+		CargoArchive archive = new CargoArchive();
+		archive.setId(id);
+		archive.setDescription("archived " + id);
+		archive.setCargoSituation(CargoSituation.DELIVERED);
+		archive.setDistributorId(distributor.getId());
+		archive.setCreatedAt(LocalDateTime.of(2020, 1, 1, 0, 0));
+		archive.setUpdatedAt(updatedAt);
+		return archive;
+	}
+}
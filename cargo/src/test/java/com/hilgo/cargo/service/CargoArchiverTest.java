@@ -0,0 +1,263 @@
+package com.hilgo.cargo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hilgo.cargo.entity.Cargo;
+import com.hilgo.cargo.entity.CargoArchive;
+import com.hilgo.cargo.entity.Distributor;
+import com.hilgo.cargo.entity.Driver;
+import com.hilgo.cargo.entity.Location;
+import com.hilgo.cargo.entity.Measure;
+import com.hilgo.cargo.entity.ShipmentSent;
+import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.entity.enums.Roles;
+import com.hilgo.cargo.entity.enums.Size;
+import com.hilgo.cargo.exception.InvalidPageRequestException;
+import com.hilgo.cargo.repository.CargoArchiveRepository;
+import com.hilgo.cargo.repository.CargoCursor;
+import com.hilgo.cargo.repository.CargoRepository;
+import com.hilgo.cargo.repository.DistributorRepository;
+import com.hilgo.cargo.repository.DriverRepository;
+import com.hilgo.cargo.repository.ShipmentSendRepository;
+import com.hilgo.cargo.response.CargoWindow;
+import com.hilgo.cargo.response.CargoesResponse;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(CargoArchiver.class)
+class CargoArchiverTest {
+
+	@Autowired
+	private CargoArchiver cargoArchiver;
+
+	@Autowired
+	private CargoRepository cargoRepository;
+
+	@Autowired
+	private CargoArchiveRepository cargoArchiveRepository;
+
+	@Autowired
+	private ShipmentSendRepository shipmentSendRepository;
+
+	@Autowired
+	private DistributorRepository distributorRepository;
+
+	@Autowired
+	private DriverRepository driverRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Distributor distributor;
+	private Driver driver;
+
+	@BeforeEach
+	void setUp() {
+		distributor = new Distributor();
+		distributor.setUsername("archive-dist");
+		distributor.setRoles(Roles.DISTRIBUTOR);
+		distributor.setPhoneNumber("5550001122");
+		distributorRepository.save(distributor);
+		driver = new Driver();
+		driver.setUsername("archive-driver");
+		driver.setRoles(Roles.DRIVER);
+		driverRepository.save(driver);
+		ReflectionTestUtils.setField(cargoArchiver, "afterDays", 30);
+		ReflectionTestUtils.setField(cargoArchiver, "batchSize", 100);
+		ReflectionTestUtils.setField(cargoArchiver, "maxBatchesPerRun", 1_000);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		shipmentSendRepository.deleteAll();
+		cargoRepository.deleteAll();
+		cargoArchiveRepository.deleteAll();
+		driverRepository.deleteAll();
+		distributorRepository.deleteAll();
+	}
+
+	@Test
+	void movesOldFinishedCargoWithSatelliteRows() {
+		Long delivered = createCargoes(1, CargoSituation.DELIVERED, 40).get(0);
+		List<Long> expired = createCargoes(3, CargoSituation.EXPIRED, 31);
+		List<Long> recent = createCargoes(2, CargoSituation.DELIVERED, 5);
+		List<Long> active = createCargoes(2, CargoSituation.PICKED_UP, 60);
+		int locations = count("location");
+
+		assertEquals(4, cargoArchiver.archive());
+
+		assertFalse(cargoRepository.existsById(delivered));
+		expired.forEach(id -> assertFalse(cargoRepository.existsById(id)));
+		recent.forEach(id -> assertTrue(cargoRepository.existsById(id)));
+		active.forEach(id -> assertTrue(cargoRepository.existsById(id)));
+		assertEquals(locations - 8, count("location"));
+		assertEquals(4, count("measure"));
+		assertEquals(2, count("shipment_sent"));
+
+		CargoArchive archived = cargoArchiveRepository.findByIdAndDistributorId(delivered, distributor.getId())
+				.orElseThrow();
+		assertEquals(CargoSituation.DELIVERED, archived.getCargoSituation());
+		assertEquals(41.0, archived.getSelfLatitude());
+		assertEquals(36.5, archived.getTargetLongitude());
+		assertEquals(Size.M, archived.getSize());
+		assertEquals(driver.getId(), archived.getDriverId());
+		assertTrue(archived.getShipmentId() != null && archived.getArchivedAt() != null);
+
+		assertEquals(0, cargoArchiver.archive());
+	}
+
+	@Test
+	void historyWindowReadsHotAndArchivedCargoTogether() {
+		List<Long> all = new ArrayList<>();
+		all.addAll(createCargoes(25, CargoSituation.DELIVERED, 45));
+		all.addAll(createCargoes(10, CargoSituation.PICKED_UP, 45));
+		all.addAll(createCargoes(15, CargoSituation.DELIVERED, 2));
+		assertEquals(25, cargoArchiver.archive());
+
+		for (String sortBy : List.of("id", "createdAt")) {
+			Set<Long> seen = new HashSet<>();
+			List<Long> order = new ArrayList<>();
+			CargoCursor cursor = CargoCursor.first(sortBy, true);
+			CargoWindow window;
+			do {
+				window = cargoRepository.findCargoWindowByDistributorId(distributor.getId(), cursor, 7);
+				for (CargoesResponse cargo : window.getData()) {
+					assertTrue(seen.add(cargo.getId()), "duplicate " + cargo.getId());
+					order.add(cargo.getId());
+					assertEquals("5550001122", cargo.getDistPhoneNumber());
+				}
+				cursor = window.getNextCursor() == null ? null : CargoCursor.decode(window.getNextCursor());
+			} while (cursor != null);
+			assertEquals(new HashSet<>(all), seen);
+			if (sortBy.equals("id")) {
+				List<Long> expected = new ArrayList<>(all);
+				expected.sort((a, b) -> Long.compare(b, a));
+				assertEquals(expected, order);
+			}
+		}
+	}
+
+	@Test
+	void historyPageReadsHotAndArchivedCargoTogether() {
+		List<Long> all = new ArrayList<>();
+		all.addAll(createCargoes(25, CargoSituation.DELIVERED, 45));
+		all.addAll(createCargoes(10, CargoSituation.PICKED_UP, 45));
+		assertEquals(25, cargoArchiver.archive());
+		all.sort((a, b) -> Long.compare(b, a));
+
+		List<Long> order = new ArrayList<>();
+		for (int page = 0; page < 5; page++) {
+			Page<CargoesResponse> result = cargoRepository.findCargoPageByDistributorId(distributor.getId(),
+					PageRequest.of(page, 10, Sort.by(Sort.Direction.DESC, "id")));
+			assertEquals(35, result.getTotalElements());
+			assertEquals(4, result.getTotalPages());
+			result.getContent().forEach(cargo -> order.add(cargo.getId()));
+		}
+		assertEquals(all, order);
+		assertEquals(35, cargoRepository.findCargoPageByDriverId(driver.getId(), PageRequest.of(0, 50)).getTotalElements());
+	}
+
+	@Test
+	void historyPageSortsByLegacyFieldsAndRejectsDeepPages() {
+		List<Long> all = new ArrayList<>();
+		all.addAll(createCargoes(25, CargoSituation.DELIVERED, 45));
+		all.addAll(createCargoes(10, CargoSituation.PICKED_UP, 45));
+		assertEquals(25, cargoArchiver.archive());
+
+		List<CargoesResponse> sorted = new ArrayList<>();
+		for (int page = 0; page < 4; page++) {
+			sorted.addAll(cargoRepository.findCargoPageByDistributorId(distributor.getId(),
+					PageRequest.of(page, 10, Sort.by(Sort.Direction.ASC, "description"))).getContent());
+		}
+		assertEquals(new HashSet<>(all), sorted.stream().map(CargoesResponse::getId).collect(Collectors.toSet()));
+		assertEquals(35, sorted.size());
+		for (int i = 1; i < sorted.size(); i++) {
+			CargoesResponse previous = sorted.get(i - 1);
+			CargoesResponse current = sorted.get(i);
+			int byDescription = previous.getDescription().compareTo(current.getDescription());
+			assertTrue(byDescription < 0 || byDescription == 0 && previous.getId() < current.getId(),
+					previous.getId() + " before " + current.getId());
+		}
+
+		assertEquals(CargoCursor.MAX_PAGE_SIZE, cargoRepository.findCargoPageByDistributorId(distributor.getId(),
+				PageRequest.of(0, 5_000)).getSize());
+		assertThrows(InvalidPageRequestException.class, () -> cargoRepository
+				.findCargoPageByDistributorId(distributor.getId(), PageRequest.of(101, 10)));
+		assertThrows(InvalidPageRequestException.class, () -> cargoRepository.findCargoPageByDistributorId(
+				distributor.getId(), PageRequest.of(0, 10, Sort.by("verificationCode"))));
+	}
+
+	@Test
+	void archivesLargeBacklogInBatches() {
+		createCargoes(3_000, CargoSituation.DELIVERED, 90);
+		createCargoes(1_000, CargoSituation.CREATED, 1);
+		assertEquals(3_000, cargoArchiver.archive());
+		assertEquals(1_000, cargoRepository.count());
+		assertEquals(3_000, cargoArchiveRepository.count());
+	}
+
+	private List<Long> createCargoes(int count, CargoSituation situation, int ageDays) {
+		List<Cargo> cargoes = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Cargo cargo = new Cargo();
+			cargo.setDescription("archive " + i);
+			cargo.setCargoSituation(situation);
+			cargo.setSelfLocation(new Location(null, 41.0, 29.0, LocalDateTime.now()));
+			cargo.setTargetLocation(new Location(null, 39.9, 36.5, LocalDateTime.now()));
+			cargo.setMeasure(new Measure(null, 10.0, 2.0, Size.M));
+			cargo.setDistributor(distributor);
+			if (situation != CargoSituation.CREATED && situation != CargoSituation.EXPIRED) {
+				cargo.setDriver(driver);
+				cargo.setTakingTime(LocalDateTime.now().minusDays(ageDays + 1));
+			}
+			cargoes.add(cargo);
+		}
+		List<Cargo> saved = cargoRepository.saveAll(cargoes);
+		if (situation == CargoSituation.DELIVERED) {
+			List<ShipmentSent> shipments = new ArrayList<>();
+			for (Cargo cargo : saved) {
+				shipments.add(new ShipmentSent(null, distributor, driver, cargo, LocalDateTime.now()));
+			}
+			shipmentSendRepository.saveAll(shipments);
+		}
+		List<Long> ids = saved.stream().map(Cargo::getId).toList();
+		// updated_at @UpdateTimestamp ile yazılır; yaş SQL ile geriye alınır
+		jdbcTemplate.update("update cargo set updated_at = ?, created_at = ? where id between ? and ?",
+				Timestamp.valueOf(LocalDateTime.now().minusDays(ageDays)),
+				Timestamp.valueOf(LocalDateTime.now().minusDays(ageDays + 1)), ids.get(0), ids.get(ids.size() - 1));
+		return ids;
+	}
+
+	private int count(String table) {
+		return jdbcTemplate.queryForObject("select count(*) from " + table, Integer.class);
+	}
+}
@@ -0,0 +1,216 @@
+package com.hilgo.cargo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.event.CargoSituationChangedEvent;
+
+class CargoEventStreamTest {
+
+	private CargoEventStream stream;
+
+	@BeforeEach
+	void setUp() {
+		stream = new CargoEventStream();
+		ReflectionTestUtils.setField(stream, "replaySize", 100);
+		ReflectionTestUtils.setField(stream, "coalesceWindowMillis", 50L);
+		ReflectionTestUtils.setField(stream, "maxPending", 500);
+		ReflectionTestUtils.setField(stream, "senderThreads", 2);
+		ReflectionTestUtils.setField(stream, "emitterTimeout", 0L);
+		stream.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		stream.shutdown();
+	}
+
+	@Test
+	void usersOnlyReceiveTheirOwnCargoes() throws Exception {
+		RecordingEmitter distributor = new RecordingEmitter();
+		RecordingEmitter driver = new RecordingEmitter();
+		RecordingEmitter stranger = new RecordingEmitter();
+		stream.register(1L, null, distributor);
+		stream.register(2L, null, driver);
+		stream.register(3L, null, stranger);
+
+		stream.onCargoSituationChanged(event(10L, 1L, null, null, CargoSituation.CREATED));
+		stream.onCargoSituationChanged(event(10L, 1L, 2L, CargoSituation.CREATED, CargoSituation.PICKED_UP));
+		awaitUntil(() -> distributor.events.size() == 1 && driver.events.size() == 1);
+		Thread.sleep(100);
+
+		assertEquals(CargoSituation.PICKED_UP, distributor.events.get(0).getSituation());
+		assertEquals(CargoSituation.PICKED_UP, driver.events.get(0).getSituation());
+		assertTrue(stranger.events.isEmpty());
+	}
+
+	@Test
+	void burstOnOneCargoIsCoalesced() throws Exception {
+		RecordingEmitter emitter = new RecordingEmitter();
+		stream.register(1L, null, emitter);
+
+		stream.onCargoSituationChanged(event(10L, 1L, null, null, CargoSituation.CREATED));
+		stream.onCargoSituationChanged(event(10L, 1L, 2L, CargoSituation.CREATED, CargoSituation.PICKED_UP));
+		stream.onCargoSituationChanged(event(10L, 1L, 2L, CargoSituation.PICKED_UP, CargoSituation.DELIVERED));
+		stream.onCargoSituationChanged(event(11L, 1L, null, null, CargoSituation.CREATED));
+		awaitUntil(() -> emitter.events.size() == 2);
+		Thread.sleep(100);
+
+		// Sadece her kargonun son durumu, sıra numarasına göre
+		assertEquals(2, emitter.events.size());
+		assertEquals(CargoSituation.DELIVERED, emitter.events.get(0).getSituation());
+		assertEquals(List.of(id(3), id(4)), emitter.ids);
+	}
+
+	@Test
+	void reconnectResumesAfterLastEventId() throws Exception {
+		RecordingEmitter first = new RecordingEmitter();
+		stream.register(1L, null, first);
+		stream.onCargoSituationChanged(event(10L, 1L, null, null, CargoSituation.CREATED));
+		awaitUntil(() -> first.events.size() == 1);
+		String lastSeen = first.ids.get(0);
+		first.complete();
+
+		// Bağlantı yokken olan olaylar; biri başka kullanıcının
+		stream.onCargoSituationChanged(event(11L, 1L, null, null, CargoSituation.CREATED));
+		stream.onCargoSituationChanged(event(12L, 5L, null, null, CargoSituation.CREATED));
+		stream.onCargoSituationChanged(event(10L, 1L, 2L, CargoSituation.CREATED, CargoSituation.PICKED_UP));
+
+		RecordingEmitter second = new RecordingEmitter();
+		stream.register(1L, lastSeen, second);
+		awaitUntil(() -> second.events.size() == 2);
+		assertEquals(List.of(11L, 10L), second.events.stream().map(CargoSituationChangedEvent::getCargoId).toList());
+		assertEquals(List.of(id(2), id(4)), second.ids);
+		assertEquals(0, second.resets);
+	}
+
+	@Test
+	void reconnectBehindTheRingGetsReset() throws Exception {
+		for (long cargo = 1; cargo <= 150; cargo++) {
+			stream.onCargoSituationChanged(event(cargo, 1L, null, null, CargoSituation.CREATED));
+		}
+		RecordingEmitter tooOld = new RecordingEmitter();
+		stream.register(1L, id(3), tooOld);
+		RecordingEmitter fromFuture = new RecordingEmitter();
+		stream.register(1L, id(9_999), fromFuture);
+		awaitUntil(() -> tooOld.resets == 1 && fromFuture.resets == 1);
+
+		assertTrue(tooOld.events.isEmpty());
+		assertEquals(id(150), tooOld.ids.get(0));
+
+		// Reset'ten sonra canlı olaylar normal akar
+		stream.onCargoSituationChanged(event(151L, 1L, null, null, CargoSituation.CREATED));
+		awaitUntil(() -> tooOld.events.size() == 1 && fromFuture.events.size() == 1);
+	}
+
+	@Test
+	void idFromAnotherBootGetsReset() throws Exception {
+		for (long cargo = 1; cargo <= 5; cargo++) {
+			stream.onCargoSituationChanged(event(cargo, 1L, null, null, CargoSituation.CREATED));
+		}
+		// Sıra numarası halkada olsa da önceki açılışa (ya da eski düz sayı formatına) ait
+		RecordingEmitter previousBoot = new RecordingEmitter();
+		stream.register(1L, "otherboot-2", previousBoot);
+		RecordingEmitter legacy = new RecordingEmitter();
+		stream.register(1L, "2", legacy);
+		RecordingEmitter sameBoot = new RecordingEmitter();
+		stream.register(1L, id(4), sameBoot);
+		awaitUntil(() -> previousBoot.resets == 1 && legacy.resets == 1 && sameBoot.events.size() == 1);
+
+		assertTrue(previousBoot.events.isEmpty());
+		assertEquals(id(5), previousBoot.ids.get(0));
+		assertEquals(0, sameBoot.resets);
+		assertEquals(5L, sameBoot.events.get(0).getCargoId());
+	}
+
+	@Test
+	void coalescingCutsTrafficComparedToPolling() throws Exception {
+		int users = 200;
+		int cargoesPerUser = 5;
+		RecordingEmitter[] emitters = new RecordingEmitter[users];
+		for (int user = 0; user < users; user++) {
+			emitters[user] = new RecordingEmitter();
+			stream.register((long) user + 1, null, emitters[user]);
+		}
+		for (int user = 0; user < users; user++) {
+			for (int cargo = 0; cargo < cargoesPerUser; cargo++) {
+				long cargoId = (long) user * cargoesPerUser + cargo + 1;
+				long distributorId = user + 1;
+				stream.onCargoSituationChanged(event(cargoId, distributorId, null, null, CargoSituation.CREATED));
+				stream.onCargoSituationChanged(event(cargoId, distributorId, 9_000L, CargoSituation.CREATED,
+						CargoSituation.PICKED_UP));
+			}
+		}
+		long expected = (long) users * cargoesPerUser;
+		awaitUntil(() -> stream.sentEvents() >= expected);
+		Thread.sleep(100);
+
+		assertEquals(expected, stream.sentEvents());
+		assertEquals(users, stream.subscriberCount());
+	}
+
+	private String id(long sequence) {
+		return stream.epoch() + "-" + sequence;
+	}
+
+	private static CargoSituationChangedEvent event(Long cargoId, Long distributorId, Long driverId,
+			CargoSituation previous, CargoSituation situation) {
+		return new CargoSituationChangedEvent(cargoId, distributorId, driverId, previous, situation, LocalDateTime.now());
+	}
+
+	private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (!condition.getAsBoolean()) {
+			if (System.nanoTime() > deadline) {
+				throw new AssertionError("condition not met in time");
+			}
+			Thread.sleep(5);
+		}
+	}
+
+	/**
+	 * Gönderilen olayları ve SSE id'lerini kaydeden emitter.
+	 */
+	private static final class RecordingEmitter extends SseEmitter {
+
+		private final List<CargoSituationChangedEvent> events = new CopyOnWriteArrayList<>();
+		private final List<String> ids = new CopyOnWriteArrayList<>();
+		private volatile int resets;
+
+		private RecordingEmitter() {
+			super(0L);
+		}
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			String text = builder.build().stream().map(part -> part.getData()).filter(String.class::isInstance)
+					.map(String.class::cast).reduce("", String::concat);
+			if (text.startsWith(":")) {
+				return;
+			}
+			String id = text.lines().filter(line -> line.startsWith("id:")).map(line -> line.substring(3))
+					.findFirst().orElse(null);
+			ids.add(id);
+			if (text.contains("event:" + CargoEventStream.RESET_EVENT)) {
+				resets++;
+				return;
+			}
+			builder.build().stream().map(part -> part.getData()).filter(CargoSituationChangedEvent.class::isInstance)
+					.map(CargoSituationChangedEvent.class::cast).forEach(events::add);
+		}
+	}
+}
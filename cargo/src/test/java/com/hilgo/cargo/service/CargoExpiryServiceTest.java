@@ -0,0 +1,168 @@
+package com.hilgo.cargo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hilgo.cargo.entity.Cargo;
+import com.hilgo.cargo.entity.Distributor;
+import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.entity.enums.Roles;
+import com.hilgo.cargo.event.CargoSituationChangedEvent;
+import com.hilgo.cargo.repository.CargoRepository;
+import com.hilgo.cargo.repository.DistributorRepository;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(OpenCargoIndex.class)
+class CargoExpiryServiceTest {
+
+	@Autowired
+	private CargoRepository cargoRepository;
+
+	@Autowired
+	private DistributorRepository distributorRepository;
+
+	@Autowired
+	private OpenCargoIndex openCargoIndex;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final Map<Long, CargoSituationChangedEvent> events = new ConcurrentHashMap<>();
+	private final List<CargoSituationChangedEvent> duplicates = new ArrayList<>();
+	private Distributor distributor;
+
+	@BeforeEach
+	void setUp() {
+		distributor = new Distributor();
+		distributor.setUsername("expiry-dist");
+		distributor.setRoles(Roles.DISTRIBUTOR);
+		distributorRepository.save(distributor);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		cargoRepository.deleteAll();
+		distributorRepository.deleteAll();
+	}
+
+	@Test
+	void onlyStaleCreatedCargoesExpire() {
+		List<Long> stale = createCargoes(30, CargoSituation.CREATED, Duration.ofDays(4));
+		List<Long> fresh = createCargoes(10, CargoSituation.CREATED, Duration.ofHours(1));
+		List<Long> taken = createCargoes(10, CargoSituation.PICKED_UP, Duration.ofDays(4));
+
+		assertEquals(30, expiryService(7).expireDue());
+		stale.forEach(id -> assertEquals(CargoSituation.EXPIRED, situation(id)));
+		fresh.forEach(id -> assertEquals(CargoSituation.CREATED, situation(id)));
+		taken.forEach(id -> assertEquals(CargoSituation.PICKED_UP, situation(id)));
+
+		assertEquals(30, events.size());
+		CargoSituationChangedEvent event = events.get(stale.get(0));
+		assertEquals(distributor.getId(), event.getDistributorId());
+		assertEquals(CargoSituation.CREATED, event.getPreviousSituation());
+		assertEquals(CargoSituation.EXPIRED, event.getSituation());
+
+		// İkinci tur yapacak iş bulamaz
+		assertEquals(0, expiryService(7).expireDue());
+	}
+
+	@Test
+	void concurrentInstancesExpireEachCargoOnce() throws Exception {
+		List<Long> stale = createCargoes(2_000, CargoSituation.CREATED, Duration.ofDays(5));
+		createCargoes(8_000, CargoSituation.CREATED, Duration.ofMinutes(5));
+
+		int instances = 4;
+		ExecutorService pool = Executors.newFixedThreadPool(instances);
+		try {
+			CountDownLatch go = new CountDownLatch(1);
+			List<Future<Integer>> runs = new ArrayList<>();
+			for (int i = 0; i < instances; i++) {
+				CargoExpiryService instance = expiryService(100);
+				runs.add(pool.submit(() -> {
+					go.await();
+					return instance.expireDue();
+				}));
+			}
+			go.countDown();
+			int total = 0;
+			for (Future<Integer> run : runs) {
+				total += run.get();
+			}
+			assertEquals(stale.size(), total);
+		} finally {
+			pool.shutdownNow();
+		}
+		assertEquals(stale.size(), events.size());
+		assertTrue(duplicates.isEmpty(), "each cargo must be expired by exactly one instance");
+		assertEquals(stale.size(), jdbcTemplate.queryForObject(
+				"select count(*) from cargo where cargo_situation = 'EXPIRED'", Integer.class));
+	}
+
+	private CargoExpiryService expiryService(int chunkSize) {
+		CargoExpiryService service = new CargoExpiryService(cargoRepository, openCargoIndex, transactionTemplate,
+				event -> {
+					CargoSituationChangedEvent changed = (CargoSituationChangedEvent) event;
+					if (events.putIfAbsent(changed.getCargoId(), changed) != null) {
+						synchronized (duplicates) {
+							duplicates.add(changed);
+						}
+					}
+				});
+		ReflectionTestUtils.setField(service, "ttl", Duration.ofHours(72));
+		ReflectionTestUtils.setField(service, "chunkSize", chunkSize);
+		ReflectionTestUtils.setField(service, "maxChunksPerRun", 1_000);
+		return service;
+	}
+
+	private List<Long> createCargoes(int count, CargoSituation situation, Duration age) {
+		List<Cargo> cargoes = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Cargo cargo = new Cargo();
+			cargo.setDescription("expiry " + i);
+			cargo.setCargoSituation(situation);
+			cargo.setDistributor(distributor);
+			cargoes.add(cargo);
+		}
+		List<Long> ids = cargoRepository.saveAll(cargoes).stream().map(Cargo::getId).toList();
+		// created_at @CreationTimestamp ile yazılır; yaşı SQL ile geriye alınır
+		jdbcTemplate.update("update cargo set created_at = ? where id between ? and ?",
+				Timestamp.valueOf(LocalDateTime.now().minus(age)), ids.get(0), ids.get(ids.size() - 1));
+		return ids;
+	}
+
+	private CargoSituation situation(Long cargoId) {
+		return cargoRepository.findById(cargoId).orElseThrow().getCargoSituation();
+	}
+}
@@ -0,0 +1,176 @@
+package com.hilgo.cargo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hilgo.cargo.entity.Cargo;
+import com.hilgo.cargo.entity.Distributor;
+import com.hilgo.cargo.entity.Location;
+import com.hilgo.cargo.entity.Measure;
+import com.hilgo.cargo.entity.ShipmentSent;
+import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.entity.enums.Roles;
+import com.hilgo.cargo.entity.enums.Size;
+import com.hilgo.cargo.repository.CargoRepository;
+import com.hilgo.cargo.repository.DistributorRepository;
+import com.hilgo.cargo.repository.ShipmentSendRepository;
+import com.hilgo.cargo.service.CargoExportService.Format;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(CargoExportService.class)
+class CargoExportServiceTest {
+
+	@Autowired
+	private CargoExportService cargoExportService;
+
+	@Autowired
+	private CargoRepository cargoRepository;
+
+	@Autowired
+	private ShipmentSendRepository shipmentSendRepository;
+
+	@Autowired
+	private DistributorRepository distributorRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Distributor distributor;
+	private Distributor other;
+
+	@BeforeEach
+	void setUp() {
+		distributor = new Distributor();
+		distributor.setUsername("export-dist");
+		distributor.setRoles(Roles.DISTRIBUTOR);
+		distributorRepository.save(distributor);
+		other = new Distributor();
+		other.setUsername("export-other");
+		other.setRoles(Roles.DISTRIBUTOR);
+		distributorRepository.save(other);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		SecurityContextHolder.clearContext();
+		jdbcTemplate.update("delete from cargo_archive");
+		shipmentSendRepository.deleteAll();
+		cargoRepository.deleteAll();
+		distributorRepository.deleteAll();
+	}
+
+	@Test
+	void writesArchivedAndHotCargoesWithShipmentDates() throws Exception {
+		LocalDateTime shipped = LocalDateTime.of(2025, 3, 1, 14, 30);
+		jdbcTemplate.update("insert into cargo_archive (id, distributor_id, cargo_situation, description, "
+				+ "verification_code, created_at, shipment_date, weight, size) values (?, ?, 'DELIVERED', ?, '123456', ?, ?, 4.5, 'S')",
+				900_001L, distributor.getId(), "eski, \"kırılır\"", Timestamp.valueOf(shipped.minusDays(2)),
+				Timestamp.valueOf(shipped));
+		Cargo hot = createCargo(distributor, "yeni kargo");
+		shipmentSendRepository.save(new ShipmentSent(null, distributor, null, hot, shipped.plusDays(30)));
+		createCargo(other, "başkasının");
+
+		ByteArrayOutputStream csv = new ByteArrayOutputStream();
+		assertEquals(2, cargoExportService.write(distributor.getId(), Format.CSV, csv));
+		String[] lines = csv.toString(StandardCharsets.UTF_8).split("\n");
+		assertEquals(3, lines.length);
+		assertTrue(lines[0].startsWith("id,description,situation,created_at"));
+		assertTrue(lines[1].startsWith("900001,\"eski, \"\"kırılır\"\"\",DELIVERED,2025-02-27T14:30,"), lines[1]);
+		assertTrue(lines[1].contains(",2025-03-01T14:30,") && lines[1].endsWith(",4.5,,S,true"), lines[1]);
+		assertTrue(lines[2].startsWith(hot.getId() + ",yeni kargo,CREATED,"), lines[2]);
+		assertTrue(lines[2].contains(",2025-03-31T14:30,") && lines[2].endsWith(",10.0,2.0,M,false"), lines[2]);
+		assertFalse(csv.toString(StandardCharsets.UTF_8).contains("123456"));
+
+		ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+		assertEquals(2, cargoExportService.write(distributor.getId(), Format.NDJSON, ndjson));
+		ObjectMapper mapper = new ObjectMapper();
+		List<JsonNode> rows = new ArrayList<>();
+		for (String line : ndjson.toString(StandardCharsets.UTF_8).split("\n")) {
+			rows.add(mapper.readTree(line));
+		}
+		assertEquals(2, rows.size());
+		assertEquals("eski, \"kırılır\"", rows.get(0).get("description").asText());
+		assertTrue(rows.get(0).get("archived").asBoolean());
+		assertEquals(41.0, rows.get(1).get("from_latitude").asDouble());
+		assertEquals("2025-03-31T14:30", rows.get(1).get("shipment_date").asText());
+		assertTrue(rows.get(1).get("driver_id").isNull());
+	}
+
+	@Test
+	void exportTaskHoldsAPermitOnlyWhileItRuns() throws Exception {
+		createCargo(distributor, "yeni kargo");
+		AuthenticatedUser principal = new AuthenticatedUser("export-dist", distributor.getId(), Roles.DISTRIBUTOR,
+				true, true, 0);
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+		Semaphore running = (Semaphore) ReflectionTestUtils.getField(cargoExportService, "running");
+		int permits = running.availablePermits();
+
+		// Hiç çalışmayan görevler (zaman aşımı kuyruktayken dolarsa) izin tutmaz
+		for (int i = 0; i < permits + 1; i++) {
+			assertEquals(3_600_000L, cargoExportService.export(Format.CSV, new MockHttpServletResponse()).getTimeout());
+		}
+		assertEquals(permits, running.availablePermits());
+
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		cargoExportService.export(Format.NDJSON, response).getCallable().call();
+		assertEquals(permits, running.availablePermits());
+		assertEquals("application/x-ndjson;charset=UTF-8", response.getContentType());
+		assertTrue(response.getHeader(HttpHeaders.CONTENT_DISPOSITION).contains("cargo-history.ndjson"));
+		assertTrue(response.getContentAsString(StandardCharsets.UTF_8).contains("\"description\":\"yeni kargo\""));
+
+		running.acquire(permits);
+		try {
+			Callable<?> rejected = cargoExportService.export(Format.CSV, new MockHttpServletResponse()).getCallable();
+			assertThrows(RuntimeException.class, rejected::call);
+		} finally {
+			running.release(permits);
+		}
+		assertEquals(permits, running.availablePermits());
+	}
+
+	private Cargo createCargo(Distributor owner, String description) {
+		Cargo cargo = new Cargo();
+		cargo.setDescription(description);
+		cargo.setCargoSituation(CargoSituation.CREATED);
+		cargo.setVerificationCode("123456");
+		cargo.setSelfLocation(new Location(null, 41.0, 29.0, LocalDateTime.now()));
+		cargo.setTargetLocation(new Location(null, 39.9, 36.5, LocalDateTime.now()));
+		cargo.setMeasure(new Measure(null, 10.0, 2.0, Size.M));
+		cargo.setDistributor(owner);
+		return cargoRepository.save(cargo);
+	}
+}
@@ -0,0 +1,245 @@
+package com.hilgo.cargo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hilgo.cargo.entity.Cargo;
+import com.hilgo.cargo.entity.Distributor;
+import com.hilgo.cargo.entity.Driver;
+import com.hilgo.cargo.entity.Location;
+import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.entity.enums.Roles;
+import com.hilgo.cargo.repository.CargoRepository;
+import com.hilgo.cargo.repository.DistributorRepository;
+import com.hilgo.cargo.repository.DriverRepository;
+import com.hilgo.cargo.response.DeliveryStatsResponse;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DeliveryStatsServiceTest {
+
+	@Autowired
+	private CargoRepository cargoRepository;
+
+	@Autowired
+	private DistributorRepository distributorRepository;
+
+	@Autowired
+	private DriverRepository driverRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Distributor distributor;
+	private Driver driver;
+	private DeliveryStatsService service;
+
+	@BeforeEach
+	void setUp() {
+		distributor = new Distributor();
+		distributor.setUsername("delivery-dist");
+		distributor.setRoles(Roles.DISTRIBUTOR);
+		distributorRepository.save(distributor);
+		driver = new Driver();
+		driver.setUsername("delivery-driver");
+		driver.setRoles(Roles.DRIVER);
+		driverRepository.save(driver);
+		service = service(jdbcTemplate);
+		SecurityContextHolder.getContext().setAuthentication(admin());
+	}
+
+	@AfterEach
+	void cleanUp() {
+		service.shutdown();
+		SecurityContextHolder.clearContext();
+		jdbcTemplate.update("delete from cargo_archive");
+		cargoRepository.deleteAll();
+		driverRepository.deleteAll();
+		distributorRepository.deleteAll();
+	}
+
+	@Test
+	void sketchQuantilesStayWithinRelativeError() {
+		Random random = new Random(42);
+		int n = 1_000_000;
+		double[] values = new double[n];
+		QuantileSketch whole = new QuantileSketch(0.01);
+		QuantileSketch left = new QuantileSketch(0.01);
+		QuantileSketch right = new QuantileSketch(0.01);
+		for (int i = 0; i < n; i++) {
+			// Log-normal: çoğu birkaç saat, uzun kuyruk birkaç gün
+			values[i] = Math.exp(5 + random.nextGaussian());
+			whole.add(values[i]);
+			(i % 2 == 0 ? left : right).add(values[i]);
+		}
+		left.merge(right);
+		Arrays.sort(values);
+
+		for (double q : new double[] { 0.5, 0.9, 0.99, 0.999 }) {
+			double exact = values[(int) Math.floor(q * (n - 1))];
+			assertEquals(exact, whole.quantile(q), exact * 0.01, "q=" + q);
+			assertEquals(whole.quantile(q), left.quantile(q), 1e-9, "merged q=" + q);
+		}
+		assertEquals(n, left.count());
+		assertEquals(values[0], whole.min());
+	}
+
+	@Test
+	void sketchFoldsLowBucketsWhenRangeIsTooWide() {
+		QuantileSketch sketch = new QuantileSketch(0.01, 64);
+		for (int i = 0; i < 1_000; i++) {
+			sketch.add(1e-6 * (i + 1));
+		}
+		sketch.add(1e9);
+		assertEquals(1_001, sketch.count());
+		assertEquals(1e9, sketch.quantile(1), 0);
+		assertEquals(1e9, sketch.max(), 0);
+		// Küçük değerler izin verilen en düşük kovaya katlanır, tepe korunur
+		assertTrue(sketch.quantile(0.5) < 1e9 && sketch.quantile(0.5) > 1e8);
+	}
+
+	@Test
+	void rebuildReplaysHotAndArchivedDeliveriesInParallel() {
+		List<Long> minutes = new ArrayList<>();
+		for (int i = 1; i <= 1_200; i++) {
+			minutes.add(30L + i);
+		}
+		// İstanbul -> Ankara
+		List<Long> ids = createDelivered(minutes, 41.01, 28.97, 39.93, 32.86);
+		// Yarısı arşivde
+		List<Long> archived = ids.subList(0, 600);
+		jdbcTemplate.update("insert into cargo_archive (id, cargo_situation, distributor_id, driver_id, "
+				+ "self_latitude, self_longitude, target_latitude, target_longitude, taking_time, delivered_time) "
+				+ "select c.id, c.cargo_situation, c.distributor_user_id, c.driver_user_id, sl.latitude, sl.longitude, "
+				+ "tl.latitude, tl.longitude, c.taking_time, c.delivered_time from cargo c "
+				+ "join location sl on sl.id = c.self_location_id join location tl on tl.id = c.target_location_id "
+				+ "where c.id between ? and ?", archived.get(0), archived.get(archived.size() - 1));
+		jdbcTemplate.update("delete from cargo where id between ? and ?", archived.get(0),
+				archived.get(archived.size() - 1));
+		createCargo(CargoSituation.PICKED_UP, null, null, 41.0, 29.0, 39.9, 32.8);
+
+		assertEquals(1_200, service.rebuild());
+
+		DeliveryStatsResponse all = service.overall();
+		assertEquals(1_200L, all.getDeliveries());
+		assertEquals(630.0, all.getP50Minutes(), 630 * 0.011);
+		assertEquals(1110.0, all.getP90Minutes(), 1110 * 0.011);
+		assertEquals(1218.0, all.getP99Minutes(), 1218 * 0.011);
+		assertEquals(1_200L, service.forDriver(driver.getId()).getDeliveries());
+		assertEquals(1_200L, service.forDistributor(distributor.getId()).getDeliveries());
+		assertEquals(1_200L, service.forRoute(41.1, 28.9, 39.8, 32.9).getDeliveries());
+		assertEquals(0L, service.forRoute(38.4, 27.1, 39.9, 32.8).getDeliveries());
+
+		// Canlı teslimat: rebuild beklemeden yüzdeliklere girer
+		LocalDateTime now = LocalDateTime.now();
+		service.record(-1L, driver.getId(), distributor.getId(), now.minusMinutes(45), now, 41.0, 28.9, 39.9, 32.8);
+		assertEquals(1_201L, service.overall().getDeliveries());
+		assertEquals(1_201L, service.forRoute(41.1, 28.9, 39.8, 32.9).getDeliveries());
+	}
+
+	@Test
+	void deliveriesCommittedAroundTheCutoffAreCountedOnce() {
+		List<Long> minutes = new ArrayList<>();
+		for (int i = 1; i <= 10; i++) {
+			minutes.add(30L + i);
+		}
+		createDelivered(minutes, 41.01, 28.97, 39.93, 32.86);
+		LocalDateTime recent = LocalDateTime.now().minusSeconds(2);
+		// Taramadan önce commit edildi, olayı tarama sırasında gelir
+		Long visible = createCargo(CargoSituation.DELIVERED, recent.minusMinutes(20), recent, 41.0, 29.0, 39.9, 32.8);
+		// Taramadan önce commit edildi, olayı rebuild bittikten sonra gelir
+		Long lateEvent = createCargo(CargoSituation.DELIVERED, recent.minusMinutes(25), recent, 41.0, 29.0, 39.9, 32.8);
+		AtomicBoolean fired = new AtomicBoolean();
+		JdbcTemplate scanning = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+			@Override
+			public void query(String sql, RowCallbackHandler handler, Object... args) {
+				if (sql.contains("from cargo c") && fired.compareAndSet(false, true)) {
+					service.record(visible, driver.getId(), distributor.getId(), recent.minusMinutes(20), recent, 41.0,
+							29.0, 39.9, 32.8);
+					// deliveredTime cutoff'tan önce alındı ama commit tarama okuduktan sonra: tabloda yok
+					service.record(-2L, driver.getId(), distributor.getId(), recent.minusMinutes(15), recent, 41.0,
+							29.0, 39.9, 32.8);
+				}
+				super.query(sql, handler, args);
+			}
+		};
+		service.shutdown();
+		service = service(scanning);
+
+		assertEquals(13, service.rebuild());
+		assertTrue(fired.get());
+		service.record(lateEvent, driver.getId(), distributor.getId(), recent.minusMinutes(25), recent, 41.0, 29.0,
+				39.9, 32.8);
+		assertEquals(13L, service.overall().getDeliveries());
+	}
+
+	private static DeliveryStatsService service(JdbcTemplate jdbcTemplate) {
+		DeliveryStatsService service = new DeliveryStatsService(jdbcTemplate);
+		ReflectionTestUtils.setField(service, "relativeAccuracy", 0.01);
+		ReflectionTestUtils.setField(service, "cityCellDegrees", 0.25);
+		ReflectionTestUtils.setField(service, "rebuildThreads", 4);
+		ReflectionTestUtils.setField(service, "rebuildChunk", 500);
+		ReflectionTestUtils.setField(service, "commitLagMillis", 60_000L);
+		service.init();
+		return service;
+	}
+
+	private List<Long> createDelivered(List<Long> minutes, double fromLat, double fromLon, double toLat, double toLon) {
+		List<Long> ids = new ArrayList<>();
+		LocalDateTime delivered = LocalDateTime.now().minusDays(1);
+		for (long duration : minutes) {
+			ids.add(createCargo(CargoSituation.DELIVERED, delivered.minusMinutes(duration), delivered, fromLat, fromLon,
+					toLat, toLon));
+		}
+		return ids;
+	}
+
+	private Long createCargo(CargoSituation situation, LocalDateTime takingTime, LocalDateTime deliveredTime,
+			double fromLat, double fromLon, double toLat, double toLon) {
+		Cargo cargo = new Cargo();
+		cargo.setDescription("delivery");
+		cargo.setCargoSituation(situation);
+		cargo.setDistributor(distributor);
+		cargo.setDriver(driver);
+		cargo.setSelfLocation(new Location(null, fromLat, fromLon, LocalDateTime.now()));
+		cargo.setTargetLocation(new Location(null, toLat, toLon, LocalDateTime.now()));
+		cargo.setTakingTime(takingTime);
+		cargo.setDeliveredTime(deliveredTime);
+		Long id = cargoRepository.save(cargo).getId();
+		if (deliveredTime != null) {
+			jdbcTemplate.update("update cargo set taking_time = ?, delivered_time = ? where id = ?",
+					Timestamp.valueOf(takingTime), Timestamp.valueOf(deliveredTime), id);
+		}
+		return id;
+	}
+
+	private static UsernamePasswordAuthenticationToken admin() {
+		AuthenticatedUser admin = new AuthenticatedUser("admin", 1L, Roles.ADMIN, true, true, 0);
+		return new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities());
+	}
+}
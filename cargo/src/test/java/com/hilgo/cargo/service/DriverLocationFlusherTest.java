@@ -0,0 +1,99 @@
+package com.hilgo.cargo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hilgo.cargo.entity.Driver;
+import com.hilgo.cargo.entity.Location;
+import com.hilgo.cargo.entity.enums.Roles;
+import com.hilgo.cargo.repository.DriverRepository;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ DriverPositionStore.class, DriverLocationFlusher.class })
+class DriverLocationFlusherTest {
+
+	private static final int DRIVERS = 1_000;
+
+	@Autowired
+	private DriverPositionStore driverPositionStore;
+
+	@Autowired
+	private DriverLocationFlusher driverLocationFlusher;
+
+	@Autowired
+	private DriverRepository driverRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final List<Long> driverIds = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < DRIVERS; i++) {
+			Driver driver = new Driver();
+			driver.setUsername("gps-driver-" + i);
+			driver.setRoles(Roles.DRIVER);
+			driverIds.add(driverRepository.save(driver).getId());
+		}
+	}
+
+	@AfterEach
+	void cleanUp() {
+		driverLocationFlusher.flush();
+		jdbcTemplate.update("update driver set location_id = null");
+		driverRepository.deleteAll();
+		jdbcTemplate.update("delete from location");
+	}
+
+	@Test
+	void coalescedPositionsAreWrittenInBatches() {
+		long start = System.currentTimeMillis();
+		// Her sürücü flush aralığında 10 ping gönderir; veritabanına sadece sonuncusu gider
+		for (int ping = 0; ping < 10; ping++) {
+			for (Long driverId : driverIds) {
+				driverPositionStore.update(driverId, 40.0 + ping * 0.001, 29.0, start + ping);
+			}
+		}
+		// İlk flush: sürücülerin konum satırı yok, oluşturulup bağlanır
+		assertEquals(DRIVERS, driverLocationFlusher.flush());
+		assertEquals(DRIVERS, jdbcTemplate.queryForObject("select count(*) from driver where location_id is not null", Integer.class));
+
+		for (int ping = 10; ping < 20; ping++) {
+			for (Long driverId : driverIds) {
+				driverPositionStore.update(driverId, 40.0 + ping * 0.001, 29.5, start + ping);
+			}
+		}
+		assertEquals(DRIVERS, driverLocationFlusher.flush());
+
+		assertEquals(0, driverLocationFlusher.flush());
+		assertEquals(DRIVERS, jdbcTemplate.queryForObject("select count(*) from location", Integer.class));
+		Driver driver = driverRepository.findById(driverIds.get(0)).orElseThrow();
+		Location location = driver.getLocation();
+		assertNotNull(location);
+		assertEquals(40.019, location.getLatitude(), 1e-9);
+		assertEquals(29.5, location.getLongitude());
+		assertNotNull(location.getUpdatedAt());
+		assertTrue(location.getUpdatedAt().isBefore(LocalDateTime.now().plusSeconds(1)));
+	}
+}
@@ -0,0 +1,107 @@
+package com.hilgo.cargo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class DriverPositionStoreTest {
+
+	@Test
+	void keepsLatestPositionAndIgnoresOlderPings() {
+		DriverPositionStore store = store();
+		assertTrue(store.update(7, 41.0, 29.0, 1_000));
+		assertTrue(store.update(7, 41.1, 29.1, 2_000));
+		assertFalse(store.update(7, 40.0, 28.0, 1_500));
+
+		DriverPositionStore.Position position = store.get(7);
+		assertEquals(41.1, position.latitude());
+		assertEquals(2_000, position.recordedAtMillis());
+		assertNull(store.get(8));
+	}
+
+	@Test
+	void drainReturnsEachChangedDriverOnce() {
+		DriverPositionStore store = store();
+		for (long driverId = 1; driverId <= 5_000; driverId++) {
+			for (int ping = 0; ping < 3; ping++) {
+				store.update(driverId, 41.0 + ping, 29.0, ping);
+			}
+		}
+		assertEquals(5_000, store.size());
+		DriverPositionStore.Batch batch = store.drainDirty();
+		assertEquals(5_000, batch.size());
+		for (int i = 0; i < batch.size(); i++) {
+			assertEquals(43.0, batch.latitude(i));
+		}
+		assertEquals(0, store.drainDirty().size());
+
+		store.update(10, 42.0, 30.0, 10);
+		store.restore(batch);
+		assertEquals(5_000, store.dirtyCount());
+	}
+
+	@Test
+	void concurrentWritersKeepTheNewestPingPerDriver() throws Exception {
+		DriverPositionStore store = store();
+		int drivers = 2_000;
+		int threads = 8;
+		int pingsPerThread = 50_000;
+		long[][] newest = new long[threads][drivers + 1];
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				int thread = t;
+				futures.add(pool.submit(() -> {
+					ThreadLocalRandom random = ThreadLocalRandom.current();
+					for (int i = 1; i <= pingsPerThread; i++) {
+						int driverId = 1 + random.nextInt(drivers);
+						// Zamanlar thread'ler arasında benzersiz; enlem zamandan türetilir, yırtık yazım yakalanır
+						long recordedAt = (long) i * threads + thread;
+						store.update(driverId, latitudeOf(recordedAt), 29.0, recordedAt);
+						newest[thread][driverId] = Math.max(newest[thread][driverId], recordedAt);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		assertEquals(drivers, store.size());
+		for (int driverId = 1; driverId <= drivers; driverId++) {
+			long expected = 0;
+			for (long[] perThread : newest) {
+				expected = Math.max(expected, perThread[driverId]);
+			}
+			DriverPositionStore.Position position = store.get(driverId);
+			assertEquals(expected, position.recordedAtMillis());
+			assertEquals(latitudeOf(expected), position.latitude());
+		}
+		assertEquals(drivers, store.drainDirty().size());
+	}
+
+	private static double latitudeOf(long recordedAt) {
+		return 36 + (recordedAt % 600) / 100.0;
+	}
+
+	private static DriverPositionStore store() {
+		DriverPositionStore store = new DriverPositionStore();
+		ReflectionTestUtils.setField(store, "stripeCount", 64);
+		store.init();
+		return store;
+	}
+}
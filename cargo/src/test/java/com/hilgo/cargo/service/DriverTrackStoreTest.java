@@ -0,0 +1,202 @@
+package com.hilgo.cargo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hilgo.cargo.service.DriverTrackStore.TrackPoint;
+
+class DriverTrackStoreTest {
+
+	private static final long START = 1_700_000_000_000L;
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void readsTimeRangeAcrossSegments() throws Exception {
+		DriverTrackStore store = store(512, 8);
+		for (int i = 0; i < 1_000; i++) {
+			assertTrue(store.append(7, 41.0 + i * 1e-4, 29.0 - i * 1e-4, START + i * 1_000L));
+		}
+		store.flush();
+		try (Stream<Path> files = Files.list(dir.resolve("7"))) {
+			assertTrue(files.count() > 4, "expected several segments");
+		}
+
+		List<TrackPoint> all = store.read(7, START, START + 1_000_000L);
+		assertEquals(1_000, all.size());
+		assertEquals(41.0 + 999 * 1e-4, all.get(999).latitude(), 1e-6);
+
+		List<TrackPoint> middle = store.read(7, START + 250_500L, START + 300_000L);
+		assertEquals(50, middle.size());
+		assertEquals(START + 251_000L, middle.get(0).recordedAtMillis());
+		assertEquals(START + 300_000L, middle.get(49).recordedAtMillis());
+		assertEquals(29.0 - 251 * 1e-4, middle.get(0).longitude(), 1e-6);
+
+		assertTrue(store.read(7, START - 10_000, START - 1).isEmpty());
+		assertTrue(store.read(8, START, START + 1_000_000L).isEmpty());
+	}
+
+	@Test
+	void unflushedPointsAreReadable() throws Exception {
+		DriverTrackStore store = store(1 << 20, 128);
+		store.append(1, 40.0, 29.0, START);
+		store.append(1, 40.1, 29.1, START + 1_000);
+		assertFalse(store.append(1, 40.2, 29.2, START + 500), "older point must be ignored");
+
+		List<TrackPoint> points = store.read(1, START, START + 1_000);
+		assertEquals(2, points.size());
+		assertEquals(40.1, points.get(1).latitude(), 1e-6);
+	}
+
+	@Test
+	void recoversAfterRestartAndCutsPartialPoint() throws Exception {
+		DriverTrackStore store = store(1 << 20, 16);
+		for (int i = 0; i < 100; i++) {
+			store.append(3, 40.0 + i * 1e-5, 29.0, START + i * 1_000L);
+		}
+		store.shutdown();
+
+		// Çökme: yarım yazılmış bir nokta
+		Path segment;
+		try (Stream<Path> files = Files.list(dir.resolve("3"))) {
+			segment = files.filter(file -> file.toString().endsWith(".seg")).findFirst().orElseThrow();
+		}
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.APPEND)) {
+			channel.write(ByteBuffer.wrap(new byte[] { (byte) 0xE8, (byte) 0x87 }));
+		}
+
+		DriverTrackStore restarted = store(1 << 20, 16);
+		assertFalse(restarted.append(3, 41.0, 29.0, START + 99_000L), "last time must survive restart");
+		assertTrue(restarted.append(3, 41.0, 29.5, START + 100_000L));
+		List<TrackPoint> points = restarted.read(3, START, START + 100_000L);
+		assertEquals(101, points.size());
+		assertEquals(40.0 + 99 * 1e-5, points.get(99).latitude(), 1e-6);
+		assertEquals(29.5, points.get(100).longitude(), 1e-6);
+	}
+
+	@Test
+	void storesPointsCompactly() throws Exception {
+		DriverTrackStore store = store(1 << 20, 128);
+		int drivers = 20;
+		int pointsPerDriver = 20_000;
+		double[] latitude = new double[drivers];
+		double[] longitude = new double[drivers];
+		for (int d = 0; d < drivers; d++) {
+			latitude[d] = 39 + d * 0.1;
+			longitude[d] = 32;
+		}
+		for (int i = 0; i < pointsPerDriver; i++) {
+			for (int d = 0; d < drivers; d++) {
+				// ~2-5 sn'de bir, 90 km/s civarı hareket
+				latitude[d] += 0.0001 + (i % 7) * 1e-5;
+				longitude[d] += 0.00005 * ((i / 50) % 2 == 0 ? 1 : -1);
+				store.append(d + 1, latitude[d], longitude[d], START + i * 3_000L + (i % 3) * 700);
+			}
+		}
+		store.flush();
+
+		long bytes = 0;
+		for (int d = 1; d <= drivers; d++) {
+			bytes += store.diskBytes(d);
+		}
+		double bytesPerPoint = bytes / (double) (drivers * pointsPerDriver);
+
+		int read = 0;
+		for (int d = 1; d <= drivers; d++) {
+			read += store.read(d, START + 1_000_000L, START + 31_000_000L).size();
+		}
+		assertEquals(drivers * 10_000, read);
+		assertTrue(bytesPerPoint < 8, "delta+varint encoding should stay under 8 bytes: " + bytesPerPoint);
+	}
+
+	@Test
+	void failedIndexWriteDoesNotDuplicatePoints() throws Exception {
+		DriverTrackStore store = store(1 << 20, 4);
+		for (int i = 0; i < 10; i++) {
+			store.append(5, 40.0 + i * 1e-5, 29.0, START + i * 1_000L);
+		}
+		// Index dosyasının yerinde klasör: segment yazılır, index yazılamaz
+		Path index = dir.resolve("5").resolve(String.format("%020d", START) + ".idx");
+		Files.createDirectories(index);
+		store.flush();
+		for (int i = 10; i < 20; i++) {
+			store.append(5, 40.0 + i * 1e-5, 29.0, START + i * 1_000L);
+		}
+		store.flush();
+		Files.delete(index);
+		store.flush();
+
+		List<TrackPoint> points = store.read(5, START, START + 100_000L);
+		assertEquals(20, points.size());
+		assertEquals(START + 19_000L, points.get(19).recordedAtMillis());
+
+		DriverTrackStore restarted = store(1 << 20, 4);
+		List<TrackPoint> reloaded = restarted.read(5, START, START + 100_000L);
+		assertEquals(points, reloaded);
+		assertTrue(restarted.append(5, 41.0, 29.0, START + 20_000L));
+	}
+
+	@Test
+	void restartCutsPointsAfterAnUnindexedSyncPoint() throws Exception {
+		DriverTrackStore store = store(1 << 20, 16);
+		for (int i = 0; i < 100; i++) {
+			store.append(4, 40.0 + i * 1e-5, 29.0, START + i * 1_000L);
+		}
+		store.shutdown();
+
+		// Çökme: segment yazıldı, son iki index kaydı yazılamadı
+		Path index = dir.resolve("4").resolve(String.format("%020d", START) + ".idx");
+		try (FileChannel channel = FileChannel.open(index, StandardOpenOption.WRITE)) {
+			channel.truncate(5 * 16);
+		}
+
+		DriverTrackStore restarted = store(1 << 20, 16);
+		List<TrackPoint> points = restarted.read(4, START, Long.MAX_VALUE);
+		assertEquals(80, points.size());
+		assertEquals(START + 79_000L, points.get(79).recordedAtMillis());
+		assertTrue(restarted.append(4, 41.0, 29.0, START + 80_000L));
+		assertEquals(81, restarted.read(4, START, Long.MAX_VALUE).size());
+		assertEquals(81, store(1 << 20, 16).read(4, START, Long.MAX_VALUE).size());
+	}
+
+	@Test
+	void simplifiesStraightRunsButKeepsCorners() {
+		List<TrackPoint> points = new ArrayList<>();
+		for (int i = 0; i <= 100; i++) {
+			points.add(new TrackPoint(40.0 + i * 1e-4, 29.0, START + i));
+		}
+		for (int i = 1; i <= 100; i++) {
+			points.add(new TrackPoint(40.01, 29.0 + i * 1e-4, START + 100 + i));
+		}
+		List<TrackPoint> simplified = TrackSimplifier.simplify(points, 5);
+		assertEquals(3, simplified.size());
+		assertEquals(points.get(100), simplified.get(1));
+		assertEquals(points.size(), TrackSimplifier.simplify(points, 0).size());
+	}
+
+	private DriverTrackStore store(int segmentBytes, int syncInterval) throws Exception {
+		DriverTrackStore store = new DriverTrackStore();
+		ReflectionTestUtils.setField(store, "directory", dir.toString());
+		ReflectionTestUtils.setField(store, "segmentBytes", segmentBytes);
+		ReflectionTestUtils.setField(store, "syncInterval", syncInterval);
+		ReflectionTestUtils.setField(store, "retentionDays", 90);
+		ReflectionTestUtils.setField(store, "idleEvictionMillis", 600_000L);
+		store.init();
+		return store;
+	}
+}
@@ -0,0 +1,104 @@
+package com.hilgo.cargo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class GeoGridTest {
+
+	@Test
+	void matchesBruteForceOrderedByDistance() {
+		Random random = new Random(7);
+		GeoGrid grid = new GeoGrid(0.05);
+		double[][] points = new double[5_000][];
+		for (int i = 0; i < points.length; i++) {
+			points[i] = new double[] { 40.5 + random.nextDouble(), 28.5 + random.nextDouble() };
+			grid.put(i, points[i][0], points[i][1]);
+		}
+
+		for (int q = 0; q < 50; q++) {
+			double lat = 40.5 + random.nextDouble();
+			double lon = 28.5 + random.nextDouble();
+			List<double[]> expected = new ArrayList<>();
+			for (int i = 0; i < points.length; i++) {
+				double distance = GeoGrid.haversineKm(lat, lon, points[i][0], points[i][1]);
+				if (distance <= 8) {
+					expected.add(new double[] { i, distance });
+				}
+			}
+			expected.sort(Comparator.comparingDouble(e -> e[1]));
+
+			List<GeoGrid.Hit> hits = grid.nearby(lat, lon, 8, 20);
+			assertEquals(Math.min(20, expected.size()), hits.size());
+			for (int i = 0; i < hits.size(); i++) {
+				assertEquals(expected.get(i)[1], hits.get(i).distanceKm(), 1e-9);
+			}
+		}
+	}
+
+	@Test
+	void moveAndRemoveKeepIndexConsistent() {
+		GeoGrid grid = new GeoGrid(0.05);
+		grid.put(1, 41.0, 29.0);
+		grid.put(1, 39.9, 32.8);
+		assertEquals(1, grid.size());
+		assertTrue(grid.nearby(41.0, 29.0, 5, 10).isEmpty());
+		assertEquals(1, grid.nearby(39.9, 32.8, 5, 10).get(0).id());
+
+		grid.remove(1);
+		assertFalse(grid.contains(1));
+		assertTrue(grid.nearby(39.9, 32.8, 5, 10).isEmpty());
+	}
+
+	@Test
+	void findsPointsAcrossTheAntimeridian() {
+		GeoGrid grid = new GeoGrid(0.05);
+		grid.put(1, 0.0, 179.99);
+		grid.put(2, 0.0, -179.99);
+
+		List<GeoGrid.Hit> hits = grid.nearby(0.0, 179.999, 5, 10);
+		assertEquals(2, hits.size());
+	}
+
+	@Test
+	void rejectsNonFiniteAndOutOfRangeCoordinates() {
+		assertTrue(GeoGrid.isValidCoordinate(41.0, 29.0));
+		assertTrue(GeoGrid.isValidCoordinate(-90, 180));
+		assertFalse(GeoGrid.isValidCoordinate(Double.NaN, 29.0));
+		assertFalse(GeoGrid.isValidCoordinate(41.0, Double.NaN));
+		assertFalse(GeoGrid.isValidCoordinate(Double.POSITIVE_INFINITY, 29.0));
+		assertFalse(GeoGrid.isValidCoordinate(41.0, Double.NEGATIVE_INFINITY));
+		assertFalse(GeoGrid.isValidCoordinate(90.5, 29.0));
+		assertFalse(GeoGrid.isValidCoordinate(41.0, -181));
+	}
+
+	@Test
+	void corridorMatchesBruteForce() {
+		Random random = new Random(11);
+		GeoGrid grid = new GeoGrid(0.05);
+		double[][] points = new double[20_000][];
+		for (int i = 0; i < points.length; i++) {
+			points[i] = new double[] { 38 + random.nextDouble() * 4, 27 + random.nextDouble() * 8 };
+			grid.put(i, points[i][0], points[i][1]);
+		}
+		// İstanbul -> Ankara
+		double direct = GeoGrid.haversineKm(41.01, 28.98, 39.93, 32.86);
+		for (double detour : new double[] { 0, 5, 30, 120 }) {
+			long expected = 0;
+			for (double[] point : points) {
+				if (GeoGrid.haversineKm(41.01, 28.98, point[0], point[1])
+						+ GeoGrid.haversineKm(point[0], point[1], 39.93, 32.86) <= direct + detour) {
+					expected++;
+				}
+			}
+			assertEquals(expected, grid.withinCorridor(41.01, 28.98, 39.93, 32.86, direct + detour).size());
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package com.hilgo.cargo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hilgo.cargo.entity.Driver;
+import com.hilgo.cargo.entity.enums.Roles;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JwtServiceTest {
+
+	private static final String SECRET = "kfN1Dw/4e58EeF+9eJYb8TxP9TDPDeeHKhktwvGuUrA=";
+
+	private SimpleMeterRegistry meterRegistry;
+	private JwtService jwtService;
+	private Driver user;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		jwtService = new JwtService(meterRegistry);
+		ReflectionTestUtils.setField(jwtService, "SECRET_KEY", SECRET);
+		ReflectionTestUtils.setField(jwtService, "cacheMaximumSize", 100L);
+		ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+		user = new Driver();
+		user.setId(7L);
+		user.setUsername("jwt-user");
+		user.setRoles(Roles.DRIVER);
+	}
+
+	@Test
+	void repeatedAndConcurrentVerificationsParseOnce() throws Exception {
+		String token = jwtService.generateToken(user);
+		CountDownLatch go = new CountDownLatch(1);
+		List<CompletableFuture<VerifiedToken>> verifications = IntStream.range(0, 8)
+				.mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+					try {
+						go.await();
+					} catch (InterruptedException e) {
+						throw new IllegalStateException(e);
+					}
+					return jwtService.verify(token);
+				})).toList();
+		go.countDown();
+		VerifiedToken first = verifications.get(0).get();
+		for (CompletableFuture<VerifiedToken> verification : verifications) {
+			assertSame(first, verification.get());
+		}
+		assertSame(first, jwtService.verify(token));
+		assertEquals("jwt-user", jwtService.extractClaim(token, Claims::getSubject));
+		assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwtTokens").tag("result", "miss")
+				.functionCounter().count());
+	}
+
+	@Test
+	void rejectsExpiredAndTamperedTokens() {
+		String expired = Jwts.builder()
+				.setSubject("jwt-user")
+				.setExpiration(new Date(System.currentTimeMillis() - 1000))
+				.signWith(new SecretKeySpec(Base64.getDecoder().decode(SECRET), "HmacSHA256"), SignatureAlgorithm.HS256)
+				.compact();
+		assertThrows(ExpiredJwtException.class, () -> jwtService.verify(expired));
+
+		String token = jwtService.generateToken(user);
+		String[] parts = token.split("\\.");
+		String forged = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+				.encodeToString("{\"sub\":\"admin\",\"exp\":4102444800}".getBytes()) + "." + parts[2];
+		assertThrows(SignatureException.class, () -> jwtService.verify(forged));
+		// Reddedilen token cache'e girmez, her seferinde yeniden reddedilir
+		assertThrows(SignatureException.class, () -> jwtService.extractUsername(forged));
+	}
+}
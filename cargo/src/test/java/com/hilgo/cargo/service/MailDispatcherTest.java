@@ -0,0 +1,155 @@
+package com.hilgo.cargo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hilgo.cargo.entity.MailOutbox;
+import com.hilgo.cargo.entity.enums.MailStatus;
+import com.hilgo.cargo.entity.enums.MailTemplate;
+import com.hilgo.cargo.repository.MailOutboxRepository;
+
+/**
+ * Outbox'a yazma, dispatcher ile gönderme ve başarısız gönderimin tekrar denenmesi.
+ * SMTP sağlayıcısı yerel bir stub ile taklit edilir.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ MailOutboxService.class, MailDispatcher.class, MailTemplateEngine.class, MailDispatcherTest.StubMailConfig.class })
+class MailDispatcherTest {
+
+	private static final int MAILS = 100;
+
+	// Gmail'e göre iyimser değerler: bağlantı (STARTTLS + AUTH) ve mesaj başına gecikme
+	private static final long CONNECT_DELAY_MILLIS = 40;
+	private static final long MESSAGE_DELAY_MILLIS = 10;
+
+	private static SmtpStubServer smtp;
+
+	@Autowired
+	private MailOutboxService mailOutboxService;
+
+	@Autowired
+	private MailDispatcher mailDispatcher;
+
+	@Autowired
+	private MailOutboxRepository mailOutboxRepository;
+
+	@Autowired
+	private MailTemplateEngine mailTemplateEngine;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@TestConfiguration
+	static class StubMailConfig {
+
+		@Bean
+		JavaMailSender javaMailSender() throws Exception {
+			smtp = new SmtpStubServer(CONNECT_DELAY_MILLIS, MESSAGE_DELAY_MILLIS);
+			JavaMailSenderImpl sender = new JavaMailSenderImpl();
+			sender.setHost("localhost");
+			sender.setPort(smtp.getPort());
+			Properties properties = new Properties();
+			properties.put("mail.smtp.from", "noreply@localhost");
+			sender.setJavaMailProperties(properties);
+			return sender;
+		}
+	}
+
+	@BeforeEach
+	@AfterEach
+	void cleanOutbox() {
+		mailOutboxRepository.deleteAll();
+	}
+
+	@Test
+	void enqueueDefersSmtpUntilDispatch() {
+		// İstek sadece outbox'a yazar; SMTP'ye dispatcher turunda gidilir
+		int beforeCount = smtp.getMessageCount();
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		for (int i = 0; i < MAILS; i++) {
+			int n = i;
+			tx.executeWithoutResult(status -> mailOutboxService.enqueue("user" + n + "@example.com",
+					MailTemplate.VERIFICATION, Locale.forLanguageTag("tr"), Map.of("username", "user" + n, "code", "123456")));
+		}
+		assertEquals(beforeCount, smtp.getMessageCount());
+		assertEquals(MAILS, mailOutboxRepository.countByStatus(MailStatus.PENDING));
+
+		int processed;
+		while ((processed = mailDispatcher.dispatchDue()) > 0) {
+			assertTrue(processed <= MAILS);
+		}
+
+		assertEquals(beforeCount + MAILS, smtp.getMessageCount());
+		assertEquals(MAILS, mailOutboxRepository.countByStatus(MailStatus.SENT));
+		for (MailOutbox mail : mailOutboxRepository.findAll()) {
+			assertNotNull(mail.getSentAt());
+			assertNull(mail.getClaimToken());
+			assertEquals(0, mail.getAttempts());
+		}
+	}
+
+	@Test
+	void failedDeliveryIsRetriedWithBackoff() {
+		JavaMailSenderImpl unreachable = new JavaMailSenderImpl();
+		unreachable.setHost("localhost");
+		unreachable.setPort(1);
+
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		MailOutbox mail = tx.execute(status -> mailOutboxService.enqueue("user@example.com",
+				MailTemplate.VERIFICATION, Locale.ENGLISH, Map.of("username", "user", "code", "123456")));
+
+		MailDispatcher failing = new MailDispatcher(mailOutboxRepository, unreachable, mailTemplateEngine);
+		ReflectionTestUtils.setField(failing, "workers", 1);
+		ReflectionTestUtils.setField(failing, "batchSize", 10);
+		ReflectionTestUtils.setField(failing, "chunkSize", 10);
+		ReflectionTestUtils.setField(failing, "maxAttempts", 2);
+		ReflectionTestUtils.setField(failing, "initialBackoff", Duration.ZERO);
+		ReflectionTestUtils.setField(failing, "maxBackoff", Duration.ZERO);
+		ReflectionTestUtils.setField(failing, "claimTimeout", Duration.ofMinutes(1));
+		failing.init();
+		try {
+			failing.dispatchDue();
+			MailOutbox retried = mailOutboxRepository.findById(mail.getId()).orElseThrow();
+			assertEquals(MailStatus.PENDING, retried.getStatus());
+			assertEquals(1, retried.getAttempts());
+			assertNotNull(retried.getLastError());
+			assertNotNull(retried.getNextAttemptAt());
+			assertNull(retried.getClaimToken());
+
+			failing.dispatchDue();
+			MailOutbox dead = mailOutboxRepository.findById(mail.getId()).orElseThrow();
+			assertEquals(MailStatus.DEAD, dead.getStatus());
+			assertEquals(2, dead.getAttempts());
+		} finally {
+			failing.shutdown();
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package com.hilgo.cargo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hilgo.cargo.entity.enums.MailTemplate;
+
+class MailTemplateEngineTest {
+
+	private MailTemplateEngine engine;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		engine = new MailTemplateEngine();
+		ReflectionTestUtils.setField(engine, "defaultLanguage", "tr");
+		engine.init();
+	}
+
+	@Test
+	void rendersSubjectAndEscapesBodyVariables() {
+		RenderedMail mail = engine.render(MailTemplate.VERIFICATION, Locale.forLanguageTag("tr"),
+				Map.of("username", "<b>ali</b>", "code", "123456"));
+
+		assertTrue(mail.getSubject().contains("<b>ali</b>"));
+		assertTrue(mail.getHtmlBody().contains("&lt;b&gt;ali&lt;/b&gt;"));
+		assertTrue(mail.getHtmlBody().contains("123456"));
+		assertTrue(!mail.getHtmlBody().contains("{{"));
+	}
+
+	@Test
+	void unknownLocaleFallsBackToDefault() {
+		Map<String, String> variables = Map.of("username", "ali", "code", "1");
+		RenderedMail turkish = engine.render(MailTemplate.PASSWORD_CHANGE, Locale.forLanguageTag("tr"), variables);
+
+		assertEquals(turkish.getHtmlBody(),
+				engine.render(MailTemplate.PASSWORD_CHANGE, Locale.GERMAN, variables).getHtmlBody());
+		assertEquals(turkish.getHtmlBody(), engine.render(MailTemplate.PASSWORD_CHANGE, null, variables).getHtmlBody());
+	}
+
+	@Test
+	void missingVariableIsRejected() {
+		assertThrows(IllegalArgumentException.class,
+				() -> engine.render(MailTemplate.PASSWORD_RESET, Locale.ENGLISH, Map.of("username", "ali")));
+	}
+
+	@Test
+	void batchRenderMatchesSingleRender() {
+		List<Map<String, String>> variables = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			variables.add(Map.of("username", "user" + i, "code", String.valueOf(100000 + i)));
+		}
+
+		List<RenderedMail> batch = engine.renderBatch(MailTemplate.VERIFICATION, Locale.ENGLISH, variables);
+
+		assertEquals(variables.size(), batch.size());
+		RenderedMail single = engine.render(MailTemplate.VERIFICATION, Locale.ENGLISH, variables.get(42));
+		assertEquals(single.getSubject(), batch.get(42).getSubject());
+		assertEquals(single.getHtmlBody(), batch.get(42).getHtmlBody());
+	}
+}
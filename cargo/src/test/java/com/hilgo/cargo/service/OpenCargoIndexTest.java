@@ -0,0 +1,125 @@
+package com.hilgo.cargo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hilgo.cargo.entity.Cargo;
+import com.hilgo.cargo.entity.Location;
+import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.repository.CargoPoint;
+import com.hilgo.cargo.repository.CargoRespository;
+
+class OpenCargoIndexTest {
+
+	private static final double FROM_LAT = 41.01, FROM_LON = 28.98; // İstanbul
+	private static final double TO_LAT = 39.93, TO_LON = 32.86; // Ankara
+
+	private OpenCargoIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new OpenCargoIndex(null);
+		ReflectionTestUtils.setField(index, "cellDegrees", 0.05);
+		index.init();
+	}
+
+	@Test
+	void routeMatchesAreRankedByAddedDetour() {
+		// Rota üzerinde: İzmit -> Bolu
+		index.update(cargo(1L, 40.77, 29.92, 40.73, 31.61));
+		// Ters yönde; iki nokta da koridorda ama sapma büyük
+		index.update(cargo(2L, 40.73, 31.61, 40.77, 29.92));
+		// Teslim noktası koridor dışında (Antalya)
+		index.update(cargo(3L, 40.77, 29.92, 36.89, 30.71));
+		// Sakarya -> Düzce, küçük sapma
+		index.update(cargo(4L, 40.78, 30.40, 40.84, 31.16));
+
+		List<OpenCargoIndex.RouteMatch> matches = index.routeMatches(FROM_LAT, FROM_LON, TO_LAT, TO_LON, 30, 10);
+
+		assertEquals(List.of(4L, 1L), matches.stream().map(OpenCargoIndex.RouteMatch::cargoId).toList());
+		assertTrue(matches.get(0).detourKm() <= matches.get(1).detourKm());
+
+		List<OpenCargoIndex.RouteMatch> wide = index.routeMatches(FROM_LAT, FROM_LON, TO_LAT, TO_LON, 500, 10);
+		assertEquals(2L, wide.get(wide.size() - 1).cargoId());
+	}
+
+	@Test
+	void takenCargoLeavesTheIndex() {
+		Cargo cargo = cargo(1L, 40.77, 29.92, 40.73, 31.61);
+		index.update(cargo);
+		assertEquals(1, index.routeMatches(FROM_LAT, FROM_LON, TO_LAT, TO_LON, 30, 10).size());
+
+		cargo.setCargoSituation(CargoSituation.PICKED_UP);
+		index.update(cargo);
+		assertTrue(index.routeMatches(FROM_LAT, FROM_LON, TO_LAT, TO_LON, 30, 10).isEmpty());
+		assertTrue(index.nearby(40.77, 29.92, 5, 10).isEmpty());
+	}
+
+	@Test
+	void changesDuringRebuildWinOverTheSnapshot() {
+		CargoRespository repository = mock(CargoRespository.class);
+		OpenCargoIndex rebuilding = new OpenCargoIndex(repository);
+		ReflectionTestUtils.setField(rebuilding, "cellDegrees", 0.05);
+		ReflectionTestUtils.setField(rebuilding, "rebuildBatchSize", 10);
+		rebuilding.init();
+		rebuilding.update(cargo(1L, 40.77, 29.92, 40.73, 31.61));
+
+		when(repository.findLocationPoints(eq(CargoSituation.CREATED), any(), any())).thenAnswer(invocation -> {
+			// Batch okunduktan sonra commit olan değişiklikler: 1 alındı, 3 eklendi
+			rebuilding.remove(1L);
+			rebuilding.update(cargo(3L, 40.78, 30.40, 40.84, 31.16));
+			return List.of(new CargoPoint(1L, 40.77, 29.92, 40.73, 31.61), new CargoPoint(2L, 40.73, 31.61, 40.77, 29.92));
+		});
+
+		rebuilding.rebuild();
+
+		assertEquals(2, rebuilding.size());
+		List<Long> open = rebuilding.routeMatches(FROM_LAT, FROM_LON, TO_LAT, TO_LON, 500, 10).stream()
+				.map(OpenCargoIndex.RouteMatch::cargoId).sorted().toList();
+		assertEquals(List.of(2L, 3L), open);
+	}
+
+	@Test
+	void corridorQueryOverHundredsOfThousandsOfCargoes() {
+		Random random = new Random(3);
+		List<double[]> cargoes = new ArrayList<>();
+		for (long id = 0; id < 300_000; id++) {
+			double[] c = { 36 + random.nextDouble() * 6, 26 + random.nextDouble() * 19, 36 + random.nextDouble() * 6,
+					26 + random.nextDouble() * 19 };
+			cargoes.add(c);
+			index.update(cargo(id, c[0], c[1], c[2], c[3]));
+		}
+
+		List<OpenCargoIndex.RouteMatch> matches = index.routeMatches(FROM_LAT, FROM_LON, TO_LAT, TO_LON, 20, 50);
+
+		// Tüm kargoları tarayan referans ile aynı sonuç
+		double direct = GeoGrid.haversineKm(FROM_LAT, FROM_LON, TO_LAT, TO_LON);
+		long expected = cargoes.stream()
+				.filter(c -> GeoGrid.haversineKm(FROM_LAT, FROM_LON, c[0], c[1]) + GeoGrid.haversineKm(c[0], c[1], c[2], c[3])
+						+ GeoGrid.haversineKm(c[2], c[3], TO_LAT, TO_LON) - direct <= 20)
+				.count();
+		assertEquals(Math.min(expected, 50), matches.size());
+	}
+
+	private static Cargo cargo(Long id, double selfLat, double selfLon, double targetLat, double targetLon) {
+		Cargo cargo = new Cargo();
+		cargo.setId(id);
+		cargo.setCargoSituation(CargoSituation.CREATED);
+		cargo.setSelfLocation(new Location(null, selfLat, selfLon, LocalDateTime.now()));
+		cargo.setTargetLocation(new Location(null, targetLat, targetLon, LocalDateTime.now()));
+		return cargo;
+	}
+}
@@ -0,0 +1,139 @@
+package com.hilgo.cargo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Yerel SMTP stub'ına karşı bağlantı yeniden kullanımı, bağlantı sınırı ve kopan bağlantının
+ * yeniden kurulması. Throughput ölçümü jmh profilindeki PooledMailSenderBenchmark'tadır.
+ */
+class PooledMailSenderTest {
+
+	private static final int THREADS = 8;
+	private static final int CHUNKS_PER_THREAD = 10;
+	private static final int CHUNK_SIZE = 5;
+	private static final int TOTAL = THREADS * CHUNKS_PER_THREAD * CHUNK_SIZE;
+
+	@Test
+	void unpooledSenderOpensConnectionPerSend() throws Exception {
+		try (SmtpStubServer smtp = new SmtpStubServer(0, 0)) {
+			JavaMailSenderImpl sender = new JavaMailSenderImpl();
+			configure(sender, smtp);
+			sendConcurrently(sender);
+
+			assertEquals(TOTAL, smtp.getMessageCount());
+			assertEquals(THREADS * CHUNKS_PER_THREAD, smtp.getConnectionCount());
+		}
+	}
+
+	@Test
+	void reusesConnectionsWithinPoolLimit() throws Exception {
+		for (int connections : new int[] { 1, 2, 4 }) {
+			try (SmtpStubServer smtp = new SmtpStubServer(0, 0)) {
+				PooledMailSender sender = new PooledMailSender(connections, 60_000, 1_000, 30_000);
+				configure(sender, smtp);
+				try {
+					sendConcurrently(sender);
+
+					assertEquals(TOTAL, smtp.getMessageCount());
+					assertEquals(TOTAL, sender.getMessagesSent());
+					// Her send() için yeni bağlantı yerine en fazla havuz boyutu kadar bağlantı
+					assertTrue(sender.getConnectionsOpened() <= connections,
+							connections + " connections allowed, opened " + sender.getConnectionsOpened());
+					assertTrue(smtp.getConnectionCount() <= connections);
+				} finally {
+					sender.destroy();
+				}
+			}
+		}
+	}
+
+	@Test
+	void reconnectsAfterMaxMessagesPerConnection() throws Exception {
+		try (SmtpStubServer smtp = new SmtpStubServer(0, 0)) {
+			PooledMailSender sender = new PooledMailSender(1, 60_000, 3, 30_000);
+			configure(sender, smtp);
+			for (int i = 0; i < 10; i++) {
+				sender.send(message(sender, i));
+			}
+			assertEquals(10, smtp.getMessageCount());
+			assertEquals(4, sender.getConnectionsOpened());
+			sender.destroy();
+		}
+	}
+
+	@Test
+	void reconnectsAfterServerDropsConnection() throws Exception {
+		try (SmtpStubServer smtp = new SmtpStubServer(0, 0)) {
+			PooledMailSender sender = new PooledMailSender(1, 60_000, 1_000, 30_000);
+			configure(sender, smtp);
+			try {
+				sender.send(message(sender, 0));
+				sender.send(message(sender, 1));
+				assertEquals(1, sender.getConnectionsOpened());
+
+				smtp.dropConnections();
+				sender.send(message(sender, 2));
+
+				assertEquals(3, smtp.getMessageCount());
+				assertEquals(2, sender.getConnectionsOpened());
+			} finally {
+				sender.destroy();
+			}
+		}
+	}
+
+	private static void sendConcurrently(JavaMailSenderImpl sender) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				futures.add(pool.submit(() -> {
+					for (int c = 0; c < CHUNKS_PER_THREAD; c++) {
+						MimeMessage[] chunk = new MimeMessage[CHUNK_SIZE];
+						for (int i = 0; i < CHUNK_SIZE; i++) {
+							chunk[i] = message(sender, i);
+						}
+						sender.send(chunk);
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static void configure(JavaMailSenderImpl sender, SmtpStubServer smtp) {
+		sender.setHost("localhost");
+		sender.setPort(smtp.getPort());
+		Properties properties = new Properties();
+		properties.put("mail.smtp.from", "noreply@localhost");
+		sender.setJavaMailProperties(properties);
+	}
+
+	private static MimeMessage message(JavaMailSenderImpl sender, int n) throws Exception {
+		MimeMessage message = sender.createMimeMessage();
+		MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+		helper.setTo("user" + n + "@example.com");
+		helper.setSubject("Doğrulama");
+		helper.setText("<p>kod " + n + "</p>", true);
+		return message;
+	}
+}
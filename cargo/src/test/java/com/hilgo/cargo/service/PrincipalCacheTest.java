@@ -0,0 +1,79 @@
+package com.hilgo.cargo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.hilgo.cargo.entity.enums.Roles;
+import com.hilgo.cargo.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PrincipalCacheTest {
+
+	private UserRepository userRepository;
+	private PrincipalCache cache;
+
+	@BeforeEach
+	void setUp() {
+		userRepository = mock(UserRepository.class);
+		cache = new PrincipalCache(userRepository, new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(cache, "ttl", Duration.ofSeconds(30));
+		ReflectionTestUtils.setField(cache, "maximumSize", 100L);
+		cache.init();
+	}
+
+	@AfterEach
+	void clearSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void loadsOncePerUsernameUntilInvalidated() {
+		when(userRepository.findPrincipalByUsername("ali")).thenReturn(Optional.of(principal(0)));
+		cache.get("ali");
+		cache.get("ali");
+		verify(userRepository, times(1)).findPrincipalByUsername("ali");
+
+		cache.invalidate("ali");
+		cache.get("ali");
+		verify(userRepository, times(2)).findPrincipalByUsername("ali");
+
+		assertThrows(UsernameNotFoundException.class, () -> cache.get("unknown"));
+	}
+
+	@Test
+	void invalidatesAgainAfterCommit() {
+		when(userRepository.findPrincipalByUsername("ali")).thenReturn(Optional.of(principal(0)),
+				Optional.of(principal(1)));
+		TransactionSynchronizationManager.initSynchronization();
+		cache.invalidate("ali");
+		// Commit'ten önce gelen istek eski satırı okuyup cache'e koyar
+		assertEquals(0, cache.get("ali").getTokenVersion());
+
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+		}
+		assertEquals(1, cache.get("ali").getTokenVersion());
+	}
+
+	private static AuthenticatedUser principal(int tokenVersion) {
+		return new AuthenticatedUser("ali", 3L, Roles.DRIVER, true, true, tokenVersion);
+	}
+}
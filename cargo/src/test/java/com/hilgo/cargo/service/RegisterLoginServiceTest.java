@@ -0,0 +1,140 @@
+package com.hilgo.cargo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.security.Key;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hilgo.cargo.entity.Driver;
+import com.hilgo.cargo.entity.User;
+import com.hilgo.cargo.entity.enums.Roles;
+import com.hilgo.cargo.repository.UserRepository;
+import com.hilgo.cargo.request.SetPasswordRequest;
+import com.hilgo.cargo.request.VerifyUserRequest;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RegisterLoginServiceTest {
+
+	private UserRepository userRepository;
+	private JwtService jwtService;
+	private PasswordEncoder passwordEncoder;
+	private RegisterLoginService service;
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		jwtService = new JwtService(new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(jwtService, "SECRET_KEY", "kfN1Dw/4e58EeF+9eJYb8TxP9TDPDeeHKhktwvGuUrA=");
+		ReflectionTestUtils.setField(jwtService, "cacheMaximumSize", 100L);
+		ReflectionTestUtils.setField(jwtService, "resetExpirationMs", 900_000L);
+		ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+		userRepository = mock(UserRepository.class);
+		passwordEncoder = new BCryptPasswordEncoder(4);
+		service = new RegisterLoginService(userRepository, passwordEncoder, null, null, jwtService, null, null,
+				mock(PrincipalCache.class), null);
+
+		user = driver(7L, "reset-user", "reset@example.com");
+		when(userRepository.findByMail("reset@example.com")).thenReturn(Optional.of(user));
+	}
+
+	@Test
+	void resetTokenChangesPasswordOnce() {
+		String token = jwtService.generatePasswordResetToken(user);
+
+		assertTrue(service.setPassword(request(token, "new-secret")));
+		assertTrue(passwordEncoder.matches("new-secret", user.getPassword()));
+		assertEquals(1, user.getTokenVersion());
+
+		// Versiyon arttı, aynı link ikinci kez kullanılamaz
+		assertFalse(service.setPassword(request(token, "other-secret")));
+		assertTrue(passwordEncoder.matches("new-secret", user.getPassword()));
+	}
+
+	@Test
+	void rejectsMissingLoginAndForeignTokens() {
+		assertFalse(service.setPassword(request(null, "new-secret")));
+		assertFalse(service.setPassword(request("not-a-jwt", "new-secret")));
+		assertFalse(service.setPassword(request(jwtService.generateToken(user), "new-secret")));
+
+		User other = driver(8L, "other-user", "other@example.com");
+		assertFalse(service.setPassword(request(jwtService.generatePasswordResetToken(other), "new-secret")));
+		assertEquals(0, user.getTokenVersion());
+	}
+
+	@Test
+	void resetTokenIsNotALoginToken() {
+		assertFalse(jwtService.isTokenValid(jwtService.generatePasswordResetToken(user), user));
+		assertTrue(jwtService.isTokenValid(jwtService.generateToken(user), user));
+	}
+
+	@Test
+	void changePasswordCodeIssuesSingleUseResetToken() {
+		user.setVerificationCode("123456");
+		user.setVerificationCodeExpiresAt(LocalDateTime.now().plusMinutes(15));
+
+		assertThrows(RuntimeException.class,
+				() -> service.verifyPasswordCode(new VerifyUserRequest("reset@example.com", "654321")));
+		String token = service.verifyPasswordCode(new VerifyUserRequest("reset@example.com", "123456"));
+
+		assertTrue(service.setPassword(request(token, "new-secret")));
+		assertTrue(passwordEncoder.matches("new-secret", user.getPassword()));
+		// Kod token'a çevrilirken silindi, tekrar kullanılamaz
+		assertThrows(RuntimeException.class,
+				() -> service.verifyPasswordCode(new VerifyUserRequest("reset@example.com", "123456")));
+	}
+
+	@Test
+	void expiredChangePasswordCodeIsRejected() {
+		user.setVerificationCode("123456");
+		user.setVerificationCodeExpiresAt(LocalDateTime.now().minusMinutes(1));
+
+		assertThrows(RuntimeException.class,
+				() -> service.verifyPasswordCode(new VerifyUserRequest("reset@example.com", "123456")));
+	}
+
+	@Test
+	void legacyTokenWithoutVersionIsRevokedByVersionBump() {
+		Key key = (Key) ReflectionTestUtils.getField(jwtService, "signingKey");
+		String legacy = Jwts.builder()
+				.claim(JwtService.CLAIM_USER_ID, user.getId())
+				.setSubject(user.getUsername())
+				.setExpiration(new Date(System.currentTimeMillis() + 60_000))
+				.signWith(key, SignatureAlgorithm.HS256)
+				.compact();
+		assertTrue(jwtService.isTokenValid(legacy, user));
+
+		user.increaseTokenVersion();
+		assertFalse(jwtService.isTokenValid(legacy, user));
+	}
+
+	private static SetPasswordRequest request(String token, String password) {
+		return new SetPasswordRequest("reset@example.com", password, password, token);
+	}
+
+	private static User driver(Long id, String username, String mail) {
+		Driver driver = new Driver();
+		driver.setId(id);
+		driver.setUsername(username);
+		driver.setMail(mail);
+		driver.setRoles(Roles.DRIVER);
+		driver.setPassword("old");
+		return driver;
+	}
+}
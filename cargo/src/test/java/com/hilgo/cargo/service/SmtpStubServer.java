@@ -0,0 +1,126 @@
+package com.hilgo.cargo.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Testler için minimal SMTP sunucusu. Bağlantı kurulumunda (TLS + AUTH benzeri) ve her
+ * mesajın DATA aşamasında yapay gecikme ekleyerek gerçek bir sağlayıcıyı taklit eder.
+ * Yük testi (src/loadtest) de uygulamayı bununla başlatır.
+ */
+public class SmtpStubServer implements AutoCloseable {
+
+	private final ServerSocket serverSocket;
+	private final long connectDelayMillis;
+	private final long messageDelayMillis;
+	private final AtomicInteger messages = new AtomicInteger();
+	private final AtomicInteger connections = new AtomicInteger();
+	private final Set<Socket> sessions = ConcurrentHashMap.newKeySet();
+
+	public SmtpStubServer(long connectDelayMillis, long messageDelayMillis) throws IOException {
+		this.serverSocket = new ServerSocket(0);
+		this.connectDelayMillis = connectDelayMillis;
+		this.messageDelayMillis = messageDelayMillis;
+		Thread acceptor = new Thread(this::acceptLoop, "smtp-stub-acceptor");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	public int getMessageCount() {
+		return messages.get();
+	}
+
+	int getConnectionCount() {
+		return connections.get();
+	}
+
+	// Sunucu tarafında açık bağlantıları koparır (idle timeout, ağ hatası benzetimi)
+	void dropConnections() throws IOException {
+		for (Socket socket : sessions) {
+			socket.close();
+		}
+	}
+
+	private void acceptLoop() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				connections.incrementAndGet();
+				sessions.add(socket);
+				Thread handler = new Thread(() -> handle(socket), "smtp-stub-session");
+				handler.setDaemon(true);
+				handler.start();
+			} catch (IOException e) {
+				return;
+			}
+		}
+	}
+
+	private void handle(Socket socket) {
+		try (socket;
+				BufferedReader in = new BufferedReader(
+						new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+				OutputStream out = socket.getOutputStream()) {
+			sleep(connectDelayMillis);
+			reply(out, "220 localhost SMTP stub");
+			String line;
+			while ((line = in.readLine()) != null) {
+				String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+				switch (command) {
+				case "EHLO" -> reply(out, "250-localhost\r\n250 8BITMIME");
+				case "DATA" -> {
+					reply(out, "354 End data with <CR><LF>.<CR><LF>");
+					while ((line = in.readLine()) != null && !line.equals(".")) {
+						// mesaj gövdesi okunup atılır
+					}
+					sleep(messageDelayMillis);
+					messages.incrementAndGet();
+					reply(out, "250 OK queued");
+				}
+				case "QUIT" -> {
+					reply(out, "221 Bye");
+					return;
+				}
+				default -> reply(out, "250 OK");
+				}
+			}
+		} catch (IOException e) {
+			// istemci bağlantıyı kapattı
+		} finally {
+			sessions.remove(socket);
+		}
+	}
+
+	private static void reply(OutputStream out, String text) throws IOException {
+		out.write((text + "\r\n").getBytes(StandardCharsets.US_ASCII));
+		out.flush();
+	}
+
+	private static void sleep(long millis) {
+		if (millis <= 0) {
+			return;
+		}
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+	}
+}
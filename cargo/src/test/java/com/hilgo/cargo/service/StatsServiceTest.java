@@ -0,0 +1,235 @@
+package com.hilgo.cargo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hilgo.cargo.entity.Cargo;
+import com.hilgo.cargo.entity.Distributor;
+import com.hilgo.cargo.entity.Driver;
+import com.hilgo.cargo.entity.enums.CarType;
+import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.entity.enums.Roles;
+import com.hilgo.cargo.event.CargoSituationChangedEvent;
+import com.hilgo.cargo.event.UserRegisteredEvent;
+import com.hilgo.cargo.repository.CargoRepository;
+import com.hilgo.cargo.repository.DistributorRepository;
+import com.hilgo.cargo.repository.DriverRepository;
+import com.hilgo.cargo.response.DistributorStatsResponse;
+import com.hilgo.cargo.response.StatsResponse;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(StatsService.class)
+class StatsServiceTest {
+
+	@Autowired
+	private StatsService statsService;
+
+	@Autowired
+	private CargoRepository cargoRepository;
+
+	@Autowired
+	private DistributorRepository distributorRepository;
+
+	@Autowired
+	private DriverRepository driverRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Distributor distributor;
+	private Driver driver;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("delete from stats_rollup");
+		distributor = new Distributor();
+		distributor.setUsername("stats-dist");
+		distributor.setRoles(Roles.DISTRIBUTOR);
+		distributorRepository.save(distributor);
+		driver = new Driver();
+		driver.setUsername("stats-driver");
+		driver.setRoles(Roles.DRIVER);
+		driver.setCarType(CarType.PANELVAN);
+		driverRepository.save(driver);
+		statsService.onUserRegistered(new UserRegisteredEvent(distributor.getId(), Roles.DISTRIBUTOR, LocalDateTime.now()));
+		statsService.onUserRegistered(new UserRegisteredEvent(driver.getId(), Roles.DRIVER, LocalDateTime.now()));
+		statsService.carTypeChanged(null, CarType.PANELVAN);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		SecurityContextHolder.clearContext();
+		cargoRepository.deleteAll();
+		driverRepository.deleteAll();
+		distributorRepository.deleteAll();
+		// Servis testler arasında paylaşılır; yazılmamış farklar sonraki teste taşmasın
+		statsService.flush();
+		jdbcTemplate.update("delete from stats_rollup");
+	}
+
+	@Test
+	void incrementalCountersMatchRebuild() {
+		List<Cargo> cargoes = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			cargoes.add(createCargo());
+		}
+		statsService.flush();
+		for (int i = 0; i < 6; i++) {
+			transition(cargoes.get(i), CargoSituation.CREATED, CargoSituation.PICKED_UP);
+		}
+		for (int i = 0; i < 4; i++) {
+			transition(cargoes.get(i), CargoSituation.PICKED_UP, CargoSituation.DELIVERED);
+		}
+		transition(cargoes.get(8), CargoSituation.CREATED, CargoSituation.EXPIRED);
+		// Silme: satır gider, CANCELLED sayılmaz
+		cargoRepository.deleteById(cargoes.get(9).getId());
+		statsService.onCargoSituationChanged(new CargoSituationChangedEvent(cargoes.get(9).getId(),
+				distributor.getId(), null, CargoSituation.CREATED, CargoSituation.CANCELLED, LocalDateTime.now()));
+		statsService.flush();
+
+		Map<String, Long> incremental = rollup();
+		assertEquals(4L, incremental.get("cargo.situation|DELIVERED"));
+		assertEquals(2L, incremental.get("cargo.situation|PICKED_UP"));
+		assertEquals(2L, incremental.get("cargo.situation|CREATED"));
+		assertEquals(4L, incremental.get("cargo.delivered.day|" + LocalDate.now()));
+		assertEquals(1L, incremental.get("driver.car_type|PANELVAN"));
+
+		statsService.rebuild();
+		// Silinen kargonun oluşturulması tablolarda iz bırakmaz; geri kalan her sayaç aynıdır
+		incremental.merge("cargo.created.day|" + LocalDate.now(), -1L, Long::sum);
+		assertEquals(incremental, rollup());
+
+		SecurityContextHolder.getContext().setAuthentication(admin());
+		statsService.onCargoSituationChanged(new CargoSituationChangedEvent(cargoes.get(7).getId(),
+				distributor.getId(), null, CargoSituation.CREATED, CargoSituation.EXPIRED, LocalDateTime.now()));
+		// Okuma yazılmamış farkları da içerir
+		StatsResponse overview = statsService.overview(7);
+		assertEquals(Map.of("CREATED", 1L, "DELIVERED", 4L, "EXPIRED", 2L, "PICKED_UP", 2L), overview.getCargoesBySituation());
+		assertEquals(Map.of(LocalDate.now().toString(), 9L), overview.getCargoesCreatedPerDay());
+		assertEquals(1L, overview.getUsersByRole().get("DRIVER"));
+		DistributorStatsResponse perDistributor = statsService.distributor(distributor.getId());
+		assertEquals(9L, perDistributor.getTotalCargoes());
+		assertEquals(2L, perDistributor.getCargoesBySituation().get("EXPIRED"));
+	}
+
+	@Test
+	void readsRequireAdmin() {
+		SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+				new AuthenticatedUser("d", 1L, Roles.DISTRIBUTOR, true, true, 0), null));
+		assertThrows(RuntimeException.class, () -> statsService.overview(30));
+	}
+
+	@Test
+	void concurrentUpdatesAreNotLostAcrossFlushes() throws Exception {
+		int threads = 8;
+		int perThread = 200_000;
+		ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+		AtomicBoolean running = new AtomicBoolean(true);
+		try {
+			CountDownLatch go = new CountDownLatch(1);
+			List<Future<?>> writers = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				int thread = t;
+				writers.add(pool.submit(() -> {
+					go.await();
+					for (int i = 0; i < perThread; i++) {
+						statsService.add("test.counter", "d" + (i & 7), 1);
+						statsService.add("test.thread", "t" + thread, 1);
+					}
+					return null;
+				}));
+			}
+			Future<Integer> flusher = pool.submit(() -> {
+				int flushes = 0;
+				while (running.get()) {
+					statsService.flush();
+					flushes++;
+				}
+				return flushes;
+			});
+			go.countDown();
+			for (Future<?> writer : writers) {
+				writer.get();
+			}
+			running.set(false);
+			flusher.get();
+			statsService.flush();
+		} finally {
+			pool.shutdownNow();
+		}
+		assertEquals((long) threads * perThread, jdbcTemplate.queryForObject(
+				"select sum(total) from stats_rollup where metric = 'test.counter'", Long.class));
+		for (int t = 0; t < threads; t++) {
+			assertEquals((long) perThread, rollup().get("test.thread|t" + t));
+		}
+		// Yazılan hücreler bellekte kalmaz
+		assertEquals(0, statsService.pendingSize());
+	}
+
+	private Cargo createCargo() {
+		Cargo cargo = new Cargo();
+		cargo.setDescription("stats");
+		cargo.setCargoSituation(CargoSituation.CREATED);
+		cargo.setDistributor(distributor);
+		cargoRepository.save(cargo);
+		statsService.onCargoSituationChanged(new CargoSituationChangedEvent(cargo.getId(), distributor.getId(), null,
+				null, CargoSituation.CREATED, LocalDateTime.now()));
+		return cargo;
+	}
+
+	private void transition(Cargo cargo, CargoSituation from, CargoSituation to) {
+		cargo.setCargoSituation(to);
+		if (to == CargoSituation.PICKED_UP) {
+			cargo.setDriver(driver);
+			cargo.setTakingTime(LocalDateTime.now());
+		}
+		if (to == CargoSituation.DELIVERED) {
+			cargo.setDeliveredTime(LocalDateTime.now());
+		}
+		cargoRepository.save(cargo);
+		statsService.onCargoSituationChanged(new CargoSituationChangedEvent(cargo.getId(), distributor.getId(),
+				cargo.getDriver() == null ? null : driver.getId(), from, to, LocalDateTime.now()));
+	}
+
+	private Map<String, Long> rollup() {
+		Map<String, Long> rows = new TreeMap<>();
+		jdbcTemplate.query("select metric, dimension, total from stats_rollup where total <> 0", rs -> {
+			rows.put(rs.getString(1) + "|" + rs.getString(2), rs.getLong(3));
+		});
+		return rows;
+	}
+
+	private static UsernamePasswordAuthenticationToken admin() {
+		AuthenticatedUser admin = new AuthenticatedUser("admin", 1L, Roles.ADMIN, true, true, 0);
+		return new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities());
+	}
+}
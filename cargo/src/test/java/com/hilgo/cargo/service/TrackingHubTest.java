@@ -0,0 +1,221 @@
+package com.hilgo.cargo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.hilgo.cargo.entity.enums.CargoSituation;
+import com.hilgo.cargo.response.TrackingEvent;
+
+class TrackingHubTest {
+
+	private DriverPositionStore positions;
+	private TrackingHub hub;
+
+	@BeforeEach
+	void setUp() {
+		positions = new DriverPositionStore();
+		ReflectionTestUtils.setField(positions, "stripeCount", 16);
+		positions.init();
+		hub = new TrackingHub(null, positions);
+		ReflectionTestUtils.setField(hub, "bufferSize", 32);
+		ReflectionTestUtils.setField(hub, "senderThreads", 4);
+		ReflectionTestUtils.setField(hub, "emitterTimeout", 0L);
+		hub.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		hub.shutdown();
+	}
+
+	@Test
+	void newSubscriberGetsSnapshotThenLivePositions() throws Exception {
+		positions.update(7, 41.0, 29.0, 1_000);
+		hub.cargoPickedUp(100L, 7L, 3L);
+
+		RecordingEmitter emitter = new RecordingEmitter();
+		hub.register(3L, emitter);
+		awaitUntil(() -> emitter.events.size() == 2);
+		assertEquals(TrackingEvent.STATUS, emitter.events.get(0).getType());
+		assertEquals(TrackingEvent.POSITION, emitter.events.get(1).getType());
+
+		positions.update(7, 41.1, 29.1, 2_000);
+		hub.driverMoved(positions.get(7));
+		awaitUntil(() -> emitter.events.size() == 3);
+		assertEquals(41.1, emitter.events.get(2).getLatitude());
+
+		hub.cargoFinished(100L, CargoSituation.DELIVERED);
+		hub.driverMoved(positions.get(7));
+		awaitUntil(() -> emitter.events.size() == 4);
+		Thread.sleep(50);
+		assertEquals(4, emitter.events.size(), "no positions after delivery");
+	}
+
+	@Test
+	void slowSubscriberDropsOldestEvents() throws Exception {
+		hub.cargoPickedUp(1L, 1L, 1L);
+		CountDownLatch release = new CountDownLatch(1);
+		RecordingEmitter slow = new RecordingEmitter(release);
+		hub.register(1L, slow);
+
+		for (int i = 1; i <= 1_000; i++) {
+			positions.update(1, 40.0, 29.0, i);
+			hub.driverMoved(positions.get(1));
+		}
+		release.countDown();
+		awaitUntil(() -> hub.droppedEvents() + slow.events.size() >= 1_000);
+		Thread.sleep(50);
+
+		// Bloklanan ilk olay + buffer kapasitesi kadar olay iletilir; en yenisi kaybolmaz
+		assertTrue(slow.events.size() <= 32 + 1, "buffer must stay bounded: " + slow.events.size());
+		assertEquals(1_000L, slow.events.get(slow.events.size() - 1).getTimestamp());
+		assertTrue(hub.droppedEvents() > 0);
+	}
+
+	@Test
+	void stalledEmitterIsEvictedAndOthersStillReceive() throws Exception {
+		// Tek gönderici thread: takılan send() diğer aboneyi de bekletirdi
+		TrackingHub single = new TrackingHub(null, positions);
+		ReflectionTestUtils.setField(single, "bufferSize", 32);
+		ReflectionTestUtils.setField(single, "senderThreads", 1);
+		ReflectionTestUtils.setField(single, "emitterTimeout", 0L);
+		ReflectionTestUtils.setField(single, "sendTimeout", 50L);
+		single.init();
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			RecordingEmitter stalled = new RecordingEmitter(release);
+			RecordingEmitter healthy = new RecordingEmitter();
+			single.register(1L, stalled);
+			single.register(2L, healthy);
+
+			single.cargoPickedUp(10L, 7L, 1L);
+			single.cargoPickedUp(20L, 8L, 2L);
+			awaitUntil(() -> {
+				single.evictStalledSenders();
+				return healthy.events.size() == 1;
+			});
+
+			assertEquals(20L, healthy.events.get(0).getCargoId());
+			assertEquals(1, single.subscriberCount());
+			assertTrue(stalled.events.isEmpty());
+		} finally {
+			release.countDown();
+			single.shutdown();
+		}
+	}
+
+	@Test
+	void heartbeatRemovesClosedConnections() throws Exception {
+		RecordingEmitter alive = new RecordingEmitter();
+		RecordingEmitter gone = new RecordingEmitter();
+		gone.failing = true;
+		hub.register(5L, alive);
+		hub.register(5L, gone);
+		assertEquals(2, hub.subscriberCount());
+
+		hub.heartbeat();
+		awaitUntil(() -> hub.subscriberCount() == 1);
+		awaitUntil(() -> alive.heartbeats.get() == 1);
+	}
+
+	@Test
+	void fanOutToTwentyThousandSubscribers() throws Exception {
+		int distributors = 2_000;
+		int subscribersPerDistributor = 10;
+		int cargoes = 5_000;
+		ReflectionTestUtils.setField(hub, "bufferSize", 256);
+
+		for (long distributor = 1; distributor <= distributors; distributor++) {
+			for (int i = 0; i < subscribersPerDistributor; i++) {
+				RecordingEmitter emitter = new RecordingEmitter();
+				emitter.keepEvents = false;
+				hub.register(distributor, emitter);
+			}
+		}
+		for (long cargo = 1; cargo <= cargoes; cargo++) {
+			hub.cargoPickedUp(cargo, cargo, 1 + cargo % distributors);
+		}
+		awaitUntil(() -> hub.sentEvents() + hub.droppedEvents() >= (long) cargoes * subscribersPerDistributor);
+		long baseline = hub.sentEvents() + hub.droppedEvents();
+
+		int moves = 50_000;
+		for (int i = 0; i < moves; i++) {
+			long driver = 1 + i % cargoes;
+			positions.update(driver, 40 + i * 1e-6, 29, i);
+			hub.driverMoved(positions.get(driver));
+		}
+		long expected = baseline + (long) moves * subscribersPerDistributor;
+		awaitUntil(() -> hub.sentEvents() + hub.droppedEvents() >= expected);
+
+		long senderThreads = Thread.getAllStackTraces().keySet().stream()
+				.filter(thread -> thread.getName().startsWith("tracking-sender-")).count();
+		assertEquals(distributors * subscribersPerDistributor, hub.subscriberCount());
+		assertTrue(senderThreads <= 4, "connections must not get their own threads");
+	}
+
+	private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (!condition.getAsBoolean()) {
+			if (System.nanoTime() > deadline) {
+				throw new AssertionError("condition not met in time");
+			}
+			Thread.sleep(5);
+		}
+	}
+
+	/**
+	 * Servlet bağlantısı yerine gönderilen olayları kaydeden emitter.
+	 */
+	private static final class RecordingEmitter extends SseEmitter {
+
+		private final List<TrackingEvent> events = new CopyOnWriteArrayList<>();
+		private final AtomicLong heartbeats = new AtomicLong();
+		private final CountDownLatch release;
+		private volatile boolean failing;
+		private volatile boolean keepEvents = true;
+
+		private RecordingEmitter() {
+			this(null);
+		}
+
+		private RecordingEmitter(CountDownLatch release) {
+			super(0L);
+			this.release = release;
+		}
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			if (failing) {
+				throw new IOException("Broken pipe");
+			}
+			if (release != null) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			TrackingEvent event = builder.build().stream().map(part -> part.getData())
+					.filter(TrackingEvent.class::isInstance).map(TrackingEvent.class::cast).findFirst().orElse(null);
+			if (event == null) {
+				heartbeats.incrementAndGet();
+			} else if (keepEvents) {
+				events.add(event);
+			}
+		}
+	}
+}
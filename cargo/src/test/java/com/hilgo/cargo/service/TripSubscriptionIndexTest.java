@@ -0,0 +1,153 @@
+package com.hilgo.cargo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.hilgo.cargo.entity.Driver;
+import com.hilgo.cargo.entity.TripSubscription;
+import com.hilgo.cargo.entity.enums.CarType;
+import com.hilgo.cargo.entity.enums.Size;
+
+class TripSubscriptionIndexTest {
+
+	// Büyük şehirler; rotalar ve kargolar bunların çevresinde üretilir
+	private static final double[][] CITIES = { { 41.01, 28.98 }, { 39.93, 32.86 }, { 38.42, 27.14 }, { 40.19, 29.06 },
+			{ 36.90, 30.70 }, { 37.00, 35.32 }, { 37.87, 32.48 }, { 41.29, 36.33 }, { 39.77, 30.52 }, { 40.77, 29.92 },
+			{ 37.06, 37.38 }, { 38.73, 35.48 }, { 41.00, 39.72 }, { 39.90, 41.27 }, { 40.98, 27.51 } };
+
+	@Test
+	void matchesEqualBruteForceScan() {
+		Random random = new Random(5);
+		List<TripSubscription> subscriptions = subscriptions(random, 5_000);
+		TripSubscriptionIndex index = index(subscriptions);
+
+		for (int i = 0; i < 500; i++) {
+			double[] pickup = nearCity(random);
+			double[] drop = nearCity(random);
+			Size size = Size.values()[random.nextInt(Size.values().length)];
+
+			List<TripSubscriptionIndex.Match> matches = index.match(pickup[0], pickup[1], drop[0], drop[1], size,
+					LocalDateTime.now());
+			long expected = subscriptions.stream().filter(s -> fits(s, pickup, drop, size)).count();
+			assertEquals(expected, matches.size());
+		}
+	}
+
+	@Test
+	void cancelledSubscriptionNoLongerMatches() {
+		TripSubscription subscription = subscription(1L, CITIES[0], CITIES[1], 30, CarType.TRUCK);
+		TripSubscriptionIndex index = index(List.of(subscription));
+		// İzmit -> Bolu, İstanbul-Ankara rotası üzerinde
+		assertEquals(1, index.match(40.77, 29.92, 40.73, 31.61, Size.XL, LocalDateTime.now()).size());
+		assertTrue(index.match(40.77, 29.92, 40.73, 31.61, null, LocalDateTime.now()).get(0).detourKm() < 30);
+
+		subscription.setActive(false);
+		index.register(subscription);
+		assertTrue(index.match(40.77, 29.92, 40.73, 31.61, Size.XL, LocalDateTime.now()).isEmpty());
+		assertEquals(0, index.size());
+	}
+
+	@Test
+	void emptiedCellsAreDropped() {
+		List<TripSubscription> subscriptions = subscriptions(new Random(5), 200);
+		TripSubscriptionIndex index = index(subscriptions);
+		assertTrue(index.cellCount() > 0);
+
+		// Süresi dolan/iptal edilen rotaların hücreleri map'te birikmemeli
+		subscriptions.forEach(subscription -> index.remove(subscription.getId()));
+		assertEquals(0, index.cellCount());
+
+		TripSubscription again = subscription(1L, CITIES[0], CITIES[1], 30, CarType.TRUCK);
+		index.register(again);
+		assertTrue(index.cellCount() > 0);
+		assertEquals(1, index.match(40.77, 29.92, 40.73, 31.61, Size.S, LocalDateTime.now()).size());
+	}
+
+	@Test
+	void vehicleMustCarryTheCargoSize() {
+		TripSubscriptionIndex index = index(List.of(subscription(1L, CITIES[0], CITIES[1], 30, CarType.MOTORCYCLE)));
+		assertEquals(1, index.match(40.77, 29.92, 40.73, 31.61, Size.S, LocalDateTime.now()).size());
+		assertTrue(index.match(40.77, 29.92, 40.73, 31.61, Size.L, LocalDateTime.now()).isEmpty());
+	}
+
+	@Test
+	void tripWindowMustOverlapCargoAvailability() {
+		// Kargo 72 saat alınabilir; 2 gün sonra başlayan yolculuk yakalar, 4 gün sonra başlayan yakalayamaz
+		TripSubscription soon = subscription(1L, CITIES[0], CITIES[1], 30, CarType.TRUCK);
+		soon.setAvailableFrom(LocalDateTime.now().plusDays(2));
+		soon.setAvailableUntil(LocalDateTime.now().plusDays(5));
+		TripSubscription late = subscription(2L, CITIES[0], CITIES[1], 30, CarType.TRUCK);
+		late.setAvailableFrom(LocalDateTime.now().plusDays(4));
+		late.setAvailableUntil(LocalDateTime.now().plusDays(6));
+		TripSubscriptionIndex index = index(List.of(soon, late));
+
+		List<TripSubscriptionIndex.Match> matches = index.match(40.77, 29.92, 40.73, 31.61, Size.M, LocalDateTime.now());
+		assertEquals(List.of(1L), matches.stream().map(TripSubscriptionIndex.Match::subscriptionId).toList());
+
+		// İki gün önce oluşturulmuş kargonun bir günü kaldı, ikisi de geç kalır
+		assertTrue(index.match(40.77, 29.92, 40.73, 31.61, Size.M, LocalDateTime.now().minusDays(2)).isEmpty());
+	}
+
+	private static boolean fits(TripSubscription s, double[] pickup, double[] drop, Size size) {
+		double direct = GeoGrid.haversineKm(s.getOriginLatitude(), s.getOriginLongitude(), s.getDestinationLatitude(),
+				s.getDestinationLongitude());
+		double route = GeoGrid.haversineKm(s.getOriginLatitude(), s.getOriginLongitude(), pickup[0], pickup[1])
+				+ GeoGrid.haversineKm(pickup[0], pickup[1], drop[0], drop[1])
+				+ GeoGrid.haversineKm(drop[0], drop[1], s.getDestinationLatitude(), s.getDestinationLongitude());
+		return s.isActive() && s.getCarType().canCarry(size) && route - direct <= s.getDetourKm();
+	}
+
+	private static TripSubscriptionIndex index(List<TripSubscription> subscriptions) {
+		TripSubscriptionIndex index = new TripSubscriptionIndex(null);
+		ReflectionTestUtils.setField(index, "cellDegrees", 0.5);
+		ReflectionTestUtils.setField(index, "cargoTtl", Duration.ofHours(72));
+		index.init();
+		subscriptions.forEach(index::register);
+		return index;
+	}
+
+	private static List<TripSubscription> subscriptions(Random random, int count) {
+		List<TripSubscription> subscriptions = new ArrayList<>(count);
+		for (long id = 1; id <= count; id++) {
+			double[] from = CITIES[random.nextInt(CITIES.length)];
+			double[] to = CITIES[random.nextInt(CITIES.length)];
+			subscriptions.add(subscription(id, jitter(random, from), jitter(random, to), 5 + random.nextInt(60),
+					CarType.values()[random.nextInt(CarType.values().length)]));
+		}
+		return subscriptions;
+	}
+
+	private static TripSubscription subscription(Long id, double[] from, double[] to, double detourKm, CarType carType) {
+		Driver driver = new Driver();
+		driver.setId(id);
+		TripSubscription subscription = new TripSubscription();
+		subscription.setId(id);
+		subscription.setDriver(driver);
+		subscription.setOriginLatitude(from[0]);
+		subscription.setOriginLongitude(from[1]);
+		subscription.setDestinationLatitude(to[0]);
+		subscription.setDestinationLongitude(to[1]);
+		subscription.setDetourKm(detourKm);
+		subscription.setAvailableUntil(LocalDateTime.now().plusDays(3));
+		subscription.setCarType(carType);
+		subscription.setActive(true);
+		return subscription;
+	}
+
+	private static double[] nearCity(Random random) {
+		return jitter(random, CITIES[random.nextInt(CITIES.length)]);
+	}
+
+	private static double[] jitter(Random random, double[] city) {
+		return new double[] { city[0] + (random.nextDouble() - 0.5) * 0.4, city[1] + (random.nextDouble() - 0.5) * 0.4 };
+	}
+}